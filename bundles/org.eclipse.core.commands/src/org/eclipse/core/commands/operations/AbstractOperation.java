@@ -36,6 +36,12 @@ import org.eclipse.core.runtime.IStatus;
 public abstract class AbstractOperation implements IUndoableOperation {
 	List contexts = new ArrayList();
 
+	/*
+	 * The history lists holding this operation, which are told when its
+	 * contexts change.
+	 */
+	final OperationListLinks lists = new OperationListLinks();
+
 	private String label = ""; //$NON-NLS-1$
 
 	/**
@@ -60,6 +66,7 @@ public abstract class AbstractOperation implements IUndoableOperation {
 	public void addContext(IUndoContext context) {
 		if (!contexts.contains(context)) {
 			contexts.add(context);
+			notifyContextsChanged();
 		}
 	}
 
@@ -181,7 +188,16 @@ public abstract class AbstractOperation implements IUndoableOperation {
 	 */
 
 	public void removeContext(IUndoContext context) {
-		contexts.remove(context);
+		if (contexts.remove(context)) {
+			notifyContextsChanged();
+		}
+	}
+
+	/*
+	 * Tell the history lists holding this operation that its contexts changed.
+	 */
+	void notifyContextsChanged() {
+		lists.contextsChanged(this);
 	}
 
 	/*
@@ -15,12 +15,11 @@ package org.eclipse.core.commands.operations;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
 
 import org.eclipse.core.commands.ExecutionException;
 import org.eclipse.core.commands.util.Tracing;
+import org.eclipse.core.internal.commands.operations.IndexedOperationList;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -127,14 +126,35 @@ public final class DefaultOperationHistory implements IOperationHistory {
 	ListenerList listeners = new ListenerList(ListenerList.IDENTITY);
 
 	/**
-	 * the list of operations available for redo, LIFO
+	 * the list of operations available for redo, LIFO, indexed by context
 	 */
-	private List redoList = Collections.synchronizedList(new ArrayList());
+	private IndexedOperationList redoList = new TrackingOperationList();
 
 	/**
-	 * the list of operations available for undo, LIFO
+	 * the list of operations available for undo, LIFO, indexed by context
 	 */
-	private List undoList = Collections.synchronizedList(new ArrayList());
+	private IndexedOperationList undoList = new TrackingOperationList();
+
+	/*
+	 * An operation list told by the operations extending AbstractOperation
+	 * when their contexts change, however they are changed. Other operations
+	 * are only indexed again on operationChanged, so the list is scanned
+	 * while it holds any.
+	 */
+	private static final class TrackingOperationList extends
+			IndexedOperationList {
+		protected boolean startTracking(IUndoableOperation operation) {
+			if (operation instanceof AbstractOperation) {
+				((AbstractOperation) operation).lists.add(this);
+				return true;
+			}
+			return false;
+		}
+
+		protected void stopTracking(IUndoableOperation operation) {
+			((AbstractOperation) operation).lists.remove(this);
+		}
+	}
 
 	/**
 	 * a lock that is used to synchronize access between the undo and redo
@@ -542,29 +562,14 @@ public final class DefaultOperationHistory implements IOperationHistory {
 	/*
 	 * Filter the specified list to include only the specified undo context.
 	 */
-	private IUndoableOperation[] filter(List list, IUndoContext context) {
+	private IUndoableOperation[] filter(IndexedOperationList list,
+			IUndoContext context) {
 		/*
-		 * This method is used whenever there is a need to filter the undo or
-		 * redo history on a particular context. Currently there are no caches
-		 * kept to optimize repeated requests for the same filter. If benchmarks
-		 * show this to be a common pattern that causes performances problems,
-		 * we could implement a filtered cache here that is nullified whenever
-		 * the global history changes.
+		 * The list is indexed by context, so only the operations of the
+		 * matching contexts are looked at. The index is a snapshot that can be
+		 * read without holding the history lock.
 		 */
-
-		List filtered = new ArrayList();
-		synchronized (undoRedoHistoryLock) {
-			Iterator iterator = list.iterator();
-			while (iterator.hasNext()) {
-				IUndoableOperation operation = (IUndoableOperation) iterator
-						.next();
-				if (operation.hasContext(context)) {
-					filtered.add(operation);
-				}
-			}
-		}
-		return (IUndoableOperation[]) filtered
-				.toArray(new IUndoableOperation[filtered.size()]);
+		return list.filter(context);
 	}
 
 	/*
@@ -602,6 +607,8 @@ public final class DefaultOperationHistory implements IOperationHistory {
 					if (operation.getContexts().length == 0) {
 						redoList.remove(operation);
 						internalRemove(operation);
+					} else {
+						redoList.contextsChanged(operation);
 					}
 				}
 			}
@@ -644,6 +651,8 @@ public final class DefaultOperationHistory implements IOperationHistory {
 					if (operation.getContexts().length == 0) {
 						undoList.remove(operation);
 						internalRemove(operation);
+					} else {
+						undoList.contextsChanged(operation);
 					}
 				}
 			}
@@ -701,6 +710,7 @@ public final class DefaultOperationHistory implements IOperationHistory {
 						 * context, not the operation.
 						 */
 						removed.removeContext(context);
+						redoList.contextsChanged(removed);
 					}
 					size--;
 					index++;
@@ -736,6 +746,7 @@ public final class DefaultOperationHistory implements IOperationHistory {
 						 * context, not the operation.
 						 */
 						removed.removeContext(context);
+						undoList.contextsChanged(removed);
 					}
 					size--;
 					index++;
@@ -798,16 +809,8 @@ public final class DefaultOperationHistory implements IOperationHistory {
 	 */
 	public IUndoableOperation getRedoOperation(IUndoContext context) {
 		Assert.isNotNull(context);
-		synchronized (undoRedoHistoryLock) {
-			for (int i = redoList.size() - 1; i >= 0; i--) {
-				IUndoableOperation operation = (IUndoableOperation) redoList
-						.get(i);
-				if (operation.hasContext(context)) {
-					return operation;
-				}
-			}
-		}
-		return null;
+		// read from the index without holding the history lock
+		return redoList.getLatest(context);
 	}
 
 	/*
@@ -852,16 +855,8 @@ public final class DefaultOperationHistory implements IOperationHistory {
 	 */
 	public IUndoableOperation getUndoOperation(IUndoContext context) {
 		Assert.isNotNull(context);
-		synchronized (undoRedoHistoryLock) {
-			for (int i = undoList.size() - 1; i >= 0; i--) {
-				IUndoableOperation operation = (IUndoableOperation) undoList
-						.get(i);
-				if (operation.hasContext(context)) {
-					return operation;
-				}
-			}
-		}
-		return null;
+		// read from the index without holding the history lock
+		return undoList.getLatest(context);
 	}
 
 	/*
@@ -1389,7 +1384,13 @@ public final class DefaultOperationHistory implements IOperationHistory {
 	 * @see org.eclipse.core.commands.operations.IOperationHistory#operationChanged(org.eclipse.core.commands.operations.IUndoableOperation)
 	 */
 	public void operationChanged(IUndoableOperation operation) {
-		if (undoList.contains(operation) || redoList.contains(operation)) {
+		boolean inHistory;
+		synchronized (undoRedoHistoryLock) {
+			// the contexts of the operation may have changed
+			inHistory = undoList.contextsChanged(operation)
+					| redoList.contextsChanged(operation);
+		}
+		if (inHistory) {
 			notifyChanged(operation);
 		}
 	}
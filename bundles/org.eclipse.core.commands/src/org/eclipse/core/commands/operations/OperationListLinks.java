@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.core.commands.operations;
+
+import org.eclipse.core.internal.commands.operations.IndexedOperationList;
+
+/*
+ * The history lists holding an operation, which index it by its contexts and
+ * are told when they change. Each operation has its own links, which are also
+ * the lock guarding them.
+ */
+final class OperationListLinks {
+
+	private static final IndexedOperationList[] NO_LISTS = new IndexedOperationList[0];
+
+	/*
+	 * Never modified once published.
+	 */
+	private volatile IndexedOperationList[] lists = NO_LISTS;
+
+	/*
+	 * Tell the lists that the contexts of the operation changed.
+	 */
+	void contextsChanged(IUndoableOperation operation) {
+		IndexedOperationList[] current = lists;
+		for (int i = 0; i < current.length; i++) {
+			current[i].contextsChanged(operation);
+		}
+	}
+
+	/*
+	 * Start telling the list when the contexts change. Called by the list
+	 * when it adds the operation.
+	 */
+	synchronized void add(IndexedOperationList list) {
+		IndexedOperationList[] newLists = new IndexedOperationList[lists.length + 1];
+		System.arraycopy(lists, 0, newLists, 0, lists.length);
+		newLists[lists.length] = list;
+		lists = newLists;
+	}
+
+	/*
+	 * Stop telling the list when the contexts change.
+	 */
+	synchronized void remove(IndexedOperationList list) {
+		for (int i = 0; i < lists.length; i++) {
+			if (lists[i] == list) {
+				IndexedOperationList[] newLists = new IndexedOperationList[lists.length - 1];
+				System.arraycopy(lists, 0, newLists, 0, i);
+				System.arraycopy(lists, i + 1, newLists, i, newLists.length - i);
+				lists = newLists;
+				return;
+			}
+		}
+	}
+}
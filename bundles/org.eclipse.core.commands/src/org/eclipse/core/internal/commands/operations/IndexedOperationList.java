@@ -0,0 +1,409 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.core.internal.commands.operations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.commands.operations.IUndoContext;
+import org.eclipse.core.commands.operations.IUndoableOperation;
+
+/**
+ * <p>
+ * An ordered list of operations, oldest first, indexed by the contexts of the
+ * operations. It holds the undo or the redo history of an operation history.
+ * </p>
+ * <p>
+ * Each operation gets a sequence number giving its position in the list, and
+ * is indexed under each of the contexts it has when it is added. A query for a
+ * context only looks at the operations indexed under the contexts that match
+ * it, merged by sequence number, and keeps those whose
+ * {@link IUndoableOperation#hasContext(IUndoContext)} still answers
+ * <code>true</code>. The index is an immutable snapshot replaced on each
+ * change, so that queries do not lock the list.
+ * </p>
+ * <p>
+ * The contexts of an operation are read again when
+ * {@link #contextsChanged(IUndoableOperation)} is called. Subclasses which are
+ * told of every change of the contexts of an operation return
+ * <code>true</code> from {@link #startTracking(IUndoableOperation)}. As long
+ * as the list holds an operation which is not tracked, its contexts may
+ * change without the index knowing, and queries scan the whole list instead.
+ * </p>
+ */
+public class IndexedOperationList {
+
+	private static final Entry[] NO_ENTRIES = new Entry[0];
+
+	private static final Comparator SEQUENCE_ORDER = new Comparator() {
+		public int compare(Object o1, Object o2) {
+			long s1 = ((Entry) o1).sequence;
+			long s2 = ((Entry) o2).sequence;
+			return s1 < s2 ? -1 : (s1 == s2 ? 0 : 1);
+		}
+	};
+
+	private static final class Entry {
+		final IUndoableOperation operation;
+
+		final long sequence;
+
+		final boolean tracked;
+
+		IUndoContext[] contexts;
+
+		Entry(IUndoableOperation operation, long sequence, boolean tracked) {
+			this.operation = operation;
+			this.sequence = sequence;
+			this.tracked = tracked;
+		}
+	}
+
+	/**
+	 * the operations, oldest first
+	 */
+	private final List operations = new ArrayList();
+
+	/**
+	 * the entries of the operations in the list
+	 */
+	private final Map entriesByOperation = new HashMap();
+
+	private long nextSequence = 0;
+
+	/**
+	 * the number of operations in the list whose context changes are not
+	 * tracked
+	 */
+	private volatile int untrackedCount = 0;
+
+	/**
+	 * the entries indexed under each context, ordered by sequence number.
+	 * Never modified once published.
+	 */
+	private volatile Map entriesByContext = Collections.EMPTY_MAP;
+
+	/**
+	 * Add the operation at the end of the list.
+	 *
+	 * @param operation
+	 *            the operation to add
+	 */
+	public synchronized void add(IUndoableOperation operation) {
+		operations.add(operation);
+		Entry entry = new Entry(operation, nextSequence++,
+				track(operation));
+		entriesByOperation.put(operation, entry);
+		Map map = new HashMap(entriesByContext);
+		index(map, entry);
+		entriesByContext = map;
+	}
+
+	/**
+	 * Insert the operation at the given position of the list.
+	 *
+	 * @param position
+	 *            the position of the operation
+	 * @param operation
+	 *            the operation to insert
+	 */
+	public synchronized void add(int position, IUndoableOperation operation) {
+		operations.add(position, operation);
+		// renumber all the operations, insertions are rare
+		Map oldEntries = new HashMap(entriesByOperation);
+		entriesByOperation.clear();
+		Map map = new HashMap();
+		for (int i = 0; i < operations.size(); i++) {
+			IUndoableOperation next = (IUndoableOperation) operations.get(i);
+			Entry old = (Entry) oldEntries.get(next);
+			Entry entry = new Entry(next, nextSequence++,
+					old == null ? track(next) : old.tracked);
+			entriesByOperation.put(next, entry);
+			index(map, entry);
+		}
+		entriesByContext = map;
+	}
+
+	/**
+	 * Remove the operation from the list.
+	 *
+	 * @param operation
+	 *            the operation to remove
+	 * @return <code>true</code> if the operation was in the list
+	 */
+	public synchronized boolean remove(IUndoableOperation operation) {
+		Entry entry = (Entry) entriesByOperation.remove(operation);
+		if (entry == null) {
+			return false;
+		}
+		operations.remove(operation);
+		Map map = new HashMap(entriesByContext);
+		unindex(map, entry);
+		entriesByContext = map;
+		if (entry.tracked) {
+			stopTracking(operation);
+		} else {
+			untrackedCount--;
+		}
+		return true;
+	}
+
+	/**
+	 * Called when an operation is added to the list. Subclasses which will
+	 * call {@link #contextsChanged(IUndoableOperation)} whenever the contexts
+	 * of the operation change return <code>true</code>, until
+	 * {@link #stopTracking(IUndoableOperation)} is called. The default
+	 * implementation returns <code>false</code>.
+	 * 
+	 * @param operation
+	 *            the operation added to the list
+	 * @return <code>true</code> if the changes of the contexts of the
+	 *         operation are tracked
+	 */
+	protected boolean startTracking(IUndoableOperation operation) {
+		return false;
+	}
+
+	/**
+	 * Called when an operation whose contexts were tracked is removed from the
+	 * list.
+	 * 
+	 * @param operation
+	 *            the operation removed from the list
+	 */
+	protected void stopTracking(IUndoableOperation operation) {
+	}
+
+	private boolean track(IUndoableOperation operation) {
+		boolean tracked = startTracking(operation);
+		if (!tracked) {
+			untrackedCount++;
+		}
+		return tracked;
+	}
+
+	/**
+	 * Index the operation again under its current contexts.
+	 *
+	 * @param operation
+	 *            the operation whose contexts changed
+	 * @return <code>true</code> if the operation is in the list
+	 */
+	public synchronized boolean contextsChanged(IUndoableOperation operation) {
+		Entry entry = (Entry) entriesByOperation.get(operation);
+		if (entry == null) {
+			return false;
+		}
+		Map map = new HashMap(entriesByContext);
+		unindex(map, entry);
+		index(map, entry);
+		entriesByContext = map;
+		return true;
+	}
+
+	/**
+	 * @param operation
+	 *            the operation to look for
+	 * @return <code>true</code> if the operation is in the list
+	 */
+	public synchronized boolean contains(IUndoableOperation operation) {
+		return entriesByOperation.containsKey(operation);
+	}
+
+	/**
+	 * @param operation
+	 *            the operation to look for
+	 * @return the position of the operation, or -1 if it is not in the list
+	 */
+	public synchronized int indexOf(IUndoableOperation operation) {
+		if (!entriesByOperation.containsKey(operation)) {
+			return -1;
+		}
+		return operations.indexOf(operation);
+	}
+
+	/**
+	 * Return the operations that have the context, oldest first.
+	 *
+	 * @param context
+	 *            the context to filter on
+	 * @return the operations
+	 */
+	public IUndoableOperation[] filter(IUndoContext context) {
+		if (untrackedCount > 0) {
+			return scan(context);
+		}
+		Entry[] entries = getMatchingEntries(context);
+		List filtered = new ArrayList(entries.length);
+		for (int i = 0; i < entries.length; i++) {
+			IUndoableOperation operation = entries[i].operation;
+			// an operation indexed under several matching contexts is kept
+			// once, its entries are next to each other
+			if ((i == 0 || entries[i - 1] != entries[i])
+					&& operation.hasContext(context)) {
+				filtered.add(operation);
+			}
+		}
+		return (IUndoableOperation[]) filtered
+				.toArray(new IUndoableOperation[filtered.size()]);
+	}
+
+	/**
+	 * Return the most recent operation that has the context.
+	 *
+	 * @param context
+	 *            the context to look for
+	 * @return the operation, or <code>null</code> if there is none
+	 */
+	public IUndoableOperation getLatest(IUndoContext context) {
+		if (untrackedCount > 0) {
+			return scanLatest(context);
+		}
+		Map map = entriesByContext;
+		Entry latest = null;
+		for (Iterator iterator = map.entrySet().iterator(); iterator.hasNext();) {
+			Map.Entry mapEntry = (Map.Entry) iterator.next();
+			if (!matches(context, (IUndoContext) mapEntry.getKey())) {
+				continue;
+			}
+			Entry[] entries = (Entry[]) mapEntry.getValue();
+			for (int i = entries.length - 1; i >= 0; i--) {
+				if (latest != null && entries[i].sequence <= latest.sequence) {
+					break;
+				}
+				if (entries[i].operation.hasContext(context)) {
+					latest = entries[i];
+					break;
+				}
+			}
+		}
+		return latest == null ? null : latest.operation;
+	}
+
+	private synchronized IUndoableOperation[] scan(IUndoContext context) {
+		List filtered = new ArrayList();
+		for (int i = 0; i < operations.size(); i++) {
+			IUndoableOperation operation = (IUndoableOperation) operations
+					.get(i);
+			if (operation.hasContext(context)) {
+				filtered.add(operation);
+			}
+		}
+		return (IUndoableOperation[]) filtered
+				.toArray(new IUndoableOperation[filtered.size()]);
+	}
+
+	private synchronized IUndoableOperation scanLatest(IUndoContext context) {
+		for (int i = operations.size() - 1; i >= 0; i--) {
+			IUndoableOperation operation = (IUndoableOperation) operations
+					.get(i);
+			if (operation.hasContext(context)) {
+				return operation;
+			}
+		}
+		return null;
+	}
+
+	private Entry[] getMatchingEntries(IUndoContext context) {
+		Map map = entriesByContext;
+		Entry[] single = null;
+		List all = null;
+		for (Iterator iterator = map.entrySet().iterator(); iterator.hasNext();) {
+			Map.Entry mapEntry = (Map.Entry) iterator.next();
+			if (!matches(context, (IUndoContext) mapEntry.getKey())) {
+				continue;
+			}
+			Entry[] entries = (Entry[]) mapEntry.getValue();
+			if (single == null) {
+				single = entries;
+			} else {
+				if (all == null) {
+					all = new ArrayList(Arrays.asList(single));
+				}
+				all.addAll(Arrays.asList(entries));
+			}
+		}
+		if (all == null) {
+			return single == null ? NO_ENTRIES : single;
+		}
+		Entry[] merged = (Entry[]) all.toArray(new Entry[all.size()]);
+		Arrays.sort(merged, SEQUENCE_ORDER);
+		return merged;
+	}
+
+	/*
+	 * The contexts match in either direction, as in AbstractOperation.
+	 */
+	private static boolean matches(IUndoContext context, IUndoContext key) {
+		return context == key || context.matches(key) || key.matches(context);
+	}
+
+	private static void index(Map map, Entry entry) {
+		entry.contexts = entry.operation.getContexts();
+		for (int i = 0; i < entry.contexts.length; i++) {
+			IUndoContext context = entry.contexts[i];
+			Entry[] entries = (Entry[]) map.get(context);
+			if (entries == null) {
+				entries = NO_ENTRIES;
+			}
+			if (indexOf(entries, entry) != -1) {
+				continue;
+			}
+			// keep the entries ordered, the new entry is usually the latest
+			int position = entries.length;
+			while (position > 0
+					&& entries[position - 1].sequence > entry.sequence) {
+				position--;
+			}
+			Entry[] newEntries = new Entry[entries.length + 1];
+			System.arraycopy(entries, 0, newEntries, 0, position);
+			newEntries[position] = entry;
+			System.arraycopy(entries, position, newEntries, position + 1,
+					entries.length - position);
+			map.put(context, newEntries);
+		}
+	}
+
+	private static void unindex(Map map, Entry entry) {
+		for (int i = 0; i < entry.contexts.length; i++) {
+			IUndoContext context = entry.contexts[i];
+			Entry[] entries = (Entry[]) map.get(context);
+			int position = entries == null ? -1 : indexOf(entries, entry);
+			if (position == -1) {
+				continue;
+			}
+			if (entries.length == 1) {
+				map.remove(context);
+			} else {
+				Entry[] newEntries = new Entry[entries.length - 1];
+				System.arraycopy(entries, 0, newEntries, 0, position);
+				System.arraycopy(entries, position + 1, newEntries, position,
+						newEntries.length - position);
+				map.put(context, newEntries);
+			}
+		}
+	}
+
+	private static int indexOf(Entry[] entries, Entry entry) {
+		for (int i = entries.length - 1; i >= 0; i--) {
+			if (entries[i] == entry) {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
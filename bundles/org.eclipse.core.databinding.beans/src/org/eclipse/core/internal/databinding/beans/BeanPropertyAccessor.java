@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.core.internal.databinding.beans;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import org.eclipse.core.databinding.beans.BeansObservables;
+import org.eclipse.core.databinding.util.Policy;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+
+/**
+ * Reads and writes a bean property with the accessor methods resolved once,
+ * when the accessor is created. The properties keep an accessor so that the
+ * methods of the descriptor are not looked up on each access, and
+ * {@link BeanPropertyHelper#readProperty(Object, PropertyDescriptor)} and
+ * {@link BeanPropertyHelper#writeProperty(Object, PropertyDescriptor, Object)}
+ * use a new one.
+ *
+ * @since 1.2
+ */
+public final class BeanPropertyAccessor {
+	private static final Object[] NO_ARGUMENTS = new Object[0];
+
+	private final String propertyName;
+	private final Method readMethod;
+	private final Method writeMethod;
+
+	/**
+	 * @param propertyDescriptor
+	 *            the property to access
+	 */
+	public BeanPropertyAccessor(PropertyDescriptor propertyDescriptor) {
+		this.propertyName = propertyDescriptor.getName();
+		this.readMethod = makeAccessible(propertyDescriptor.getReadMethod());
+		this.writeMethod = makeAccessible(propertyDescriptor.getWriteMethod());
+	}
+
+	private static Method makeAccessible(Method method) {
+		if (method != null && !method.isAccessible()) {
+			try {
+				method.setAccessible(true);
+			} catch (SecurityException e) {
+				// invoke the method as it is
+			}
+		}
+		return method;
+	}
+
+	/**
+	 * Returns the contents of the property for the given bean.
+	 *
+	 * @param source
+	 *            the source bean
+	 * @return the contents of the property for the given bean.
+	 */
+	public Object read(Object source) {
+		try {
+			if (readMethod == null) {
+				throw new IllegalArgumentException(propertyName
+						+ " property does not have a read method."); //$NON-NLS-1$
+			}
+			return readMethod.invoke(source, NO_ARGUMENTS);
+		} catch (InvocationTargetException e) {
+			/*
+			 * InvocationTargetException wraps any exception thrown by the
+			 * invoked method.
+			 */
+			throw new RuntimeException(e.getCause());
+		} catch (Exception e) {
+			if (BeansObservables.DEBUG) {
+				Policy.getLog().log(
+						new Status(IStatus.WARNING, Policy.JFACE_DATABINDING,
+								IStatus.OK, "Could not read value of " + source //$NON-NLS-1$
+										+ "." + propertyName, e)); //$NON-NLS-1$
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Sets the contents of the property on the given bean to the given value.
+	 *
+	 * @param source
+	 *            the source bean
+	 * @param value
+	 *            the new value of the property
+	 */
+	public void write(Object source, Object value) {
+		try {
+			if (writeMethod == null) {
+				throw new IllegalArgumentException(
+						"Missing public setter method for " //$NON-NLS-1$
+								+ propertyName + " property"); //$NON-NLS-1$
+			}
+			writeMethod.invoke(source, new Object[] { value });
+		} catch (InvocationTargetException e) {
+			/*
+			 * InvocationTargetException wraps any exception thrown by the
+			 * invoked method.
+			 */
+			throw new RuntimeException(e.getCause());
+		} catch (Exception e) {
+			if (BeansObservables.DEBUG) {
+				Policy.getLog().log(
+						new Status(IStatus.WARNING, Policy.JFACE_DATABINDING,
+								IStatus.OK, "Could not change value of " //$NON-NLS-1$
+										+ source + "." + propertyName, e)); //$NON-NLS-1$
+			}
+		}
+	}
+}
@@ -17,22 +17,28 @@ import java.beans.BeanInfo;
 import java.beans.IntrospectionException;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 
-import org.eclipse.core.databinding.beans.BeansObservables;
 import org.eclipse.core.databinding.observable.value.IObservableValue;
-import org.eclipse.core.databinding.util.Policy;
-import org.eclipse.core.runtime.IStatus;
-import org.eclipse.core.runtime.Status;
 
 /**
  * @since 1.2
  * 
  */
 public class BeanPropertyHelper {
+	/**
+	 * The property descriptors found for each class, by name. The descriptors
+	 * refer to their class, so the maps are softly referenced to let the
+	 * classes be unloaded.
+	 */
+	private static final Map descriptorsByClass = new WeakHashMap();
+
 	/**
 	 * Sets the contents of the given property on the given source object to the
 	 * given value.
@@ -46,35 +52,7 @@ public class BeanPropertyHelper {
 	 */
 	public static void writeProperty(Object source,
 			PropertyDescriptor propertyDescriptor, Object value) {
-		try {
-			Method writeMethod = propertyDescriptor.getWriteMethod();
-			if (null == writeMethod) {
-				throw new IllegalArgumentException(
-						"Missing public setter method for " //$NON-NLS-1$
-								+ propertyDescriptor.getName() + " property"); //$NON-NLS-1$
-			}
-			if (!writeMethod.isAccessible()) {
-				writeMethod.setAccessible(true);
-			}
-			writeMethod.invoke(source, new Object[] { value });
-		} catch (InvocationTargetException e) {
-			/*
-			 * InvocationTargetException wraps any exception thrown by the
-			 * invoked method.
-			 */
-			throw new RuntimeException(e.getCause());
-		} catch (Exception e) {
-			if (BeansObservables.DEBUG) {
-				Policy
-						.getLog()
-						.log(
-								new Status(
-										IStatus.WARNING,
-										Policy.JFACE_DATABINDING,
-										IStatus.OK,
-										"Could not change value of " + source + "." + propertyDescriptor.getName(), e)); //$NON-NLS-1$ //$NON-NLS-2$
-			}
-		}
+		new BeanPropertyAccessor(propertyDescriptor).write(source, value);
 	}
 
 	/**
@@ -88,35 +66,7 @@ public class BeanPropertyHelper {
 	 */
 	public static Object readProperty(Object source,
 			PropertyDescriptor propertyDescriptor) {
-		try {
-			Method readMethod = propertyDescriptor.getReadMethod();
-			if (readMethod == null) {
-				throw new IllegalArgumentException(propertyDescriptor.getName()
-						+ " property does not have a read method."); //$NON-NLS-1$
-			}
-			if (!readMethod.isAccessible()) {
-				readMethod.setAccessible(true);
-			}
-			return readMethod.invoke(source, null);
-		} catch (InvocationTargetException e) {
-			/*
-			 * InvocationTargetException wraps any exception thrown by the
-			 * invoked method.
-			 */
-			throw new RuntimeException(e.getCause());
-		} catch (Exception e) {
-			if (BeansObservables.DEBUG) {
-				Policy
-						.getLog()
-						.log(
-								new Status(
-										IStatus.WARNING,
-										Policy.JFACE_DATABINDING,
-										IStatus.OK,
-										"Could not read value of " + source + "." + propertyDescriptor.getName(), e)); //$NON-NLS-1$ //$NON-NLS-2$
-			}
-			return null;
-		}
+		return new BeanPropertyAccessor(propertyDescriptor).read(source);
 	}
 
 	/**
@@ -143,44 +93,65 @@ public class BeanPropertyHelper {
 	 */
 	public static PropertyDescriptor getPropertyDescriptor(Class beanClass,
 			String propertyName) {
+		Map descriptors = getPropertyDescriptors(beanClass);
+		if (descriptors == null) {
+			// cannot introspect, give up
+			return null;
+		}
+		PropertyDescriptor descriptor = (PropertyDescriptor) descriptors
+				.get(propertyName);
+		if (descriptor != null) {
+			return descriptor;
+		}
+		throw new IllegalArgumentException(
+				"Could not find property with name " + propertyName + " in class " + beanClass); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Returns the property descriptors of the class by name, introspecting the
+	 * class the first time.
+	 * 
+	 * @param beanClass
+	 * @return the property descriptors by name, or <code>null</code> if the
+	 *         class cannot be introspected
+	 */
+	private static Map getPropertyDescriptors(Class beanClass) {
+		synchronized (descriptorsByClass) {
+			Reference reference = (Reference) descriptorsByClass.get(beanClass);
+			Map descriptors = reference == null ? null : (Map) reference.get();
+			if (descriptors != null) {
+				return descriptors;
+			}
+		}
+
+		PropertyDescriptor[] propertyDescriptors;
 		if (!beanClass.isInterface()) {
-			BeanInfo beanInfo;
 			try {
-				beanInfo = Introspector.getBeanInfo(beanClass);
+				propertyDescriptors = Introspector.getBeanInfo(beanClass)
+						.getPropertyDescriptors();
 			} catch (IntrospectionException e) {
-				// cannot introspect, give up
 				return null;
 			}
-			PropertyDescriptor[] propertyDescriptors = beanInfo
-					.getPropertyDescriptors();
-			for (int i = 0; i < propertyDescriptors.length; i++) {
-				PropertyDescriptor descriptor = propertyDescriptors[i];
-				if (descriptor.getName().equals(propertyName)) {
-					return descriptor;
-				}
-			}
 		} else {
 			try {
-				PropertyDescriptor propertyDescriptors[];
 				List pds = new ArrayList();
 				getInterfacePropertyDescriptors(pds, beanClass);
-				if (pds.size() > 0) {
-					propertyDescriptors = (PropertyDescriptor[]) pds
-							.toArray(new PropertyDescriptor[pds.size()]);
-					PropertyDescriptor descriptor;
-					for (int i = 0; i < propertyDescriptors.length; i++) {
-						descriptor = propertyDescriptors[i];
-						if (descriptor.getName().equals(propertyName))
-							return descriptor;
-					}
-				}
+				propertyDescriptors = (PropertyDescriptor[]) pds
+						.toArray(new PropertyDescriptor[pds.size()]);
 			} catch (IntrospectionException e) {
-				// cannot introspect, give up
 				return null;
 			}
 		}
-		throw new IllegalArgumentException(
-				"Could not find property with name " + propertyName + " in class " + beanClass); //$NON-NLS-1$ //$NON-NLS-2$
+		Map descriptors = new HashMap();
+		// the first descriptor found wins, as when searching the array
+		for (int i = propertyDescriptors.length - 1; i >= 0; i--) {
+			descriptors.put(propertyDescriptors[i].getName(),
+					propertyDescriptors[i]);
+		}
+		synchronized (descriptorsByClass) {
+			descriptorsByClass.put(beanClass, new SoftReference(descriptors));
+		}
+		return descriptors;
 	}
 
 	/**
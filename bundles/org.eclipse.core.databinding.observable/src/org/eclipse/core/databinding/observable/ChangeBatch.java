@@ -0,0 +1,247 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.core.databinding.observable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.databinding.observable.list.ListChangeEvent;
+import org.eclipse.core.databinding.observable.list.ListDiffEntry;
+import org.eclipse.core.databinding.observable.map.MapChangeEvent;
+import org.eclipse.core.databinding.observable.map.MapDiff;
+import org.eclipse.core.databinding.observable.set.SetChangeEvent;
+import org.eclipse.core.databinding.observable.set.SetDiff;
+import org.eclipse.core.databinding.observable.value.ValueChangeEvent;
+import org.eclipse.core.databinding.observable.value.ValueDiff;
+
+/**
+ * The change events held back while a realm runs a batch, see
+ * {@link Realm#runBatched(Runnable)}. The events are kept by observable, in the
+ * order in which the observables first changed, and merged when they are
+ * fired.
+ *
+ * @since 1.5
+ */
+/* package */class ChangeBatch {
+
+	/**
+	 * the change managers with held back events, in order
+	 */
+	private final List managers = new ArrayList();
+
+	/**
+	 * the lists of held back events by change manager. Observables may
+	 * redefine equality, so they are compared by identity.
+	 */
+	private final Map eventsByManager = new IdentityHashMap();
+
+	/**
+	 * Holds back the event if it is a value, list, set or map change event.
+	 *
+	 * @param manager
+	 *            the change manager firing the event
+	 * @param event
+	 *            the event
+	 * @return <code>true</code> if the event is held back, <code>false</code>
+	 *         if it must be fired now
+	 */
+	boolean defer(ChangeManager manager, ObservableEvent event) {
+		if (!(event instanceof ValueChangeEvent
+				|| event instanceof ListChangeEvent
+				|| event instanceof SetChangeEvent || event instanceof MapChangeEvent)) {
+			return false;
+		}
+		List events = (List) eventsByManager.get(manager);
+		if (events == null) {
+			events = new ArrayList(2);
+			eventsByManager.put(manager, events);
+			managers.add(manager);
+		}
+		events.add(event);
+		return true;
+	}
+
+	/**
+	 * Fires the held back events, one merged event per observable and kind of
+	 * event. A listener throwing does not prevent the events of the other
+	 * observables from being fired.
+	 */
+	void fireEvents() {
+		for (int i = 0; i < managers.size(); i++) {
+			final ChangeManager manager = (ChangeManager) managers.get(i);
+			final List events = (List) eventsByManager.get(manager);
+			Realm.safeRun(new Runnable() {
+				public void run() {
+					fireEvents(manager, events);
+				}
+			});
+		}
+	}
+
+	private static void fireEvents(ChangeManager manager, List events) {
+		while (!events.isEmpty()) {
+			// take the events of the same kind as the first one
+			Object listenerType = ((ObservableEvent) events.get(0))
+					.getListenerType();
+			List sameType = new ArrayList(events.size());
+			for (Iterator it = events.iterator(); it.hasNext();) {
+				ObservableEvent event = (ObservableEvent) it.next();
+				if (event.getListenerType() == listenerType) {
+					sameType.add(event);
+					it.remove();
+				}
+			}
+			ObservableEvent merged = merge(sameType);
+			if (merged != null) {
+				manager.dispatchEvent(merged);
+			}
+		}
+	}
+
+	/**
+	 * @param events
+	 *            events of the same kind and observable, oldest first
+	 * @return the event describing all the changes, or <code>null</code> if
+	 *         they cancel each other out
+	 */
+	private static ObservableEvent merge(List events) {
+		ObservableEvent first = (ObservableEvent) events.get(0);
+		if (events.size() == 1) {
+			return first;
+		}
+		if (first instanceof ValueChangeEvent) {
+			return mergeValueChanges(events);
+		}
+		if (first instanceof ListChangeEvent) {
+			return mergeListChanges(events);
+		}
+		if (first instanceof SetChangeEvent) {
+			return mergeSetChanges(events);
+		}
+		return mergeMapChanges(events);
+	}
+
+	private static ObservableEvent mergeValueChanges(List events) {
+		ValueChangeEvent first = (ValueChangeEvent) events.get(0);
+		ValueDiff last = ((ValueChangeEvent) events.get(events.size() - 1)).diff;
+		Object oldValue = first.diff.getOldValue();
+		Object newValue = last.getNewValue();
+		if (Diffs.equals(oldValue, newValue)) {
+			return null;
+		}
+		return new ValueChangeEvent(first.getObservableValue(), Diffs
+				.createValueDiff(oldValue, newValue));
+	}
+
+	private static ObservableEvent mergeListChanges(List events) {
+		// list diff entries apply one after the other, so the entries of
+		// successive diffs describe the overall change
+		List entries = new ArrayList();
+		for (int i = 0; i < events.size(); i++) {
+			ListDiffEntry[] differences = ((ListChangeEvent) events.get(i)).diff
+					.getDifferences();
+			for (int j = 0; j < differences.length; j++) {
+				entries.add(differences[j]);
+			}
+		}
+		if (entries.isEmpty()) {
+			return null;
+		}
+		ListChangeEvent first = (ListChangeEvent) events.get(0);
+		return new ListChangeEvent(first.getObservableList(), Diffs
+				.createListDiff((ListDiffEntry[]) entries
+						.toArray(new ListDiffEntry[entries.size()])));
+	}
+
+	private static ObservableEvent mergeSetChanges(List events) {
+		Set additions = new HashSet();
+		Set removals = new HashSet();
+		for (int i = 0; i < events.size(); i++) {
+			SetDiff diff = ((SetChangeEvent) events.get(i)).diff;
+			for (Iterator it = diff.getRemovals().iterator(); it.hasNext();) {
+				Object element = it.next();
+				if (!additions.remove(element)) {
+					removals.add(element);
+				}
+			}
+			for (Iterator it = diff.getAdditions().iterator(); it.hasNext();) {
+				Object element = it.next();
+				if (!removals.remove(element)) {
+					additions.add(element);
+				}
+			}
+		}
+		if (additions.isEmpty() && removals.isEmpty()) {
+			return null;
+		}
+		SetChangeEvent first = (SetChangeEvent) events.get(0);
+		return new SetChangeEvent(first.getObservableSet(), Diffs
+				.createSetDiff(additions, removals));
+	}
+
+	private static ObservableEvent mergeMapChanges(List events) {
+		Set addedKeys = new HashSet();
+		Set removedKeys = new HashSet();
+		Set changedKeys = new HashSet();
+		Map oldValues = new HashMap();
+		Map newValues = new HashMap();
+		for (int i = 0; i < events.size(); i++) {
+			MapDiff diff = ((MapChangeEvent) events.get(i)).diff;
+			for (Iterator it = diff.getRemovedKeys().iterator(); it.hasNext();) {
+				Object key = it.next();
+				newValues.remove(key);
+				if (!addedKeys.remove(key)) {
+					if (!changedKeys.remove(key)) {
+						oldValues.put(key, diff.getOldValue(key));
+					}
+					removedKeys.add(key);
+				}
+			}
+			for (Iterator it = diff.getAddedKeys().iterator(); it.hasNext();) {
+				Object key = it.next();
+				newValues.put(key, diff.getNewValue(key));
+				if (removedKeys.remove(key)) {
+					changedKeys.add(key);
+				} else {
+					addedKeys.add(key);
+				}
+			}
+			for (Iterator it = diff.getChangedKeys().iterator(); it.hasNext();) {
+				Object key = it.next();
+				newValues.put(key, diff.getNewValue(key));
+				if (!addedKeys.contains(key) && changedKeys.add(key)) {
+					oldValues.put(key, diff.getOldValue(key));
+				}
+			}
+		}
+		for (Iterator it = changedKeys.iterator(); it.hasNext();) {
+			Object key = it.next();
+			if (Diffs.equals(oldValues.get(key), newValues.get(key))) {
+				it.remove();
+			}
+		}
+		if (addedKeys.isEmpty() && removedKeys.isEmpty()
+				&& changedKeys.isEmpty()) {
+			return null;
+		}
+		MapChangeEvent first = (MapChangeEvent) events.get(0);
+		return new MapChangeEvent(first.getObservableMap(), Diffs
+				.createMapDiff(addedKeys, removedKeys, changedKeys, oldValues,
+						newValues));
+	}
+}
@@ -13,6 +13,7 @@
 
 package org.eclipse.core.databinding.observable;
 
+import org.eclipse.core.internal.databinding.observable.RecomputeScheduler;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.ListenerList;
 
@@ -110,6 +111,41 @@ import org.eclipse.core.runtime.ListenerList;
 	}
 
 	protected void fireEvent(ObservableEvent event) {
+		ChangeBatch batch = realm.batch;
+		if (batch != null && hasListeners(event.getListenerType())
+				&& batch.defer(this, event)) {
+			return;
+		}
+		if (RecomputeScheduler.isActive()
+				&& event.getListenerType() == ChangeEvent.TYPE
+				&& hasListeners(ChangeEvent.TYPE)) {
+			// let computed observables reached by the change be recomputed
+			// once it has been propagated
+			RecomputeScheduler scheduler = RecomputeScheduler.getCurrent();
+			scheduler.beginChange();
+			try {
+				dispatchEvent(event);
+			} finally {
+				scheduler.endChange();
+			}
+			return;
+		}
+		dispatchEvent(event);
+	}
+
+	private boolean hasListeners(Object listenerType) {
+		int listenerTypeIndex = findListenerTypeIndex(listenerType);
+		return listenerTypeIndex != -1
+				&& listenerLists[listenerTypeIndex].size() > 0;
+	}
+
+	/**
+	 * Notifies the listeners of the event now, even while the realm batches
+	 * changes.
+	 * 
+	 * @param event
+	 */
+	/* package */void dispatchEvent(ObservableEvent event) {
 		Object listenerType = event.getListenerType();
 		int listenerTypeIndex = findListenerTypeIndex(listenerType);
 		if (listenerTypeIndex != -1) {
@@ -27,6 +27,7 @@ import org.eclipse.core.databinding.observable.list.ListDiffEntry;
 import org.eclipse.core.databinding.observable.map.MapDiff;
 import org.eclipse.core.databinding.observable.set.SetDiff;
 import org.eclipse.core.databinding.observable.value.ValueDiff;
+import org.eclipse.core.internal.databinding.observable.ListDiffEngine;
 import org.eclipse.core.internal.databinding.observable.Util;
 
 /**
@@ -79,6 +80,64 @@ public class Diffs {
 		};
 	}
 
+	/**
+	 * Returns a {@link ListDiff} describing the change between the specified
+	 * old and new list states.
+	 * <p>
+	 * Unlike {@link #computeListDiff(List, List)}, whose cost grows
+	 * quadratically with the number of elements that changed position, this
+	 * method runs in time linear in the size of the lists when they differ by
+	 * few edits, and in O(n log n) time otherwise. The returned differences
+	 * are not necessarily the same as those returned by
+	 * {@link #computeListDiff(List, List)}, but applying either of them to
+	 * <code>oldList</code> yields <code>newList</code>. Elements that changed
+	 * position are reported as adjacent remove and add entries, which
+	 * {@link ListDiff#accept(org.eclipse.core.databinding.observable.list.ListDiffVisitor)}
+	 * reports as moves.
+	 * <p>
+	 * Elements are matched by their {@link Object#hashCode()} as well as
+	 * {@link Object#equals(Object)}: equal elements with different hash codes
+	 * are reported as removed and added rather than kept.
+	 * 
+	 * @param oldList
+	 *            the old list state
+	 * @param newList
+	 *            the new list state
+	 * @return the differences between oldList and newList
+	 * @since 1.5
+	 */
+	public static ListDiff computeLinearListDiff(List oldList, List newList) {
+		return createListDiff(ListDiffEngine.computeDifferences(oldList,
+				newList));
+	}
+
+	/**
+	 * Returns a lazily computed {@link ListDiff} describing the change between
+	 * the specified old and new list states, as computed by
+	 * {@link #computeLinearListDiff(List, List)}.
+	 * 
+	 * @param oldList
+	 *            the old list state
+	 * @param newList
+	 *            the new list state
+	 * @return a lazily computed {@link ListDiff} describing the change between
+	 *         the specified old and new list states.
+	 * @since 1.5
+	 */
+	public static ListDiff computeLazyLinearListDiff(final List oldList,
+			final List newList) {
+		return new ListDiff() {
+			ListDiff lazyDiff;
+
+			public ListDiffEntry[] getDifferences() {
+				if (lazyDiff == null) {
+					lazyDiff = Diffs.computeLinearListDiff(oldList, newList);
+				}
+				return lazyDiff.getDifferences();
+			}
+		};
+	}
+
 	/**
 	 * adapted from EMF's ListDifferenceAnalyzer
 	 */
@@ -119,6 +119,12 @@ public abstract class Realm {
 	private volatile Timer timer;
 
 	Queue workQueue = new Queue();
+
+	/**
+	 * the change events held back by {@link #runBatched(Runnable)}, or
+	 * <code>null</code> outside of a batch
+	 */
+	ChangeBatch batch;
 	
 	/**
 	 * Runs the given runnable. If an exception occurs within the runnable, it
@@ -317,6 +323,44 @@ public abstract class Realm {
 		}
 	}
 
+	/**
+	 * Runs the given runnable, holding back the value, list, set and map
+	 * change events fired by the observables of this realm until it returns.
+	 * The events of each observable are then merged into one event per kind,
+	 * whose diff describes the overall change, and its listeners are notified
+	 * once. Changes that cancel each other out are not reported.
+	 * <p>
+	 * Generic change events, stale events and all other events are still
+	 * fired as they happen, so that computed observables are invalidated and
+	 * getters called within the runnable see the current state of the
+	 * observables.
+	 * </p>
+	 * <p>
+	 * This method must be called from within this realm. A batch started
+	 * while another one is running is part of the outer batch. Exceptions
+	 * thrown by the runnable are passed on to the caller, after the held
+	 * back events have been fired.
+	 * </p>
+	 * 
+	 * @param runnable
+	 *            the runnable changing the observables
+	 * @since 1.5
+	 */
+	public void runBatched(Runnable runnable) {
+		if (batch != null) {
+			runnable.run();
+			return;
+		}
+		ChangeBatch newBatch = new ChangeBatch();
+		batch = newBatch;
+		try {
+			runnable.run();
+		} finally {
+			batch = null;
+			newBatch.fireEvents();
+		}
+	}
+
 	/**
 	 * Sets the provided <code>realm</code> as the default for the duration of
 	 * {@link Runnable#run()} and resets the previous realm after completion.
@@ -26,6 +26,7 @@ import org.eclipse.core.databinding.observable.ObservableTracker;
 import org.eclipse.core.databinding.observable.Realm;
 import org.eclipse.core.databinding.observable.StaleEvent;
 import org.eclipse.core.databinding.observable.value.IObservableValue;
+import org.eclipse.core.internal.databinding.observable.RecomputeScheduler;
 
 /**
  * A lazily calculated list that automatically computes and registers listeners
@@ -77,10 +78,20 @@ public abstract class ComputedList extends AbstractObservableList {
 	private List cachedList = new ArrayList();
 
 	private boolean dirty = true;
+
+	// Set while the scheduled change is fired, as the generic change event
+	// was fired when the receiver was made dirty
+	private boolean changeFired = false;
 	private boolean stale = false;
 
 	private IObservable[] dependencies = new IObservable[0];
 
+	/**
+	 * Whether the receiver is counted by the {@link RecomputeScheduler} as
+	 * listening to its dependencies.
+	 */
+	private boolean listening = false;
+
 	/**
 	 * Creates a computed list in the default realm and with an unknown (null)
 	 * element type.
@@ -163,6 +174,8 @@ public abstract class ComputedList extends AbstractObservableList {
 		}
 
 		public void handleChange(ChangeEvent event) {
+			RecomputeScheduler.getCurrent().dependencyChanged(
+					ComputedList.this, event.getObservable());
 			makeDirty();
 		}
 	}
@@ -193,6 +206,7 @@ public abstract class ComputedList extends AbstractObservableList {
 			// dependencies list
 			IObservable[] newDependencies = ObservableTracker.runAndMonitor(
 					privateInterface, privateInterface, null);
+			RecomputeScheduler.getCurrent().recomputed();
 
 			// If any dependencies are stale, a stale event will be fired here
 			// even if we were already stale before recomputing. This is in case
@@ -211,6 +225,10 @@ public abstract class ComputedList extends AbstractObservableList {
 				}
 			}
 
+			if (!listening) {
+				listening = true;
+				RecomputeScheduler.listeningStarted();
+			}
 			dependencies = newDependencies;
 
 			dirty = false;
@@ -243,21 +261,54 @@ public abstract class ComputedList extends AbstractObservableList {
 
 			// copy the old list
 			final List oldList = new ArrayList(cachedList);
-			// Fire the "dirty" event. This implementation recomputes the new
-			// list lazily.
-			fireListChange(new ListDiff() {
-				ListDiffEntry[] differences;
-
-				public ListDiffEntry[] getDifferences() {
-					if (differences == null)
-						differences = Diffs.computeListDiff(oldList, getList())
-								.getDifferences();
-					return differences;
-				}
-			});
+			// Notify the list change listeners once the change has reached
+			// all the computed observables. The new list is recomputed
+			// lazily, when all its dirty dependencies are known.
+			RecomputeScheduler scheduler = RecomputeScheduler.getCurrent();
+			scheduler.beginChange();
+			try {
+				scheduler.schedule(this, new Runnable() {
+					public void run() {
+						if (!hasListeners()) {
+							return;
+						}
+						changeFired = true;
+						try {
+							fireListChange(new ListDiff() {
+								ListDiffEntry[] differences;
+
+								public ListDiffEntry[] getDifferences() {
+									if (differences == null)
+										differences = Diffs
+												.computeLinearListDiff(oldList,
+														getList())
+												.getDifferences();
+									return differences;
+								}
+							});
+						} finally {
+							changeFired = false;
+						}
+					}
+				});
+				// Fire the "dirty" event now, which marks the computed
+				// observables depending on this one dirty.
+				fireChange();
+			} finally {
+				scheduler.endChange();
+			}
 		}
 	}
 
+	protected void fireChange() {
+		if (changeFired) {
+			// fired when the receiver was made dirty
+			changeFired = false;
+			return;
+		}
+		super.fireChange();
+	}
+
 	private void stopListening() {
 		if (dependencies != null) {
 			for (int i = 0; i < dependencies.length; i++) {
@@ -268,6 +319,10 @@ public abstract class ComputedList extends AbstractObservableList {
 			}
 			dependencies = null;
 		}
+		if (listening) {
+			listening = false;
+			RecomputeScheduler.listeningStopped();
+		}
 	}
 
 	private void makeStale() {
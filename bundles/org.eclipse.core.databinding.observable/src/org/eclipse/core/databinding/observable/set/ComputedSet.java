@@ -20,10 +20,12 @@ import org.eclipse.core.databinding.observable.Diffs;
 import org.eclipse.core.databinding.observable.IChangeListener;
 import org.eclipse.core.databinding.observable.IObservable;
 import org.eclipse.core.databinding.observable.IStaleListener;
+import org.eclipse.core.databinding.observable.ObservableEvent;
 import org.eclipse.core.databinding.observable.ObservableTracker;
 import org.eclipse.core.databinding.observable.Realm;
 import org.eclipse.core.databinding.observable.StaleEvent;
 import org.eclipse.core.databinding.observable.value.IObservableValue;
+import org.eclipse.core.internal.databinding.observable.RecomputeScheduler;
 
 /**
  * A lazily calculated set that automatically computes and registers listeners
@@ -72,10 +74,20 @@ public abstract class ComputedSet extends AbstractObservableSet {
 	private Set cachedSet = new HashSet();
 
 	private boolean dirty = true;
+
+	// Set while the scheduled change is fired, as the generic change event
+	// was fired when the receiver was made dirty
+	private boolean changeFired = false;
 	private boolean stale = false;
 
 	private IObservable[] dependencies = new IObservable[0];
 
+	/**
+	 * Whether the receiver is counted by the {@link RecomputeScheduler} as
+	 * listening to its dependencies.
+	 */
+	private boolean listening = false;
+
 	/**
 	 * Creates a computed set in the default realm and with an unknown (null)
 	 * element type.
@@ -158,6 +170,8 @@ public abstract class ComputedSet extends AbstractObservableSet {
 		}
 
 		public void handleChange(ChangeEvent event) {
+			RecomputeScheduler.getCurrent().dependencyChanged(
+					ComputedSet.this, event.getObservable());
 			makeDirty();
 		}
 	}
@@ -187,6 +201,7 @@ public abstract class ComputedSet extends AbstractObservableSet {
 			// dependencies list
 			IObservable[] newDependencies = ObservableTracker.runAndMonitor(
 					privateInterface, privateInterface, null);
+			RecomputeScheduler.getCurrent().recomputed();
 
 			// If any dependencies are stale, a stale event will be fired here
 			// even if we were already stale before recomputing. This is in case
@@ -205,6 +220,10 @@ public abstract class ComputedSet extends AbstractObservableSet {
 				}
 			}
 
+			if (!listening) {
+				listening = true;
+				RecomputeScheduler.listeningStarted();
+			}
 			dependencies = newDependencies;
 
 			dirty = false;
@@ -233,26 +252,58 @@ public abstract class ComputedSet extends AbstractObservableSet {
 
 			// copy the old set
 			final Set oldSet = new HashSet(cachedSet);
-			// Fire the "dirty" event. This implementation recomputes the new
-			// set lazily.
-			fireSetChange(new SetDiff() {
-				SetDiff delegate;
-
-				private SetDiff getDelegate() {
-					if (delegate == null)
-						delegate = Diffs.computeSetDiff(oldSet, getSet());
-					return delegate;
-				}
-
-				public Set getAdditions() {
-					return getDelegate().getAdditions();
-				}
+			// Notify the set change listeners once the change has reached all
+			// the computed observables. The new set is recomputed lazily,
+			// when all its dirty dependencies are known.
+			RecomputeScheduler scheduler = RecomputeScheduler.getCurrent();
+			scheduler.beginChange();
+			try {
+				scheduler.schedule(this, new Runnable() {
+					public void run() {
+						if (!hasListeners()) {
+							return;
+						}
+						changeFired = true;
+						try {
+							fireSetChange(new SetDiff() {
+								SetDiff delegate;
+
+								private SetDiff getDelegate() {
+									if (delegate == null)
+										delegate = Diffs.computeSetDiff(oldSet,
+												getSet());
+									return delegate;
+								}
+
+								public Set getAdditions() {
+									return getDelegate().getAdditions();
+								}
+
+								public Set getRemovals() {
+									return getDelegate().getRemovals();
+								}
+							});
+						} finally {
+							changeFired = false;
+						}
+					}
+				});
+				// Fire the "dirty" event now, which marks the computed
+				// observables depending on this one dirty.
+				fireEvent(new ChangeEvent(this));
+			} finally {
+				scheduler.endChange();
+			}
+		}
+	}
 
-				public Set getRemovals() {
-					return getDelegate().getRemovals();
-				}
-			});
+	protected void fireEvent(ObservableEvent event) {
+		if (changeFired && event instanceof ChangeEvent) {
+			// fired when the receiver was made dirty
+			changeFired = false;
+			return;
 		}
+		super.fireEvent(event);
 	}
 
 	private void stopListening() {
@@ -265,6 +316,10 @@ public abstract class ComputedSet extends AbstractObservableSet {
 			}
 			dependencies = null;
 		}
+		if (listening) {
+			listening = false;
+			RecomputeScheduler.listeningStopped();
+		}
 	}
 
 	private void makeStale() {
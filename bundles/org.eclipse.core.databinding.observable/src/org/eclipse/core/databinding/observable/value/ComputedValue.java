@@ -16,10 +16,12 @@ import org.eclipse.core.databinding.observable.ChangeEvent;
 import org.eclipse.core.databinding.observable.IChangeListener;
 import org.eclipse.core.databinding.observable.IObservable;
 import org.eclipse.core.databinding.observable.IStaleListener;
+import org.eclipse.core.databinding.observable.ObservableEvent;
 import org.eclipse.core.databinding.observable.ObservableTracker;
 import org.eclipse.core.databinding.observable.Realm;
 import org.eclipse.core.databinding.observable.StaleEvent;
 import org.eclipse.core.databinding.observable.list.IObservableList;
+import org.eclipse.core.internal.databinding.observable.RecomputeScheduler;
 
 /**
  * A Lazily calculated value that automatically computes and registers listeners
@@ -65,6 +67,10 @@ public abstract class ComputedValue extends AbstractObservableValue {
 
 	private boolean dirty = true;
 
+	// Set while the scheduled change is fired, as the generic change event
+	// was fired when the receiver was made dirty
+	private boolean changeFired = false;
+
 	private boolean stale = false;
 
 	private Object cachedValue = null;
@@ -75,6 +81,12 @@ public abstract class ComputedValue extends AbstractObservableValue {
 	 */
 	private IObservable[] dependencies = null;
 
+	/**
+	 * Whether the receiver is counted by the {@link RecomputeScheduler} as
+	 * listening to its dependencies.
+	 */
+	private boolean listening = false;
+
 	/**
 	 * 
 	 */
@@ -142,6 +154,8 @@ public abstract class ComputedValue extends AbstractObservableValue {
 		}
 
 		public void handleChange(ChangeEvent event) {
+			RecomputeScheduler.getCurrent().dependencyChanged(
+					ComputedValue.this, event.getObservable());
 			makeDirty();
 		}
 	}
@@ -158,6 +172,7 @@ public abstract class ComputedValue extends AbstractObservableValue {
 			// dependencies list
 			IObservable[] newDependencies = ObservableTracker.runAndMonitor(
 					privateInterface, privateInterface, null);
+			RecomputeScheduler.getCurrent().recomputed();
 
 			stale = false;
 			for (int i = 0; i < newDependencies.length; i++) {
@@ -170,6 +185,10 @@ public abstract class ComputedValue extends AbstractObservableValue {
 				}
 			}
 
+			if (!listening) {
+				listening = true;
+				RecomputeScheduler.listeningStarted();
+			}
 			dependencies = newDependencies;
 
 			dirty = false;
@@ -196,19 +215,49 @@ public abstract class ComputedValue extends AbstractObservableValue {
 
 			// copy the old value
 			final Object oldValue = cachedValue;
-			// Fire the "dirty" event. This implementation recomputes the new
-			// value lazily.
-			fireValueChange(new ValueDiff() {
-
-				public Object getOldValue() {
-					return oldValue;
-				}
+			// Notify the value change listeners once the change has reached
+			// all the computed observables. The new value is recomputed
+			// lazily, when all its dirty dependencies are known.
+			RecomputeScheduler scheduler = RecomputeScheduler.getCurrent();
+			scheduler.beginChange();
+			try {
+				scheduler.schedule(this, new Runnable() {
+					public void run() {
+						if (!hasListeners()) {
+							return;
+						}
+						changeFired = true;
+						try {
+							fireValueChange(new ValueDiff() {
+								public Object getOldValue() {
+									return oldValue;
+								}
+
+								public Object getNewValue() {
+									return getValue();
+								}
+							});
+						} finally {
+							changeFired = false;
+						}
+					}
+				});
+				// Fire the "dirty" event now, which marks the computed
+				// observables depending on this one dirty.
+				fireEvent(new ChangeEvent(this));
+			} finally {
+				scheduler.endChange();
+			}
+		}
+	}
 
-				public Object getNewValue() {
-					return getValue();
-				}
-			});
+	protected void fireEvent(ObservableEvent event) {
+		if (changeFired && event instanceof ChangeEvent) {
+			// fired when the receiver was made dirty
+			changeFired = false;
+			return;
 		}
+		super.fireEvent(event);
 	}
 
 	/**
@@ -225,6 +274,10 @@ public abstract class ComputedValue extends AbstractObservableValue {
 			}
 			dependencies = null;
 		}
+		if (listening) {
+			listening = false;
+			RecomputeScheduler.listeningStopped();
+		}
 	}
 
 	public boolean isStale() {
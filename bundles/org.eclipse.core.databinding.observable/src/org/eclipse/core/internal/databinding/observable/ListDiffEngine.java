@@ -0,0 +1,358 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.core.internal.databinding.observable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.databinding.observable.Diffs;
+import org.eclipse.core.databinding.observable.list.ListDiffEntry;
+
+/**
+ * Computes list differences in (near) linear time.
+ * <p>
+ * Every distinct element is first mapped to an integer key through a hash
+ * table, so that all further comparisons are integer comparisons. The
+ * elements that stay in place are then determined by Myers' O((N+M)D) edit
+ * script algorithm when the lists differ by few edits, and otherwise by the
+ * longest increasing subsequence of old positions over a hash-indexed
+ * matching of equal elements, which is O(N log N) regardless of how many
+ * elements were moved. Equal elements that are not kept in place are
+ * reported as an adjacent remove/add pair, so that
+ * {@link org.eclipse.core.databinding.observable.list.ListDiff#accept} reports
+ * them as moves.
+ * <p>
+ * Equal elements with different hash codes are never matched, and are
+ * therefore reported as removed and added.
+ *
+ * @since 1.5
+ */
+public class ListDiffEngine {
+
+	/**
+	 * The maximum number of edits for which the edit script algorithm is
+	 * attempted before falling back to the subsequence matching.
+	 */
+	private static final int MAX_EDIT_SCRIPT_LENGTH = 128;
+
+	private static final Object NULL_KEY = new Object();
+
+	/**
+	 * Returns the differences between the given lists, in the order they are
+	 * to be processed.
+	 *
+	 * @param oldList
+	 *            the old list state
+	 * @param newList
+	 *            the new list state
+	 * @return the differences between oldList and newList
+	 */
+	public static ListDiffEntry[] computeDifferences(List oldList,
+			List newList) {
+		Object[] oldElements = oldList.toArray();
+		Object[] newElements = newList.toArray();
+		int oldSize = oldElements.length;
+		int newSize = newElements.length;
+
+		Map keys = new HashMap();
+		int[] a = toKeys(oldElements, keys);
+		int[] b = toKeys(newElements, keys);
+		int keyCount = keys.size();
+
+		// For each old index, the new index it is kept at (or -1), and vice
+		// versa
+		int[] oldToNew = new int[oldSize];
+		int[] newToOld = new int[newSize];
+		Arrays.fill(oldToNew, -1);
+		Arrays.fill(newToOld, -1);
+
+		int start = 0;
+		while (start < oldSize && start < newSize && a[start] == b[start]) {
+			oldToNew[start] = start;
+			newToOld[start] = start;
+			start++;
+		}
+		int oldEnd = oldSize;
+		int newEnd = newSize;
+		while (oldEnd > start && newEnd > start
+				&& a[oldEnd - 1] == b[newEnd - 1]) {
+			oldEnd--;
+			newEnd--;
+			oldToNew[oldEnd] = newEnd;
+			newToOld[newEnd] = oldEnd;
+		}
+
+		if (!matchByEditScript(a, b, start, oldEnd - start, newEnd - start,
+				oldToNew, newToOld)) {
+			matchBySubsequence(a, b, start, oldEnd, newEnd, keyCount,
+					oldToNew, newToOld);
+		}
+
+		// Pair up equal elements which are not kept in place: these are moves
+		int[] head = new int[keyCount];
+		int[] next = new int[oldSize];
+		Arrays.fill(head, -1);
+		for (int i = oldSize - 1; i >= 0; i--) {
+			if (oldToNew[i] == -1) {
+				next[i] = head[a[i]];
+				head[a[i]] = i;
+			}
+		}
+		int[] moveSource = new int[newSize];
+		boolean[] moved = new boolean[oldSize];
+		int moveCount = 0;
+		for (int j = 0; j < newSize; j++) {
+			moveSource[j] = -1;
+			if (newToOld[j] == -1) {
+				int i = head[b[j]];
+				if (i != -1) {
+					head[b[j]] = next[i];
+					moveSource[j] = i;
+					moved[i] = true;
+					moveCount++;
+				}
+			}
+		}
+
+		List entries = new ArrayList();
+
+		// Removals, in ascending order
+		int removed = 0;
+		for (int i = 0; i < oldSize; i++) {
+			if (oldToNew[i] == -1 && !moved[i]) {
+				entries.add(Diffs.createListDiffEntry(i - removed, false,
+						oldElements[i]));
+				removed++;
+			}
+		}
+
+		// Moves, in the order of the new list
+		if (moveCount > 0) {
+			// Lay out a slot for every old element, followed by slots for the
+			// moved elements which follow the old element in the new list.
+			// The occupied slots always reflect the current order of the list
+			// being transformed.
+			int[] oldSlot = new int[oldSize];
+			int[] newSlot = new int[newSize];
+			int slot = 0;
+			for (int j = 0; j < newSize && newToOld[j] == -1; j++) {
+				if (moveSource[j] != -1)
+					newSlot[j] = slot++;
+			}
+			for (int i = 0; i < oldSize; i++) {
+				oldSlot[i] = slot++;
+				int kept = oldToNew[i];
+				if (kept != -1) {
+					for (int j = kept + 1; j < newSize && newToOld[j] == -1; j++) {
+						if (moveSource[j] != -1)
+							newSlot[j] = slot++;
+					}
+				}
+			}
+
+			int[] occupied = new int[slot + 1];
+			for (int i = 0; i < oldSize; i++) {
+				if (oldToNew[i] != -1 || moved[i])
+					update(occupied, oldSlot[i], 1);
+			}
+			for (int j = 0; j < newSize; j++) {
+				int i = moveSource[j];
+				if (i != -1) {
+					update(occupied, oldSlot[i], -1);
+					entries.add(Diffs.createListDiffEntry(count(occupied,
+							oldSlot[i]), false, oldElements[i]));
+					entries.add(Diffs.createListDiffEntry(count(occupied,
+							newSlot[j]), true, newElements[j]));
+					update(occupied, newSlot[j], 1);
+				}
+			}
+		}
+
+		// Additions, in ascending order
+		for (int j = 0; j < newSize; j++) {
+			if (newToOld[j] == -1 && moveSource[j] == -1)
+				entries.add(Diffs.createListDiffEntry(j, true, newElements[j]));
+		}
+
+		return (ListDiffEntry[]) entries.toArray(new ListDiffEntry[entries
+				.size()]);
+	}
+
+	private static int[] toKeys(Object[] elements, Map keys) {
+		int[] result = new int[elements.length];
+		for (int i = 0; i < elements.length; i++) {
+			Object element = elements[i] == null ? NULL_KEY : elements[i];
+			Integer key = (Integer) keys.get(element);
+			if (key == null) {
+				key = new Integer(keys.size());
+				keys.put(element, key);
+			}
+			result[i] = key.intValue();
+		}
+		return result;
+	}
+
+	/**
+	 * Finds the longest common subsequence of a[start..start+n) and
+	 * b[start..start+m) using Myers' greedy algorithm, and records it in the
+	 * given index mappings.
+	 *
+	 * @return <code>true</code> if the lists differ by at most
+	 *         {@link #MAX_EDIT_SCRIPT_LENGTH} edits and the mappings were
+	 *         updated, <code>false</code> otherwise.
+	 */
+	private static boolean matchByEditScript(int[] a, int[] b, int start,
+			int n, int m, int[] oldToNew, int[] newToOld) {
+		if (n == 0 || m == 0)
+			return true;
+		int maxD = Math.min(n + m, MAX_EDIT_SCRIPT_LENGTH);
+		int offset = maxD + 1;
+		int[] v = new int[2 * maxD + 3];
+		int[][] trace = new int[maxD + 1][];
+		for (int d = 0; d <= maxD; d++) {
+			// Remember the furthest reaching paths of the previous round, for
+			// diagonals -d-1 through d+1
+			int[] previous = new int[2 * d + 3];
+			System.arraycopy(v, offset - d - 1, previous, 0, previous.length);
+			trace[d] = previous;
+			for (int k = -d; k <= d; k += 2) {
+				int x;
+				if (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1]))
+					x = v[offset + k + 1];
+				else
+					x = v[offset + k - 1] + 1;
+				int y = x - k;
+				while (x < n && y < m && a[start + x] == b[start + y]) {
+					x++;
+					y++;
+				}
+				v[offset + k] = x;
+				if (x >= n && y >= m) {
+					backtrack(trace, d, n, m, start, oldToNew, newToOld);
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static void backtrack(int[][] trace, int edits, int x, int y,
+			int start, int[] oldToNew, int[] newToOld) {
+		for (int d = edits; d > 0; d--) {
+			int[] previous = trace[d];
+			int k = x - y;
+			int previousK;
+			if (k == -d
+					|| (k != d && previous[k - 1 + d + 1] < previous[k + 1 + d
+							+ 1]))
+				previousK = k + 1;
+			else
+				previousK = k - 1;
+			int previousX = previous[previousK + d + 1];
+			int previousY = previousX - previousK;
+			while (x > previousX && y > previousY) {
+				x--;
+				y--;
+				oldToNew[start + x] = start + y;
+				newToOld[start + y] = start + x;
+			}
+			x = previousX;
+			y = previousY;
+		}
+		while (x > 0 && y > 0) {
+			x--;
+			y--;
+			oldToNew[start + x] = start + y;
+			newToOld[start + y] = start + x;
+		}
+	}
+
+	/**
+	 * Matches each element of b[start..newEnd) with the first unmatched equal
+	 * element of a[start..oldEnd), and records the longest run of matches
+	 * which is increasing in both lists in the given index mappings.
+	 */
+	private static void matchBySubsequence(int[] a, int[] b, int start,
+			int oldEnd, int newEnd, int keyCount, int[] oldToNew,
+			int[] newToOld) {
+		int[] head = new int[keyCount];
+		int[] next = new int[oldEnd];
+		Arrays.fill(head, -1);
+		for (int i = oldEnd - 1; i >= start; i--) {
+			next[i] = head[a[i]];
+			head[a[i]] = i;
+		}
+
+		int pairCount = 0;
+		int[] pairOld = new int[newEnd - start];
+		int[] pairNew = new int[newEnd - start];
+		for (int j = start; j < newEnd; j++) {
+			int i = head[b[j]];
+			if (i != -1) {
+				head[b[j]] = next[i];
+				pairOld[pairCount] = i;
+				pairNew[pairCount] = j;
+				pairCount++;
+			}
+		}
+		if (pairCount == 0)
+			return;
+
+		// Patience sort: tails[l] is the pair ending the smallest-valued
+		// increasing subsequence of length l + 1 found so far
+		int[] tails = new int[pairCount];
+		int[] predecessor = new int[pairCount];
+		int length = 0;
+		for (int p = 0; p < pairCount; p++) {
+			int low = 0;
+			int high = length;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (pairOld[tails[mid]] < pairOld[p])
+					low = mid + 1;
+				else
+					high = mid;
+			}
+			predecessor[p] = low > 0 ? tails[low - 1] : -1;
+			tails[low] = p;
+			if (low == length)
+				length++;
+		}
+		for (int p = tails[length - 1]; p != -1; p = predecessor[p]) {
+			oldToNew[pairOld[p]] = pairNew[p];
+			newToOld[pairNew[p]] = pairOld[p];
+		}
+	}
+
+	/*
+	 * Fenwick tree over the slot occupancy.
+	 */
+
+	private static void update(int[] tree, int index, int delta) {
+		for (int i = index + 1; i < tree.length; i += i & -i)
+			tree[i] += delta;
+	}
+
+	/**
+	 * Returns the number of occupied slots before the given slot.
+	 */
+	private static int count(int[] tree, int index) {
+		int sum = 0;
+		for (int i = index; i > 0; i -= i & -i)
+			sum += tree[i];
+		return sum;
+	}
+
+}
@@ -0,0 +1,338 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.core.internal.databinding.observable;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.databinding.observable.IObservable;
+import org.eclipse.core.databinding.util.Policy;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+
+/**
+ * Notifies the listeners of the computed observables made dirty by a change
+ * in topological order, once the change has been propagated.
+ * <p>
+ * While the generic change event of an observable is dispatched, computed
+ * observables reached by the event are only marked dirty and fire their own
+ * generic change event, which marks their dependents dirty in turn. Each
+ * dirty observable schedules the notification of its value, list or set
+ * change listeners, together with the dependencies it was reached from. When
+ * the outermost change event has been dispatched, the scheduled observables
+ * notify their listeners ordered so that each one comes after the dirty
+ * observables it depends on. The observables are recomputed when read, by then
+ * all of their dirty dependencies are marked, so listeners never see a computed
+ * observable combining new and old states of its dependencies, and an
+ * observable depending on several dirty observables is recomputed once.
+ * </p>
+ * <p>
+ * Observables are confined to their realm, so there is one scheduler per
+ * thread. Change events only go through the scheduler while some computed
+ * observable listens to its dependencies, in any thread.
+ * </p>
+ *
+ * @since 1.5
+ */
+public final class RecomputeScheduler {
+
+	private static final ThreadLocal current = new ThreadLocal() {
+		protected Object initialValue() {
+			return new RecomputeScheduler();
+		}
+	};
+
+	/**
+	 * the number of computed observables listening to their dependencies
+	 */
+	private static volatile int listening;
+
+	/**
+	 * @return the scheduler of the calling thread
+	 */
+	public static RecomputeScheduler getCurrent() {
+		return (RecomputeScheduler) current.get();
+	}
+
+	/**
+	 * @return whether change events must go through the scheduler, because
+	 *         some computed observable listens to its dependencies
+	 */
+	public static boolean isActive() {
+		return listening > 0;
+	}
+
+	/**
+	 * Called when a computed observable starts listening to its dependencies.
+	 */
+	public static void listeningStarted() {
+		synchronized (RecomputeScheduler.class) {
+			listening++;
+		}
+	}
+
+	/**
+	 * Called when a computed observable stops listening to its dependencies.
+	 */
+	public static void listeningStopped() {
+		synchronized (RecomputeScheduler.class) {
+			listening--;
+		}
+	}
+
+	private static final class Node {
+		Runnable notification;
+
+		/**
+		 * the dirty observables reached from this one
+		 */
+		List dependents;
+
+		/**
+		 * the number of dirty observables this one was reached from, while
+		 * sorting
+		 */
+		int dependencies;
+	}
+
+	private int depth;
+
+	/**
+	 * the observables marked dirty by the current change, in order
+	 */
+	private List nodes = new ArrayList();
+
+	/**
+	 * the nodes by observable. Observables may redefine equality, so they are
+	 * compared by identity.
+	 */
+	private Map nodesByObservable = new IdentityHashMap();
+
+	private long changeCount;
+
+	private long notificationCount;
+
+	private long recomputeCount;
+
+	private RecomputeScheduler() {
+	}
+
+	/**
+	 * Called before dispatching a generic change event.
+	 */
+	public void beginChange() {
+		if (depth++ == 0) {
+			changeCount++;
+		}
+	}
+
+	/**
+	 * Called after dispatching a generic change event. Notifies the listeners
+	 * of the scheduled observables when the outermost event has been
+	 * dispatched.
+	 */
+	public void endChange() {
+		if (--depth > 0 || nodes.isEmpty()) {
+			return;
+		}
+		// the notifications may start other changes, which are scheduled
+		// and notified on their own
+		List scheduled = nodes;
+		nodes = new ArrayList();
+		nodesByObservable = new IdentityHashMap();
+		runNotifications(sort(scheduled));
+	}
+
+	/**
+	 * Runs the notifications of the nodes. A notification throwing does not
+	 * prevent the following ones from running. The first exception is thrown
+	 * once they have run, the later ones are logged.
+	 */
+	private void runNotifications(List sorted) {
+		Throwable failure = null;
+		for (int i = 0; i < sorted.size(); i++) {
+			Node node = (Node) sorted.get(i);
+			if (node.notification != null) {
+				notificationCount++;
+				try {
+					node.notification.run();
+				} catch (RuntimeException e) {
+					failure = failed(failure, e);
+				} catch (Error e) {
+					failure = failed(failure, e);
+				}
+			}
+		}
+		if (failure instanceof RuntimeException) {
+			throw (RuntimeException) failure;
+		}
+		if (failure instanceof Error) {
+			throw (Error) failure;
+		}
+	}
+
+	/**
+	 * Returns the first failure of the notifications, logging the later ones.
+	 */
+	private static Throwable failed(Throwable first, Throwable failure) {
+		if (first == null) {
+			return failure;
+		}
+		Policy.getLog().log(
+				new Status(IStatus.ERROR, Policy.JFACE_DATABINDING, IStatus.OK,
+						"Unhandled exception: " + failure.getMessage(), failure)); //$NON-NLS-1$
+		return first;
+	}
+
+	/**
+	 * Records that the computed observable was reached by the change of one of
+	 * its dependencies, whether it was already dirty or not.
+	 *
+	 * @param observable
+	 *            the computed observable
+	 * @param dependency
+	 *            the changed dependency, or <code>null</code> if unknown
+	 */
+	public void dependencyChanged(IObservable observable, IObservable dependency) {
+		if (depth == 0 || dependency == null) {
+			return;
+		}
+		Node from = (Node) nodesByObservable.get(dependency);
+		if (from == null) {
+			// not a computed observable, or not dirty in this change
+			return;
+		}
+		if (from.dependents == null) {
+			from.dependents = new ArrayList(2);
+		}
+		from.dependents.add(getNode(observable));
+	}
+
+	/**
+	 * Schedules the notification of the listeners of a computed observable
+	 * that was just marked dirty. The notification runs immediately if no
+	 * change is being dispatched.
+	 *
+	 * @param observable
+	 *            the computed observable
+	 * @param notification
+	 *            fires the change event of the observable
+	 */
+	public void schedule(IObservable observable, Runnable notification) {
+		if (depth == 0) {
+			notificationCount++;
+			notification.run();
+			return;
+		}
+		Node node = getNode(observable);
+		// an observable read and marked dirty again keeps its first
+		// notification, describing the change from its state before
+		if (node.notification == null) {
+			node.notification = notification;
+		}
+	}
+
+	/**
+	 * Counts one computation of a computed observable.
+	 */
+	public void recomputed() {
+		recomputeCount++;
+	}
+
+	private Node getNode(IObservable observable) {
+		Node node = (Node) nodesByObservable.get(observable);
+		if (node == null) {
+			node = new Node();
+			nodesByObservable.put(observable, node);
+			nodes.add(node);
+		}
+		return node;
+	}
+
+	/**
+	 * Orders the nodes so that each one comes after the nodes it was reached
+	 * from, keeping the order in which they were marked dirty otherwise.
+	 */
+	private static List sort(List nodes) {
+		for (int i = 0; i < nodes.size(); i++) {
+			Node node = (Node) nodes.get(i);
+			if (node.dependents != null) {
+				for (int j = 0; j < node.dependents.size(); j++) {
+					((Node) node.dependents.get(j)).dependencies++;
+				}
+			}
+		}
+		List sorted = new ArrayList(nodes.size());
+		for (int i = 0; i < nodes.size(); i++) {
+			Node node = (Node) nodes.get(i);
+			if (node.dependencies == 0) {
+				sorted.add(node);
+			}
+		}
+		for (int i = 0; i < sorted.size(); i++) {
+			Node node = (Node) sorted.get(i);
+			if (node.dependents != null) {
+				for (int j = 0; j < node.dependents.size(); j++) {
+					Node dependent = (Node) node.dependents.get(j);
+					if (--dependent.dependencies == 0) {
+						sorted.add(dependent);
+					}
+				}
+			}
+		}
+		if (sorted.size() < nodes.size()) {
+			// a cycle, notify the remaining nodes in their order
+			for (int i = 0; i < nodes.size(); i++) {
+				Node node = (Node) nodes.get(i);
+				if (node.dependencies > 0) {
+					node.dependencies = 0;
+					sorted.add(node);
+				}
+			}
+		}
+		return sorted;
+	}
+
+	/**
+	 * @return the number of changes dispatched by this thread, nested changes
+	 *         excluded
+	 */
+	public long getChangeCount() {
+		return changeCount;
+	}
+
+	/**
+	 * @return the number of scheduled notifications run by this thread
+	 */
+	public long getNotificationCount() {
+		return notificationCount;
+	}
+
+	/**
+	 * @return the number of computations of computed observables by this
+	 *         thread
+	 */
+	public long getRecomputeCount() {
+		return recomputeCount;
+	}
+
+	/**
+	 * Resets the counters of this thread.
+	 */
+	public void resetCounters() {
+		changeCount = 0;
+		notificationCount = 0;
+		recomputeCount = 0;
+	}
+}
@@ -23,6 +23,7 @@ import org.eclipse.core.databinding.observable.Realm;
 import org.eclipse.core.databinding.observable.value.ComputedValue;
 import org.eclipse.core.databinding.util.Policy;
 import org.eclipse.core.internal.databinding.BindingMessages;
+import org.eclipse.core.internal.databinding.ValidationStatusAggregator;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.MultiStatus;
 import org.eclipse.core.runtime.Status;
@@ -60,6 +61,12 @@ public final class AggregateValidationStatus extends ComputedValue {
 	private int strategy;
 	private IObservableCollection validationStatusProviders;
 
+	/**
+	 * Tracks the statuses of the providers while this observable has
+	 * listeners, so that a status change does not read every status again.
+	 */
+	private ValidationStatusAggregator aggregator;
+
 	/**
 	 * Creates a new aggregate validation status observable for the given data
 	 * binding context.
@@ -110,8 +117,18 @@ public final class AggregateValidationStatus extends ComputedValue {
 	}
 
 	protected Object calculate() {
+		if (aggregator == null && hasListeners()) {
+			aggregator = new ValidationStatusAggregator(getRealm(),
+					validationStatusProviders);
+		}
 		IStatus result;
-		if (strategy == MERGED) {
+		if (aggregator != null) {
+			if (strategy == MERGED) {
+				result = aggregator.getMergedStatus();
+			} else {
+				result = aggregator.getMaxSeverityStatus();
+			}
+		} else if (strategy == MERGED) {
 			result = getStatusMerged(validationStatusProviders);
 		} else {
 			result = getStatusMaxSeverity(validationStatusProviders);
@@ -119,6 +136,29 @@ public final class AggregateValidationStatus extends ComputedValue {
 		return result;
 	}
 
+	protected void lastListenerRemoved() {
+		super.lastListenerRemoved();
+		getRealm().exec(new Runnable() {
+			public void run() {
+				if (aggregator != null && !hasListeners()) {
+					// compute the status from the providers again when asked,
+					// instead of keeping the aggregator listening
+					makeDirty();
+					aggregator.dispose();
+					aggregator = null;
+				}
+			}
+		});
+	}
+
+	public synchronized void dispose() {
+		if (aggregator != null) {
+			aggregator.dispose();
+			aggregator = null;
+		}
+		super.dispose();
+	}
+
 	/**
 	 * Returns a status object that merges multiple non-OK status objects in a
 	 * {@link MultiStatus}. Returns an OK status result if all statuses from the
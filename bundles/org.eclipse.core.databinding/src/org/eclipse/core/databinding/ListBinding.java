@@ -110,8 +110,8 @@ public class ListBinding extends Binding {
 		final IObservableList modelList = (IObservableList) getModel();
 		modelList.getRealm().exec(new Runnable() {
 			public void run() {
-				ListDiff diff = Diffs.computeListDiff(Collections.EMPTY_LIST,
-						modelList);
+				ListDiff diff = Diffs.computeLinearListDiff(
+						Collections.EMPTY_LIST, modelList);
 				doUpdate(modelList, (IObservableList) getTarget(), diff,
 						modelToTarget, true, true);
 			}
@@ -122,8 +122,8 @@ public class ListBinding extends Binding {
 		final IObservableList targetList = (IObservableList) getTarget();
 		targetList.getRealm().exec(new Runnable() {
 			public void run() {
-				ListDiff diff = Diffs.computeListDiff(Collections.EMPTY_LIST,
-						targetList);
+				ListDiff diff = Diffs.computeLinearListDiff(
+						Collections.EMPTY_LIST, targetList);
 				doUpdate(targetList, (IObservableList) getModel(), diff,
 						targetToModel, true, true);
 			}
@@ -0,0 +1,270 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.core.internal.databinding;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.eclipse.core.databinding.ValidationStatusProvider;
+import org.eclipse.core.databinding.observable.AbstractObservable;
+import org.eclipse.core.databinding.observable.ChangeEvent;
+import org.eclipse.core.databinding.observable.IChangeListener;
+import org.eclipse.core.databinding.observable.IObservableCollection;
+import org.eclipse.core.databinding.observable.ObservableTracker;
+import org.eclipse.core.databinding.observable.Realm;
+import org.eclipse.core.databinding.observable.value.IObservableValue;
+import org.eclipse.core.databinding.observable.value.IValueChangeListener;
+import org.eclipse.core.databinding.observable.value.ValueChangeEvent;
+import org.eclipse.core.databinding.util.Policy;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.Status;
+
+/**
+ * Keeps the validation statuses of a collection of validation status
+ * providers sorted by severity, so that the aggregated status can be answered
+ * without reading every status. The providers are numbered in the order of
+ * the collection, and the providers with a status that is not OK are kept in
+ * sorted sets by that number, one for all of them and one for each severity.
+ * A change of the status of one provider updates the sets in logarithmic
+ * time. A change of the collection numbers the providers again.
+ * <p>
+ * This observable changes whenever the aggregated status may have changed.
+ * </p>
+ *
+ * @since 1.4
+ */
+public class ValidationStatusAggregator extends AbstractObservable {
+
+	private static final Comparator COLLECTION_ORDER = new Comparator() {
+		public int compare(Object o1, Object o2) {
+			return ((Entry) o1).index - ((Entry) o2).index;
+		}
+	};
+
+	private class Entry implements IValueChangeListener {
+		final IObservableValue validationStatus;
+
+		IStatus status;
+
+		int index;
+
+		Entry(IObservableValue validationStatus) {
+			this.validationStatus = validationStatus;
+		}
+
+		public void handleValueChange(ValueChangeEvent event) {
+			statusChanged(this, (IStatus) event.diff.getNewValue());
+		}
+	}
+
+	private final IObservableCollection validationStatusProviders;
+
+	private IChangeListener providersListener = new IChangeListener() {
+		public void handleChange(ChangeEvent event) {
+			update();
+			fireChange();
+		}
+	};
+
+	/**
+	 * the entries by validation status provider
+	 */
+	private Map entries = new IdentityMap();
+
+	/**
+	 * the entries whose status is not OK, in the order of the collection
+	 */
+	private final SortedSet problems = new TreeSet(COLLECTION_ORDER);
+
+	/**
+	 * the sets of entries whose status is not OK by severity, in the order of
+	 * the collection
+	 */
+	private final SortedMap problemsBySeverity = new TreeMap();
+
+	/**
+	 * @param realm
+	 * @param validationStatusProviders
+	 *            an observable collection containing elements of type
+	 *            {@link ValidationStatusProvider}
+	 */
+	public ValidationStatusAggregator(Realm realm,
+			IObservableCollection validationStatusProviders) {
+		super(realm);
+		this.validationStatusProviders = validationStatusProviders;
+		validationStatusProviders.addChangeListener(providersListener);
+		update();
+	}
+
+	private void update() {
+		// reading the providers and their statuses must not make them
+		// dependencies of a computed observable creating this one
+		ObservableTracker.setIgnore(true);
+		try {
+			problems.clear();
+			problemsBySeverity.clear();
+			Map oldEntries = entries;
+			entries = new IdentityMap();
+			int index = 0;
+			for (Iterator it = validationStatusProviders.iterator(); it
+					.hasNext();) {
+				ValidationStatusProvider provider = (ValidationStatusProvider) it
+						.next();
+				if (entries.containsKey(provider)) {
+					continue;
+				}
+				Entry entry = (Entry) oldEntries.remove(provider);
+				if (entry == null) {
+					entry = new Entry(provider.getValidationStatus());
+					entry.validationStatus.addValueChangeListener(entry);
+					entry.status = (IStatus) entry.validationStatus.getValue();
+				}
+				entry.index = index++;
+				entries.put(provider, entry);
+				add(entry);
+			}
+			for (Iterator it = oldEntries.values().iterator(); it.hasNext();) {
+				Entry entry = (Entry) it.next();
+				entry.validationStatus.removeValueChangeListener(entry);
+			}
+		} finally {
+			ObservableTracker.setIgnore(false);
+		}
+	}
+
+	private void statusChanged(Entry entry, IStatus status) {
+		boolean affectsResult = !(entry.status.isOK() && status.isOK());
+		remove(entry);
+		entry.status = status;
+		add(entry);
+		if (affectsResult) {
+			fireChange();
+		}
+	}
+
+	private void add(Entry entry) {
+		if (entry.status.isOK()) {
+			return;
+		}
+		problems.add(entry);
+		Integer severity = new Integer(entry.status.getSeverity());
+		SortedSet set = (SortedSet) problemsBySeverity.get(severity);
+		if (set == null) {
+			set = new TreeSet(COLLECTION_ORDER);
+			problemsBySeverity.put(severity, set);
+		}
+		set.add(entry);
+	}
+
+	private void remove(Entry entry) {
+		if (!problems.remove(entry)) {
+			return;
+		}
+		Integer severity = new Integer(entry.status.getSeverity());
+		SortedSet set = (SortedSet) problemsBySeverity.get(severity);
+		set.remove(entry);
+		if (set.isEmpty()) {
+			problemsBySeverity.remove(severity);
+		}
+	}
+
+	/**
+	 * Returns the most severe status, the first one in the collection if
+	 * several have that severity, like
+	 * {@link org.eclipse.core.databinding.AggregateValidationStatus#getStatusMaxSeverity(java.util.Collection)}
+	 * .
+	 *
+	 * @return the most severe status
+	 */
+	public IStatus getMaxSeverityStatus() {
+		getterCalled();
+		if (problemsBySeverity.isEmpty()) {
+			return Status.OK_STATUS;
+		}
+		Integer severity = (Integer) problemsBySeverity.lastKey();
+		if (severity.intValue() <= IStatus.OK) {
+			return Status.OK_STATUS;
+		}
+		return ((Entry) ((SortedSet) problemsBySeverity.get(severity))
+				.first()).status;
+	}
+
+	/**
+	 * Returns the statuses that are not OK merged in the order of the
+	 * collection, like
+	 * {@link org.eclipse.core.databinding.AggregateValidationStatus#getStatusMerged(java.util.Collection)}
+	 * .
+	 *
+	 * @return the merged status
+	 */
+	public IStatus getMergedStatus() {
+		getterCalled();
+		if (problems.isEmpty()) {
+			return Status.OK_STATUS;
+		}
+		if (problems.size() == 1) {
+			return ((Entry) problems.first()).status;
+		}
+		MultiStatus result = new MultiStatus(Policy.JFACE_DATABINDING, 0,
+				BindingMessages.getString(BindingMessages.MULTIPLE_PROBLEMS),
+				null);
+		for (Iterator it = problems.iterator(); it.hasNext();) {
+			result.merge(((Entry) it.next()).status);
+		}
+		return result;
+	}
+
+	/**
+	 * @param severity
+	 *            a severity, such as {@link IStatus#ERROR}
+	 * @return the number of validation status providers whose status has the
+	 *         severity
+	 */
+	public int getSeverityCount(int severity) {
+		getterCalled();
+		if (severity == IStatus.OK) {
+			return entries.size() - problems.size();
+		}
+		SortedSet set = (SortedSet) problemsBySeverity.get(new Integer(
+				severity));
+		return set == null ? 0 : set.size();
+	}
+
+	private void getterCalled() {
+		ObservableTracker.getterCalled(this);
+	}
+
+	public boolean isStale() {
+		getterCalled();
+		return validationStatusProviders.isStale();
+	}
+
+	public synchronized void dispose() {
+		if (validationStatusProviders != null && !isDisposed()) {
+			validationStatusProviders.removeChangeListener(providersListener);
+			for (Iterator it = entries.values().iterator(); it.hasNext();) {
+				Entry entry = (Entry) it.next();
+				entry.validationStatus.removeValueChangeListener(entry);
+			}
+			entries = new IdentityMap();
+			problems.clear();
+			problemsBySeverity.clear();
+		}
+		super.dispose();
+	}
+}
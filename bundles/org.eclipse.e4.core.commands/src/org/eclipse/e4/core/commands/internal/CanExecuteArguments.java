@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.core.commands.internal;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import javax.inject.Named;
+import org.eclipse.e4.core.contexts.Active;
+import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.e4.core.di.annotations.CanExecute;
+
+/**
+ * The context keys injected into the <code>@CanExecute</code> methods of
+ * handlers.
+ * <p>
+ * Injection does not track the values it reads from the context, so a
+ * {@link org.eclipse.e4.core.contexts.RunAndTrack} evaluating the enablement of
+ * a command would not run again when one of them changes. Reading them again
+ * once the method has been invoked records them.
+ * </p>
+ */
+final class CanExecuteArguments {
+
+	private static final Argument[] NO_ARGUMENTS = new Argument[0];
+
+	private static final Map<Class<?>, Argument[]> arguments = new WeakHashMap<Class<?>, Argument[]>();
+
+	private static class Argument {
+		final String key;
+
+		final boolean active;
+
+		Argument(String key, boolean active) {
+			this.key = key;
+			this.active = active;
+		}
+	}
+
+	private CanExecuteArguments() {
+		// not instantiated
+	}
+
+	/**
+	 * Reads the values injected into the <code>@CanExecute</code> methods of
+	 * the handler from the execution context, so that a surrounding
+	 * <code>RunAndTrack</code> records them.
+	 *
+	 * @param handler
+	 * @param executionContext
+	 *            the context the method was invoked with
+	 * @param staticContext
+	 *            the static context the method was invoked with, whose values
+	 *            do not change
+	 */
+	static void track(Object handler, IEclipseContext executionContext,
+			IEclipseContext staticContext) {
+		Argument[] handlerArguments = getArguments(handler.getClass());
+		for (int i = 0; i < handlerArguments.length; i++) {
+			Argument argument = handlerArguments[i];
+			if (staticContext != null && staticContext.containsKey(argument.key)) {
+				continue;
+			}
+			if (argument.active) {
+				executionContext.getActive(argument.key);
+			} else {
+				executionContext.get(argument.key);
+			}
+		}
+	}
+
+	private static Argument[] getArguments(Class<?> handlerClass) {
+		synchronized (arguments) {
+			Argument[] result = arguments.get(handlerClass);
+			if (result == null) {
+				result = findArguments(handlerClass);
+				arguments.put(handlerClass, result);
+			}
+			return result;
+		}
+	}
+
+	private static Argument[] findArguments(Class<?> handlerClass) {
+		List<Argument> result = new ArrayList<Argument>();
+		for (Class<?> c = handlerClass; c != null && c != Object.class; c = c.getSuperclass()) {
+			Method[] methods;
+			try {
+				methods = c.getDeclaredMethods();
+			} catch (SecurityException e) {
+				continue;
+			}
+			for (Method method : methods) {
+				if (!method.isAnnotationPresent(CanExecute.class)) {
+					continue;
+				}
+				Type[] types = method.getGenericParameterTypes();
+				Annotation[][] annotations = method.getParameterAnnotations();
+				for (int i = 0; i < types.length; i++) {
+					String key = null;
+					boolean active = false;
+					for (Annotation annotation : annotations[i]) {
+						if (annotation instanceof Named) {
+							key = ((Named) annotation).value();
+						} else if (annotation instanceof Active) {
+							active = true;
+						}
+					}
+					if (key == null) {
+						key = getKey(types[i]);
+					}
+					if (key != null) {
+						result.add(new Argument(key, active));
+					}
+				}
+			}
+		}
+		return result.isEmpty() ? NO_ARGUMENTS : result.toArray(new Argument[result.size()]);
+	}
+
+	/**
+	 * Returns the key an argument of the type is looked up with, as the
+	 * injector does.
+	 */
+	private static String getKey(Type type) {
+		if (type instanceof Class<?>) {
+			return ((Class<?>) type).getName();
+		}
+		if (type instanceof ParameterizedType) {
+			return getKey(((ParameterizedType) type).getRawType());
+		}
+		return null;
+	}
+}
@@ -54,6 +54,9 @@ public class HandlerServiceHandler extends AbstractHandler {
 		IEclipseContext staticContext = contexts.staticContext; // getStaticContext(contexts);
 		Boolean result = (Boolean) ContextInjectionFactory.invoke(handler, CanExecute.class,
 				executionContext, staticContext, Boolean.TRUE);
+		// let a RunAndTrack evaluating the enablement record what the handler
+		// read
+		CanExecuteArguments.track(handler, executionContext, staticContext);
 		setBaseEnabled(result.booleanValue());
 		return super.isEnabled();
 	}
@@ -48,6 +48,18 @@ public class BindingServiceImpl implements EBindingService {
 
 	private ContextSet contextSet = ContextSet.EMPTY;
 
+	/**
+	 * the binding trie of the context set, looked up again when the contexts or tables change
+	 */
+	private BindingTrie trie;
+
+	private BindingTrie getBindingTrie() {
+		if (trie == null || !manager.isCurrent(trie)) {
+			trie = manager.getBindingTrie(contextSet);
+		}
+		return trie;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -149,7 +161,7 @@ public class BindingServiceImpl implements EBindingService {
 	 * TriggerSequence)
 	 */
 	public Binding getPerfectMatch(TriggerSequence trigger) {
-		return manager.getPerfectMatch(contextSet, trigger);
+		return getBindingTrie().getPerfectMatch(trigger);
 	}
 
 	/*
@@ -159,7 +171,7 @@ public class BindingServiceImpl implements EBindingService {
 	 * TriggerSequence)
 	 */
 	public boolean isPartialMatch(TriggerSequence keySequence) {
-		return manager.isPartialMatch(contextSet, keySequence);
+		return getBindingTrie().isPartialMatch(keySequence);
 	}
 
 	/*
@@ -221,6 +233,7 @@ public class BindingServiceImpl implements EBindingService {
 
 	@Inject
 	public void setContextIds(@Named(ACTIVE_CONTEXTS) @Optional Set<String> set) {
+		trie = null;
 		if (set == null || set.isEmpty() || contextManager == null) {
 			contextSet = ContextSet.EMPTY;
 			return;
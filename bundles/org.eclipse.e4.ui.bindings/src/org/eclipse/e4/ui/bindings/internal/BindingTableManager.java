@@ -14,8 +14,10 @@ package org.eclipse.e4.ui.bindings.internal;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 import javax.inject.Inject;
 import org.eclipse.core.commands.ParameterizedCommand;
 import org.eclipse.core.commands.contexts.Context;
@@ -29,6 +31,11 @@ import org.eclipse.jface.bindings.TriggerSequence;
 public class BindingTableManager {
 	private static final String BINDING_TABLE_PREFIX = "bindingTable:"; //$NON-NLS-1$
 
+	/**
+	 * the number of binding tries kept for the context sets used last
+	 */
+	private static final int MAX_TRIES = 16;
+
 	@Inject
 	private IEclipseContext eclipseContext;
 
@@ -36,6 +43,21 @@ public class BindingTableManager {
 
 	private String[] activeSchemeIds;
 
+	/**
+	 * the number of changes of the tables and active schemes of this manager
+	 */
+	private int modificationCount;
+
+	private Map<ContextSet, BindingTrie> tries = new LinkedHashMap<ContextSet, BindingTrie>(
+			MAX_TRIES, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<ContextSet, BindingTrie> eldest) {
+			return size() > MAX_TRIES;
+		}
+	};
+
 	public void addTable(BindingTable table) {
 		String contextId = getTableId(table.getId());
 		if (eclipseContext.containsKey(contextId)) {
@@ -43,6 +65,7 @@ public class BindingTableManager {
 			//			throw new IllegalArgumentException("Already contains table " + contextId); //$NON-NLS-1$
 		}
 		eclipseContext.set(contextId, table);
+		modificationCount++;
 		final List<Context> contexts = definedTables.getContexts();
 		if (!contexts.contains(table.getTableId())) {
 			// this is only valid because I'm throwing away the old definedTables contextSet
@@ -61,6 +84,7 @@ public class BindingTableManager {
 			throw new IllegalArgumentException("Does not contains table " + contextId); //$NON-NLS-1$
 		}
 		eclipseContext.remove(contextId);
+		modificationCount++;
 		final List<Context> contexts = definedTables.getContexts();
 		if (contexts.contains(table.getTableId())) {
 			// this is only valid because I'm throwing away the old definedTables contextSet
@@ -240,6 +264,38 @@ public class BindingTableManager {
 	public void setActiveSchemes(String[] activeSchemeIds) {
 		this.activeSchemeIds = activeSchemeIds;
 		BindingTable.BEST_SEQUENCE.setActiveSchemes(activeSchemeIds);
+		modificationCount++;
+	}
+
+	private int getVersion() {
+		// both counts only grow, so their sum changes with either of them
+		return modificationCount + BindingTable.getModificationCount();
+	}
+
+	/**
+	 * Returns the trie of the sequences bound in the tables of the context set. The trie is built
+	 * on first use and kept until the tables or the active schemes change.
+	 * 
+	 * @param contextSet
+	 * @return the binding trie of the context set
+	 */
+	public BindingTrie getBindingTrie(ContextSet contextSet) {
+		int version = getVersion();
+		BindingTrie trie = tries.get(contextSet);
+		if (trie == null || trie.getVersion() != version) {
+			trie = new BindingTrie(this, contextSet, version);
+			tries.put(contextSet, trie);
+		}
+		return trie;
+	}
+
+	/**
+	 * @param trie
+	 * @return <code>true</code> if the tables and active schemes did not change since the trie
+	 *         was built
+	 */
+	public boolean isCurrent(BindingTrie trie) {
+		return trie.getVersion() == getVersion();
 	}
 
 	/*
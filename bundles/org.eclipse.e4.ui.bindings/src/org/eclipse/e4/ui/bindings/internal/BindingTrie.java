@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.ui.bindings.internal;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.eclipse.core.commands.contexts.Context;
+import org.eclipse.jface.bindings.Binding;
+import org.eclipse.jface.bindings.Trigger;
+import org.eclipse.jface.bindings.TriggerSequence;
+
+/**
+ * An immutable trie of the trigger sequences bound in the tables of a context set. Each bound
+ * sequence is resolved once to the binding {@link BindingTableManager#getPerfectMatch} returns
+ * for it, so a lookup takes one step per trigger instead of walking the tables of the contexts.
+ * <p>
+ * The trie describes the tables and active schemes at the time it was built; it is rebuilt by the
+ * manager when they change, see {@link BindingTableManager#getBindingTrie(ContextSet)}.
+ * </p>
+ */
+public class BindingTrie {
+	private static class Node {
+		/**
+		 * the nodes of the sequences one trigger longer, or <code>null</code> if there are none
+		 */
+		Map<Trigger, Node> children;
+
+		/**
+		 * the resolved binding of this sequence, or <code>null</code> if it is not bound
+		 */
+		Binding binding;
+
+		Node getChild(Trigger trigger) {
+			return children == null ? null : children.get(trigger);
+		}
+	}
+
+	private final Node root = new Node();
+
+	private final int version;
+
+	BindingTrie(BindingTableManager manager, ContextSet contextSet, int version) {
+		this.version = version;
+		for (Context ctx : contextSet.getContexts()) {
+			BindingTable table = manager.getTable(ctx.getId());
+			if (table == null) {
+				continue;
+			}
+			for (Binding binding : table.getBindings()) {
+				TriggerSequence sequence = binding.getTriggerSequence();
+				Node node = root;
+				Trigger[] triggers = sequence.getTriggers();
+				for (int i = 0; i < triggers.length; i++) {
+					Node child = node.getChild(triggers[i]);
+					if (child == null) {
+						child = new Node();
+						if (node.children == null) {
+							node.children = new HashMap<Trigger, Node>(4);
+						}
+						node.children.put(triggers[i], child);
+					}
+					node = child;
+				}
+				// the same sequence may be bound in several tables, resolve it once
+				if (node.binding == null) {
+					node.binding = manager.getPerfectMatch(contextSet, sequence);
+				}
+			}
+		}
+	}
+
+	int getVersion() {
+		return version;
+	}
+
+	private Node getNode(TriggerSequence sequence) {
+		Node node = root;
+		Trigger[] triggers = sequence.getTriggers();
+		for (int i = 0; i < triggers.length && node != null; i++) {
+			node = node.getChild(triggers[i]);
+		}
+		return node;
+	}
+
+	/**
+	 * @param sequence
+	 *            the sequence to look up
+	 * @return the binding of the sequence, as {@link BindingTableManager#getPerfectMatch} returns
+	 *         it, or <code>null</code> if the sequence is not bound
+	 */
+	public Binding getPerfectMatch(TriggerSequence sequence) {
+		Node node = getNode(sequence);
+		return node == null ? null : node.binding;
+	}
+
+	/**
+	 * @param sequence
+	 *            the sequence to look up
+	 * @return <code>true</code> if the sequence is not empty and a longer bound sequence starts
+	 *         with it
+	 */
+	public boolean isPartialMatch(TriggerSequence sequence) {
+		if (sequence.isEmpty()) {
+			return false;
+		}
+		Node node = getNode(sequence);
+		return node != null && node.children != null;
+	}
+}
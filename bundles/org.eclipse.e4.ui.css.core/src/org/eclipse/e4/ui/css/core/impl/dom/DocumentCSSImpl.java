@@ -41,6 +41,11 @@ public class DocumentCSSImpl implements ExtendedDocumentCSS {
 	 */
 	private Map styleDeclarationMap = null;
 
+	/**
+	 * key=style sheet, value = StyleRuleIndex
+	 */
+	private Map ruleIndexMap = null;
+
 	/*
 	 * (non-Javadoc)
 	 * @see org.w3c.dom.stylesheets.DocumentStyle#getStyleSheets()
@@ -63,6 +68,7 @@ public class DocumentCSSImpl implements ExtendedDocumentCSS {
 	 */
 	public void addStyleSheet(StyleSheet styleSheet) {
 		styleSheetList.addStyleSheet(styleSheet);
+		this.ruleIndexMap = null;
 	}
 
 	/*
@@ -72,6 +78,26 @@ public class DocumentCSSImpl implements ExtendedDocumentCSS {
 	public void removeAllStyleSheets() {
 		styleSheetList.removeAllStyleSheets();
 		this.styleDeclarationMap = null;
+		this.ruleIndexMap = null;
+	}
+
+	/**
+	 * Return the {@link StyleRuleIndex} of the given style sheet of this
+	 * document. The index is built on first use, and discarded when the style
+	 * sheets of this document change.
+	 * 
+	 * @param styleSheet
+	 * @return the rule index of the style sheet
+	 */
+	public StyleRuleIndex getRuleIndex(CSSStyleSheet styleSheet) {
+		if (ruleIndexMap == null)
+			ruleIndexMap = new HashMap();
+		StyleRuleIndex index = (StyleRuleIndex) ruleIndexMap.get(styleSheet);
+		if (index == null || !index.isValid(styleSheet)) {
+			index = new StyleRuleIndex(styleSheet);
+			ruleIndexMap.put(styleSheet, index);
+		}
+		return index;
 	}
 
 	public List queryConditionSelector(int conditionType) {
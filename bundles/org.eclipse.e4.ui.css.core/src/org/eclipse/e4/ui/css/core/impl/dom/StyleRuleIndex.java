@@ -0,0 +1,298 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.css.core.impl.dom;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.e4.ui.css.core.dom.CSSStylableElement;
+import org.eclipse.e4.ui.css.core.dom.ExtendedCSSRule;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSClassConditionImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSElementSelectorImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSIdConditionImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSPseudoClassConditionImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.ExtendedSelector;
+import org.w3c.css.sac.CombinatorCondition;
+import org.w3c.css.sac.Condition;
+import org.w3c.css.sac.ConditionalSelector;
+import org.w3c.css.sac.DescendantSelector;
+import org.w3c.css.sac.Selector;
+import org.w3c.css.sac.SelectorList;
+import org.w3c.css.sac.SiblingSelector;
+import org.w3c.dom.Element;
+import org.w3c.dom.css.CSSRule;
+import org.w3c.dom.css.CSSRuleList;
+import org.w3c.dom.css.CSSStyleRule;
+import org.w3c.dom.css.CSSStyleSheet;
+
+/**
+ * Index of the style rule selectors of a {@link CSSStyleSheet}, bucketed by
+ * the most selective part of their rightmost simple selector (id, CSS class,
+ * pseudo-class or element name). Selectors without such a part are kept in a
+ * universal bucket which is a candidate for every element.
+ * <p>
+ * The index does not match selectors itself: it only narrows down the
+ * selectors which can match a given element, in style sheet order.
+ */
+public class StyleRuleIndex {
+
+	/**
+	 * A selector of a style rule, with its position in the style sheet.
+	 */
+	public static class Entry {
+
+		private final int ordinal;
+
+		private final ExtendedSelector selector;
+
+		private final CSSStyleRule rule;
+
+		Entry(int ordinal, ExtendedSelector selector, CSSStyleRule rule) {
+			this.ordinal = ordinal;
+			this.selector = selector;
+			this.rule = rule;
+		}
+
+		public ExtendedSelector getSelector() {
+			return selector;
+		}
+
+		public CSSStyleRule getRule() {
+			return rule;
+		}
+	}
+
+	private static final Comparator ORDINAL_COMPARATOR = new Comparator() {
+		public int compare(Object o1, Object o2) {
+			return ((Entry) o1).ordinal - ((Entry) o2).ordinal;
+		}
+	};
+
+	private final CSSRuleList ruleList;
+
+	private final int ruleCount;
+
+	private final List universalEntries = new ArrayList();
+
+	private final Map elementEntries = new HashMap();
+
+	private final Map classEntries = new HashMap();
+
+	private final Map idEntries = new HashMap();
+
+	private final Map pseudoEntries = new HashMap();
+
+	/**
+	 * Builds the index of the style rules of the given style sheet.
+	 */
+	public StyleRuleIndex(CSSStyleSheet styleSheet) {
+		ruleList = styleSheet.getCssRules();
+		ruleCount = ruleList != null ? ruleList.getLength() : 0;
+		int ordinal = 0;
+		for (int i = 0; i < ruleCount; i++) {
+			CSSRule rule = ruleList.item(i);
+			if (rule.getType() != CSSRule.STYLE_RULE
+					|| !(rule instanceof ExtendedCSSRule)) {
+				continue;
+			}
+			SelectorList selectorList = ((ExtendedCSSRule) rule)
+					.getSelectorList();
+			int l = selectorList.getLength();
+			for (int j = 0; j < l; j++) {
+				Selector selector = selectorList.item(j);
+				if (selector instanceof ExtendedSelector) {
+					add(new Entry(ordinal++, (ExtendedSelector) selector,
+							(CSSStyleRule) rule));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if this index still reflects the rules of the
+	 * given style sheet.
+	 */
+	public boolean isValid(CSSStyleSheet styleSheet) {
+		CSSRuleList rules = styleSheet.getCssRules();
+		return rules == ruleList
+				&& (rules != null ? rules.getLength() : 0) == ruleCount;
+	}
+
+	/**
+	 * Returns the {@link Entry entries} whose selector may match the given
+	 * element, in style sheet order.
+	 */
+	public List getCandidates(Element elt, String pseudoElt) {
+		List candidates = new ArrayList(universalEntries);
+		addAll(candidates, elementEntries, getElementName(elt));
+
+		String id;
+		String classes;
+		if (elt instanceof CSSStylableElement) {
+			CSSStylableElement stylableElement = (CSSStylableElement) elt;
+			id = stylableElement.getCSSId();
+			classes = stylableElement.getCSSClass();
+		} else {
+			id = elt.getAttribute("id");
+			classes = elt.getAttribute("class");
+		}
+		if (id != null) {
+			addAll(candidates, idEntries, id);
+		}
+		if (classes != null && classes.length() > 0 && !classEntries.isEmpty()) {
+			Set seen = new HashSet();
+			int length = classes.length();
+			int start = 0;
+			while (start < length) {
+				while (start < length
+						&& Character.isSpaceChar(classes.charAt(start)))
+					start++;
+				int end = start;
+				while (end < length
+						&& !Character.isSpaceChar(classes.charAt(end)))
+					end++;
+				if (end > start) {
+					String className = classes.substring(start, end);
+					if (seen.add(className))
+						addAll(candidates, classEntries, className);
+				}
+				start = end;
+			}
+		}
+		if (pseudoElt != null) {
+			addAll(candidates, pseudoEntries, pseudoElt);
+		} else if (elt instanceof CSSStylableElement
+				&& !pseudoEntries.isEmpty()) {
+			CSSStylableElement stylableElement = (CSSStylableElement) elt;
+			for (Iterator iterator = pseudoEntries.entrySet().iterator(); iterator
+					.hasNext();) {
+				Map.Entry entry = (Map.Entry) iterator.next();
+				if (stylableElement.isPseudoInstanceOf((String) entry.getKey())) {
+					candidates.addAll((List) entry.getValue());
+				}
+			}
+		}
+		if (candidates.size() > 1) {
+			Collections.sort(candidates, ORDINAL_COMPARATOR);
+		}
+		return candidates;
+	}
+
+	private void add(Entry entry) {
+		Selector selector = getRightmostSelector(entry.selector);
+		if (selector instanceof ConditionalSelector) {
+			ConditionalSelector conditionalSelector = (ConditionalSelector) selector;
+			if (addToConditionBucket(entry, conditionalSelector.getCondition())) {
+				return;
+			}
+			selector = conditionalSelector.getSimpleSelector();
+		}
+		if (selector instanceof CSSElementSelectorImpl) {
+			String name = ((CSSElementSelectorImpl) selector).getLocalName();
+			if (name != null) {
+				getBucket(elementEntries, name).add(entry);
+				return;
+			}
+		}
+		universalEntries.add(entry);
+	}
+
+	private boolean addToConditionBucket(Entry entry, Condition condition) {
+		Condition key = getMostSelectiveCondition(condition);
+		if (key instanceof CSSIdConditionImpl) {
+			getBucket(idEntries, ((CSSIdConditionImpl) key).getValue()).add(
+					entry);
+			return true;
+		}
+		if (key instanceof CSSClassConditionImpl) {
+			getBucket(classEntries, ((CSSClassConditionImpl) key).getValue())
+					.add(entry);
+			return true;
+		}
+		if (key instanceof CSSPseudoClassConditionImpl) {
+			getBucket(pseudoEntries,
+					((CSSPseudoClassConditionImpl) key).getValue()).add(entry);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the id, class or pseudo-class condition (in that order of
+	 * preference) that must hold for the given condition to hold, or
+	 * <code>null</code> if there is none.
+	 */
+	private static Condition getMostSelectiveCondition(Condition condition) {
+		if (condition.getConditionType() == Condition.SAC_AND_CONDITION) {
+			CombinatorCondition combinator = (CombinatorCondition) condition;
+			Condition first = getMostSelectiveCondition(combinator
+					.getFirstCondition());
+			Condition second = getMostSelectiveCondition(combinator
+					.getSecondCondition());
+			return getRank(first) >= getRank(second) ? first : second;
+		}
+		return getRank(condition) > 0 ? condition : null;
+	}
+
+	private static int getRank(Condition condition) {
+		if (condition instanceof CSSIdConditionImpl)
+			return 3;
+		if (condition instanceof CSSClassConditionImpl)
+			return 2;
+		if (condition instanceof CSSPseudoClassConditionImpl)
+			return 1;
+		return 0;
+	}
+
+	/**
+	 * Returns the simple selector which a selector matches against the
+	 * element itself, rather than against its ancestors or siblings.
+	 */
+	private static Selector getRightmostSelector(Selector selector) {
+		switch (selector.getSelectorType()) {
+		case Selector.SAC_DESCENDANT_SELECTOR:
+		case Selector.SAC_CHILD_SELECTOR:
+			return ((DescendantSelector) selector).getSimpleSelector();
+		case Selector.SAC_DIRECT_ADJACENT_SELECTOR:
+			return ((SiblingSelector) selector).getSiblingSelector();
+		}
+		return selector;
+	}
+
+	private static String getElementName(Element elt) {
+		// Same as CSSElementSelectorImpl#match(Element, String)
+		return elt.getPrefix() == null ? elt.getNodeName() : elt
+				.getLocalName();
+	}
+
+	private static List getBucket(Map buckets, String key) {
+		List bucket = (List) buckets.get(key);
+		if (bucket == null) {
+			bucket = new ArrayList();
+			buckets.put(key, bucket);
+		}
+		return bucket;
+	}
+
+	private static void addAll(List candidates, Map buckets, String key) {
+		if (key == null)
+			return;
+		List bucket = (List) buckets.get(key);
+		if (bucket != null)
+			candidates.addAll(bucket);
+	}
+}
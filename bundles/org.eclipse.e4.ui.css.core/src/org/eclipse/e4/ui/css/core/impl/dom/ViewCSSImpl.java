@@ -71,6 +71,11 @@ public class ViewCSSImpl implements ViewCSS {
 
 	public CSSStyleDeclaration getComputedStyle(CSSStyleSheet styleSheet,
 			Element elt, String pseudoElt) {
+		if (documentCSS instanceof DocumentCSSImpl) {
+			StyleRuleIndex ruleIndex = ((DocumentCSSImpl) documentCSS)
+					.getRuleIndex(styleSheet);
+			return getComputedStyle(ruleIndex, elt, pseudoElt);
+		}
 		List styleDeclarations = null;
 		StyleWrapper firstStyleDeclaration = null;
 		CSSRuleList ruleList = styleSheet.getCssRules();
@@ -132,4 +137,45 @@ public class ViewCSSImpl implements ViewCSS {
 		}
 		return null;
 	}
+
+	/**
+	 * Compute the style of the element from the rules of the given index,
+	 * evaluating only the selectors which can match the element.
+	 */
+	private CSSStyleDeclaration getComputedStyle(StyleRuleIndex ruleIndex,
+			Element elt, String pseudoElt) {
+		List styleDeclarations = null;
+		StyleWrapper firstStyleDeclaration = null;
+		List candidates = ruleIndex.getCandidates(elt, pseudoElt);
+		int position = 0;
+		int size = candidates.size();
+		for (int i = 0; i < size; i++) {
+			StyleRuleIndex.Entry entry = (StyleRuleIndex.Entry) candidates
+					.get(i);
+			ExtendedSelector extendedSelector = entry.getSelector();
+			if (extendedSelector.match(elt, pseudoElt)) {
+				StyleWrapper wrapper = new StyleWrapper(entry.getRule()
+						.getStyle(), extendedSelector.getSpecificity(),
+						position++);
+				if (firstStyleDeclaration == null) {
+					firstStyleDeclaration = wrapper;
+				} else {
+					// There is several Style Declarations which
+					// match the current element
+					if (styleDeclarations == null) {
+						styleDeclarations = new ArrayList();
+						styleDeclarations.add(firstStyleDeclaration);
+					}
+					styleDeclarations.add(wrapper);
+				}
+			}
+		}
+		if (styleDeclarations != null) {
+			return new CSSComputedStyleImpl(styleDeclarations);
+		}
+		if (firstStyleDeclaration != null) {
+			return firstStyleDeclaration.style;
+		}
+		return null;
+	}
 }
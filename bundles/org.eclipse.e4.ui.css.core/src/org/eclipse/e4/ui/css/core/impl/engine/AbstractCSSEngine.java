@@ -101,6 +101,11 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 	 */
 	private ViewCSS viewCSS;
 
+	/**
+	 * Cache of the styles computed by {@link #viewCSS}.
+	 */
+	private ComputedStyleCache computedStyleCache;
+
 	/**
 	 * {@link IElementProvider} used to retrieve w3c Element linked to the
 	 * widget.
@@ -142,6 +147,7 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 	public AbstractCSSEngine(ExtendedDocumentCSS documentCSS) {
 		this.documentCSS = documentCSS;
 		this.viewCSS = new ViewCSSImpl(documentCSS);
+		this.computedStyleCache = new ComputedStyleCache(documentCSS, viewCSS);
 	}
 
 	/*--------------- Parse style sheet -----------------*/
@@ -225,6 +231,7 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 		if (documentCSS instanceof ExtendedDocumentCSS) {
 			if (!parseImport) {
 				documentCSS.addStyleSheet(s);
+				computedStyleCache.clear();
 			}
 		}
 		return s;
@@ -418,7 +425,8 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 			/*
 			 * Compute new Style to apply.
 			 */
-			CSSStyleDeclaration style = viewCSS.getComputedStyle(elt, null);
+			CSSStyleDeclaration style = computedStyleCache.getComputedStyle(elt,
+					null);
 			if (computeDefaultStyle) {
 				if (applyStylesToChildNodes)
 					this.computeDefaultStyle = computeDefaultStyle;
@@ -437,7 +445,7 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 				// apply styles for each pseudo instance.
 				for (int i = 0; i < pseudoInstances.length; i++) {
 					String pseudoInstance = pseudoInstances[i];
-					CSSStyleDeclaration styleWithPseudoInstance = viewCSS
+					CSSStyleDeclaration styleWithPseudoInstance = computedStyleCache
 							.getComputedStyle(elt, pseudoInstance);
 					if (computeDefaultStyle) {
 						/*
@@ -1041,6 +1049,14 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 		return viewCSS;
 	}
 
+	/**
+	 * Return the cache of the styles computed while applying styles, which
+	 * keeps hit and miss counts.
+	 */
+	public ComputedStyleCache getComputedStyleCache() {
+		return computedStyleCache;
+	}
+
 	public void dispose() {
 		reset();
 		// Call dispose for each CSSStylableElement which was registered
@@ -1062,6 +1078,7 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 	public void reset() {
 		// Remove All Style Sheets
 		((ExtendedDocumentCSS) documentCSS).removeAllStyleSheets();
+		computedStyleCache.clear();
 	}
 
 	/*--------------- Resources Registry -----------------*/
@@ -0,0 +1,375 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.css.core.impl.engine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import org.eclipse.e4.ui.css.core.dom.CSSStylableElement;
+import org.eclipse.e4.ui.css.core.dom.ExtendedCSSRule;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSClassConditionImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSIdConditionImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSPseudoClassConditionImpl;
+import org.w3c.css.sac.AttributeCondition;
+import org.w3c.css.sac.CombinatorCondition;
+import org.w3c.css.sac.Condition;
+import org.w3c.css.sac.ConditionalSelector;
+import org.w3c.css.sac.DescendantSelector;
+import org.w3c.css.sac.Selector;
+import org.w3c.css.sac.SelectorList;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.css.CSSRule;
+import org.w3c.dom.css.CSSRuleList;
+import org.w3c.dom.css.CSSStyleDeclaration;
+import org.w3c.dom.css.CSSStyleSheet;
+import org.w3c.dom.css.DocumentCSS;
+import org.w3c.dom.css.ViewCSS;
+import org.w3c.dom.stylesheets.StyleSheet;
+import org.w3c.dom.stylesheets.StyleSheetList;
+
+/**
+ * Cache of the styles computed by a {@link ViewCSS}, keyed by the style
+ * signature of the element.
+ * <p>
+ * The signature of an element is made of everything the selectors of the
+ * style sheets can match against: the element name, CSS id and CSS class, the
+ * value of the attributes used in attribute conditions, and the state of the
+ * pseudo classes used in pseudo class conditions. When the style sheets use
+ * descendant or child selectors, the signatures of the ancestors of the
+ * element are part of its signature. Elements with the same signature have
+ * the same computed style, which is therefore computed only once.
+ * <p>
+ * The selectors of the style sheets are analysed lazily, and again whenever
+ * the style sheets of the document change. Sibling selectors depend on the
+ * position of the element in its parent, which is not part of the signature:
+ * if they are used, nothing is cached.
+ */
+public class ComputedStyleCache {
+
+	/**
+	 * Number of cached styles above which the cache is cleared, so that
+	 * attributes with many different values don't make it grow unbounded.
+	 */
+	private static final int MAX_SIZE = 4096;
+
+	private static final Object NULL_STYLE = new Object();
+
+	private static final char SEPARATOR = '\u0000';
+
+	private static final char ANCESTOR_SEPARATOR = '\u0001';
+
+	private static final char NULL_VALUE = '\u0002';
+
+	private final DocumentCSS documentCSS;
+
+	private final ViewCSS viewCSS;
+
+	private final Map<String, Object> styles = new HashMap<String, Object>();
+
+	/**
+	 * A style sheet, with the rules it had when it was analysed.
+	 */
+	private static class ProfiledSheet {
+
+		private final StyleSheet styleSheet;
+
+		private final CSSRuleList rules;
+
+		private final int ruleCount;
+
+		ProfiledSheet(StyleSheet styleSheet) {
+			this.styleSheet = styleSheet;
+			rules = styleSheet instanceof CSSStyleSheet ? ((CSSStyleSheet) styleSheet)
+					.getCssRules() : null;
+			ruleCount = rules != null ? rules.getLength() : 0;
+		}
+
+		boolean isValid(StyleSheet sheet) {
+			if (sheet != styleSheet)
+				return false;
+			if (rules == null)
+				return !(sheet instanceof CSSStyleSheet)
+						|| ((CSSStyleSheet) sheet).getCssRules() == null;
+			return ((CSSStyleSheet) sheet).getCssRules() == rules
+					&& rules.getLength() == ruleCount;
+		}
+	}
+
+	/**
+	 * The style sheets the selector profile below was computed from, or
+	 * <code>null</code> if it must be computed again.
+	 */
+	private List<ProfiledSheet> profiledSheets;
+
+	private boolean cacheable;
+
+	private boolean matchesAncestors;
+
+	private String[] attributes;
+
+	private String[] pseudoClasses;
+
+	private int hitCount;
+
+	private int missCount;
+
+	public ComputedStyleCache(DocumentCSS documentCSS, ViewCSS viewCSS) {
+		this.documentCSS = documentCSS;
+		this.viewCSS = viewCSS;
+	}
+
+	/**
+	 * Returns the style computed by the view for the given element and pseudo
+	 * element, computing it only if no element with the same signature was
+	 * styled since the style sheets last changed.
+	 *
+	 * @see ViewCSS#getComputedStyle(Element, String)
+	 */
+	public CSSStyleDeclaration getComputedStyle(Element elt, String pseudoElt) {
+		if (!isProfileValid()) {
+			clear();
+			computeProfile();
+		}
+		if (!cacheable) {
+			missCount++;
+			return viewCSS.getComputedStyle(elt, pseudoElt);
+		}
+
+		StringBuilder signature = new StringBuilder();
+		appendValue(signature, pseudoElt);
+		appendSignature(signature, elt);
+		if (matchesAncestors) {
+			for (Node node = elt.getParentNode(); node != null; node = node
+					.getParentNode()) {
+				if (node.getNodeType() == Node.ELEMENT_NODE) {
+					signature.append(ANCESTOR_SEPARATOR);
+					appendSignature(signature, (Element) node);
+				}
+			}
+		}
+		String key = signature.toString();
+
+		Object style = styles.get(key);
+		if (style != null) {
+			hitCount++;
+			return style == NULL_STYLE ? null : (CSSStyleDeclaration) style;
+		}
+		missCount++;
+		CSSStyleDeclaration computedStyle = viewCSS.getComputedStyle(elt,
+				pseudoElt);
+		if (styles.size() >= MAX_SIZE) {
+			styles.clear();
+		}
+		styles.put(key, computedStyle == null ? NULL_STYLE : computedStyle);
+		return computedStyle;
+	}
+
+	/**
+	 * Discards the cached styles and the analysis of the style sheets.
+	 */
+	public void clear() {
+		styles.clear();
+		profiledSheets = null;
+	}
+
+	/**
+	 * Returns the number of styles returned from the cache.
+	 */
+	public int getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * Returns the number of styles computed by the view.
+	 */
+	public int getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * Returns the number of styles currently cached.
+	 */
+	public int size() {
+		return styles.size();
+	}
+
+	/**
+	 * Resets the hit and miss counts to zero.
+	 */
+	public void resetStatistics() {
+		hitCount = 0;
+		missCount = 0;
+	}
+
+	private void appendSignature(StringBuilder signature, Element elt) {
+		signature.append(SEPARATOR);
+		// Same as CSSElementSelectorImpl#match(Element, String)
+		appendValue(signature, elt.getPrefix() == null ? elt.getNodeName()
+				: elt.getLocalName());
+		signature.append(SEPARATOR);
+		appendValue(signature, elt.getNamespaceURI());
+
+		String id;
+		String classes;
+		if (elt instanceof CSSStylableElement) {
+			CSSStylableElement stylableElement = (CSSStylableElement) elt;
+			id = stylableElement.getCSSId();
+			classes = stylableElement.getCSSClass();
+		} else {
+			id = elt.getAttribute("id");
+			classes = elt.getAttribute("class");
+		}
+		signature.append(SEPARATOR);
+		appendValue(signature, id);
+		signature.append(SEPARATOR);
+		appendValue(signature, classes);
+
+		for (int i = 0; i < attributes.length; i++) {
+			signature.append(SEPARATOR);
+			appendValue(signature, elt.getAttribute(attributes[i]));
+		}
+
+		if (pseudoClasses.length > 0) {
+			signature.append(SEPARATOR);
+			if (elt instanceof CSSStylableElement) {
+				CSSStylableElement stylableElement = (CSSStylableElement) elt;
+				for (int i = 0; i < pseudoClasses.length; i++) {
+					String pseudoClass = pseudoClasses[i];
+					if (!stylableElement.isPseudoInstanceOf(pseudoClass)) {
+						signature.append('0');
+					} else if (stylableElement
+							.isStaticPseudoInstance(pseudoClass)) {
+						signature.append('2');
+					} else {
+						signature.append('1');
+					}
+				}
+			}
+		}
+	}
+
+	private static void appendValue(StringBuilder signature, String value) {
+		if (value == null)
+			signature.append(NULL_VALUE);
+		else
+			signature.append(value);
+	}
+
+	private boolean isProfileValid() {
+		if (profiledSheets == null)
+			return false;
+		StyleSheetList styleSheets = documentCSS.getStyleSheets();
+		int length = styleSheets.getLength();
+		if (profiledSheets.size() != length)
+			return false;
+		for (int i = 0; i < length; i++) {
+			if (!profiledSheets.get(i).isValid(styleSheets.item(i)))
+				return false;
+		}
+		return true;
+	}
+
+	private void computeProfile() {
+		profiledSheets = new ArrayList<ProfiledSheet>();
+		cacheable = true;
+		matchesAncestors = false;
+		TreeSet<String> attributeSet = new TreeSet<String>();
+		TreeSet<String> pseudoClassSet = new TreeSet<String>();
+
+		StyleSheetList styleSheets = documentCSS.getStyleSheets();
+		int length = styleSheets.getLength();
+		for (int i = 0; i < length; i++) {
+			ProfiledSheet profiledSheet = new ProfiledSheet(styleSheets.item(i));
+			profiledSheets.add(profiledSheet);
+			CSSRuleList rules = profiledSheet.rules;
+			for (int j = 0; j < profiledSheet.ruleCount; j++) {
+				CSSRule rule = rules.item(j);
+				if (rule.getType() != CSSRule.STYLE_RULE
+						|| !(rule instanceof ExtendedCSSRule)) {
+					continue;
+				}
+				SelectorList selectors = ((ExtendedCSSRule) rule)
+						.getSelectorList();
+				for (int k = 0; k < selectors.getLength(); k++) {
+					addSelector(selectors.item(k), attributeSet,
+							pseudoClassSet);
+				}
+			}
+		}
+		attributes = attributeSet.toArray(new String[attributeSet.size()]);
+		pseudoClasses = pseudoClassSet.toArray(new String[pseudoClassSet
+				.size()]);
+	}
+
+	private void addSelector(Selector selector, TreeSet<String> attributeSet,
+			TreeSet<String> pseudoClassSet) {
+		switch (selector.getSelectorType()) {
+		case Selector.SAC_CONDITIONAL_SELECTOR:
+			ConditionalSelector conditionalSelector = (ConditionalSelector) selector;
+			addSelector(conditionalSelector.getSimpleSelector(), attributeSet,
+					pseudoClassSet);
+			addCondition(conditionalSelector.getCondition(), attributeSet,
+					pseudoClassSet);
+			break;
+		case Selector.SAC_DESCENDANT_SELECTOR:
+		case Selector.SAC_CHILD_SELECTOR:
+			DescendantSelector descendantSelector = (DescendantSelector) selector;
+			matchesAncestors = true;
+			addSelector(descendantSelector.getAncestorSelector(),
+					attributeSet, pseudoClassSet);
+			addSelector(descendantSelector.getSimpleSelector(), attributeSet,
+					pseudoClassSet);
+			break;
+		case Selector.SAC_ELEMENT_NODE_SELECTOR:
+		case Selector.SAC_PSEUDO_ELEMENT_SELECTOR:
+		case Selector.SAC_ANY_NODE_SELECTOR:
+			break;
+		default:
+			// Sibling selectors, and anything unknown
+			cacheable = false;
+		}
+	}
+
+	private void addCondition(Condition condition,
+			TreeSet<String> attributeSet, TreeSet<String> pseudoClassSet) {
+		if (condition instanceof CSSIdConditionImpl
+				|| condition instanceof CSSClassConditionImpl) {
+			return;
+		}
+		if (condition instanceof CSSPseudoClassConditionImpl) {
+			pseudoClassSet.add(((CSSPseudoClassConditionImpl) condition)
+					.getValue());
+			return;
+		}
+		switch (condition.getConditionType()) {
+		case Condition.SAC_AND_CONDITION:
+			CombinatorCondition combinator = (CombinatorCondition) condition;
+			addCondition(combinator.getFirstCondition(), attributeSet,
+					pseudoClassSet);
+			addCondition(combinator.getSecondCondition(), attributeSet,
+					pseudoClassSet);
+			break;
+		case Condition.SAC_ATTRIBUTE_CONDITION:
+		case Condition.SAC_ONE_OF_ATTRIBUTE_CONDITION:
+		case Condition.SAC_BEGIN_HYPHEN_ATTRIBUTE_CONDITION:
+			attributeSet.add(((AttributeCondition) condition).getLocalName());
+			break;
+		case Condition.SAC_LANG_CONDITION:
+			attributeSet.add("lang");
+			break;
+		default:
+			cacheable = false;
+		}
+	}
+}
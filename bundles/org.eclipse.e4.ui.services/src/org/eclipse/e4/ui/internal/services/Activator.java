@@ -10,10 +10,13 @@
  *******************************************************************************/
 package org.eclipse.e4.ui.internal.services;
 
+import org.eclipse.e4.ui.services.internal.events.EventTopicTracker;
+import org.eclipse.e4.ui.services.internal.events.TopicEventBroker;
 import org.osgi.framework.BundleActivator;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.ServiceRegistration;
 import org.osgi.service.event.EventAdmin;
+import org.osgi.service.log.LogService;
 import org.osgi.util.tracker.ServiceTracker;
 
 public class Activator implements BundleActivator {
@@ -26,6 +29,8 @@ public class Activator implements BundleActivator {
 	private ServiceRegistration handlerServiceReg;
 	
 	private ServiceTracker eventAdminTracker;
+	private ServiceTracker logTracker;
+	private volatile EventTopicTracker eventTopicTracker;
 	private BundleContext bundleContext;
 
 	/*
@@ -38,6 +43,8 @@ public class Activator implements BundleActivator {
 
 	public void start(BundleContext context) throws Exception {
 		bundleContext = context;
+		eventTopicTracker = new EventTopicTracker(context);
+		eventTopicTracker.open();
 		singleton = this;
 	}
 	
@@ -52,7 +59,44 @@ public class Activator implements BundleActivator {
 		return (EventAdmin) eventAdminTracker.getService();
 	}
 
+	/*
+	 * Return the log service, if available.
+	 */
+	public synchronized LogService getLogService() {
+		if (logTracker == null) {
+			logTracker = new ServiceTracker(bundleContext, LogService.class.getName(), null);
+			logTracker.open();
+		}
+		return (LogService) logTracker.getService();
+	}
+
+	/*
+	 * Log the message through the log service, or to the standard error if
+	 * the bundle is not active or there is no log service.
+	 */
+	public static void log(int level, String message, Throwable exception) {
+		Activator activator = singleton;
+		LogService logService = activator == null ? null : activator.getLogService();
+		if (logService != null) {
+			logService.log(level, message, exception);
+		} else {
+			System.err.println(message);
+			if (exception != null) {
+				exception.printStackTrace(System.err);
+			}
+		}
+	}
+
+	/*
+	 * Return the tracker of the topics event handler services are registered
+	 * for, or null if the bundle is not active.
+	 */
+	public EventTopicTracker getEventTopicTracker() {
+		return eventTopicTracker;
+	}
+
 	public void stop(BundleContext context) throws Exception {
+		TopicEventBroker.shutdown();
 		if (contextServiceReg != null) {
 			contextServiceReg.unregister();
 			contextServiceReg = null;
@@ -66,6 +110,17 @@ public class Activator implements BundleActivator {
 			eventAdminTracker.close();
 			eventAdminTracker = null;
 		}
+		synchronized (this) {
+			if (logTracker != null) {
+				logTracker.close();
+				logTracker = null;
+			}
+		}
+		EventTopicTracker tracker = eventTopicTracker;
+		if (tracker != null) {
+			eventTopicTracker = null;
+			tracker.close();
+		}
 		bundleContext = null;
 		singleton = null;
 	}
@@ -18,6 +18,8 @@ public class ServiceMessages extends NLS {
 	// Event broker
 	public static String NO_EVENT_ADMIN;
 	public static String NO_BUNDLE_CONTEXT;
+	public static String INVALID_EVENT_FILTER;
+	public static String EVENT_HANDLER_FAILED;
 	
 	static {
 		// load message values from bundle file
@@ -15,6 +15,7 @@ import org.eclipse.e4.core.contexts.ContextInjectionFactory;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.services.events.IEventBroker;
 import org.eclipse.e4.ui.services.internal.events.EventBroker;
+import org.eclipse.e4.ui.services.internal.events.TopicEventBroker;
 
 
 
@@ -22,14 +23,33 @@ import org.eclipse.e4.ui.services.internal.events.EventBroker;
  * Use this class to obtain an instance of {@link IEventBroker}.
  */
 public class EventBrokerFactory extends ContextFunction {
+
+	/**
+	 * The context key, or system property, which selects the broker dispatching
+	 * the events to its subscribers directly rather than through the OSGi event
+	 * admin when set to <code>true</code>. The value is looked up in the context
+	 * the broker is created for, so it can be set for parts of the context
+	 * hierarchy only.
+	 */
+	public static final String IN_PROCESS_DISPATCH = "org.eclipse.e4.ui.services.events.inProcessDispatch"; //$NON-NLS-1$
+
 	@Override
 	public Object compute(IEclipseContext context, String contextKey) {
         EventBroker broker = context.getLocal(EventBroker.class);
 		if (broker == null) {
-            broker = ContextInjectionFactory.make(EventBroker.class, context);
+			Class<? extends EventBroker> brokerClass = isInProcessDispatch(context) ? TopicEventBroker.class
+					: EventBroker.class;
+            broker = ContextInjectionFactory.make(brokerClass, context);
             context.set(EventBroker.class, broker);
 		}
 		return broker;
 	}
+
+	private boolean isInProcessDispatch(IEclipseContext context) {
+		Object value = context.get(IN_PROCESS_DISPATCH);
+		if (value == null)
+			return Boolean.getBoolean(IN_PROCESS_DISPATCH);
+		return Boolean.TRUE.equals(value) || "true".equals(value); //$NON-NLS-1$
+	}
 }
 
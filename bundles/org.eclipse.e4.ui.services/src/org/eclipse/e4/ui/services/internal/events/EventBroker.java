@@ -92,6 +92,25 @@ public class EventBroker implements IEventBroker {
 		return true;
 	}
 
+	/**
+	 * Returns whether an event handler is subscribed to the given topic, so
+	 * that events nobody handles don't have to be created. Event filters are
+	 * not taken into account.
+	 * 
+	 * @param topic
+	 *            the event topic
+	 * @return <code>false</code> if an event sent to the topic would not be
+	 *         handled
+	 */
+	public boolean hasSubscribers(String topic) {
+		Activator activator = Activator.getDefault();
+		EventTopicTracker tracker = activator == null ? null : activator
+				.getEventTopicTracker();
+		if (tracker == null)
+			return true;
+		return tracker.hasSubscribers(topic) || TopicEventBroker.hasSubscriptions(topic);
+	}
+
 	@SuppressWarnings("unchecked")
 	private Event constructEvent(String topic, Object data) {
 		Event event;
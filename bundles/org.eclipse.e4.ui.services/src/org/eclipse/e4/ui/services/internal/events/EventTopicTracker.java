@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.e4.ui.services.internal.events;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceReference;
+import org.osgi.service.event.EventConstants;
+import org.osgi.service.event.EventHandler;
+import org.osgi.util.tracker.ServiceTracker;
+
+/**
+ * Tracks the topics of the registered {@link EventHandler} services, so that
+ * events nobody listens to don't have to be created.
+ * <p>
+ * Event filters are not taken into account: a topic is considered subscribed
+ * to as soon as one handler's topics match it. The handler through which
+ * {@link TopicEventBroker} receives the events sent through the event admin is
+ * ignored.
+ */
+public class EventTopicTracker extends ServiceTracker {
+
+	private Map<String, Boolean> subscribedTopics = new HashMap<String, Boolean>();
+
+	/**
+	 * The references of the handlers, kept here since the tracker only adds a
+	 * service once {@link #addingService(ServiceReference)} returns
+	 */
+	private Set<ServiceReference> references = new HashSet<ServiceReference>();
+
+	/**
+	 * @param context
+	 *            the bundle context to track the event handlers with
+	 */
+	public EventTopicTracker(BundleContext context) {
+		super(context, EventHandler.class.getName(), null);
+	}
+
+	public Object addingService(ServiceReference reference) {
+		Object service = super.addingService(reference);
+		if (service != null) {
+			synchronized (this) {
+				references.add(reference);
+				subscribedTopics.clear();
+			}
+		}
+		return service;
+	}
+
+	public void modifiedService(ServiceReference reference, Object service) {
+		synchronized (this) {
+			subscribedTopics.clear();
+		}
+	}
+
+	public void removedService(ServiceReference reference, Object service) {
+		synchronized (this) {
+			references.remove(reference);
+			subscribedTopics.clear();
+		}
+		super.removedService(reference, service);
+	}
+
+	/**
+	 * Returns whether an event handler is registered for the given topic.
+	 *
+	 * @param topic
+	 *            the event topic
+	 * @return <code>true</code> if an event sent to the topic may be handled
+	 */
+	public synchronized boolean hasSubscribers(String topic) {
+		Boolean subscribed = subscribedTopics.get(topic);
+		if (subscribed == null) {
+			subscribed = Boolean.valueOf(matchesHandler(topic));
+			subscribedTopics.put(topic, subscribed);
+		}
+		return subscribed.booleanValue();
+	}
+
+	private boolean matchesHandler(String topic) {
+		for (ServiceReference reference : references) {
+			if (reference.getProperty(TopicEventBroker.BRIDGE_PROPERTY) != null)
+				continue;
+			Object topics = reference.getProperty(EventConstants.EVENT_TOPIC);
+			if (topics instanceof String) {
+				if (matches((String) topics, topic))
+					return true;
+			} else if (topics instanceof String[]) {
+				for (String pattern : (String[]) topics) {
+					if (matches(pattern, topic))
+						return true;
+				}
+			} else if (topics instanceof Collection<?>) {
+				for (Object pattern : (Collection<?>) topics) {
+					if (pattern instanceof String && matches((String) pattern, topic))
+						return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static boolean matches(String pattern, String topic) {
+		// See the EventConstants.EVENT_TOPIC wildcard rules
+		if (pattern.equals("*")) //$NON-NLS-1$
+			return true;
+		if (pattern.endsWith("/*")) //$NON-NLS-1$
+			return topic.startsWith(pattern.substring(0, pattern.length() - 1));
+		return pattern.equals(topic);
+	}
+}
@@ -0,0 +1,288 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.services.internal.events;
+
+import java.util.ArrayList;
+import java.util.Dictionary;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import javax.annotation.PreDestroy;
+import org.eclipse.e4.core.services.events.IEventBroker;
+import org.eclipse.e4.core.services.log.Logger;
+import org.eclipse.e4.ui.internal.services.Activator;
+import org.eclipse.e4.ui.internal.services.ServiceMessages;
+import org.eclipse.e4.ui.services.internal.events.TopicTrie.Subscription;
+import org.eclipse.osgi.util.NLS;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.Filter;
+import org.osgi.framework.FrameworkUtil;
+import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.ServiceRegistration;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventAdmin;
+import org.osgi.service.event.EventConstants;
+import org.osgi.service.event.EventHandler;
+import org.osgi.service.log.LogService;
+
+/**
+ * An {@link IEventBroker} which dispatches the events to its subscribers
+ * directly, rather than through the OSGi event admin.
+ * <p>
+ * The subscriptions of all the brokers of this type are kept in a single
+ * {@link TopicTrie}, so that events sent through one broker reach the
+ * subscribers of the others, as with the event admin. Their event filters are
+ * compiled once, when subscribing. Events are still sent through the event
+ * admin when an {@link EventHandler} service is registered for their topic, and
+ * the events sent through the event admin by others are dispatched to the
+ * subscribers of these brokers.
+ * </p>
+ * <p>
+ * This broker is used in the contexts where
+ * {@link org.eclipse.e4.ui.services.events.EventBrokerFactory#IN_PROCESS_DISPATCH}
+ * is set.
+ * </p>
+ */
+public class TopicEventBroker extends EventBroker {
+
+	/**
+	 * The service property marking the event handler through which the events
+	 * sent through the event admin are dispatched to the subscribers.
+	 */
+	static final String BRIDGE_PROPERTY = "org.eclipse.e4.ui.services.events.bridge"; //$NON-NLS-1$
+
+	/**
+	 * The event property marking the events which were already dispatched to
+	 * the subscribers before being sent through the event admin.
+	 */
+	private static final String DISPATCHED_PROPERTY = "org.eclipse.e4.ui.services.events.dispatched"; //$NON-NLS-1$
+
+	private static final TopicTrie trie = new TopicTrie();
+
+	private static ServiceRegistration<?> bridgeRegistration;
+
+	private static ExecutorService postExecutor;
+
+	private static final EventHandler bridge = new EventHandler() {
+		public void handleEvent(Event event) {
+			if (event.getProperty(DISPATCHED_PROPERTY) == null)
+				dispatch(event, trie.match(event.getTopic()), null);
+		}
+	};
+
+	private Map<EventHandler, List<Subscription>> subscriptions = new HashMap<EventHandler, List<Subscription>>();
+
+	/**
+	 * Returns whether a subscriber of a broker of this type is subscribed to
+	 * the given topic.
+	 */
+	static boolean hasSubscriptions(String topic) {
+		return trie.hasSubscriptions(topic);
+	}
+
+	/**
+	 * Unregisters the event admin bridge and stops the dispatch of posted
+	 * events.
+	 */
+	public static synchronized void shutdown() {
+		if (bridgeRegistration != null) {
+			try {
+				bridgeRegistration.unregister();
+			} catch (IllegalStateException e) {
+				// already unregistered
+			}
+			bridgeRegistration = null;
+		}
+		if (postExecutor != null) {
+			postExecutor.shutdown();
+			postExecutor = null;
+		}
+	}
+
+	private static synchronized void registerBridge() {
+		if (bridgeRegistration != null)
+			return;
+		Activator activator = Activator.getDefault();
+		BundleContext bundleContext = activator == null ? null : activator.getBundleContext();
+		if (bundleContext == null)
+			return;
+		Dictionary<String, Object> d = new Hashtable<String, Object>();
+		d.put(EventConstants.EVENT_TOPIC, new String[] { "*" }); //$NON-NLS-1$
+		d.put(BRIDGE_PROPERTY, Boolean.TRUE);
+		bridgeRegistration = bundleContext.registerService(EventHandler.class.getName(), bridge, d);
+	}
+
+	private static synchronized ExecutorService getPostExecutor() {
+		if (postExecutor == null) {
+			postExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "Event Broker Dispatcher"); //$NON-NLS-1$
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return postExecutor;
+	}
+
+	private static void dispatch(Event event, Subscription[] matched, Logger logger) {
+		for (Subscription subscription : matched) {
+			if (!subscription.matches(event))
+				continue;
+			try {
+				subscription.wrappedHandler.handleEvent(event);
+			} catch (RuntimeException e) {
+				String message = NLS.bind(ServiceMessages.EVENT_HANDLER_FAILED, event.getTopic(),
+						subscription.handler);
+				if (logger != null) {
+					logger.error(e, message);
+				} else {
+					Activator.log(LogService.LOG_ERROR, message, e);
+				}
+			}
+		}
+	}
+
+	public boolean send(String topic, Object data) {
+		Subscription[] matched = trie.match(topic);
+		boolean forward = hasEventAdminSubscribers(topic);
+		if (matched.length == 0 && !forward)
+			return true;
+		Event event = constructEvent(topic, data, forward);
+		dispatch(event, matched, logger);
+		if (forward) {
+			Activator activator = Activator.getDefault();
+			EventAdmin eventAdmin = activator == null ? null : activator.getEventAdmin();
+			if (eventAdmin == null) {
+				logger.error(NLS.bind(ServiceMessages.NO_EVENT_ADMIN, event.toString()));
+				return false;
+			}
+			eventAdmin.sendEvent(event);
+		}
+		return true;
+	}
+
+	public boolean post(String topic, Object data) {
+		final Subscription[] matched = trie.match(topic);
+		boolean forward = hasEventAdminSubscribers(topic);
+		if (matched.length == 0 && !forward)
+			return true;
+		final Event event = constructEvent(topic, data, forward);
+		if (matched.length > 0) {
+			getPostExecutor().execute(new Runnable() {
+				public void run() {
+					dispatch(event, matched, logger);
+				}
+			});
+		}
+		if (forward) {
+			Activator activator = Activator.getDefault();
+			EventAdmin eventAdmin = activator == null ? null : activator.getEventAdmin();
+			if (eventAdmin == null) {
+				logger.error(NLS.bind(ServiceMessages.NO_EVENT_ADMIN, event.toString()));
+				return false;
+			}
+			eventAdmin.postEvent(event);
+		}
+		return true;
+	}
+
+	private boolean hasEventAdminSubscribers(String topic) {
+		Activator activator = Activator.getDefault();
+		EventTopicTracker tracker = activator == null ? null : activator.getEventTopicTracker();
+		return tracker != null && tracker.hasSubscribers(topic);
+	}
+
+	@SuppressWarnings("unchecked")
+	private Event constructEvent(String topic, Object data, boolean forward) {
+		if (!forward) {
+			if (data instanceof Dictionary<?, ?>)
+				return new Event(topic, (Dictionary<String, ?>) data);
+			if (data instanceof Map<?, ?>)
+				return new Event(topic, (Map<String, ?>) data);
+		}
+		Map<String, Object> properties = new HashMap<String, Object>();
+		if (data instanceof Dictionary<?, ?>) {
+			Dictionary<String, ?> d = (Dictionary<String, ?>) data;
+			for (Enumeration<String> keys = d.keys(); keys.hasMoreElements();) {
+				String key = keys.nextElement();
+				properties.put(key, d.get(key));
+			}
+		} else if (data instanceof Map<?, ?>) {
+			properties.putAll((Map<String, ?>) data);
+		} else {
+			properties.put(EventConstants.EVENT_TOPIC, topic);
+			if (data != null)
+				properties.put(IEventBroker.DATA, data);
+		}
+		if (forward)
+			properties.put(DISPATCHED_PROPERTY, Boolean.TRUE);
+		return new Event(topic, properties);
+	}
+
+	public boolean subscribe(String topic, String filter, EventHandler eventHandler,
+			boolean headless) {
+		Filter compiledFilter = null;
+		if (filter != null) {
+			try {
+				compiledFilter = FrameworkUtil.createFilter(filter);
+			} catch (InvalidSyntaxException e) {
+				logger.error(e, NLS.bind(ServiceMessages.INVALID_EVENT_FILTER, filter, topic));
+				return false;
+			}
+		}
+		registerBridge();
+		EventHandler wrappedHandler = new UIEventHandler(eventHandler, headless ? null : uiSync);
+		Subscription subscription = new Subscription(topic, compiledFilter, eventHandler,
+				wrappedHandler);
+		synchronized (subscriptions) {
+			List<Subscription> handled = subscriptions.get(eventHandler);
+			if (handled == null) {
+				subscriptions.put(eventHandler, handled = new ArrayList<Subscription>());
+			}
+			handled.add(subscription);
+		}
+		trie.add(subscription);
+		return true;
+	}
+
+	public boolean unsubscribe(EventHandler eventHandler) {
+		List<Subscription> handled;
+		synchronized (subscriptions) {
+			handled = subscriptions.remove(eventHandler);
+		}
+		if (handled == null || handled.isEmpty())
+			return false;
+		for (Subscription subscription : handled) {
+			trie.remove(subscription);
+		}
+		return true;
+	}
+
+	@PreDestroy
+	void dispose() {
+		List<Subscription> handled = new ArrayList<Subscription>();
+		synchronized (subscriptions) {
+			for (List<Subscription> list : subscriptions.values()) {
+				handled.addAll(list);
+			}
+			subscriptions.clear();
+		}
+		for (Subscription subscription : handled) {
+			trie.remove(subscription);
+		}
+	}
+}
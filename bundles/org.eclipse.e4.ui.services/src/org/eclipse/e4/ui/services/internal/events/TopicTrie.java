@@ -0,0 +1,211 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.services.internal.events;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.osgi.framework.Filter;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventHandler;
+
+/**
+ * Event handler subscriptions, indexed by topic segment.
+ * <p>
+ * Each node of the trie holds the subscriptions to its topic, and the
+ * subscriptions to the topics below it (<code>topic/*</code>); the root holds
+ * the subscriptions to all topics (<code>*</code>). The subscriptions and the
+ * children of a node are replaced rather than modified, so that events are
+ * matched without locking while subscriptions change.
+ */
+final class TopicTrie {
+
+	/**
+	 * A handler subscribed to a topic, with its precompiled event filter.
+	 */
+	static final class Subscription {
+		final String topic;
+		final Filter filter;
+		final EventHandler handler;
+		final EventHandler wrappedHandler;
+		volatile boolean active = true;
+
+		Subscription(String topic, Filter filter, EventHandler handler,
+				EventHandler wrappedHandler) {
+			this.topic = topic;
+			this.filter = filter;
+			this.handler = handler;
+			this.wrappedHandler = wrappedHandler;
+		}
+
+		boolean matches(Event event) {
+			return active && (filter == null || event.matches(filter));
+		}
+	}
+
+	static final Subscription[] NONE = new Subscription[0];
+
+	private static final class Node {
+		volatile Map<String, Node> children = Collections.emptyMap();
+		volatile Subscription[] subscriptions = NONE;
+		volatile Subscription[] descendantSubscriptions = NONE;
+	}
+
+	private static final String WILDCARD = "*"; //$NON-NLS-1$
+
+	private static final String DESCENDANT_WILDCARD = "/*"; //$NON-NLS-1$
+
+	private final Node root = new Node();
+
+	/**
+	 * Adds a subscription.
+	 */
+	synchronized void add(Subscription subscription) {
+		String topic = subscription.topic;
+		if (topic.equals(WILDCARD)) {
+			root.descendantSubscriptions = add(root.descendantSubscriptions,
+					subscription);
+		} else if (topic.endsWith(DESCENDANT_WILDCARD)) {
+			Node node = getNode(topic.substring(0, topic.length()
+					- DESCENDANT_WILDCARD.length()));
+			node.descendantSubscriptions = add(node.descendantSubscriptions,
+					subscription);
+		} else {
+			Node node = getNode(topic);
+			node.subscriptions = add(node.subscriptions, subscription);
+		}
+	}
+
+	/**
+	 * Removes a subscription. It is no longer matched once this method
+	 * returns.
+	 */
+	synchronized void remove(Subscription subscription) {
+		subscription.active = false;
+		String topic = subscription.topic;
+		if (topic.equals(WILDCARD)) {
+			root.descendantSubscriptions = remove(root.descendantSubscriptions,
+					subscription);
+			return;
+		}
+		boolean descendants = topic.endsWith(DESCENDANT_WILDCARD);
+		Node node = findNode(descendants ? topic.substring(0, topic.length()
+				- DESCENDANT_WILDCARD.length()) : topic);
+		if (node == null)
+			return;
+		if (descendants) {
+			node.descendantSubscriptions = remove(
+					node.descendantSubscriptions, subscription);
+		} else {
+			node.subscriptions = remove(node.subscriptions, subscription);
+		}
+	}
+
+	/**
+	 * Returns the subscriptions whose topic matches the given event topic,
+	 * regardless of their filter.
+	 */
+	Subscription[] match(String topic) {
+		Subscription[] result = root.descendantSubscriptions;
+		Node node = root;
+		int start = 0;
+		while (true) {
+			int end = topic.indexOf('/', start);
+			node = node.children.get(end == -1 ? topic.substring(start) : topic
+					.substring(start, end));
+			if (node == null)
+				return result;
+			if (end == -1)
+				return concat(result, node.subscriptions);
+			result = concat(result, node.descendantSubscriptions);
+			start = end + 1;
+		}
+	}
+
+	/**
+	 * Returns whether a subscription matches the given event topic.
+	 */
+	boolean hasSubscriptions(String topic) {
+		return match(topic).length > 0;
+	}
+
+	private Node getNode(String topic) {
+		Node node = root;
+		int start = 0;
+		while (true) {
+			int end = topic.indexOf('/', start);
+			String segment = end == -1 ? topic.substring(start) : topic
+					.substring(start, end);
+			Node child = node.children.get(segment);
+			if (child == null) {
+				child = new Node();
+				Map<String, Node> children = new HashMap<String, Node>(
+						node.children);
+				children.put(segment, child);
+				node.children = children;
+			}
+			node = child;
+			if (end == -1)
+				return node;
+			start = end + 1;
+		}
+	}
+
+	private Node findNode(String topic) {
+		Node node = root;
+		int start = 0;
+		while (node != null) {
+			int end = topic.indexOf('/', start);
+			node = node.children.get(end == -1 ? topic.substring(start) : topic
+					.substring(start, end));
+			if (end == -1)
+				break;
+			start = end + 1;
+		}
+		return node;
+	}
+
+	private static Subscription[] add(Subscription[] subscriptions,
+			Subscription subscription) {
+		Subscription[] result = new Subscription[subscriptions.length + 1];
+		System.arraycopy(subscriptions, 0, result, 0, subscriptions.length);
+		result[subscriptions.length] = subscription;
+		return result;
+	}
+
+	private static Subscription[] remove(Subscription[] subscriptions,
+			Subscription subscription) {
+		for (int i = 0; i < subscriptions.length; i++) {
+			if (subscriptions[i] == subscription) {
+				if (subscriptions.length == 1)
+					return NONE;
+				Subscription[] result = new Subscription[subscriptions.length - 1];
+				System.arraycopy(subscriptions, 0, result, 0, i);
+				System.arraycopy(subscriptions, i + 1, result, i,
+						result.length - i);
+				return result;
+			}
+		}
+		return subscriptions;
+	}
+
+	private static Subscription[] concat(Subscription[] first,
+			Subscription[] second) {
+		if (second.length == 0)
+			return first;
+		if (first.length == 0)
+			return second;
+		Subscription[] result = new Subscription[first.length + second.length];
+		System.arraycopy(first, 0, result, 0, first.length);
+		System.arraycopy(second, 0, result, first.length, second.length);
+		return result;
+	}
+}
@@ -18,6 +18,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import javax.inject.Inject;
+import org.eclipse.core.commands.CommandEvent;
+import org.eclipse.core.commands.ICommandListener;
 import org.eclipse.core.commands.IStateListener;
 import org.eclipse.core.commands.ParameterizedCommand;
 import org.eclipse.core.commands.State;
@@ -30,6 +32,7 @@ import org.eclipse.e4.core.commands.EHandlerService;
 import org.eclipse.e4.core.contexts.EclipseContextFactory;
 import org.eclipse.e4.core.contexts.IContextFunction;
 import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.e4.core.contexts.RunAndTrack;
 import org.eclipse.e4.core.di.annotations.Optional;
 import org.eclipse.e4.core.services.log.Logger;
 import org.eclipse.e4.ui.bindings.EBindingService;
@@ -97,6 +100,18 @@ public class HandledContributionItem extends ContributionItem {
 	 */
 	private static final String ORG_ECLIPSE_UI_COMMANDS_TOGGLE_STATE = "org.eclipse.ui.commands.toggleState"; //$NON-NLS-1$
 
+	/**
+	 * The system property which, when set to <code>true</code>, has the
+	 * enablement of the tool items polled by the {@link #toolItemUpdater}
+	 * rather than tracked through the context variables read by their
+	 * handlers. Polling is a fallback for handlers whose enablement depends on
+	 * state outside of the context.
+	 */
+	public static final String POLL_TOOL_ITEM_ENABLEMENT = "org.eclipse.e4.ui.workbench.renderers.swt.pollToolItemEnablement"; //$NON-NLS-1$
+
+	private static final boolean pollEnablement = Boolean
+			.getBoolean(POLL_TOOL_ITEM_ENABLEMENT);
+
 	static class RunnableRunner implements ISafeRunnable {
 		private Runnable runnable;
 
@@ -124,6 +139,10 @@ public class HandledContributionItem extends ContributionItem {
 
 		public void addWindowRunnable(Runnable r) {
 			windowRunnables.add(r);
+
+			// The items may not be polled, so start the timer here too
+			if (windowRunnables.size() == 1 && itemsToCheck.isEmpty())
+				display.timerExec(400, this);
 		}
 
 		public void removeWindowRunnable(Runnable r) {
@@ -135,7 +154,7 @@ public class HandledContributionItem extends ContributionItem {
 				itemsToCheck.add(item);
 
 				// Start the timer on the first item registered
-				if (itemsToCheck.size() == 1)
+				if (itemsToCheck.size() == 1 && windowRunnables.isEmpty())
 					display.timerExec(400, this);
 			}
 		}
@@ -168,8 +187,8 @@ public class HandledContributionItem extends ContributionItem {
 				}
 			}
 
-			// repeat until the list goes empty
-			if (itemsToCheck.size() > 0)
+			// repeat until the lists go empty
+			if (itemsToCheck.size() > 0 || windowRunnables.size() > 0)
 				display.timerExec(400, this);
 		}
 	}
@@ -228,7 +247,7 @@ public class HandledContributionItem extends ContributionItem {
 		if (updateRunner == null) {
 			updateRunner = new ISafeRunnable() {
 				public void run() throws Exception {
-					boolean shouldEnable = canExecuteItem(null);
+					boolean shouldEnable = canExecuteItem((Event) null);
 					if (shouldEnable != model.isEnabled()) {
 						model.setEnabled(shouldEnable);
 						update();
@@ -250,6 +269,94 @@ public class HandledContributionItem extends ContributionItem {
 		return updateRunner;
 	}
 
+	/**
+	 * Re-evaluates the enablement of the tool item whenever a context variable
+	 * read by its handler, or by the core expressions of its handler, changes.
+	 */
+	private class EnablementTracker extends RunAndTrack {
+		boolean participating = true;
+
+		@Override
+		public boolean changed(IEclipseContext context) {
+			if (!participating || model.getParent() == null) {
+				return false;
+			}
+			if (enablementContext == null) {
+				// not tracked through getStaticContext() as the trigger events
+				// set there would re-evaluate the enablement
+				enablementContext = EclipseContextFactory
+						.create(HCI_STATIC_CONTEXT);
+				ContributionsAnalyzer.populateModelInterfaces(model,
+						enablementContext, model.getClass().getInterfaces());
+			}
+			final boolean shouldEnable;
+			try {
+				shouldEnable = canExecuteItem(enablementContext);
+			} catch (RuntimeException e) {
+				getUpdateRunner().handleException(e);
+				return participating;
+			}
+			if (Display.getCurrent() != null) {
+				setItemEnabled(shouldEnable);
+			} else if (widget != null && !widget.isDisposed()) {
+				widget.getDisplay().asyncExec(new Runnable() {
+					public void run() {
+						if (participating) {
+							setItemEnabled(shouldEnable);
+						}
+					}
+				});
+			}
+			return participating;
+		}
+	}
+
+	private ICommandListener commandListener = new ICommandListener() {
+		public void commandChanged(CommandEvent commandEvent) {
+			// the handlers of the 3.x API report their own enablement changes
+			if (commandEvent.isEnabledChanged()
+					|| commandEvent.isHandledChanged()) {
+				updateItemEnablement();
+			}
+		}
+	};
+
+	private void setItemEnabled(boolean shouldEnable) {
+		if (widget == null || widget.isDisposed()) {
+			return;
+		}
+		if (shouldEnable != model.isEnabled()) {
+			model.setEnabled(shouldEnable);
+			update();
+		}
+	}
+
+	private void trackEnablement() {
+		ParameterizedCommand cmd = model.getWbCommand();
+		if (cmd == null) {
+			return;
+		}
+		enablementTracker = new EnablementTracker();
+		getContext(model).runAndTrack(enablementTracker);
+		cmd.getCommand().addCommandListener(commandListener);
+	}
+
+	private void untrackEnablement() {
+		if (enablementTracker == null) {
+			return;
+		}
+		enablementTracker.participating = false;
+		enablementTracker = null;
+		ParameterizedCommand cmd = model.getWbCommand();
+		if (cmd != null) {
+			cmd.getCommand().removeCommandListener(commandListener);
+		}
+		if (enablementContext != null) {
+			enablementContext.dispose();
+			enablementContext = null;
+		}
+	}
+
 	protected void updateItemEnablement() {
 		if (!(model.getWidget() instanceof ToolItem))
 			return;
@@ -271,6 +378,10 @@ public class HandledContributionItem extends ContributionItem {
 
 	private IEclipseContext infoContext;
 
+	private EnablementTracker enablementTracker;
+
+	private IEclipseContext enablementContext;
+
 	private State styleState;
 
 	private State toggleState;
@@ -431,10 +542,14 @@ public class HandledContributionItem extends ContributionItem {
 		widget = item;
 		model.setWidget(widget);
 		widget.setData(AbstractPartRenderer.OWNING_ME, model);
-		toolItemUpdater.registerItem(this);
 
 		update(null);
 		hookCheckListener();
+		if (pollEnablement) {
+			toolItemUpdater.registerItem(this);
+		} else {
+			trackEnablement();
+		}
 
 		if (updateService != null) {
 			unreferenceRunnable = updateService.registerElementForUpdate(
@@ -677,6 +792,7 @@ public class HandledContributionItem extends ContributionItem {
 			}
 			unhookCheckListener();
 			toolItemUpdater.removeItem(this);
+			untrackEnablement();
 			if (infoContext != null) {
 				infoContext.dispose();
 				infoContext = null;
@@ -852,6 +968,10 @@ public class HandledContributionItem extends ContributionItem {
 	}
 
 	private boolean canExecuteItem(Event trigger) {
+		return canExecuteItem(getStaticContext(trigger));
+	}
+
+	private boolean canExecuteItem(IEclipseContext staticContext) {
 		ParameterizedCommand cmd = model.getWbCommand();
 		if (cmd == null) {
 			return false;
@@ -861,7 +981,6 @@ public class HandledContributionItem extends ContributionItem {
 		if (service == null) {
 			return false;
 		}
-		final IEclipseContext staticContext = getStaticContext(trigger);
 		return service.canExecute(cmd, staticContext);
 	}
 
@@ -0,0 +1,446 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.ui.internal.workbench;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.e4.ui.model.application.impl.ApplicationPackageImpl;
+import org.eclipse.e4.ui.model.application.ui.MElementContainer;
+import org.eclipse.e4.ui.model.application.ui.MUIElement;
+import org.eclipse.e4.ui.model.application.ui.advanced.MArea;
+import org.eclipse.e4.ui.model.application.ui.advanced.MPerspective;
+import org.eclipse.e4.ui.model.application.ui.advanced.MPerspectiveStack;
+import org.eclipse.e4.ui.model.application.ui.advanced.MPlaceholder;
+import org.eclipse.e4.ui.model.application.ui.advanced.impl.AdvancedPackageImpl;
+import org.eclipse.e4.ui.model.application.ui.basic.MTrimmedWindow;
+import org.eclipse.e4.ui.model.application.ui.basic.MWindow;
+import org.eclipse.e4.ui.model.application.ui.basic.impl.BasicPackageImpl;
+import org.eclipse.e4.ui.model.application.ui.impl.UiPackageImpl;
+import org.eclipse.e4.ui.workbench.modeling.EModelService;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.util.EContentAdapter;
+
+/**
+ * An index of the UI elements of an {@link MApplication} by element id, by tag and by type, kept up
+ * to date as the model changes.
+ * <p>
+ * The index answers the {@link EModelService#findElements(MUIElement, String, Class, List, int)}
+ * queries without walking the model: the elements matching the most selective criterion are looked
+ * up, and each one is kept if it can be reached from the search root under the search flags, by
+ * walking up its containers and the placeholders referencing it. The elements are returned in the
+ * order the model walk would find them.
+ * </p>
+ */
+class ModelElementIndex extends EContentAdapter {
+
+	/**
+	 * Returned by {@link #findElements(MUIElement, String, Class, List, int)} when the query has to
+	 * be answered by walking the model.
+	 */
+	static final List<Object> NOT_INDEXED = Collections.unmodifiableList(new ArrayList<Object>());
+
+	// Ranks of the steps of a search path, in the order the model walk takes them
+	private static final int CHILD = 0;
+	private static final int TRIM_BAR = 1;
+	private static final int DETACHED_WINDOW = 2;
+	private static final int PLACEHOLDER_REF = 3;
+
+	// the model walk does not go from the container to the element
+	private static final long NO_STEP = -1;
+
+	// the search flags make the step depend on more than the element's ancestors
+	private static final long UNKNOWN_STEP = -2;
+
+	// the search flags make the path depend on more than the element's ancestors, compared by
+	// identity
+	private static final long[] UNKNOWN_PATH = new long[0];
+
+	private static final Comparator<long[]> PATH_ORDER = new Comparator<long[]>() {
+		public int compare(long[] p1, long[] p2) {
+			int length = Math.min(p1.length, p2.length);
+			for (int i = 0; i < length; i++) {
+				if (p1[i] != p2[i])
+					return p1[i] < p2[i] ? -1 : 1;
+			}
+			return p1.length - p2.length;
+		}
+	};
+
+	/**
+	 * Returns the index of the application containing the given element, or <code>null</code> if
+	 * the element is not contained in an application.
+	 */
+	static ModelElementIndex getIndex(MUIElement element) {
+		EObject root = (EObject) element;
+		while (root.eContainer() != null) {
+			root = root.eContainer();
+		}
+		if (!(root instanceof MApplication))
+			return null;
+		for (Object adapter : root.eAdapters()) {
+			if (adapter instanceof ModelElementIndex)
+				return (ModelElementIndex) adapter;
+		}
+		ModelElementIndex index = new ModelElementIndex();
+		root.eAdapters().add(index);
+		return index;
+	}
+
+	private final Map<String, Set<MUIElement>> elementsById = new HashMap<String, Set<MUIElement>>();
+	private final Map<String, Set<MUIElement>> elementsByTag = new HashMap<String, Set<MUIElement>>();
+	private final Map<EClass, Set<MUIElement>> elementsByType = new HashMap<EClass, Set<MUIElement>>();
+	private final Map<MUIElement, Set<MPlaceholder>> placeholdersByRef = new HashMap<MUIElement, Set<MPlaceholder>>();
+	private int elementCount;
+
+	@Override
+	protected void setTarget(EObject target) {
+		super.setTarget(target);
+		if (target instanceof MUIElement)
+			add((MUIElement) target);
+	}
+
+	@Override
+	protected void unsetTarget(EObject target) {
+		super.unsetTarget(target);
+		if (target instanceof MUIElement)
+			remove((MUIElement) target);
+	}
+
+	@Override
+	public void notifyChanged(Notification notification) {
+		super.notifyChanged(notification);
+		Object feature = notification.getFeature();
+		if (feature != ApplicationPackageImpl.Literals.APPLICATION_ELEMENT__ELEMENT_ID
+				&& feature != ApplicationPackageImpl.Literals.APPLICATION_ELEMENT__TAGS
+				&& feature != AdvancedPackageImpl.Literals.PLACEHOLDER__REF)
+			return;
+		Object notifier = notification.getNotifier();
+		if (!(notifier instanceof MUIElement) || notification.isTouch())
+			return;
+		MUIElement element = (MUIElement) notifier;
+		if (!isIndexed(element))
+			return;
+
+		if (feature == ApplicationPackageImpl.Literals.APPLICATION_ELEMENT__ELEMENT_ID) {
+			removeFrom(elementsById, (String) notification.getOldValue(), element);
+			addTo(elementsById, (String) notification.getNewValue(), element);
+		} else if (feature == ApplicationPackageImpl.Literals.APPLICATION_ELEMENT__TAGS) {
+			tagsChanged(element, notification);
+		} else if (feature == AdvancedPackageImpl.Literals.PLACEHOLDER__REF) {
+			removeFrom(placeholdersByRef, (MUIElement) notification.getOldValue(),
+					(MPlaceholder) element);
+			addTo(placeholdersByRef, (MUIElement) notification.getNewValue(),
+					(MPlaceholder) element);
+		}
+	}
+
+	private void tagsChanged(MUIElement element, Notification notification) {
+		switch (notification.getEventType()) {
+		case Notification.ADD:
+			addTo(elementsByTag, (String) notification.getNewValue(), element);
+			break;
+		case Notification.ADD_MANY:
+			for (Object tag : (Collection<?>) notification.getNewValue()) {
+				addTo(elementsByTag, (String) tag, element);
+			}
+			break;
+		case Notification.REMOVE:
+			removeTag(element, (String) notification.getOldValue());
+			break;
+		case Notification.REMOVE_MANY:
+			for (Object tag : (Collection<?>) notification.getOldValue()) {
+				removeTag(element, (String) tag);
+			}
+			break;
+		case Notification.SET:
+			removeTag(element, (String) notification.getOldValue());
+			addTo(elementsByTag, (String) notification.getNewValue(), element);
+			break;
+		}
+	}
+
+	private void removeTag(MUIElement element, String tag) {
+		// the same tag may have been added more than once
+		if (!element.getTags().contains(tag))
+			removeFrom(elementsByTag, tag, element);
+	}
+
+	private boolean isIndexed(MUIElement element) {
+		Set<MUIElement> elements = elementsByType.get(((EObject) element).eClass());
+		return elements != null && elements.contains(element);
+	}
+
+	private void add(MUIElement element) {
+		if (!addTo(elementsByType, ((EObject) element).eClass(), element))
+			return;
+		elementCount++;
+		addTo(elementsById, element.getElementId(), element);
+		for (String tag : element.getTags()) {
+			addTo(elementsByTag, tag, element);
+		}
+		if (element instanceof MPlaceholder) {
+			addTo(placeholdersByRef, ((MPlaceholder) element).getRef(), (MPlaceholder) element);
+		}
+	}
+
+	private void remove(MUIElement element) {
+		if (!removeFrom(elementsByType, ((EObject) element).eClass(), element))
+			return;
+		elementCount--;
+		removeFrom(elementsById, element.getElementId(), element);
+		for (String tag : element.getTags()) {
+			removeFrom(elementsByTag, tag, element);
+		}
+		if (element instanceof MPlaceholder) {
+			removeFrom(placeholdersByRef, ((MPlaceholder) element).getRef(),
+					(MPlaceholder) element);
+		}
+	}
+
+	private static <K, V> boolean addTo(Map<K, Set<V>> map, K key, V value) {
+		if (key == null)
+			return false;
+		Set<V> values = map.get(key);
+		if (values == null) {
+			values = new LinkedHashSet<V>();
+			map.put(key, values);
+		}
+		return values.add(value);
+	}
+
+	private static <K, V> boolean removeFrom(Map<K, Set<V>> map, K key, V value) {
+		if (key == null)
+			return false;
+		Set<V> values = map.get(key);
+		if (values == null || !values.remove(value))
+			return false;
+		if (values.isEmpty())
+			map.remove(key);
+		return true;
+	}
+
+	/**
+	 * Returns the elements below the search root matching the given criteria, in the order
+	 * <code>ModelServiceImpl</code> walking the model would return them, or {@link #NOT_INDEXED}
+	 * if the index can't narrow the search down.
+	 */
+	@SuppressWarnings("unchecked")
+	<T> List<T> findElements(MUIElement searchRoot, String id, Class<T> clazz,
+			List<String> tagsToMatch, int searchFlags) {
+		if (!isIndexed(searchRoot))
+			return (List<T>) NOT_INDEXED;
+		Collection<MUIElement> candidates = getCandidates(id, clazz, tagsToMatch);
+		if (candidates == null)
+			return (List<T>) NOT_INDEXED;
+
+		final Map<MUIElement, long[]> paths = new IdentityHashMap<MUIElement, long[]>();
+		Map<Object, long[]> visited = new IdentityHashMap<Object, long[]>();
+		for (MUIElement candidate : candidates) {
+			if (!matches(candidate, id, clazz, tagsToMatch))
+				continue;
+			long[] path = getPath(candidate, searchRoot, searchFlags, visited);
+			if (path == UNKNOWN_PATH)
+				return (List<T>) NOT_INDEXED;
+			if (path != null)
+				paths.put(candidate, path);
+		}
+
+		List<T> elements = new ArrayList<T>(paths.size());
+		for (MUIElement element : paths.keySet()) {
+			elements.add((T) element);
+		}
+		if (elements.size() > 1) {
+			Collections.sort(elements, new Comparator<T>() {
+				public int compare(T e1, T e2) {
+					return PATH_ORDER.compare(paths.get(e1), paths.get(e2));
+				}
+			});
+		}
+		return elements;
+	}
+
+	/**
+	 * Returns the indexed elements matching the most selective of the given criteria, or
+	 * <code>null</code> if they would not be much fewer than all the elements or if no indexed
+	 * type is of the given class.
+	 */
+	private Collection<MUIElement> getCandidates(String id, Class<?> clazz,
+			List<String> tagsToMatch) {
+		Collection<MUIElement> candidates = null;
+		if (id != null) {
+			candidates = get(elementsById, id);
+		}
+		if (tagsToMatch != null) {
+			for (String tag : tagsToMatch) {
+				Collection<MUIElement> tagged = get(elementsByTag, tag);
+				if (candidates == null || tagged.size() < candidates.size())
+					candidates = tagged;
+			}
+		}
+		if (clazz != null && clazz != MUIElement.class
+				&& (candidates == null || candidates.size() > 1)) {
+			List<MUIElement> typed = new ArrayList<MUIElement>();
+			boolean typeFound = false;
+			for (Map.Entry<EClass, Set<MUIElement>> entry : elementsByType.entrySet()) {
+				Class<?> instanceClass = entry.getKey().getInstanceClass();
+				if (instanceClass != null && clazz.isAssignableFrom(instanceClass)) {
+					typed.addAll(entry.getValue());
+					typeFound = true;
+				}
+			}
+			// the elements of the class may not be described by an indexed EClass
+			if (!typeFound)
+				return null;
+			if (candidates == null || typed.size() < candidates.size())
+				candidates = typed;
+		}
+		if (candidates == null || candidates.size() * 4 > elementCount)
+			return null;
+		return candidates;
+	}
+
+	private static Collection<MUIElement> get(Map<String, Set<MUIElement>> map, String key) {
+		Set<MUIElement> elements = map.get(key);
+		return elements == null ? Collections.<MUIElement> emptySet() : elements;
+	}
+
+	private static boolean matches(MUIElement element, String id, Class<?> clazz,
+			List<String> tagsToMatch) {
+		if (id != null && !id.equals(element.getElementId()))
+			return false;
+		if (clazz != null && !clazz.isInstance(element))
+			return false;
+		return tagsToMatch == null || element.getTags().containsAll(tagsToMatch);
+	}
+
+	/**
+	 * Returns the first path through which the model walk reaches the element from the search
+	 * root, as a list of steps from the root down, <code>null</code> if it does not reach it, or
+	 * {@link #UNKNOWN_PATH} if the search flags make the path depend on more than the element's
+	 * ancestors.
+	 */
+	private long[] getPath(Object element, MUIElement searchRoot, int searchFlags,
+			Map<Object, long[]> visited) {
+		if (element == searchRoot)
+			return new long[0];
+		if (visited.containsKey(element))
+			return visited.get(element);
+		// guards against placeholder cycles
+		visited.put(element, null);
+
+		long[] best = null;
+		EObject eObject = (EObject) element;
+		EObject container = eObject.eContainer();
+		if (container != null) {
+			long step = getStep(eObject, container, searchFlags);
+			if (step == UNKNOWN_STEP)
+				return UNKNOWN_PATH;
+			if (step != NO_STEP) {
+				long[] path = getPath(container, searchRoot, searchFlags, visited);
+				if (path == UNKNOWN_PATH)
+					return UNKNOWN_PATH;
+				best = append(path, step);
+			}
+		}
+		Set<MPlaceholder> placeholders = placeholdersByRef.get(element);
+		if (placeholders != null
+				&& (!(element instanceof MArea) || (searchFlags & EModelService.IN_SHARED_AREA) != 0)) {
+			long step = (long) PLACEHOLDER_REF << 32;
+			for (MPlaceholder placeholder : placeholders) {
+				long[] path = getPath(placeholder, searchRoot, searchFlags, visited);
+				if (path == UNKNOWN_PATH)
+					return UNKNOWN_PATH;
+				path = append(path, step);
+				if (path != null && (best == null || PATH_ORDER.compare(path, best) < 0))
+					best = path;
+			}
+		}
+		visited.put(element, best);
+		return best;
+	}
+
+	/**
+	 * Returns the step from the container to the element, {@link #NO_STEP} if the model walk does
+	 * not go there, or {@link #UNKNOWN_STEP} if the search flags make it depend on more than the
+	 * element's ancestors.
+	 */
+	private static long getStep(EObject element, EObject container, int searchFlags) {
+		EStructuralFeature feature = element.eContainmentFeature();
+		if (feature == UiPackageImpl.Literals.ELEMENT_CONTAINER__CHILDREN) {
+			if (container instanceof MPerspectiveStack) {
+				if ((searchFlags & EModelService.IN_ANY_PERSPECTIVE) == 0) {
+					if ((searchFlags & EModelService.IN_ACTIVE_PERSPECTIVE) != 0) {
+						MPerspective active = ((MPerspectiveStack) container).getSelectedElement();
+						if (active != element)
+							return NO_STEP;
+					} else if ((searchFlags & EModelService.IN_SHARED_AREA) != 0) {
+						// the walk only goes through the areas found below the stack
+						return UNKNOWN_STEP;
+					} else {
+						return NO_STEP;
+					}
+				}
+			}
+			return step(CHILD, ((MElementContainer<?>) container).getChildren().indexOf(element));
+		}
+		if (feature == BasicPackageImpl.Literals.TRIMMED_WINDOW__TRIM_BARS) {
+			if ((searchFlags & EModelService.IN_TRIM) == 0)
+				return NO_STEP;
+			return step(TRIM_BAR, ((MTrimmedWindow) container).getTrimBars().indexOf(element));
+		}
+		if (feature == BasicPackageImpl.Literals.WINDOW__WINDOWS) {
+			return step(DETACHED_WINDOW, ((MWindow) container).getWindows().indexOf(element));
+		}
+		if (feature == AdvancedPackageImpl.Literals.PERSPECTIVE__WINDOWS) {
+			return step(DETACHED_WINDOW, ((MPerspective) container).getWindows().indexOf(element));
+		}
+		return NO_STEP;
+	}
+
+	private static long step(int rank, int index) {
+		return ((long) rank << 32) | index;
+	}
+
+	private static long[] append(long[] path, long step) {
+		if (path == null)
+			return null;
+		long[] result = new long[path.length + 1];
+		System.arraycopy(path, 0, result, 0, path.length);
+		result[path.length] = step;
+		return result;
+	}
+
+	@Override
+	public boolean isAdapterForType(Object type) {
+		return type == ModelElementIndex.class;
+	}
+
+	@Override
+	protected void addAdapter(Notifier notifier) {
+		// only the UI elements are walked by the model service
+		if (notifier instanceof MApplication || notifier instanceof MUIElement)
+			super.addAdapter(notifier);
+	}
+}
@@ -12,7 +12,9 @@
 package org.eclipse.e4.ui.internal.workbench;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.services.events.IEventBroker;
@@ -286,14 +288,15 @@ public class ModelServiceImpl implements EModelService {
 	}
 
 	private <T> void findElementsRecursive(MUIElement searchRoot, String id,
-			Class<? extends T> type, List<String> tagsToMatch, List<T> elements, int searchFlags) {
+			Class<? extends T> type, List<String> tagsToMatch, List<T> elements, Set<Object> found,
+			int searchFlags) {
 		Assert.isLegal(searchRoot != null);
 		if (searchFlags == 0)
 			return;
 
 		// are *we* a match ?
 		if (match(searchRoot, id, type, tagsToMatch)) {
-			if (!elements.contains((T) searchRoot))
+			if (found.add(searchRoot))
 				elements.add((T) searchRoot);
 		}
 
@@ -305,26 +308,30 @@ public class ModelServiceImpl implements EModelService {
 					MElementContainer<MUIElement> container = (MElementContainer<MUIElement>) searchRoot;
 					List<MUIElement> children = container.getChildren();
 					for (MUIElement child : children) {
-						findElementsRecursive(child, id, type, tagsToMatch, elements, searchFlags);
+						findElementsRecursive(child, id, type, tagsToMatch, elements, found,
+								searchFlags);
 					}
 				} else if ((searchFlags & IN_ACTIVE_PERSPECTIVE) != 0) {
 					// Only search the currently active perspective, if any
 					MPerspective active = ((MPerspectiveStack) searchRoot).getSelectedElement();
 					if (active != null) {
-						findElementsRecursive(active, id, type, tagsToMatch, elements, searchFlags);
+						findElementsRecursive(active, id, type, tagsToMatch, elements, found,
+								searchFlags);
 					}
 				} else if ((searchFlags & IN_SHARED_AREA) != 0) {
 					// Only recurse through the shared areas
 					List<MArea> areas = findElements(searchRoot, null, MArea.class, null);
 					for (MArea area : areas) {
-						findElementsRecursive(area, id, type, tagsToMatch, elements, searchFlags);
+						findElementsRecursive(area, id, type, tagsToMatch, elements, found,
+								searchFlags);
 					}
 				}
 			} else {
 				MElementContainer<MUIElement> container = (MElementContainer<MUIElement>) searchRoot;
 				List<MUIElement> children = container.getChildren();
 				for (MUIElement child : children) {
-					findElementsRecursive(child, id, type, tagsToMatch, elements, searchFlags);
+					findElementsRecursive(child, id, type, tagsToMatch, elements, found,
+							searchFlags);
 				}
 			}
 		}
@@ -334,7 +341,7 @@ public class ModelServiceImpl implements EModelService {
 			MTrimmedWindow tw = (MTrimmedWindow) searchRoot;
 			List<MTrimBar> bars = tw.getTrimBars();
 			for (MTrimBar bar : bars) {
-				findElementsRecursive(bar, id, type, tagsToMatch, elements, searchFlags);
+				findElementsRecursive(bar, id, type, tagsToMatch, elements, found, searchFlags);
 			}
 		}
 
@@ -342,13 +349,13 @@ public class ModelServiceImpl implements EModelService {
 		if (searchRoot instanceof MWindow) {
 			MWindow window = (MWindow) searchRoot;
 			for (MWindow dw : window.getWindows()) {
-				findElementsRecursive(dw, id, type, tagsToMatch, elements, searchFlags);
+				findElementsRecursive(dw, id, type, tagsToMatch, elements, found, searchFlags);
 			}
 		}
 		if (searchRoot instanceof MPerspective) {
 			MPerspective persp = (MPerspective) searchRoot;
 			for (MWindow dw : persp.getWindows()) {
-				findElementsRecursive(dw, id, type, tagsToMatch, elements, searchFlags);
+				findElementsRecursive(dw, id, type, tagsToMatch, elements, found, searchFlags);
 			}
 		}
 		// Search shared elements
@@ -358,7 +365,8 @@ public class ModelServiceImpl implements EModelService {
 			// Don't search in shared areas unless the flag is set
 			if (ph.getRef() != null
 					&& (!(ph.getRef() instanceof MArea) || (searchFlags & IN_SHARED_AREA) != 0)) {
-				findElementsRecursive(ph.getRef(), id, type, tagsToMatch, elements, searchFlags);
+				findElementsRecursive(ph.getRef(), id, type, tagsToMatch, elements, found,
+						searchFlags);
 			}
 		}
 	}
@@ -371,23 +379,32 @@ public class ModelServiceImpl implements EModelService {
 	 */
 	public <T> List<T> findElements(MUIElement searchRoot, String id, Class<T> clazz,
 			List<String> tagsToMatch) {
-		List<T> elements = new ArrayList<T>();
-		findElementsRecursive(searchRoot, id, clazz, tagsToMatch, elements, ANYWHERE);
-		return elements;
+		return findElements(searchRoot, id, clazz, tagsToMatch, ANYWHERE);
 	}
 
 	public <T> List<T> findElements(MUIElement searchRoot, String id, Class<T> clazz,
 			List<String> tagsToMatch, int searchFlags) {
+		Assert.isLegal(searchRoot != null);
+		if (searchFlags == 0)
+			return new ArrayList<T>();
+
+		// Answer from the index of the application, unless it can't narrow the search down
+		ModelElementIndex index = ModelElementIndex.getIndex(searchRoot);
+		if (index != null) {
+			List<T> elements = index.findElements(searchRoot, id, clazz, tagsToMatch, searchFlags);
+			if (elements != ModelElementIndex.NOT_INDEXED)
+				return elements;
+		}
+
 		List<T> elements = new ArrayList<T>();
-		findElementsRecursive(searchRoot, id, clazz, tagsToMatch, elements, searchFlags);
+		findElementsRecursive(searchRoot, id, clazz, tagsToMatch, elements, new HashSet<Object>(),
+				searchFlags);
 		return elements;
 	}
 
 	private <T> List<T> findPerspectiveElements(MUIElement searchRoot, String id, Class<T> clazz,
 			List<String> tagsToMatch) {
-		List<T> elements = new ArrayList<T>();
-		findElementsRecursive(searchRoot, id, clazz, tagsToMatch, elements, PRESENTATION);
-		return elements;
+		return findElements(searchRoot, id, clazz, tagsToMatch, PRESENTATION);
 	}
 
 	/*
@@ -1301,4 +1318,32 @@ public class ModelServiceImpl implements EModelService {
 
 		return hostWindow.getSharedElements().contains(curElement);
 	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.e4.ui.workbench.modeling.EModelService#beginTransaction()
+	 */
+	public void beginTransaction() {
+		UIEventPublisher publisher = getEventPublisher();
+		if (publisher != null)
+			publisher.beginTransaction();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.e4.ui.workbench.modeling.EModelService#commitTransaction()
+	 */
+	public void commitTransaction() {
+		UIEventPublisher publisher = getEventPublisher();
+		if (publisher != null)
+			publisher.commitTransaction();
+	}
+
+	private UIEventPublisher getEventPublisher() {
+		if (appContext == null)
+			return null;
+		return appContext.get(UIEventPublisher.class);
+	}
 }
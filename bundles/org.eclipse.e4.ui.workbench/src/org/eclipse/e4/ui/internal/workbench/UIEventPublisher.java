@@ -10,11 +10,16 @@
  *******************************************************************************/
 package org.eclipse.e4.ui.internal.workbench;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.services.events.IEventBroker;
+import org.eclipse.e4.ui.services.internal.events.EventBroker;
 import org.eclipse.e4.ui.model.application.MApplicationElement;
 import org.eclipse.e4.ui.model.application.impl.StringToObjectMapImpl;
 import org.eclipse.e4.ui.model.application.impl.StringToStringMapImpl;
@@ -29,11 +34,61 @@ import org.eclipse.emf.ecore.util.EContentAdapter;
 
 /**
  * Transforms E4 MPart events into 3.x legacy events.
+ * <p>
+ * Between {@link #beginTransaction()} and the matching {@link #commitTransaction()}, the events
+ * are collected rather than sent, and the changes of the same attribute of the same element are
+ * coalesced into a single event.
  */
 public class UIEventPublisher extends EContentAdapter {
 
+	/**
+	 * An event collected during a transaction.
+	 */
+	private static class PendingEvent {
+		final String topic;
+		final Map<String, Object> argMap;
+
+		PendingEvent(String topic, Map<String, Object> argMap) {
+			this.topic = topic;
+			this.argMap = argMap;
+		}
+	}
+
+	/**
+	 * The key under which the SET events of an attribute of an element are coalesced.
+	 */
+	private static class AttributeKey {
+		final Object element;
+		final String topic;
+
+		AttributeKey(Object element, String topic) {
+			this.element = element;
+			this.topic = topic;
+		}
+
+		public boolean equals(Object obj) {
+			if (!(obj instanceof AttributeKey))
+				return false;
+			AttributeKey other = (AttributeKey) obj;
+			return element == other.element && topic.equals(other.topic);
+		}
+
+		public int hashCode() {
+			return System.identityHashCode(element) * 31 + topic.hashCode();
+		}
+	}
+
 	private IEclipseContext context;
 
+	/**
+	 * The topics of the model attributes, by attribute and event type.
+	 */
+	private Map<EStructuralFeature, Map<String, String>> topics = new ConcurrentHashMap<EStructuralFeature, Map<String, String>>();
+
+	private int transactionDepth;
+
+	private Map<Object, PendingEvent> pendingEvents = new LinkedHashMap<Object, PendingEvent>();
+
 	/**
 	 * @param e4Context
 	 */
@@ -48,15 +103,114 @@ public class UIEventPublisher extends EContentAdapter {
 		if (notification.isTouch())
 			return;
 
+		// Don't create events nobody listens to
+		IEventBroker eventManager = context.get(IEventBroker.class);
+		if (!hasSubscribers(eventManager, notification))
+			return;
+
 		// Format the EMF event as an E4 UIEvent
 		Map<String, Object> argMap = new HashMap<String, Object>();
 
 		String topic = formatData(notification, argMap);
 
 		if (topic != null) {
-			IEventBroker eventManager = context.get(IEventBroker.class);
-			eventManager.send(topic, argMap);
+			if (transactionDepth > 0) {
+				addPendingEvent(notification, topic, argMap);
+			} else {
+				eventManager.send(topic, argMap);
+			}
+		}
+	}
+
+	/**
+	 * Starts collecting the events rather than sending them, until the matching call to
+	 * {@link #commitTransaction()}. Transactions may be nested: the events are sent when the
+	 * outermost transaction is committed.
+	 */
+	public void beginTransaction() {
+		transactionDepth++;
+	}
+
+	/**
+	 * Ends a transaction started by {@link #beginTransaction()}. When the outermost transaction
+	 * ends, the events collected during the transaction are sent, in the order of the last change
+	 * they describe.
+	 * 
+	 * @throws IllegalStateException
+	 *             if no transaction is in progress
+	 */
+	public void commitTransaction() {
+		if (transactionDepth == 0)
+			throw new IllegalStateException("No model transaction in progress"); //$NON-NLS-1$
+		if (--transactionDepth > 0 || pendingEvents.isEmpty())
+			return;
+
+		List<PendingEvent> events = new ArrayList<PendingEvent>(pendingEvents.values());
+		pendingEvents.clear();
+		IEventBroker eventManager = context.get(IEventBroker.class);
+		for (PendingEvent event : events) {
+			eventManager.send(event.topic, event.argMap);
+		}
+	}
+
+	/**
+	 * @return <code>true</code> if a transaction is in progress
+	 */
+	public boolean isInTransaction() {
+		return transactionDepth > 0;
+	}
+
+	private void addPendingEvent(Notification notification, String topic, Map<String, Object> argMap) {
+		if (notification.getEventType() != Notification.SET
+				|| !(notification.getNotifier() instanceof MApplicationElement)) {
+			// The positions of list changes depend on the preceding changes
+			pendingEvents.put(new Object(), new PendingEvent(topic, argMap));
+			return;
+		}
+
+		AttributeKey key = new AttributeKey(argMap.get(EventTags.ELEMENT), topic);
+		PendingEvent previous = pendingEvents.remove(key);
+		if (previous != null) {
+			// Report the change from the value before the transaction to the latest value
+			Object oldValue = previous.argMap.get(EventTags.OLD_VALUE);
+			Object newValue = argMap.get(EventTags.NEW_VALUE);
+			if (oldValue == null ? newValue == null : oldValue.equals(newValue))
+				return;
+			if (oldValue == null) {
+				argMap.remove(EventTags.OLD_VALUE);
+			} else {
+				argMap.put(EventTags.OLD_VALUE, oldValue);
+			}
 		}
+		pendingEvents.put(key, new PendingEvent(topic, argMap));
+	}
+
+	/**
+	 * Returns whether the event for the given notification may have subscribers. Only the
+	 * {@link EventBroker} implementations know their handlers.
+	 */
+	private boolean hasSubscribers(IEventBroker eventManager, Notification notification) {
+		if (!(eventManager instanceof EventBroker))
+			return true;
+		String topic = getTopic(notification);
+		return topic == null || ((EventBroker) eventManager).hasSubscribers(topic);
+	}
+
+	/**
+	 * Returns the topic of the event for the given notification, without the checks done by
+	 * {@link #formatData(Notification, Map)}.
+	 */
+	private String getTopic(Notification notification) {
+		Object notifier = notification.getNotifier();
+		if (notifier instanceof MApplicationElement) {
+			return getTopic((EStructuralFeature) notification.getFeature(),
+					getEventType(notification));
+		} else if (notifier instanceof StringToObjectMapImpl) {
+			return getTopic(UIEvents.ApplicationElement.TRANSIENTDATA, getEventType(notification));
+		} else if (notifier instanceof StringToStringMapImpl) {
+			return getTopic(UIEvents.ApplicationElement.PERSISTEDSTATE, getEventType(notification));
+		}
+		return null;
 	}
 
 	/**
@@ -265,11 +419,21 @@ public class UIEventPublisher extends EContentAdapter {
 	}
 
 	private String getTopic(EStructuralFeature eFeature, String type) {
-		EClass eContainingClass = eFeature.getEContainingClass();
-		return UIEvents.UIModelTopicBase + UIEvents.TOPIC_SEP
-				+ eContainingClass.getEPackage().getName() + UIEvents.TOPIC_SEP
-				+ eContainingClass.getName() + UIEvents.TOPIC_SEP + eFeature.getName()
-				+ UIEvents.TOPIC_SEP + type;
+		Map<String, String> featureTopics = topics.get(eFeature);
+		if (featureTopics == null) {
+			featureTopics = new ConcurrentHashMap<String, String>();
+			topics.put(eFeature, featureTopics);
+		}
+		String topic = featureTopics.get(type);
+		if (topic == null) {
+			EClass eContainingClass = eFeature.getEContainingClass();
+			topic = UIEvents.UIModelTopicBase + UIEvents.TOPIC_SEP
+					+ eContainingClass.getEPackage().getName() + UIEvents.TOPIC_SEP
+					+ eContainingClass.getName() + UIEvents.TOPIC_SEP + eFeature.getName()
+					+ UIEvents.TOPIC_SEP + type;
+			featureTopics.put(type, topic);
+		}
+		return topic;
 	}
 
 	private String getTopic(String attributeName, String type) {
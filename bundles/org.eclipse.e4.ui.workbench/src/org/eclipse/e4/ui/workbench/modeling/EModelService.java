@@ -580,4 +580,30 @@ public interface EModelService {
 	 *         hosted in the given MWindow.
 	 */
 	public boolean isHostedElement(MUIElement element, MWindow hostWindow);
+
+	/**
+	 * Starts a model transaction. Until the matching call to {@link #commitTransaction()}, the UI
+	 * events for the changes made to the model are collected rather than sent, and the changes of
+	 * the same attribute of the same element are coalesced into a single event. Transactions may
+	 * be nested: the events are sent when the outermost transaction is committed.
+	 * <p>
+	 * Event handlers which react to the model changes, such as the renderers, only see the changes
+	 * when the transaction is committed, so that transactions should be kept to changes whose
+	 * intermediate states don't matter. Clients should commit the transaction in a
+	 * <code>finally</code> block.
+	 * </p>
+	 * 
+	 * @since 1.1
+	 */
+	public void beginTransaction();
+
+	/**
+	 * Ends a model transaction started by {@link #beginTransaction()}. If this ends the outermost
+	 * transaction, the collected UI events are sent.
+	 * 
+	 * @throws IllegalStateException
+	 *             if no transaction is in progress
+	 * @since 1.1
+	 */
+	public void commitTransaction();
 }
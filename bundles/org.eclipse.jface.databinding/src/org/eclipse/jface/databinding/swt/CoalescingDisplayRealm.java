@@ -0,0 +1,313 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.jface.databinding.swt;
+
+import org.eclipse.core.databinding.observable.Realm;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * A realm representing the UI thread of a display, like
+ * {@link SWTObservables#getRealm(Display)}, that queues the runnables passed to
+ * {@link #asyncExec(Runnable)} instead of posting each one to the display.
+ * <p>
+ * The queued runnables are run in order by a single runnable posted with
+ * {@link Display#asyncExec(Runnable)}, however many runnables were queued
+ * meanwhile. When running them takes longer than the time budget of the
+ * realm, the remaining runnables are left for another runnable posted to the
+ * display, so that the events queued in between, such as paint and input
+ * events, are dispatched first. This realm suits models updated by background
+ * threads with many small changes, which would otherwise flood the event queue
+ * of the display.
+ * </p>
+ * <p>
+ * A queued runnable may run a nested event loop, for instance by opening a
+ * modal dialog. The realm keeps a drain posted to the display while such a
+ * runnable runs, so that the nested event loop runs the following runnables.
+ * </p>
+ * <p>
+ * Once the display is disposed, the realm drops the runnables passed to it,
+ * like {@link SWTObservables#getRealm(Display)}, along with the runnables
+ * still queued.
+ * </p>
+ * <p>
+ * The realm reports the number of queued runnables and the time they wait
+ * before being run, to help choosing a time budget.
+ * </p>
+ *
+ * @since 1.7
+ */
+public class CoalescingDisplayRealm extends Realm {
+
+	/**
+	 * The default time budget of a drain of the queue, in milliseconds.
+	 */
+	public static final int DEFAULT_BUDGET = 20;
+
+	private final Display display;
+
+	private final int budget;
+
+	/**
+	 * guards the queue and the statistics, and is only held to add or take a
+	 * runnable
+	 */
+	private final Object lock = new Object();
+
+	/**
+	 * the queued runnables, a ring buffer of <code>size</code> elements
+	 * starting at <code>head</code>
+	 */
+	private Runnable[] queue = new Runnable[16];
+
+	private int head;
+
+	private int size;
+
+	/**
+	 * the drain last posted to the display and not run yet, or
+	 * <code>null</code>. The drains posted before it do nothing when they run.
+	 */
+	private Runnable pendingDrain;
+
+	/**
+	 * the time at which the pending drain was posted to the display
+	 */
+	private long postTime;
+
+	private int maxQueueDepth;
+
+	private int drainCount;
+
+	private long lastDrainLatency;
+
+	private long maxDrainLatency;
+
+	/**
+	 * Creates a realm for the given display, draining its queue with the
+	 * {@link #DEFAULT_BUDGET default time budget}.
+	 *
+	 * @param display
+	 */
+	public CoalescingDisplayRealm(Display display) {
+		this(display, DEFAULT_BUDGET);
+	}
+
+	/**
+	 * Creates a realm for the given display.
+	 *
+	 * @param display
+	 * @param budget
+	 *            the time in milliseconds after which a drain of the queue
+	 *            yields to the other events of the display
+	 */
+	public CoalescingDisplayRealm(Display display, int budget) {
+		if (budget < 0) {
+			throw new IllegalArgumentException("Budget must not be negative"); //$NON-NLS-1$
+		}
+		this.display = display;
+		this.budget = budget;
+	}
+
+	/**
+	 * @return the display of this realm
+	 */
+	public Display getDisplay() {
+		return display;
+	}
+
+	public boolean isCurrent() {
+		return Display.getCurrent() == display;
+	}
+
+	public void asyncExec(Runnable runnable) {
+		if (display.isDisposed()) {
+			discardQueue();
+			return;
+		}
+		boolean post;
+		synchronized (lock) {
+			if (size == queue.length) {
+				Runnable[] larger = new Runnable[queue.length * 2];
+				for (int i = 0; i < size; i++) {
+					larger[i] = queue[(head + i) % queue.length];
+				}
+				queue = larger;
+				head = 0;
+			}
+			queue[(head + size) % queue.length] = runnable;
+			size++;
+			if (size > maxQueueDepth) {
+				maxQueueDepth = size;
+			}
+			post = pendingDrain == null;
+		}
+		if (post) {
+			postDrain();
+		}
+	}
+
+	public void timerExec(int milliseconds, final Runnable runnable) {
+		if (!display.isDisposed()) {
+			Runnable safeRunnable = new Runnable() {
+				public void run() {
+					safeRun(runnable);
+				}
+			};
+			display.timerExec(milliseconds, safeRunnable);
+		}
+	}
+
+	/**
+	 * Posts a new drain to the display, which replaces the pending one.
+	 */
+	private void postDrain() {
+		Runnable drain = new Runnable() {
+			public void run() {
+				drain(this);
+			}
+		};
+		synchronized (lock) {
+			pendingDrain = drain;
+			postTime = System.currentTimeMillis();
+		}
+		if (display.isDisposed()) {
+			discardQueue();
+		} else {
+			display.asyncExec(drain);
+		}
+	}
+
+	/**
+	 * Drops the queued runnables, which the disposed display will not run, so
+	 * that the next runnable is not queued behind them.
+	 */
+	private void discardQueue() {
+		synchronized (lock) {
+			for (int i = 0; i < size; i++) {
+				queue[(head + i) % queue.length] = null;
+			}
+			head = 0;
+			size = 0;
+			pendingDrain = null;
+		}
+	}
+
+	private void drain(Runnable drain) {
+		long start = System.currentTimeMillis();
+		synchronized (lock) {
+			if (drain != pendingDrain) {
+				return;
+			}
+			pendingDrain = null;
+			drainCount++;
+			lastDrainLatency = start - postTime;
+			if (lastDrainLatency > maxDrainLatency) {
+				maxDrainLatency = lastDrainLatency;
+			}
+		}
+		long deadline = start + budget;
+		while (true) {
+			Runnable runnable;
+			boolean post;
+			synchronized (lock) {
+				if (size == 0) {
+					// the drain posted for a nested event loop has nothing
+					// left to run
+					pendingDrain = null;
+					return;
+				}
+				runnable = queue[head];
+				queue[head] = null;
+				head = (head + 1) % queue.length;
+				size--;
+				post = size > 0 && pendingDrain == null;
+			}
+			if (post) {
+				// let a nested event loop of the runnable run the rest
+				postDrain();
+			}
+			safeRun(runnable);
+			if (System.currentTimeMillis() >= deadline) {
+				synchronized (lock) {
+					if (size == 0) {
+						pendingDrain = null;
+						return;
+					}
+				}
+				// let the display dispatch the events queued meanwhile before
+				// running the rest
+				postDrain();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * @return the number of runnables waiting to be run
+	 */
+	public int getQueueDepth() {
+		synchronized (lock) {
+			return size;
+		}
+	}
+
+	/**
+	 * @return the largest number of runnables that were waiting to be run at
+	 *         the same time
+	 */
+	public int getMaxQueueDepth() {
+		synchronized (lock) {
+			return maxQueueDepth;
+		}
+	}
+
+	/**
+	 * @return the number of drains of the queue run by the display
+	 */
+	public int getDrainCount() {
+		synchronized (lock) {
+			return drainCount;
+		}
+	}
+
+	/**
+	 * @return the time in milliseconds between posting the last drain of the
+	 *         queue to the display and running it
+	 */
+	public long getLastDrainLatency() {
+		synchronized (lock) {
+			return lastDrainLatency;
+		}
+	}
+
+	/**
+	 * @return the longest time in milliseconds between posting a drain of the
+	 *         queue to the display and running it
+	 */
+	public long getMaxDrainLatency() {
+		synchronized (lock) {
+			return maxDrainLatency;
+		}
+	}
+
+	/**
+	 * Resets the largest queue depth and the drain statistics.
+	 */
+	public void resetStatistics() {
+		synchronized (lock) {
+			maxQueueDepth = size;
+			drainCount = 0;
+			lastDrainLatency = 0;
+			maxDrainLatency = 0;
+		}
+	}
+}
@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.jface.internal;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Internal class holding the pool of daemon threads shared by the viewers for
+ * their background work, such as computing labels and sorting large deferred
+ * contents. There is one thread per processor, running below the normal
+ * priority so that the user interface stays responsive.
+ *
+ * @since 3.10
+ */
+public final class WorkerPool {
+
+	private static ExecutorService executor;
+
+	private WorkerPool() {
+		// not instantiated
+	}
+
+	/**
+	 * Runs the runnable in one of the threads of the pool, once one is free.
+	 *
+	 * @param runnable
+	 *            the work to run, which must not access widgets
+	 */
+	public static void execute(Runnable runnable) {
+		getExecutor().execute(runnable);
+	}
+
+	private static synchronized ExecutorService getExecutor() {
+		if (executor == null) {
+			executor = Executors.newFixedThreadPool(Math.max(1, Runtime
+					.getRuntime().availableProcessors()), new ThreadFactory() {
+				private int count = 0;
+
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "JFace Worker " + (++count)); //$NON-NLS-1$
+					thread.setDaemon(true);
+					thread.setPriority(Thread.NORM_PRIORITY - 1);
+					return thread;
+				}
+			});
+		}
+		return executor;
+	}
+}
@@ -96,6 +96,14 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 	 */
 	private boolean isExpandableCheckFilters = false;
 
+	/**
+	 * Indicates if the items are matched with the children of their parent by
+	 * element rather than by position when refreshing.
+	 *
+	 * @see #setUseKeyedReconciliation(boolean)
+	 */
+	private boolean useKeyedReconciliation = false;
+
 	/**
 	 * Safe runnable used to update an item.
 	 */
@@ -2677,6 +2685,12 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 		}
 
 		Item[] items = getChildren(widget);
+
+		if (useKeyedReconciliation && items.length > 0
+				&& (tree.getStyle() & SWT.VIRTUAL) == 0) {
+			updateChildrenKeyed(widget, items, elementChildren, updateLabels);
+			return;
+		}
 		
 		// save the expanded elements
 		CustomHashtable expanded = newHashtable(CustomHashtable.DEFAULT_CAPACITY); // assume
@@ -2823,6 +2837,146 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 		}
 	}
 
+	/**
+	 * Updates the given items to correspond to the given child elements by
+	 * matching them by element. The items of the longest sequence of elements
+	 * which kept their relative order are kept, the others are disposed, and
+	 * items are created for the remaining elements at their position.
+	 *
+	 * @param widget
+	 *            the parent widget
+	 * @param items
+	 *            the current child items of the widget
+	 * @param elementChildren
+	 *            the child elements
+	 * @param updateLabels
+	 *            <code>true</code> to update labels for existing elements,
+	 *            <code>false</code> to only update labels as needed, assuming
+	 *            that labels for existing elements are unchanged.
+	 */
+	private void updateChildrenKeyed(Widget widget, Item[] items,
+			Object[] elementChildren, boolean updateLabels) {
+		// the position of the item of each child element, or -1
+		CustomHashtable itemIndices = newHashtable(items.length * 2 + 1);
+		for (int i = 0; i < items.length; i++) {
+			Object data = items[i].getData();
+			if (data != null) {
+				itemIndices.put(data, new Integer(i));
+			}
+		}
+		int[] itemIndex = new int[elementChildren.length];
+		for (int i = 0; i < elementChildren.length; i++) {
+			Integer index = (Integer) itemIndices.get(elementChildren[i]);
+			itemIndex[i] = index == null ? -1 : index.intValue();
+		}
+
+		// find the longest increasing sequence of item positions, whose items
+		// can stay in place
+		int[] tails = new int[elementChildren.length];
+		int[] previous = new int[elementChildren.length];
+		int length = 0;
+		for (int i = 0; i < elementChildren.length; i++) {
+			if (itemIndex[i] == -1) {
+				continue;
+			}
+			int low = 0;
+			int high = length;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (itemIndex[tails[mid]] < itemIndex[i]) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			previous[i] = low > 0 ? tails[low - 1] : -1;
+			tails[low] = i;
+			if (low == length) {
+				length++;
+			}
+		}
+		boolean[] keepElement = new boolean[elementChildren.length];
+		boolean[] keepItem = new boolean[items.length];
+		for (int i = length > 0 ? tails[length - 1] : -1; i != -1; i = previous[i]) {
+			keepElement[i] = true;
+			keepItem[itemIndex[i]] = true;
+		}
+
+		Control tree = getControl();
+		boolean batch = items.length + elementChildren.length - 2 * length > 1;
+		if (batch) {
+			tree.setRedraw(false);
+		}
+		try {
+			// dispose of the items which do not stay, remembering the
+			// expanded elements to expand their new items
+			CustomHashtable expanded = null;
+			for (int i = 0; i < items.length; i++) {
+				if (keepItem[i]) {
+					continue;
+				}
+				Object data = items[i].getData();
+				if (data != null) {
+					if (getExpanded(items[i])) {
+						if (expanded == null) {
+							expanded = newHashtable(CustomHashtable.DEFAULT_CAPACITY);
+						}
+						expanded.put(data, data);
+					}
+					disassociate(items[i]);
+				}
+				items[i].dispose();
+			}
+
+			int[] toExpand = null;
+			int expandCount = 0;
+			for (int i = 0; i < elementChildren.length; i++) {
+				Object newElement = elementChildren[i];
+				if (keepElement[i]) {
+					Item item = items[itemIndex[i]];
+					Object oldElement = item.getData();
+					if (oldElement != newElement) {
+						// update the data to be the new element, since
+						// although the elements are equal, they may still
+						// have different labels or children
+						unmapElement(oldElement, item);
+						item.setData(newElement);
+						mapElement(newElement, item);
+					}
+					updatePlus(item, newElement);
+					if (updateLabels) {
+						updateItem(item, newElement);
+					}
+				} else {
+					createTreeItem(widget, newElement, i);
+					if (expanded != null && expanded.containsKey(newElement)) {
+						if (toExpand == null) {
+							toExpand = new int[expanded.size()];
+						}
+						if (expandCount < toExpand.length) {
+							toExpand[expandCount++] = i;
+						}
+					}
+				}
+			}
+
+			// Restore the expanded state of the new items. Make sure
+			// setExpanded is called after updatePlus (called in
+			// createTreeItem), since setExpanded(false) fails if item has no
+			// children.
+			if (expandCount > 0) {
+				Item[] newItems = getChildren(widget);
+				for (int i = 0; i < expandCount; i++) {
+					setExpanded(newItems[toExpand[i]], true);
+				}
+			}
+		} finally {
+			if (batch) {
+				tree.setRedraw(true);
+			}
+		}
+	}
+
 	/** Returns true if children were pruned */
 	/*package*/ boolean optionallyPruneChildren(Item item, Object element) {
 		// need a dummy node if element is expandable;
@@ -3221,4 +3375,28 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 		}
 	}
 
+	/**
+	 * Instructs the viewer to match the existing items with the children of
+	 * their parent by element rather than by position when refreshing.
+	 * <p>
+	 * By default, the items are updated in order, so that inserting or
+	 * removing an element near the top of a large sorted node updates all of
+	 * the items below it. When this is set to <code>true</code>, the items of
+	 * the elements which kept their relative order stay in place with their
+	 * expanded subtree, items are only created for the new or moved elements,
+	 * and the items of the removed or moved elements are disposed. This
+	 * requires the elements, or the comparer set with
+	 * {@link #setComparer(IElementComparer)}, to implement
+	 * <code>hashCode()</code> consistently with <code>equals()</code>. It has
+	 * no effect on virtual trees.
+	 * </p>
+	 *
+	 * @param useKeyedReconciliation
+	 *            <code>true</code> to match the items by element
+	 * @since 3.10
+	 */
+	public void setUseKeyedReconciliation(boolean useKeyedReconciliation) {
+		this.useKeyedReconciliation = useKeyedReconciliation;
+	}
+
 }
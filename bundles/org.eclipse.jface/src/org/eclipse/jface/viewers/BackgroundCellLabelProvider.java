@@ -0,0 +1,486 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.viewers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.runtime.ISafeRunnable;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.jface.internal.WorkerPool;
+import org.eclipse.jface.util.Policy;
+import org.eclipse.jface.util.SafeRunnable;
+import org.eclipse.swt.custom.StyleRange;
+import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * A {@link BackgroundCellLabelProvider} is a
+ * {@link DelegatingStyledCellLabelProvider} that computes the labels of its
+ * label provider in background threads, so that expensive labels do not block
+ * the user interface while the rows of a large viewer are revealed.
+ * <p>
+ * A cell whose label has not been computed yet shows the placeholder text.
+ * The labels are computed by a shared pool of threads and applied to the
+ * viewer in batches, with one update of the viewer for all of the labels
+ * computed since the previous batch. The labels are cached by element, so the
+ * elements must implement <code>equals</code> and <code>hashCode</code>
+ * consistently with the viewer.
+ * </p>
+ * <p>
+ * The cached labels of the elements are computed again when the label
+ * provider fires a {@link LabelProviderChangedEvent} for them. The previous
+ * label is shown in the meantime. Updating the viewer for a label property
+ * only shows the cached label again, so the label provider must fire the
+ * event when the labels of its elements change.
+ * </p>
+ * <p>
+ * The wrapped label provider declares itself thread-safe by being given to
+ * this class: its label methods are called from several threads at once and
+ * may not access widgets. The images, fonts and colours it returns must be
+ * created in advance or through a thread-safe registry.
+ * </p>
+ *
+ * @since 3.10
+ */
+public class BackgroundCellLabelProvider extends
+		DelegatingStyledCellLabelProvider {
+
+	/**
+	 * The number of labels cached by each provider, the least recently shown
+	 * are dropped
+	 */
+	private static final int CACHE_SIZE = 10000;
+
+	/**
+	 * The number of labels computed by a worker before it hands them to the
+	 * viewer
+	 */
+	private static final int BATCH_SIZE = 64;
+
+	private static final int PARALLELISM = Math.max(1, Math.min(4, Runtime
+			.getRuntime().availableProcessors()));
+
+	private static class CachedLabel {
+		StyledString text;
+
+		Image image;
+
+		Font font;
+
+		Color foreground;
+
+		Color background;
+
+		boolean valid = true;
+	}
+
+	/**
+	 * The state of an element whose label is being computed.
+	 */
+	private static class Computation {
+		// Increased whenever the label of the element is invalidated
+		int generation = 0;
+
+		// The number of workers computing the label of the element
+		int workers = 0;
+	}
+
+	/**
+	 * Adapts an {@link ILabelProvider} to an {@link IStyledLabelProvider}.
+	 */
+	private static class StyledLabelProviderAdapter implements
+			IStyledLabelProvider, IColorProvider, IFontProvider {
+
+		private ILabelProvider provider;
+
+		StyledLabelProviderAdapter(ILabelProvider provider) {
+			if (provider == null)
+				throw new IllegalArgumentException(
+						"Label provider must not be null"); //$NON-NLS-1$
+			this.provider = provider;
+		}
+
+		public StyledString getStyledText(Object element) {
+			String text = provider.getText(element);
+			return new StyledString(text == null ? "" : text); //$NON-NLS-1$
+		}
+
+		public Image getImage(Object element) {
+			return provider.getImage(element);
+		}
+
+		public Color getForeground(Object element) {
+			if (provider instanceof IColorProvider) {
+				return ((IColorProvider) provider).getForeground(element);
+			}
+			return null;
+		}
+
+		public Color getBackground(Object element) {
+			if (provider instanceof IColorProvider) {
+				return ((IColorProvider) provider).getBackground(element);
+			}
+			return null;
+		}
+
+		public Font getFont(Object element) {
+			if (provider instanceof IFontProvider) {
+				return ((IFontProvider) provider).getFont(element);
+			}
+			return null;
+		}
+
+		public void addListener(ILabelProviderListener listener) {
+			provider.addListener(listener);
+		}
+
+		public void removeListener(ILabelProviderListener listener) {
+			provider.removeListener(listener);
+		}
+
+		public boolean isLabelProperty(Object element, String property) {
+			return provider.isLabelProperty(element, property);
+		}
+
+		public void dispose() {
+			provider.dispose();
+		}
+	}
+
+	private final Object lock = new Object();
+
+	// The labels by element, in access order
+	private final Map cache = new LinkedHashMap(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		protected boolean removeEldestEntry(Map.Entry eldest) {
+			return size() > CACHE_SIZE;
+		}
+	};
+
+	// The elements waiting for their labels, in request order
+	private final Set pending = new LinkedHashSet();
+
+	// The elements whose labels have been computed but not shown yet
+	private final List ready = new ArrayList();
+
+	// The elements whose labels are being computed
+	private final Map computations = new HashMap();
+
+	private int runningWorkers = 0;
+
+	private boolean disposed = false;
+
+	private Display display;
+
+	private String placeholder = ""; //$NON-NLS-1$
+
+	private final ILabelProviderListener providerListener = new ILabelProviderListener() {
+		public void labelProviderChanged(LabelProviderChangedEvent event) {
+			invalidate(event.getElements());
+			fireLabelProviderChanged(new LabelProviderChangedEvent(
+					BackgroundCellLabelProvider.this, event.getElements()));
+		}
+	};
+
+	private final Runnable applyLabels = new Runnable() {
+		public void run() {
+			Object[] elements;
+			synchronized (lock) {
+				elements = ready.toArray();
+				ready.clear();
+			}
+			ColumnViewer viewer = getViewer();
+			if (viewer == null || elements.length == 0) {
+				return;
+			}
+			Control control = viewer.getControl();
+			if (control == null || control.isDisposed()) {
+				return;
+			}
+			viewer.update(elements, null);
+		}
+	};
+
+	/**
+	 * Creates a {@link BackgroundCellLabelProvider} that computes the styled
+	 * labels and the images of the given label provider in background threads.
+	 *
+	 * @param labelProvider
+	 *            the thread-safe label provider that provides the styled
+	 *            labels and the images
+	 */
+	public BackgroundCellLabelProvider(IStyledLabelProvider labelProvider) {
+		super(labelProvider);
+		labelProvider.addListener(providerListener);
+	}
+
+	/**
+	 * Creates a {@link BackgroundCellLabelProvider} that computes the labels
+	 * and the images of the given label provider in background threads.
+	 *
+	 * @param labelProvider
+	 *            the thread-safe label provider that provides the labels and
+	 *            the images
+	 */
+	public BackgroundCellLabelProvider(ILabelProvider labelProvider) {
+		this(new StyledLabelProviderAdapter(labelProvider));
+	}
+
+	/**
+	 * Sets the text shown in the cells whose label has not been computed yet.
+	 * The default is the empty string.
+	 *
+	 * @param placeholder
+	 *            the text to show, not <code>null</code>
+	 */
+	public void setPlaceholder(String placeholder) {
+		if (placeholder == null)
+			throw new IllegalArgumentException(
+					"Placeholder must not be null"); //$NON-NLS-1$
+		this.placeholder = placeholder;
+	}
+
+	/**
+	 * Returns the text shown in the cells whose label has not been computed
+	 * yet.
+	 *
+	 * @return the placeholder text
+	 */
+	public String getPlaceholder() {
+		return placeholder;
+	}
+
+	@Override
+	public void initialize(ColumnViewer viewer, ViewerColumn column) {
+		super.initialize(viewer, column);
+		display = viewer.getControl().getDisplay();
+	}
+
+	@Override
+	public void update(ViewerCell cell) {
+		Object element = cell.getElement();
+		CachedLabel label;
+		synchronized (lock) {
+			label = (CachedLabel) cache.get(element);
+			if (label == null || !label.valid) {
+				schedule(element);
+			}
+		}
+
+		if (label == null) {
+			cell.setStyleRanges(null);
+			cell.setText(placeholder);
+			cell.setImage(null);
+			cell.setFont(null);
+			cell.setForeground(null);
+			cell.setBackground(null);
+			return;
+		}
+
+		String newText = label.text.toString();
+		StyleRange[] oldStyleRanges = cell.getStyleRanges();
+		StyleRange[] newStyleRanges = isOwnerDrawEnabled() ? label.text
+				.getStyleRanges() : null;
+		if (!Arrays.equals(oldStyleRanges, newStyleRanges)) {
+			cell.setStyleRanges(newStyleRanges);
+			if (cell.getText().equals(newText)) {
+				// make sure there will be a refresh from a change
+				cell.setText(""); //$NON-NLS-1$
+			}
+		}
+
+		cell.setText(newText);
+		cell.setImage(label.image);
+		cell.setFont(label.font);
+		cell.setForeground(label.foreground);
+		cell.setBackground(label.background);
+	}
+
+	/**
+	 * The listeners are notified by the receiver once it has invalidated the
+	 * labels, rather than by the wrapped label provider.
+	 */
+	@Override
+	public void addListener(ILabelProviderListener listener) {
+		addListenerObject(listener);
+	}
+
+	@Override
+	public void removeListener(ILabelProviderListener listener) {
+		removeListenerObject(listener);
+	}
+
+	@Override
+	public void dispose() {
+		synchronized (lock) {
+			disposed = true;
+			cache.clear();
+			pending.clear();
+			ready.clear();
+			computations.clear();
+		}
+		getStyledStringProvider().removeListener(providerListener);
+		super.dispose();
+	}
+
+	/**
+	 * Invalidate the cached labels of the elements, or of all elements if
+	 * elements is <code>null</code>.
+	 *
+	 * @param elements
+	 */
+	private void invalidate(Object[] elements) {
+		synchronized (lock) {
+			if (elements == null) {
+				Iterator iterator = cache.values().iterator();
+				while (iterator.hasNext()) {
+					((CachedLabel) iterator.next()).valid = false;
+				}
+				iterator = computations.values().iterator();
+				while (iterator.hasNext()) {
+					((Computation) iterator.next()).generation++;
+				}
+				return;
+			}
+			for (int i = 0; i < elements.length; i++) {
+				CachedLabel label = (CachedLabel) cache.get(elements[i]);
+				if (label != null) {
+					label.valid = false;
+				}
+				Computation computation = (Computation) computations
+						.get(elements[i]);
+				if (computation != null) {
+					computation.generation++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Queue the element and start a worker if needed. Must be called while
+	 * holding the lock.
+	 *
+	 * @param element
+	 */
+	private void schedule(Object element) {
+		if (disposed || !pending.add(element)) {
+			return;
+		}
+		if (runningWorkers < PARALLELISM
+				&& runningWorkers * BATCH_SIZE < pending.size()) {
+			runningWorkers++;
+			WorkerPool.execute(new Runnable() {
+				public void run() {
+					computeLabels();
+				}
+			});
+		}
+	}
+
+	/**
+	 * Compute the labels of the pending elements in batches until there are
+	 * none left.
+	 */
+	private void computeLabels() {
+		Object[] batch = new Object[BATCH_SIZE];
+		CachedLabel[] labels = new CachedLabel[BATCH_SIZE];
+		int[] generations = new int[BATCH_SIZE];
+		while (true) {
+			int count = 0;
+			synchronized (lock) {
+				Iterator iterator = pending.iterator();
+				while (count < BATCH_SIZE && iterator.hasNext()) {
+					batch[count++] = iterator.next();
+					iterator.remove();
+				}
+				if (count == 0 || disposed) {
+					runningWorkers--;
+					return;
+				}
+				for (int i = 0; i < count; i++) {
+					Computation computation = (Computation) computations
+							.get(batch[i]);
+					if (computation == null) {
+						computation = new Computation();
+						computations.put(batch[i], computation);
+					}
+					computation.workers++;
+					generations[i] = computation.generation;
+				}
+			}
+
+			for (int i = 0; i < count; i++) {
+				labels[i] = computeLabel(batch[i]);
+			}
+
+			boolean wasEmpty;
+			synchronized (lock) {
+				if (disposed) {
+					runningWorkers--;
+					return;
+				}
+				wasEmpty = ready.isEmpty();
+				for (int i = 0; i < count; i++) {
+					Computation computation = (Computation) computations
+							.get(batch[i]);
+					// Labels changed while computing are shown but computed again
+					labels[i].valid = generations[i] == computation.generation;
+					if (--computation.workers == 0) {
+						computations.remove(batch[i]);
+					}
+					cache.put(batch[i], labels[i]);
+					ready.add(batch[i]);
+				}
+			}
+			if (wasEmpty && display != null && !display.isDisposed()) {
+				display.asyncExec(applyLabels);
+			}
+			Arrays.fill(batch, null);
+			Arrays.fill(labels, null);
+		}
+	}
+
+	private CachedLabel computeLabel(final Object element) {
+		final CachedLabel label = new CachedLabel();
+		SafeRunnable.run(new ISafeRunnable() {
+			public void run() throws Exception {
+				label.text = getStyledText(element);
+				label.image = getImage(element);
+				label.font = getFont(element);
+				label.foreground = getForeground(element);
+				label.background = getBackground(element);
+			}
+
+			public void handleException(Throwable exception) {
+				Policy.getLog().log(
+						new Status(IStatus.ERROR, Policy.JFACE, exception
+								.getLocalizedMessage(), exception));
+			}
+		});
+		if (label.text == null) {
+			label.text = new StyledString();
+		}
+		return label;
+	}
+}
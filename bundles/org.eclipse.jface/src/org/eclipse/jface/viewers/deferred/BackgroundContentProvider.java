@@ -51,6 +51,13 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
  * the previous range.
  * </p>
  * 
+ * <p>
+ * If enabled with {@link #setParallel(boolean)}, the comparisons of the large partitions
+ * and the filtering of large sets of elements are shared between the sort thread and a
+ * pool of threads (see <code>ParallelRunner</code>), so the comparator and filter may be
+ * called from several threads at once.
+ * </p>
+ * 
  * @since 3.1
  */
 /* package */ final class BackgroundContentProvider {
@@ -80,6 +87,11 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
      */
     private volatile IFilter filter = AcceptAllFilter.getInstance();
     
+    /**
+     * True iff the comparator and filter may be called from several threads at once
+     */
+    private volatile boolean parallel = false;
+    
     /**
      * Queued changes
      */
@@ -189,7 +201,7 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
         // Create a LazySortedCollection
         Comparator order = sortOrder;
         IFilter f = filter;
-        LazySortedCollection collection = new LazySortedCollection(order);
+        LazySortedCollection collection = createCollection(order);
         
         // Fill it in with all existing known objects
         Object[] knownObjects = updator.getKnownObjects();
@@ -212,7 +224,7 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
         		dirty = true;
         		order = sortOrder;
         		// Copy all elements from the old collection to the new one 
-        		LazySortedCollection newCollection = new LazySortedCollection(order);
+        		LazySortedCollection newCollection = createCollection(order);
         		
         		Object[] items = collection.getItems(false);
         		for (int j = 0; j < items.length && order == sortOrder; j++) {
@@ -237,6 +249,15 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
         		Object[] items = collection.getItems(false);
         		
         		// Remove any items that don't pass the new filter
+        		if (parallel && ParallelRunner.isParallel(items.length)) {
+        			boolean[] selected = ParallelRunner.select(items, f);
+        			for (int j = 0; j < items.length && f == filter; j++) {
+        				if (!selected[j]) {
+        					collection.remove(items[j]);
+        				}
+        			}
+        			continue;
+        		}
         		for (int j = 0; j < items.length && f == filter; j++) {
 					Object toTest = items[j];
 					
@@ -359,11 +380,35 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
     }
 
 	/**
+	 * Creates the collection sorting the elements. If parallel sorting is enabled,
+	 * its comparator is called from several threads at once on large partitions.
+	 * 
+	 * @param order sort order
+	 * @return a new collection
+	 */
+	private LazySortedCollection createCollection(Comparator order) {
+		LazySortedCollection collection = new LazySortedCollection(order);
+		collection.setParallel(parallel);
+		return collection;
+	}
+
+	/**
+	 * Adds the elements which pass the filter to the collection. If parallel
+	 * filtering is enabled, large arrays are filtered in several threads at once.
+	 * 
 	 * @param collection
 	 * @param toAdd
 	 */
-	private static void filteredAdd(LazySortedCollection collection, Object[] toAdd, IFilter filter) {
-		if (filter != AcceptAllFilter.getInstance()) { 
+	private void filteredAdd(LazySortedCollection collection, Object[] toAdd, IFilter filter) {
+		if (filter != AcceptAllFilter.getInstance() && parallel
+				&& ParallelRunner.isParallel(toAdd.length)) {
+			boolean[] selected = ParallelRunner.select(toAdd, filter);
+			for (int i = 0; i < toAdd.length; i++) {
+				if (selected[i]) {
+					collection.add(toAdd[i]);
+				}
+			}
+		} else if (filter != AcceptAllFilter.getInstance()) { 
 			for (int i = 0; i < toAdd.length; i++) {
 				Object object = toAdd[i];
 				
@@ -388,6 +433,17 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
         refresh();
     }
     
+    /**
+     * Sets whether the comparator and filter may be called from several threads
+     * at once, so that large tables are sorted and filtered in parallel. Applies
+     * from the next sort.
+     * 
+     * @param parallel true iff the comparator and filter are thread safe
+     */
+    public void setParallel(boolean parallel) {
+    	this.parallel = parallel;
+    }
+    
     /**
      * Sets the filter for this content provider
      * 
@@ -45,6 +45,7 @@ public class DeferredContentProvider implements ILazyContentProvider {
 	private BackgroundContentProvider provider;
 	private Comparator sortOrder;
 	private IFilter filter = AcceptAllFilter.getInstance();
+	private boolean parallel = false;
 	private AbstractVirtualTable table;
 	
 	private static final class TableViewerAdapter extends AbstractVirtualTable {
@@ -157,6 +158,7 @@ public class DeferredContentProvider implements ILazyContentProvider {
 		setProvider(newProvider);
 		
 		newProvider.setLimit(limit);
+		newProvider.setParallel(parallel);
 		newProvider.setFilter(filter);
 	}
 	
@@ -189,6 +191,26 @@ public class DeferredContentProvider implements ILazyContentProvider {
 		}
 	}
 	
+	/**
+	 * Sets whether large tables may be sorted and filtered by several threads at
+	 * once. This is disabled by default. Only enable it if the sort order and the
+	 * filter can be called from several threads at once.
+	 * <p>
+	 * The number of threads can be set with the
+	 * <code>org.eclipse.jface.viewers.deferred.parallelism</code> system property,
+	 * and defaults to the number of processors.
+	 * </p>
+	 * 
+	 * @param parallel true iff the sort order and filter are thread safe
+	 * @since 3.10
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+		if (provider != null) {
+			provider.setParallel(parallel);
+		}
+	}
+	
 	/**
 	 * Sets the maximum number of rows in the table. If the model contains more
 	 * than this number of elements, only the top elements will be shown based on
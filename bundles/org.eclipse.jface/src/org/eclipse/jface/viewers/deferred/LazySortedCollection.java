@@ -63,6 +63,12 @@ public class LazySortedCollection {
      */
     public boolean enableDebug = false;
     
+    /**
+     * True iff large partitions compare their elements with the pivot in several
+     * threads at once. Requires a comparator that can be called concurrently.
+     */
+    private boolean parallel = false;
+    
     // This object is inserted as the value into any node scheduled for lazy removal
     private Object lazyRemovalFlag = new Object() {
         @Override
@@ -330,9 +336,22 @@ public class LazySortedCollection {
      * @since 3.1
      */
     private final int partition(int subTree, int toMove) {
+        return partition(subTree, toMove, isLess(toMove, subTree));
+    }
+    
+    /**
+     * Given a tree and one of its unsorted children, this sorts the child by moving
+     * it into the left or right subtree, given the result of its comparison with
+     * the tree. Returns the next unsorted child or -1 if none
+     * 
+     * @param subTree parent tree
+     * @param toMove child (unsorted) subtree
+     * @param less true iff the child sorts before the parent tree
+     */
+    private final int partition(int subTree, int toMove, boolean less) {
         int result = nextUnsorted[toMove];
         
-        if (isLess(toMove, subTree)) {
+        if (less) {
             int nextLeft = addUnsorted(leftSubTree[subTree], toMove);
             leftSubTree[subTree] = nextLeft;
             parentTree[nextLeft] = subTree;
@@ -368,6 +387,11 @@ public class LazySortedCollection {
             }
         }
         
+        if (parallel && !enableDebug
+                && ParallelRunner.isParallel(getSubtreeSize(nextUnsorted[subTree]))) {
+            return partitionParallel(subTree, mon);
+        }
+        
         for (int idx = nextUnsorted[subTree]; idx != -1;) { 
             idx = partition(subTree, idx);
             nextUnsorted[subTree] = idx;
@@ -386,6 +410,46 @@ public class LazySortedCollection {
         return subTree;
     }
     
+    /**
+     * Partitions the given subtree like partition(int, FastProgressReporter), but
+     * compares its unsorted elements with the pivot in several threads before moving
+     * them to the left or right subtrees.
+     * 
+     * @param subTree
+     * @param mon
+     * @return the subtree
+     * @throws InterruptedException if the progress monitor is cancelled in another thread
+     */
+    private final int partitionParallel(int subTree, FastProgressReporter mon) throws InterruptedException {
+        int count = 0;
+        for (int idx = nextUnsorted[subTree]; idx != -1; idx = nextUnsorted[idx]) {
+            count++;
+        }
+        
+        Object[] unsorted = new Object[count];
+        int i = 0;
+        for (int idx = nextUnsorted[subTree]; idx != -1; idx = nextUnsorted[idx]) {
+            unsorted[i++] = contents[idx];
+        }
+        
+        boolean[] less = ParallelRunner.compare(unsorted, count, contents[subTree],
+                comparator, mon);
+        
+        // Moving the nodes does not change the order of the remaining unsorted ones
+        i = 0;
+        for (int idx = nextUnsorted[subTree]; idx != -1; i++) { 
+            idx = partition(subTree, idx, less[i]);
+            nextUnsorted[subTree] = idx;
+            if (idx != -1) {
+                parentTree[idx] = subTree;
+            }
+        }
+        
+        nextUnsorted[subTree] = -1;
+        
+        return subTree;
+    }
+    
     private final int getSubtreeSize(int subTree) {
         if (subTree == -1) {
             return 0;
@@ -1182,6 +1246,18 @@ public class LazySortedCollection {
         testInvariants();
     }
     
+    /**
+     * Sets whether large partitions compare their elements in several threads
+     * at once. This is disabled by default. The comparator must support being
+     * called concurrently.
+     * 
+     * @param parallel true iff the comparisons may be done in parallel
+     * @since 3.10
+     */
+    public final void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+    
     /**
      * Returns the comparator that is determining the sort order for this collection
      * 
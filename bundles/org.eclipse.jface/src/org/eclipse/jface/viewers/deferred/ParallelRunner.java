@@ -0,0 +1,185 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.viewers.deferred;
+
+import java.util.Comparator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jface.internal.WorkerPool;
+import org.eclipse.jface.viewers.IFilter;
+
+/**
+ * Splits the comparisons and filtering of large arrays of elements between
+ * the sorting thread and the shared {@link WorkerPool}, for the collections
+ * and content providers whose comparator and filter were declared thread safe
+ * with <code>setParallel(true)</code>. Small arrays are processed in the
+ * calling thread. The number of threads sharing the work is set with the
+ * <code>org.eclipse.jface.viewers.deferred.parallelism</code> system
+ * property, and defaults to the number of processors; a value of 1 disables
+ * the parallel processing. The pool has one thread per processor.
+ * <p>
+ * The work is cut into more chunks than there are threads. The calling thread
+ * processes chunks along with the pool and only waits for the chunks already
+ * started by other threads, so that a busy pool never delays a sort.
+ * </p>
+ *
+ * @since 3.10
+ */
+/* package */ final class ParallelRunner {
+
+	/**
+	 * Number of threads sharing the work, including the calling thread
+	 */
+	static final int PARALLELISM = Math.max(1, Integer.getInteger(
+			"org.eclipse.jface.viewers.deferred.parallelism", //$NON-NLS-1$
+			Runtime.getRuntime().availableProcessors()).intValue());
+
+	/**
+	 * Arrays smaller than this are processed in the calling thread
+	 */
+	static final int THRESHOLD = 8192;
+
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	/**
+	 * A piece of work applied to a range of indices.
+	 */
+	private static abstract class Chunk {
+		abstract void run(int start, int end) throws InterruptedException;
+	}
+
+	private ParallelRunner() {
+	}
+
+	/**
+	 * Returns whether an array of the given size is worth processing in
+	 * parallel.
+	 *
+	 * @param size number of elements
+	 * @return true iff the work will be shared between threads
+	 */
+	static boolean isParallel(int size) {
+		return PARALLELISM > 1 && size >= THRESHOLD;
+	}
+
+	/**
+	 * Compares each element with the pivot.
+	 *
+	 * @param elements elements to compare
+	 * @param length number of elements to compare
+	 * @param pivot element compared with
+	 * @param comparator comparator to use. Called from several threads at once.
+	 * @param mon monitor used to cancel the comparisons
+	 * @return an array whose entries are true iff the element at the same index
+	 * sorts before the pivot
+	 * @throws InterruptedException if the monitor is cancelled
+	 */
+	static boolean[] compare(final Object[] elements, int length,
+			final Object pivot, final Comparator comparator,
+			final FastProgressReporter mon) throws InterruptedException {
+		final boolean[] result = new boolean[length];
+		run(length, new Chunk() {
+			void run(int start, int end) throws InterruptedException {
+				for (int i = start; i < end; i++) {
+					result[i] = comparator.compare(elements[i], pivot) < 0;
+					if ((i & 0xff) == 0 && mon.isCanceled()) {
+						throw new InterruptedException();
+					}
+				}
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Applies the filter to each element.
+	 *
+	 * @param elements elements to filter
+	 * @param filter filter to apply. Called from several threads at once.
+	 * @return an array whose entries are true iff the element at the same index
+	 * is selected by the filter
+	 */
+	static boolean[] select(final Object[] elements, final IFilter filter) {
+		final boolean[] result = new boolean[elements.length];
+		try {
+			run(elements.length, new Chunk() {
+				void run(int start, int end) {
+					for (int i = start; i < end; i++) {
+						Object element = elements[i];
+						result[i] = element != null && filter.select(element);
+					}
+				}
+			});
+		} catch (InterruptedException e) {
+			// Not cancellable
+		}
+		return result;
+	}
+
+	private static void run(int size, final Chunk chunk)
+			throws InterruptedException {
+		if (!isParallel(size)) {
+			chunk.run(0, size);
+			return;
+		}
+
+		final int chunkCount = PARALLELISM * CHUNKS_PER_THREAD;
+		final int chunkSize = (size + chunkCount - 1) / chunkCount;
+		final int total = size;
+		final AtomicInteger nextChunk = new AtomicInteger();
+		final CountDownLatch done = new CountDownLatch(chunkCount);
+		final Throwable[] failure = new Throwable[1];
+
+		Runnable worker = new Runnable() {
+			public void run() {
+				int next;
+				while ((next = nextChunk.getAndIncrement()) < chunkCount) {
+					try {
+						if (failure[0] == null) {
+							int start = next * chunkSize;
+							chunk.run(Math.min(start, total), Math.min(start
+									+ chunkSize, total));
+						}
+					} catch (Throwable t) {
+						synchronized (failure) {
+							if (failure[0] == null) {
+								failure[0] = t;
+							}
+						}
+					} finally {
+						done.countDown();
+					}
+				}
+			}
+		};
+
+		for (int i = 1; i < PARALLELISM; i++) {
+			WorkerPool.execute(worker);
+		}
+		worker.run();
+		done.await();
+
+		Throwable t;
+		synchronized (failure) {
+			t = failure[0];
+		}
+		if (t instanceof InterruptedException) {
+			throw (InterruptedException) t;
+		}
+		if (t instanceof RuntimeException) {
+			throw (RuntimeException) t;
+		}
+		if (t instanceof Error) {
+			throw (Error) t;
+		}
+	}
+}
@@ -16,7 +16,9 @@ import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IResource;
@@ -68,6 +70,7 @@ import org.eclipse.ui.internal.WorkbenchPlugin;
 import org.eclipse.ui.internal.ide.IDEWorkbenchMessages;
 import org.eclipse.ui.internal.ide.IDEWorkbenchPlugin;
 import org.eclipse.ui.internal.ide.IIDEHelpContextIds;
+import org.eclipse.ui.internal.ide.misc.ResourceNameIndex;
 import org.eclipse.ui.internal.ide.model.ResourceFactory;
 import org.eclipse.ui.model.WorkbenchLabelProvider;
 import org.eclipse.ui.statushandlers.StatusManager;
@@ -139,6 +142,9 @@ public class FilteredResourcesSelectionDialog extends
 
 		setSelectionHistory(new ResourceSelectionHistory());
 
+		// Start indexing the resource names for the next searches
+		ResourceNameIndex.getDefault();
+
 		setTitle(IDEWorkbenchMessages.OpenResourceDialog_title);
 
 		/*
@@ -562,6 +568,13 @@ public class FilteredResourcesSelectionDialog extends
 			ItemsFilter itemsFilter, IProgressMonitor progressMonitor)
 			throws CoreException {
 		if (itemsFilter instanceof ResourceFilter) {
+			if (itemsFilter.getClass() == ResourceFilter.class
+					&& fillFromIndex(contentProvider,
+							(ResourceFilter) itemsFilter, progressMonitor)) {
+				progressMonitor.done();
+				return;
+			}
+
 			IResource[] members = container.members();
 			progressMonitor
 					.beginTask(
@@ -587,6 +600,84 @@ public class FilteredResourcesSelectionDialog extends
 		progressMonitor.done();
 	}
 
+	/**
+	 * Adds the resources found in the resource name index to the content
+	 * provider. Only the resources whose name matches the filter are looked
+	 * up, the others are skipped without being visited.
+	 * 
+	 * @return <code>false</code> if the index is not available, in which case
+	 *         the resources must be visited
+	 */
+	private boolean fillFromIndex(AbstractContentProvider contentProvider,
+			final ResourceFilter resourceFilter, IProgressMonitor progressMonitor) {
+		ResourceNameIndex index = ResourceNameIndex.getDefault();
+		if (index == null) {
+			return false;
+		}
+		IResource[] resources = index.find(resourceFilter.getNamePrefix(),
+				new ResourceNameIndex.INameMatcher() {
+					public boolean matches(String name) {
+						return resourceFilter.nameMatches(name);
+					}
+				}, progressMonitor);
+		if (resources == null) {
+			return progressMonitor.isCanceled();
+		}
+
+		progressMonitor.beginTask(
+				WorkbenchMessages.FilteredItemsSelectionDialog_searchJob_taskName,
+				resources.length);
+		contentProvider.add(container, resourceFilter);
+		IPath containerPath = container.getFullPath();
+		// The containers whose members are visited, by path
+		Map visited = new HashMap();
+		for (int i = 0; i < resources.length; i++) {
+			IResource resource = resources[i];
+			if (containerPath.isPrefixOf(resource.getFullPath())
+					&& !resource.equals(container) && resource.exists()
+					&& (resource.getType() != IResource.PROJECT || resource
+							.isAccessible())
+					&& isVisited(resource.getParent(), resourceFilter, visited)
+					&& !resource.isHidden() && !resource.isTeamPrivateMember()) {
+				contentProvider.add(resource, resourceFilter);
+			}
+			progressMonitor.worked(1);
+			if (progressMonitor.isCanceled())
+				break;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns whether the members of the container are visited when walking
+	 * the resources, as done by the {@link ResourceProxyVisitor}.
+	 */
+	private boolean isVisited(IContainer parent, ResourceFilter resourceFilter,
+			Map visited) {
+		if (parent.equals(container)) {
+			return parent.getType() != IResource.FOLDER
+					|| resourceFilter.isShowDerived() || !parent.isDerived();
+		}
+		Boolean result = (Boolean) visited.get(parent.getFullPath());
+		if (result == null) {
+			boolean visit;
+			if (parent.getType() == IResource.PROJECT) {
+				visit = parent.isAccessible() && !parent.isHidden()
+						&& !parent.isTeamPrivateMember();
+			} else {
+				visit = !parent.isHidden()
+						&& !parent.isTeamPrivateMember()
+						&& (resourceFilter.isShowDerived() || !parent
+								.isDerived())
+						&& isVisited(parent.getParent(), resourceFilter,
+								visited);
+			}
+			result = visit ? Boolean.TRUE : Boolean.FALSE;
+			visited.put(parent.getFullPath(), result);
+		}
+		return result.booleanValue();
+	}
+
 	/**
 	 * Sets the derived flag on the ResourceFilter instance
 	 */
@@ -1045,6 +1136,27 @@ public class FilteredResourcesSelectionDialog extends
 			return false;			
 		}
 
+		/**
+		 * Returns the prefix of the names matched by the filter, ignoring
+		 * case.
+		 * 
+		 * @return the prefix, or the empty string if any name may match
+		 */
+		private String getNamePrefix() {
+			String pattern = patternMatcher.getPattern();
+			boolean camelCase = getMatchRule() == SearchPattern.RULE_CAMELCASE_MATCH;
+			int end = 0;
+			while (end < pattern.length()) {
+				char c = pattern.charAt(end);
+				if (c == '*' || c == '?' || c == '.' || c == ' ' || c == '<'
+						|| (camelCase && end > 0 && !Character.isLowerCase(c))) {
+					break;
+				}
+				end++;
+			}
+			return pattern.substring(0, end);
+		}
+
 		private boolean nameMatches(String name) {
 			if (namePattern != null) {
 				// fix for https://bugs.eclipse.org/bugs/show_bug.cgi?id=212565
@@ -748,6 +748,7 @@ public class IDEWorkbenchMessages extends NLS {
 	public static String MarkerDeleteHandler_JobMessageLabel;
 	
 	public static String FilteredResourcesSelectionDialog_showDerivedResourcesAction;
+	public static String ResourceNameIndex_jobName;
 	
 	public static String ResourceSelectionDialog_label;
 	public static String ResourceSelectionDialog_matching;
@@ -18,6 +18,7 @@ import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.jface.viewers.IDecoration;
 import org.eclipse.jface.viewers.ILabelProviderListener;
 import org.eclipse.jface.viewers.ILightweightLabelDecorator;
+import org.eclipse.ui.internal.decorators.IPersistableDecorator;
 import org.eclipse.ui.internal.ide.dialogs.IDEResourceInfoUtils;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
 
@@ -27,7 +28,8 @@ import org.eclipse.ui.plugin.AbstractUIPlugin;
  * 
  * @since 2.1
  */
-public class LinkedResourceDecorator implements ILightweightLabelDecorator {
+public class LinkedResourceDecorator implements ILightweightLabelDecorator,
+		IPersistableDecorator {
     private static final ImageDescriptor LINK;
 
     private static final ImageDescriptor LINK_WARNING;
@@ -102,4 +104,22 @@ public class LinkedResourceDecorator implements ILightweightLabelDecorator {
 
     }
 
+    /**
+     * Linked resources are not kept as whether their location exists is not
+     * covered by their stamp. Other resources do not become linked without
+     * their stamp changing.
+     * 
+     * @see org.eclipse.ui.internal.decorators.IPersistableDecorator#getOverlayKey(ImageDescriptor)
+     */
+    public String getOverlayKey(ImageDescriptor overlay) {
+        return null;
+    }
+
+    /**
+     * @see org.eclipse.ui.internal.decorators.IPersistableDecorator#getOverlay(String)
+     */
+    public ImageDescriptor getOverlay(String key) {
+        return null;
+    }
+
 }
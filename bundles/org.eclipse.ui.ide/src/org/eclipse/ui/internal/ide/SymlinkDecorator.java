@@ -16,13 +16,17 @@ import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.jface.viewers.IDecoration;
 import org.eclipse.jface.viewers.ILabelProviderListener;
 import org.eclipse.jface.viewers.ILightweightLabelDecorator;
+import org.eclipse.ui.internal.decorators.IPersistableDecorator;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
 
 /**
  * Decorate symbolic links
  * @since 3.8.200
  */
-public class SymlinkDecorator implements ILightweightLabelDecorator {
+public class SymlinkDecorator implements ILightweightLabelDecorator,
+		IPersistableDecorator {
+
+	private static final String SYMLINK_KEY = "symlink"; //$NON-NLS-1$
 
 	private static ImageDescriptor SYMLINK;
 
@@ -62,4 +66,12 @@ public class SymlinkDecorator implements ILightweightLabelDecorator {
 				decoration.addOverlay(SYMLINK);
 		}
 	}
+
+	public String getOverlayKey(ImageDescriptor overlay) {
+		return overlay == SYMLINK ? SYMLINK_KEY : null;
+	}
+
+	public ImageDescriptor getOverlay(String key) {
+		return SYMLINK_KEY.equals(key) ? SYMLINK : null;
+	}
 }
@@ -16,13 +16,17 @@ import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.jface.viewers.IDecoration;
 import org.eclipse.jface.viewers.ILabelProviderListener;
 import org.eclipse.jface.viewers.ILightweightLabelDecorator;
+import org.eclipse.ui.internal.decorators.IPersistableDecorator;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
 
 /**
  * A VirtualResourceDecorator replaces an element's image, if it is a virtual
  * resource.
  */
-public class VirtualResourceDecorator implements ILightweightLabelDecorator {
+public class VirtualResourceDecorator implements ILightweightLabelDecorator,
+		IPersistableDecorator {
+	private static final String VIRTUAL_FOLDER_KEY = "virtualFolder"; //$NON-NLS-1$
+
 	private static final ImageDescriptor VIRTUAL_FOLDER;
 
 	static {
@@ -79,4 +83,18 @@ public class VirtualResourceDecorator implements ILightweightLabelDecorator {
 			decoration.addOverlay(VIRTUAL_FOLDER, IDecoration.BOTTOM_RIGHT);
 		}
 	}
+
+	/**
+	 * @see org.eclipse.ui.internal.decorators.IPersistableDecorator#getOverlayKey(ImageDescriptor)
+	 */
+	public String getOverlayKey(ImageDescriptor overlay) {
+		return overlay == VIRTUAL_FOLDER ? VIRTUAL_FOLDER_KEY : null;
+	}
+
+	/**
+	 * @see org.eclipse.ui.internal.decorators.IPersistableDecorator#getOverlay(String)
+	 */
+	public ImageDescriptor getOverlay(String key) {
+		return VIRTUAL_FOLDER_KEY.equals(key) ? VIRTUAL_FOLDER : null;
+	}
 }
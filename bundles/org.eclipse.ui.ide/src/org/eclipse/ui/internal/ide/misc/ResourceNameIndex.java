@@ -0,0 +1,777 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.ide.misc;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.resources.IResourceProxy;
+import org.eclipse.core.resources.IResourceProxyVisitor;
+import org.eclipse.core.resources.ISaveContext;
+import org.eclipse.core.resources.ISaveParticipant;
+import org.eclipse.core.resources.ISavedState;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.ui.internal.ide.IDEWorkbenchMessages;
+import org.eclipse.ui.internal.ide.IDEWorkbenchPlugin;
+
+/**
+ * The ResourceNameIndex keeps the names of the resources of the workspace
+ * sorted, so that the resources whose name starts with a given prefix are
+ * found without walking the workspace. It is kept up to date by a resource
+ * change listener, and is saved with the workspace so that the next session
+ * only has to catch up with the changes made since the save.
+ * <p>
+ * The index only narrows a search. The members of closed projects, hidden
+ * resources and the members of derived folders are kept, so the callers must
+ * check the resources found against the workspace.
+ * </p>
+ * <p>
+ * The index is enabled unless the
+ * <code>org.eclipse.ui.ide.resourceNameIndex</code> system property is set
+ * to <code>false</code>.
+ * </p>
+ *
+ * @since 3.10
+ */
+public class ResourceNameIndex implements IResourceChangeListener,
+		ISaveParticipant {
+
+	/**
+	 * Matches the names of the indexed resources.
+	 */
+	public interface INameMatcher {
+		/**
+		 * @param name
+		 *            the name of a resource
+		 * @return <code>true</code> if the resource should be returned
+		 */
+		public boolean matches(String name);
+	}
+
+	/**
+	 * The system property disabling the index.
+	 */
+	static final String ENABLED_PROPERTY = "org.eclipse.ui.ide.resourceNameIndex"; //$NON-NLS-1$
+
+	private static final String SAVE_KEY = "resourceNames"; //$NON-NLS-1$
+
+	private static final String FILE_PREFIX = "resourceNames-"; //$NON-NLS-1$
+
+	private static final int VERSION = 1;
+
+	// The number of unsorted entries kept before they are merged
+	private static final int MERGE_THRESHOLD = 4096;
+
+	private static ResourceNameIndex instance;
+
+	private static class Folder {
+		final String path;
+
+		// Read by the searches outside the lock
+		volatile boolean removed = false;
+
+		Folder(String path) {
+			this.path = path;
+		}
+	}
+
+	private static class Entry {
+		final String name;
+
+		final Folder folder;
+
+		final int type;
+
+		// Read by the searches outside the lock
+		volatile boolean removed = false;
+
+		Entry(String name, Folder folder, int type) {
+			this.name = name;
+			this.folder = folder;
+			this.type = type;
+		}
+
+		boolean isLive() {
+			return !removed && !folder.removed;
+		}
+
+		String getPath() {
+			return folder.path + IPath.SEPARATOR + name;
+		}
+	}
+
+	/**
+	 * A change to apply to the index.
+	 */
+	private static class Change {
+		final IPath path;
+
+		final int type;
+
+		final boolean added;
+
+		Change(IPath path, int type, boolean added) {
+			this.path = path;
+			this.type = type;
+			this.added = added;
+		}
+	}
+
+	/**
+	 * Orders the entries by name ignoring case, then by name and folder.
+	 */
+	private static final Comparator ORDER = new Comparator() {
+		public int compare(Object o1, Object o2) {
+			Entry e1 = (Entry) o1;
+			Entry e2 = (Entry) o2;
+			int result = compareIgnoreCase(e1.name, e2.name);
+			if (result == 0) {
+				result = e1.name.compareTo(e2.name);
+			}
+			if (result == 0) {
+				result = e1.folder.path.compareTo(e2.folder.path);
+			}
+			return result;
+		}
+	};
+
+	// Replaced rather than modified, so that searches can use it unlocked
+	private Entry[] sorted = new Entry[0];
+
+	// The entries added since the last merge, unsorted
+	private List added = new ArrayList();
+
+	// The entries added since the last merge by path, so that adding many
+	// resources in one change does not compare each with all the others
+	private Map addedByPath = new HashMap();
+
+	// The number of removed entries in the sorted array
+	private int removedCount = 0;
+
+	// The folders by path
+	private Map folders = new HashMap();
+
+	// The changes received while the index is loading, or null once ready
+	private List pendingChanges = new ArrayList();
+
+	private boolean dirty = false;
+
+	// The name of the file the index was last saved in
+	private String savedFileName;
+
+	private String newFileName;
+
+	private ResourceNameIndex() {
+	}
+
+	/**
+	 * Returns the index, starting it on the first call.
+	 *
+	 * @return the index, or <code>null</code> if it is disabled
+	 */
+	public static synchronized ResourceNameIndex getDefault() {
+		if (instance == null) {
+			if ("false".equals(System.getProperty(ENABLED_PROPERTY))) { //$NON-NLS-1$
+				return null;
+			}
+			instance = new ResourceNameIndex();
+			instance.start();
+		}
+		return instance;
+	}
+
+	/**
+	 * Stops listening to resource changes and saving the index, and forgets
+	 * the index.
+	 */
+	public static synchronized void shutdown() {
+		if (instance != null) {
+			IWorkspace workspace = ResourcesPlugin.getWorkspace();
+			workspace.removeResourceChangeListener(instance);
+			workspace.removeSaveParticipant(IDEWorkbenchPlugin.IDE_WORKBENCH);
+			instance = null;
+		}
+	}
+
+	/**
+	 * Registers the index as save participant unless it was shut down
+	 * meanwhile.
+	 *
+	 * @return the state saved in the previous session, or <code>null</code>
+	 */
+	private static synchronized ISavedState addSaveParticipant(
+			IWorkspace workspace, ResourceNameIndex index) throws CoreException {
+		if (instance != index) {
+			return null;
+		}
+		return workspace.addSaveParticipant(IDEWorkbenchPlugin.IDE_WORKBENCH,
+				index);
+	}
+
+	private void start() {
+		final IWorkspace workspace = ResourcesPlugin.getWorkspace();
+		// Listen first, the changes are replayed once the index is loaded
+		workspace.addResourceChangeListener(this,
+				IResourceChangeEvent.POST_CHANGE);
+
+		Job job = new Job(IDEWorkbenchMessages.ResourceNameIndex_jobName) {
+			protected IStatus run(IProgressMonitor monitor) {
+				try {
+					ISavedState savedState = addSaveParticipant(workspace,
+							ResourceNameIndex.this);
+					synchronized (ResourceNameIndex.class) {
+						if (instance != ResourceNameIndex.this) {
+							// shut down before it was ready
+							return Status.OK_STATUS;
+						}
+					}
+					if (savedState == null || !load(savedState)) {
+						build(workspace.getRoot());
+					}
+				} catch (CoreException e) {
+					IDEWorkbenchPlugin.log(
+							"Unable to index the resource names", e); //$NON-NLS-1$
+				}
+				return Status.OK_STATUS;
+			}
+		};
+		job.setSystem(true);
+		job.setPriority(Job.DECORATE);
+		job.schedule();
+	}
+
+	/**
+	 * Returns whether the index can answer queries.
+	 *
+	 * @return <code>true</code> once the index is loaded
+	 */
+	public synchronized boolean isReady() {
+		return pendingChanges == null;
+	}
+
+	/**
+	 * Returns the resources whose name starts with the prefix, ignoring case,
+	 * and is accepted by the matcher.
+	 *
+	 * @param prefix
+	 *            the prefix of the names, or the empty string
+	 * @param matcher
+	 *            the matcher the names are checked with
+	 * @param monitor
+	 *            the monitor used to cancel the search
+	 * @return the resources found, or <code>null</code> if the index is not
+	 *         ready or the search was canceled
+	 */
+	public IResource[] find(String prefix, INameMatcher matcher,
+			IProgressMonitor monitor) {
+		Entry[] sorted;
+		Entry[] added;
+		// Only take a snapshot under the lock, so that the resource changes
+		// are not held up by the matcher
+		synchronized (this) {
+			if (!isReady()) {
+				return null;
+			}
+			if (this.added.size() > MERGE_THRESHOLD
+					|| removedCount > this.sorted.length / 4) {
+				merge();
+			}
+			sorted = this.sorted;
+			added = (Entry[]) this.added.toArray(new Entry[this.added.size()]);
+		}
+
+		IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+		List result = new ArrayList();
+		int start = 0;
+		if (prefix.length() > 0) {
+			// Find the first name not sorting before the prefix
+			int high = sorted.length;
+			while (start < high) {
+				int middle = (start + high) >>> 1;
+				if (compareIgnoreCase(sorted[middle].name, prefix) < 0) {
+					start = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+		}
+		for (int i = start; i < sorted.length; i++) {
+			Entry entry = sorted[i];
+			if (!startsWithIgnoreCase(entry.name, prefix)) {
+				break;
+			}
+			if ((i & 0xfff) == 0 && monitor.isCanceled()) {
+				return null;
+			}
+			if (entry.isLive() && matcher.matches(entry.name)) {
+				result.add(getResource(root, entry));
+			}
+		}
+		for (int i = 0; i < added.length; i++) {
+			Entry entry = added[i];
+			if (entry.isLive() && startsWithIgnoreCase(entry.name, prefix)
+					&& matcher.matches(entry.name)) {
+				result.add(getResource(root, entry));
+			}
+		}
+		return (IResource[]) result.toArray(new IResource[result.size()]);
+	}
+
+	private static IResource getResource(IWorkspaceRoot root, Entry entry) {
+		if (entry.type == IResource.PROJECT) {
+			return root.getProject(entry.name);
+		}
+		IPath path = new Path(entry.folder.path).append(entry.name);
+		if (entry.type == IResource.FOLDER) {
+			return root.getFolder(path);
+		}
+		return root.getFile(path);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.core.resources.IResourceChangeListener#resourceChanged(org.eclipse.core.resources.IResourceChangeEvent)
+	 */
+	public void resourceChanged(IResourceChangeEvent event) {
+		IResourceDelta delta = event.getDelta();
+		if (delta == null) {
+			return;
+		}
+		final List changes = new ArrayList();
+		try {
+			delta.accept(new IResourceDeltaVisitor() {
+				public boolean visit(IResourceDelta child) throws CoreException {
+					IResource resource = child.getResource();
+					switch (child.getKind()) {
+					case IResourceDelta.ADDED:
+						if (resource.getType() != IResource.ROOT) {
+							changes.add(new Change(resource.getFullPath(),
+									resource.getType(), true));
+						}
+						return true;
+					case IResourceDelta.REMOVED:
+						changes.add(new Change(resource.getFullPath(),
+								resource.getType(), false));
+						// The members are removed with their container
+						return false;
+					case IResourceDelta.CHANGED:
+						if (resource.getType() == IResource.PROJECT
+								&& (child.getFlags() & IResourceDelta.OPEN) != 0
+								&& ((IProject) resource).isOpen()) {
+							// The members of an opened project are not reported
+							collect(resource, changes);
+							return false;
+						}
+						return true;
+					default:
+						return true;
+					}
+				}
+			});
+		} catch (CoreException e) {
+			IDEWorkbenchPlugin.log("Unable to update the resource names", e); //$NON-NLS-1$
+			return;
+		}
+
+		synchronized (this) {
+			if (pendingChanges != null) {
+				pendingChanges.addAll(changes);
+			} else {
+				apply(changes);
+			}
+		}
+	}
+
+	/**
+	 * Collect the resource and its members as added.
+	 */
+	private static void collect(IResource resource, final List changes)
+			throws CoreException {
+		resource.accept(new IResourceProxyVisitor() {
+			public boolean visit(IResourceProxy proxy) {
+				if (proxy.getType() != IResource.ROOT) {
+					changes.add(new Change(proxy.requestFullPath(), proxy
+							.getType(), true));
+				}
+				return true;
+			}
+		}, IResource.NONE);
+	}
+
+	private void build(IWorkspaceRoot root) throws CoreException {
+		List changes = new ArrayList();
+		collect(root, changes);
+		synchronized (this) {
+			apply(changes);
+			ready();
+		}
+	}
+
+	/**
+	 * Apply the changes received while loading and start applying the
+	 * changes as they come.
+	 */
+	private void ready() {
+		List changes = pendingChanges;
+		pendingChanges = null;
+		apply(changes);
+		merge();
+	}
+
+	private void apply(List changes) {
+		for (int i = 0; i < changes.size(); i++) {
+			Change change = (Change) changes.get(i);
+			if (change.added) {
+				add(change.path, change.type);
+			} else {
+				remove(change.path, change.type);
+			}
+		}
+		if (!changes.isEmpty()) {
+			dirty = true;
+		}
+	}
+
+	private void add(IPath path, int type) {
+		Entry entry = new Entry(path.lastSegment(), getFolder(path
+				.removeLastSegments(1), true), type);
+		if (find(entry) == null) {
+			added.add(entry);
+			addedByPath.put(entry.getPath(), entry);
+		}
+	}
+
+	private void remove(IPath path, int type) {
+		Folder folder = getFolder(path.removeLastSegments(1), false);
+		if (folder != null) {
+			Entry entry = find(new Entry(path.lastSegment(), folder, type));
+			if (entry != null) {
+				entry.removed = true;
+				removedCount++;
+			}
+		}
+		if (type != IResource.FILE) {
+			// Remove the members of the container
+			String prefix = path.toString();
+			Iterator iterator = folders.values().iterator();
+			while (iterator.hasNext()) {
+				Folder member = (Folder) iterator.next();
+				if (member.path.startsWith(prefix)
+						&& (member.path.length() == prefix.length() || member.path
+								.charAt(prefix.length()) == IPath.SEPARATOR)) {
+					member.removed = true;
+					iterator.remove();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the live entry equal to the given one, or <code>null</code>.
+	 */
+	private Entry find(Entry entry) {
+		Entry next = (Entry) addedByPath.get(entry.getPath());
+		if (next != null && next.isLive()) {
+			return next;
+		}
+		int index = Arrays.binarySearch(sorted, entry, ORDER);
+		if (index >= 0 && sorted[index].isLive()) {
+			return sorted[index];
+		}
+		return null;
+	}
+
+	private Folder getFolder(IPath path, boolean create) {
+		String key = path.toString();
+		Folder folder = (Folder) folders.get(key);
+		if (folder == null && create) {
+			folder = new Folder(key);
+			folders.put(key, folder);
+		}
+		return folder;
+	}
+
+	/**
+	 * Sort the added entries into the sorted ones and drop the removed ones.
+	 */
+	private void merge() {
+		Entry[] newEntries = (Entry[]) added.toArray(new Entry[added.size()]);
+		Arrays.sort(newEntries, ORDER);
+		List merged = new ArrayList(sorted.length + newEntries.length);
+		int i = 0;
+		int j = 0;
+		while (i < sorted.length || j < newEntries.length) {
+			Entry next;
+			if (j == newEntries.length
+					|| (i < sorted.length && ORDER.compare(sorted[i],
+							newEntries[j]) <= 0)) {
+				next = sorted[i++];
+			} else {
+				next = newEntries[j++];
+			}
+			if (next.isLive()) {
+				merged.add(next);
+			}
+		}
+		sorted = (Entry[]) merged.toArray(new Entry[merged.size()]);
+		added.clear();
+		addedByPath.clear();
+		removedCount = 0;
+	}
+
+	/**
+	 * Read the index saved in the previous session and catch up with the
+	 * changes made since.
+	 *
+	 * @return <code>true</code> if the index was read
+	 */
+	private boolean load(ISavedState savedState) throws CoreException {
+		IPath fileName = savedState.lookup(new Path(SAVE_KEY));
+		if (fileName == null) {
+			return false;
+		}
+		File file = IDEWorkbenchPlugin.getDefault().getStateLocation().append(
+				fileName).toFile();
+		if (!file.exists()) {
+			return false;
+		}
+
+		List entries = new ArrayList();
+		DataInputStream input = null;
+		try {
+			input = new DataInputStream(new BufferedInputStream(
+					new FileInputStream(file)));
+			if (input.readInt() != VERSION) {
+				return false;
+			}
+			Folder[] folderArray = new Folder[input.readInt()];
+			for (int i = 0; i < folderArray.length; i++) {
+				folderArray[i] = new Folder(input.readUTF());
+			}
+			int count = input.readInt();
+			for (int i = 0; i < count; i++) {
+				Folder folder = folderArray[input.readInt()];
+				int type = input.readByte();
+				entries.add(new Entry(input.readUTF(), folder, type));
+			}
+			synchronized (this) {
+				for (int i = 0; i < folderArray.length; i++) {
+					folders.put(folderArray[i].path, folderArray[i]);
+				}
+				// The entries were saved sorted
+				sorted = (Entry[]) entries.toArray(new Entry[entries.size()]);
+				savedFileName = fileName.toString();
+			}
+		} catch (IOException e) {
+			IDEWorkbenchPlugin.log("Unable to read the resource names", e); //$NON-NLS-1$
+			synchronized (this) {
+				folders.clear();
+				sorted = new Entry[0];
+			}
+			return false;
+		} finally {
+			if (input != null) {
+				try {
+					input.close();
+				} catch (IOException e) {
+					// Nothing to do
+				}
+			}
+		}
+
+		// The saved state reports the changes as resource change events
+		final List changes = new ArrayList();
+		savedState.processResourceChangeEvents(new IResourceChangeListener() {
+			public void resourceChanged(IResourceChangeEvent event) {
+				synchronized (ResourceNameIndex.this) {
+					List pending = pendingChanges;
+					pendingChanges = changes;
+					ResourceNameIndex.this.resourceChanged(event);
+					pendingChanges = pending;
+				}
+			}
+		});
+		synchronized (this) {
+			apply(changes);
+			ready();
+		}
+		return true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.core.resources.ISaveParticipant#prepareToSave(org.eclipse.core.resources.ISaveContext)
+	 */
+	public void prepareToSave(ISaveContext context) {
+		// Nothing to do
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.core.resources.ISaveParticipant#saving(org.eclipse.core.resources.ISaveContext)
+	 */
+	public synchronized void saving(ISaveContext context) throws CoreException {
+		if (context.getKind() != ISaveContext.FULL_SAVE || !isReady()) {
+			return;
+		}
+		newFileName = null;
+		if (dirty || savedFileName == null) {
+			String fileName = FILE_PREFIX + context.getSaveNumber();
+			if (!write(IDEWorkbenchPlugin.getDefault().getStateLocation()
+					.append(fileName).toFile())) {
+				return;
+			}
+			newFileName = fileName;
+		}
+		context.map(new Path(SAVE_KEY), new Path(newFileName == null ? savedFileName
+				: newFileName));
+		context.needSaveNumber();
+		context.needDelta();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.core.resources.ISaveParticipant#doneSaving(org.eclipse.core.resources.ISaveContext)
+	 */
+	public synchronized void doneSaving(ISaveContext context) {
+		if (newFileName == null) {
+			return;
+		}
+		if (savedFileName != null) {
+			IDEWorkbenchPlugin.getDefault().getStateLocation().append(
+					savedFileName).toFile().delete();
+		}
+		savedFileName = newFileName;
+		newFileName = null;
+		dirty = false;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.core.resources.ISaveParticipant#rollback(org.eclipse.core.resources.ISaveContext)
+	 */
+	public synchronized void rollback(ISaveContext context) {
+		if (newFileName != null) {
+			IDEWorkbenchPlugin.getDefault().getStateLocation().append(
+					newFileName).toFile().delete();
+			newFileName = null;
+		}
+	}
+
+	/**
+	 * Write the live entries, sorted, to the file.
+	 *
+	 * @return <code>true</code> if the file was written
+	 */
+	private boolean write(File file) {
+		merge();
+		Map folderIndices = new HashMap();
+		List folderList = new ArrayList();
+		for (int i = 0; i < sorted.length; i++) {
+			Folder folder = sorted[i].folder;
+			if (!folderIndices.containsKey(folder)) {
+				folderIndices.put(folder, new Integer(folderList.size()));
+				folderList.add(folder);
+			}
+		}
+
+		DataOutputStream output = null;
+		try {
+			output = new DataOutputStream(new BufferedOutputStream(
+					new FileOutputStream(file)));
+			output.writeInt(VERSION);
+			output.writeInt(folderList.size());
+			for (int i = 0; i < folderList.size(); i++) {
+				output.writeUTF(((Folder) folderList.get(i)).path);
+			}
+			output.writeInt(sorted.length);
+			for (int i = 0; i < sorted.length; i++) {
+				output.writeInt(((Integer) folderIndices.get(sorted[i].folder))
+						.intValue());
+				output.writeByte(sorted[i].type);
+				output.writeUTF(sorted[i].name);
+			}
+			return true;
+		} catch (IOException e) {
+			IDEWorkbenchPlugin.log("Unable to save the resource names", e); //$NON-NLS-1$
+			return false;
+		} finally {
+			if (output != null) {
+				try {
+					output.close();
+				} catch (IOException e) {
+					// Nothing to do
+				}
+			}
+		}
+	}
+
+	/**
+	 * Compares the strings ignoring case, character by character.
+	 */
+	static int compareIgnoreCase(String s1, String s2) {
+		int length = Math.min(s1.length(), s2.length());
+		for (int i = 0; i < length; i++) {
+			char c1 = Character.toLowerCase(s1.charAt(i));
+			char c2 = Character.toLowerCase(s2.charAt(i));
+			if (c1 != c2) {
+				return c1 - c2;
+			}
+		}
+		return s1.length() - s2.length();
+	}
+
+	private static boolean startsWithIgnoreCase(String text, String prefix) {
+		if (text.length() < prefix.length()) {
+			return false;
+		}
+		for (int i = 0; i < prefix.length(); i++) {
+			if (Character.toLowerCase(text.charAt(i)) != Character
+					.toLowerCase(prefix.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.ide.model;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.IAdapterFactory;
+import org.eclipse.ui.internal.decorators.IDecorationStamp;
+
+/**
+ * Dispenses an <code>IDecorationStamp</code> adapter for the resources, so
+ * that their decorations are kept between sessions until they are modified.
+ */
+public class ResourceDecorationStampFactory implements IAdapterFactory {
+
+	private static class ResourceDecorationStamp implements IDecorationStamp {
+		private final IResource resource;
+
+		ResourceDecorationStamp(IResource resource) {
+			this.resource = resource;
+		}
+
+		public String getKey() {
+			return resource.getFullPath().toString();
+		}
+
+		public long getStamp() {
+			return resource.getModificationStamp();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * Method declared on IAdapterFactory.
+	 */
+	public Object getAdapter(Object adaptableObject, Class adapterType) {
+		if (adapterType == IDecorationStamp.class
+				&& adaptableObject instanceof IResource) {
+			return new ResourceDecorationStamp((IResource) adaptableObject);
+		}
+		return null;
+	}
+
+	/* (non-Javadoc)
+	 * Method declared on IAdapterFactory.
+	 */
+	public Class[] getAdapterList() {
+		return new Class[] { IDecorationStamp.class };
+	}
+}
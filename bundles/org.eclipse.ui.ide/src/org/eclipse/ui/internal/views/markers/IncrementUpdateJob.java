@@ -12,9 +12,15 @@
 package org.eclipse.ui.internal.views.markers;
 
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.Map;
+import java.util.Set;
 
+import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
@@ -31,7 +37,8 @@ import org.eclipse.ui.views.markers.internal.MarkerMessages;
  */
 class IncrementUpdateJob extends MarkerUpdateJob {
 
-	private LinkedList incrementEntryList;
+	// the entries, keyed by their marker
+	private Map incrementEntryMap;
 	private LinkedList updateQueue;
 
 	/**
@@ -39,7 +46,7 @@ class IncrementUpdateJob extends MarkerUpdateJob {
 	 */
 	public IncrementUpdateJob(CachedMarkerBuilder builder) {
 		super(builder);
-		incrementEntryList = new LinkedList();
+		incrementEntryMap = new HashMap();
 	}
 
 	/*
@@ -52,40 +59,46 @@ class IncrementUpdateJob extends MarkerUpdateJob {
 		monitor.beginTask(MarkerMessages.MarkerView_processUpdates,
 				IProgressMonitor.UNKNOWN);
 		boolean clean= isClean();
+		boolean gathered = false;
 		if (clean) {
 			clearEntries();
-		}
-		Collection markerEntries = incrementalEntries();
-		if (clean) {
+			Collection markerEntries = new LinkedList();
 			/*
 			 * Unfortunately we cannot lock marker operations between gathering
 			 * and updation. We have this code in place only for further
 			 * investigation
 			 */
-			clean = !clean(markerEntries, monitor);
+			gathered = clean(markerEntries, monitor);
+			clean = !gathered;
 			LinkedList queue = getUpdatesQueue();
 			synchronized (queue) {
 				queue.clear();
 			}
+			Iterator iterator = markerEntries.iterator();
+			while (iterator.hasNext()) {
+				MarkerEntry entry = (MarkerEntry) iterator.next();
+				incrementEntryMap.put(entry.getMarker(), entry);
+			}
 		}
 		if (monitor.isCanceled()) {
 			return Status.CANCEL_STATUS;
 		}
+		Set removed = new HashSet();
+		Map added = new LinkedHashMap();
 		if (!clean) {
 			builder.registerTypesToListener();
-			if (!processUpdates(monitor)) {
+			if (!processUpdates(removed, added, monitor) && !gathered) {
 				return Status.CANCEL_STATUS;
 			}
 		}
-		if (!processMarkerEntries(markerEntries, monitor)) {
-			return Status.CANCEL_STATUS;
-		}
-		if (monitor.isCanceled()) {
+		if (gathered) {
+			if (!processMarkerEntries(incrementalEntries(), monitor)) {
+				return Status.CANCEL_STATUS;
+			}
+		} else if (!builder.getMarkers().updateWithDelta(incrementalEntries(),
+				removed, added.values(), monitor)) {
 			return Status.CANCEL_STATUS;
 		}
-		// update with sorted entries
-		updateIncrementalList(markerEntries);
-
 		if (monitor.isCanceled()) {
 			return Status.CANCEL_STATUS;
 		}
@@ -99,32 +112,19 @@ class IncrementUpdateJob extends MarkerUpdateJob {
 		return Status.OK_STATUS;
 	}
 
-	/**
-	 * Update the list
-	 * 
-	 * @param markerEntries
-	 */
-	private boolean updateIncrementalList(Collection markerEntries) {
-		markerEntries.clear();
-		Markers clone = builder.getMarkers();
-		synchronized (clone) {
-			clone = clone.getClone();
-		}
-		MarkerEntry[] entries = clone.getMarkerEntryArray();
-		for (int i = 0; i < entries.length; i++) {
-			markerEntries.add(entries[i]);
-		}
-		return true;
-	}
-
 	/**
 	 * Process the incremental updates
 	 * 
+	 * @param removed
+	 *            collects the markers whose entries are removed or changed
+	 * @param added
+	 *            collects the added and changed entries, by marker
 	 * @param monitor
+	 * @return <code>true</code> if there were changes
 	 */
-	private boolean processUpdates(IProgressMonitor monitor) {
-		Collection markerEntries = incrementalEntries();
-		int addCount = 0, removedCount = 0, changedCount = 0, size = 0, newSize = 0;
+	private boolean processUpdates(Set removed, Map added,
+			IProgressMonitor monitor) {
+		int addCount = 0, removedCount = 0, changedCount = 0;
 		LinkedList queue = getUpdatesQueue();
 		MarkerUpdate next = null;
 		do {
@@ -146,19 +146,15 @@ class IncrementUpdateJob extends MarkerUpdateJob {
 			// unfortunately marker operations cannot be locked
 			// so locking between gathering of markers and
 			// marker deltas is not possible
-			size = markerEntries.size();
-			handleRemovedEntries(markerEntries, next.removed, monitor);
-			newSize = markerEntries.size();
-			removedCount += size - newSize;
-
-			handleChangedEntries(markerEntries, next.changed, monitor);
-			changedCount += next.changed.size();
-
-			size = newSize;
-			handleAddedEntries(markerEntries, next.added, monitor);
-			newSize = markerEntries.size();
-			removedCount += newSize - size;
+			removedCount += handleRemovedEntries(next.removed, removed, added,
+					monitor);
+			changedCount += handleChangedEntries(next.changed, removed, added,
+					monitor);
+			addCount += handleAddedEntries(next.added, added, monitor);
 		} while (next != null);
+		if (removedCount > 0) {
+			removedCount += handleStaleEntries(removed, added);
+		}
 		boolean[] changeFlags = new boolean[] { addCount > 0, removedCount > 0,
 				changedCount > 0 };
 		for (int i = 0; i < changeFlags.length; i++) {
@@ -171,100 +167,110 @@ class IncrementUpdateJob extends MarkerUpdateJob {
 	}
 
 	/**
+	 * @param addedEntries
 	 * @param added
 	 * @param monitor
+	 * @return the number of entries added
 	 */
-	private void handleAddedEntries(Collection markerEntries, Collection added,
+	private int handleAddedEntries(Collection addedEntries, Map added,
 			IProgressMonitor monitor) {
+		int count = 0;
 		MarkerContentGenerator generator = builder.getGenerator();
-		Iterator iterator = added.iterator();
+		Iterator iterator = addedEntries.iterator();
 		while (iterator.hasNext()) {
 			MarkerEntry entry = (MarkerEntry) iterator.next();
 			if (generator.select(entry)) {
-				markerEntries.add(entry);
+				incrementEntryMap.put(entry.getMarker(), entry);
+				added.put(entry.getMarker(), entry);
+				count++;
 			}
 		}
+		return count;
 	}
 
 	/**
-	 * @param changed
+	 * @param changedEntries
+	 * @param removed
+	 * @param added
 	 * @param monitor
+	 * @return the number of entries changed
 	 */
-	private void handleChangedEntries(Collection markerEntries,
-			Collection changed, IProgressMonitor monitor) {
+	private int handleChangedEntries(Collection changedEntries, Set removed,
+			Map added, IProgressMonitor monitor) {
 		MarkerContentGenerator generator = builder.getGenerator();
-		Iterator iterator = changed.iterator();
+		Iterator iterator = changedEntries.iterator();
 		while (iterator.hasNext()) {
 			MarkerEntry entry = (MarkerEntry) iterator.next();
-			Iterator iterator2 = markerEntries.iterator();
-			while (iterator2.hasNext()) {
-				MarkerEntry oldEntry = (MarkerEntry) iterator2.next();
-				if (oldEntry.getMarker().equals(entry.getMarker())) {
-					iterator2.remove();
-				}
-			}
-			if (!generator.select(entry)) {
-				iterator.remove();
+			IMarker marker = entry.getMarker();
+			incrementEntryMap.remove(marker);
+			removed.add(marker);
+			added.remove(marker);
+			if (generator.select(entry)) {
+				incrementEntryMap.put(marker, entry);
+				added.put(marker, entry);
 			}
 		}
-		markerEntries.addAll(changed);
+		return changedEntries.size();
 	}
 
 	/**
+	 * @param removedEntries
 	 * @param removed
+	 * @param added
 	 * @param monitor
+	 * @return the number of entries removed
 	 */
-	private void handleRemovedEntries(Collection markerEntries,
-			Collection removed, IProgressMonitor monitor) {
-		boolean found = false;
-		Iterator iterator = markerEntries.iterator();
+	private int handleRemovedEntries(Collection removedEntries, Set removed,
+			Map added, IProgressMonitor monitor) {
+		int count = 0;
+		Iterator iterator = removedEntries.iterator();
 		while (iterator.hasNext()) {
-			MarkerEntry entry = (MarkerEntry) iterator.next();
-			found = entry.getStaleState();
-			if (found) {
-				iterator.remove();
-			}
-			if (removed.isEmpty()) {
-				continue;
+			MarkerEntry stale = (MarkerEntry) iterator.next();
+			IMarker marker = stale.getMarker();
+			added.remove(marker);
+			removed.add(marker);
+			if (incrementEntryMap.remove(marker) != null) {
+				count++;
 			}
-			Iterator iterator2 = removed.iterator();
-			while (iterator2.hasNext()) {
-				MarkerEntry stale = (MarkerEntry) iterator2.next();
-				if (stale.getMarker().equals(entry.getMarker())) {
-					iterator2.remove();
-					if (!found) {
-						iterator.remove();
-					}
-					break;
-				}
-			}
-		}
-		if (removed.isEmpty()) {
-			// TODO: do we check for residuals?
-			return;
 		}
-		// TODO: do we check for residuals?
-		iterator = markerEntries.iterator();
+		return count;
+	}
+
+	/**
+	 * Remove the entries whose markers were found not to exist any more.
+	 * 
+	 * @param removed
+	 * @param added
+	 * @return the number of entries removed
+	 */
+	private int handleStaleEntries(Set removed, Map added) {
+		int count = 0;
+		Iterator iterator = incrementEntryMap.values().iterator();
 		while (iterator.hasNext()) {
 			MarkerEntry entry = (MarkerEntry) iterator.next();
-			if (entry.getMarker() != null && !entry.getMarker().exists()) {
+			if (entry.getStaleState()) {
+				IMarker marker = entry.getMarker();
 				iterator.remove();
+				added.remove(marker);
+				removed.add(marker);
+				count++;
 			}
 		}
+		return count;
 	}
 
 	/**
 	 * Clean
 	 */
 	void clearEntries() {
-		incrementEntryList = new LinkedList();
+		incrementEntryMap = new HashMap();
 	}
 
 	/**
 	 * @return Returns the incrementEntryies.
 	 */
 	Collection incrementalEntries() {
-		return incrementEntryList;
+		return incrementEntryMap.values();
 	}
 
 	/**
@@ -18,7 +18,9 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.TreeSet;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.runtime.CoreException;
@@ -44,6 +46,10 @@ class Markers {
 	private MarkerEntry[] markerEntryArray = EMPTY_ENTRY_ARRAY;
 	// the categories
 	private MarkerCategory[] categories = EMPTY_CATEGORY_ARRAY;
+	// the group the categories were made with, and the grouping entry of
+	// each category
+	private MarkerGroup categoryGroup;
+	private MarkerGroupingEntry[] categoryGroupingEntries;
 
 	private CachedMarkerBuilder builder;
 
@@ -80,6 +86,7 @@ class Markers {
 			markerCounts = null;
 			if (markerEntries.size() == 0) {
 				categories = EMPTY_CATEGORY_ARRAY;
+				categoryGroupingEntries = null;
 				markerEntryArray = EMPTY_ENTRY_ARRAY;
 				return true;
 			}
@@ -99,6 +106,7 @@ class Markers {
 				}
 			} else {
 				categories = EMPTY_CATEGORY_ARRAY;
+				categoryGroupingEntries = null;
 			}
 			return true;
 		} finally {
@@ -106,6 +114,157 @@ class Markers {
 		}
 	}
 
+	/**
+	 * Update with the changes of an incremental update. The entries of the
+	 * removed markers are taken out and the added entries are put in their
+	 * categories; only the categories which gained entries are sorted again.
+	 * 
+	 * @param markerEntries
+	 *            all the marker entries, used if the current entries were not
+	 *            sorted and grouped the way they would be now
+	 * @param removed
+	 *            the {@link IMarker}s whose entries are removed, including
+	 *            the changed ones
+	 * @param added
+	 *            the new {@link MarkerEntry}(s), including the changed ones
+	 * @param monitor
+	 * @return <code>false</code> if cancelled
+	 */
+	synchronized boolean updateWithDelta(Collection markerEntries,
+			Set removed, Collection added, IProgressMonitor monitor) {
+		boolean hierarchy = builder.isShowingHierarchy();
+		if (hierarchy ? categoryGroupingEntries == null
+				|| categoryGroup != builder.getCategoryGroup()
+				: categoryGroupingEntries != null) {
+			return updateWithNewMarkers(markerEntries, true, monitor);
+		}
+		boolean initialVal = inChange;
+		try {
+			inChange = true;
+			if (markerToEntryMap != null) {
+				markerToEntryMap.clear();
+				markerToEntryMap = null;
+			}
+			markerCounts = null;
+			if (hierarchy) {
+				return updateCategories(categoryGroup, removed, added, monitor);
+			}
+			List entries = new ArrayList(markerEntryArray.length + added.size());
+			for (int i = 0; i < markerEntryArray.length; i++) {
+				if (!isRemoved(markerEntryArray[i], removed))
+					entries.add(markerEntryArray[i]);
+			}
+			for (Iterator iterator = added.iterator(); iterator.hasNext();) {
+				MarkerEntry entry = (MarkerEntry) iterator.next();
+				if (entry.getMarker() != null && !entry.getStaleState())
+					entries.add(entry);
+			}
+			markerEntryArray = new MarkerEntry[entries.size()];
+			entries.toArray(markerEntryArray);
+			return added.isEmpty() || sortMarkerEntries(monitor);
+		} finally {
+			inChange = initialVal;
+		}
+	}
+
+	/**
+	 * Return whether the entry is to be dropped, as its marker was removed or
+	 * changed or was found not to exist any more.
+	 */
+	private static boolean isRemoved(MarkerEntry entry, Set removed) {
+		IMarker marker = entry.getMarker();
+		return marker == null || entry.getStaleState()
+				|| removed.contains(marker);
+	}
+
+	/**
+	 * Move the entries between the existing categories, and sort the ones
+	 * which gained entries.
+	 */
+	private boolean updateCategories(MarkerGroup group, Set removed,
+			Collection added, IProgressMonitor monitor) {
+		TreeMap map = new TreeMap(group.getEntriesComparator());
+		for (int i = 0; i < categories.length; i++) {
+			MarkerCategory category = categories[i];
+			List list = new ArrayList(category.end - category.start + 1);
+			for (int j = category.start; j <= category.end; j++) {
+				if (!isRemoved(markerEntryArray[j], removed))
+					list.add(markerEntryArray[j]);
+			}
+			map.put(categoryGroupingEntries[i], list);
+		}
+		if (monitor.isCanceled()) {
+			return false;
+		}
+		Set touched = new TreeSet(group.getEntriesComparator());
+		for (Iterator iterator = added.iterator(); iterator.hasNext();) {
+			MarkerEntry entry = (MarkerEntry) iterator.next();
+			IMarker marker = entry.getMarker();
+			if (marker == null || entry.getStaleState()) {
+				continue;// skip stale markers
+			}
+			try {
+				MarkerGroupingEntry groupingEntry = group.findGroupValue(
+						marker.getType(), marker);
+				List list = (List) map.get(groupingEntry);
+				if (list == null) {
+					list = new ArrayList();
+					map.put(groupingEntry, list);
+				}
+				list.add(entry);
+				touched.add(groupingEntry);
+			} catch (CoreException e) {
+				entry.checkIfMarkerStale();
+			}
+		}
+		if (monitor.isCanceled()) {
+			return false;
+		}
+
+		List entries = new ArrayList();
+		List newCategories = new ArrayList(map.size());
+		List groupingEntries = new ArrayList(map.size());
+		List touchedCategories = new ArrayList(touched.size());
+		for (Iterator iterator = map.entrySet().iterator(); iterator.hasNext();) {
+			Map.Entry mapEntry = (Map.Entry) iterator.next();
+			List list = (List) mapEntry.getValue();
+			if (list.isEmpty()) {
+				continue;
+			}
+			int start = entries.size();
+			entries.addAll(list);
+			MarkerCategory category = new MarkerCategory(this, start,
+					entries.size() - 1, group.getMarkerField().getValue(
+							(MarkerEntry) list.get(0)));
+			newCategories.add(category);
+			groupingEntries.add(mapEntry.getKey());
+			if (touched.contains(mapEntry.getKey())) {
+				touchedCategories.add(category);
+			}
+		}
+		markerEntryArray = new MarkerEntry[entries.size()];
+		entries.toArray(markerEntryArray);
+		categories = new MarkerCategory[newCategories.size()];
+		newCategories.toArray(categories);
+		categoryGroupingEntries = new MarkerGroupingEntry[groupingEntries
+				.size()];
+		groupingEntries.toArray(categoryGroupingEntries);
+
+		Comparator comparator = builder.getComparator().getFieldsComparator();
+		for (Iterator iterator = touchedCategories.iterator(); iterator
+				.hasNext();) {
+			if (monitor.isCanceled()) {
+				return false;
+			}
+			MarkerCategory category = (MarkerCategory) iterator.next();
+			int avaliable = category.end - category.start + 1;
+			int effLimit = getShowingLimit(avaliable);
+			MarkerSortUtil.sortStartingKElement(markerEntryArray, comparator,
+					category.start, category.end, effLimit, monitor);
+		}
+		return !monitor.isCanceled();
+	}
+
 	/**
 	 * Sort the contained marker entries and build categories if required.
 	 * 
@@ -122,6 +281,7 @@ class Markers {
 				categories = markerCategories;
 			} else {
 				categories = EMPTY_CATEGORY_ARRAY;
+				categoryGroupingEntries = null;
 			}
 
 			if (monitor.isCanceled()) {
@@ -208,22 +368,28 @@ class Markers {
 	 */
 	MarkerCategory[] groupIntoCategories(IProgressMonitor monitor,
 			MarkerEntry[] newMarkers) {
+		MarkerGroup group = builder.getCategoryGroup();
 		Map boundaryInfoMap = groupMarkerEntries(newMarkers,
-				builder.getCategoryGroup(), newMarkers.length - 1, monitor);
+				group, newMarkers.length - 1, monitor);
 		Iterator iterator = boundaryInfoMap.keySet().iterator();
 		int start = 0;
 		MarkerCategory[] markerCategories = new MarkerCategory[boundaryInfoMap
 				.size()];
+		MarkerGroupingEntry[] groupingEntries = new MarkerGroupingEntry[boundaryInfoMap
+				.size()];
 		int i = 0;
 		int end = 0;
 		while (iterator.hasNext()) {
 			Object key = iterator.next();
 			end = ((Integer) boundaryInfoMap.get(key)).intValue();
+			groupingEntries[i] = (MarkerGroupingEntry) key;
 			markerCategories[i++] = new MarkerCategory(this, start, end,
-					builder.getCategoryGroup().getMarkerField()
-							.getValue(newMarkers[start]));
+					group.getMarkerField().getValue(newMarkers[start]));
 			start = end + 1;
 		}
+		categoryGroup = group;
+		// the entries are not grouped if cancelled
+		categoryGroupingEntries = monitor.isCanceled() ? null : groupingEntries;
 		return markerCategories;
 	}
 
@@ -15,6 +15,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.zip.Deflater;
 
 import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
@@ -50,6 +51,8 @@ public class ArchiveFileExportOperation implements IRunnableWithProgress {
     private List errorTable = new ArrayList(1); //IStatus
 
     private boolean useCompression = true;
+
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
     
     private boolean useTarFormat = false;
 
@@ -269,9 +272,11 @@ public class ArchiveFileExportOperation implements IRunnableWithProgress {
      */
     protected void initialize() throws IOException {
     	if(useTarFormat) {
-    		exporter = new TarFileExporter(destinationFilename, useCompression);
+    		exporter = new TarFileExporter(destinationFilename, useCompression,
+    				compressionLevel);
     	} else {
-        	exporter = new ZipFileExporter(destinationFilename, useCompression);
+        	exporter = new ZipFileExporter(destinationFilename, useCompression,
+        			compressionLevel);
     	}
     }
 
@@ -361,6 +366,18 @@ public class ArchiveFileExportOperation implements IRunnableWithProgress {
     public void setUseCompression(boolean value) {
         useCompression = value;
     }
+
+    /**
+     *	Set the level at which exported resources are compressed, when they
+     *	are compressed.
+     *
+     *	@param level the compression level, from <code>Deflater.NO_COMPRESSION</code>
+     *		to <code>Deflater.BEST_COMPRESSION</code>, or
+     *		<code>Deflater.DEFAULT_COMPRESSION</code>
+     */
+    public void setCompressionLevel(int level) {
+        compressionLevel = level;
+    }
     
     /**
      * Set this boolean indicating whether the file should be output
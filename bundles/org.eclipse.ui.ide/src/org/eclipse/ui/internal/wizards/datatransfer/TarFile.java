@@ -13,8 +13,10 @@ package org.eclipse.ui.internal.wizards.datatransfer;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Enumeration;
 import java.util.zip.GZIPInputStream;
 
@@ -23,6 +25,13 @@ import java.util.zip.GZIPInputStream;
  * Reads a .tar or .tar.gz archive file, providing an index enumeration
  * and allows for accessing an InputStream for arbitrary files in the
  * archive.
+ * <p>
+ * The entries of a .tar archive are read by seeking to their offset, which
+ * is recorded in their {@link TarEntry}. The contents of a .tar.gz archive
+ * can only be read sequentially, so when an entry before the current one is
+ * requested, the archive is decompressed once to a temporary file, from
+ * which the entries are then read by seeking to them.
+ * </p>
  * 
  * @since 3.1
  */
@@ -33,6 +42,10 @@ public class TarFile {
 	private TarInputStream entryStream;
 
 	private InputStream internalEntryStream;
+
+	private boolean compressed;
+
+	private File uncompressedFile;
 	
 	/**
 	 * Create a new TarFile for the given file.
@@ -48,6 +61,7 @@ public class TarFile {
 		// First, check if it's a GZIPInputStream.
 		try {
 			in = new GZIPInputStream(in);
+			compressed = true;
 		} catch(IOException e) {
 			//If it is not compressed we close
 			//the old one and recreate
@@ -73,6 +87,10 @@ public class TarFile {
 			entryEnumerationStream.close();
 		if (internalEntryStream != null)
 			internalEntryStream.close();
+		if (uncompressedFile != null) {
+			uncompressedFile.delete();
+			uncompressedFile = null;
+		}
 	}
 
 	/**
@@ -121,28 +139,66 @@ public class TarFile {
 	 */
 	public InputStream getInputStream(TarEntry entry) throws TarException, IOException {
 		if(entryStream == null || !entryStream.skipToEntry(entry)) {
+			boolean rewind = entryStream != null;
 			if (internalEntryStream != null) {
 				internalEntryStream.close();
 			}
-			internalEntryStream = new FileInputStream(file);
-			// First, check if it's a GZIPInputStream.
-			try {
-				internalEntryStream = new GZIPInputStream(internalEntryStream);
-			} catch(IOException e) {
-				//If it is not compressed we close
-				//the old one and recreate
-				internalEntryStream.close();
-				internalEntryStream = new FileInputStream(file);
+			if (compressed && !rewind) {
+				internalEntryStream = new GZIPInputStream(new FileInputStream(file));
+				entryStream = new TarInputStream(internalEntryStream, entry) {
+					public void close() {
+						// Ignore close() since we want to reuse the stream.
+					}
+				};
+			} else {
+				// Seek to the entry rather than read the archive from the start
+				FileInputStream fileStream = new FileInputStream(
+						compressed ? getUncompressedFile() : file);
+				internalEntryStream = fileStream;
+				fileStream.getChannel().position(entry.filepos);
+				entryStream = new TarInputStream(internalEntryStream, entry, entry.filepos) {
+					public void close() {
+						// Ignore close() since we want to reuse the stream.
+					}
+				};
 			}
-			entryStream = new TarInputStream(internalEntryStream, entry) {
-				public void close() {
-					// Ignore close() since we want to reuse the stream.
-				}
-			};
 		}
 		return entryStream;
 	}
 
+	/**
+	 * Returns a temporary file holding the decompressed contents of this
+	 * .tar.gz archive, decompressing it the first time.
+	 * 
+	 * @return the decompressed archive
+	 * @throws IOException
+	 */
+	private File getUncompressedFile() throws IOException {
+		if (uncompressedFile == null) {
+			File tempFile = File.createTempFile("archive", ".tar"); //$NON-NLS-1$ //$NON-NLS-2$
+			InputStream in = new GZIPInputStream(new FileInputStream(file));
+			try {
+				OutputStream out = new FileOutputStream(tempFile);
+				try {
+					byte[] buffer = new byte[ZipFileExporter.BUFFER_SIZE];
+					int n;
+					while ((n = in.read(buffer)) > 0) {
+						out.write(buffer, 0, n);
+					}
+				} finally {
+					out.close();
+				}
+			} catch (IOException e) {
+				tempFile.delete();
+				throw e;
+			} finally {
+				in.close();
+			}
+			uncompressedFile = tempFile;
+		}
+		return uncompressedFile;
+	}
+
 	/**
 	 * Returns the path name of the file this archive represents.
 	 * 
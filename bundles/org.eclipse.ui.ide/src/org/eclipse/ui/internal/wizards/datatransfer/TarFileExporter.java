@@ -15,7 +15,9 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPOutputStream;
 
 import org.eclipse.core.filesystem.EFS;
@@ -33,6 +35,7 @@ import org.eclipse.core.runtime.CoreException;
 public class TarFileExporter implements IFileExporter {
     private TarOutputStream outputStream;
     private GZIPOutputStream gzipOutputStream;
+    private byte[] readBuffer = new byte[ZipFileExporter.BUFFER_SIZE];
     
 
     /**
@@ -43,11 +46,33 @@ public class TarFileExporter implements IFileExporter {
      *	@exception java.io.IOException
      */
     public TarFileExporter(String filename, boolean compress) throws IOException {
+    	this(filename, compress, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     *	Create an instance of this class.
+     *
+     *	@param filename java.lang.String
+     *	@param compress boolean
+     *	@param compressionLevel the compression level, from
+     *		<code>Deflater.NO_COMPRESSION</code> to <code>Deflater.BEST_COMPRESSION</code>,
+     *		or <code>Deflater.DEFAULT_COMPRESSION</code>
+     *	@exception java.io.IOException
+     */
+    public TarFileExporter(String filename, boolean compress, final int compressionLevel)
+    		throws IOException {
+    	OutputStream fileOutputStream = new BufferedOutputStream(
+    			new FileOutputStream(filename), ZipFileExporter.BUFFER_SIZE);
     	if(compress) {
-    		gzipOutputStream = new GZIPOutputStream(new FileOutputStream(filename));
-    		outputStream = new TarOutputStream(new BufferedOutputStream(gzipOutputStream));
+    		gzipOutputStream = new GZIPOutputStream(fileOutputStream, ZipFileExporter.BUFFER_SIZE) {
+    			{
+    				def.setLevel(compressionLevel);
+    			}
+    		};
+    		outputStream = new TarOutputStream(new BufferedOutputStream(gzipOutputStream,
+    				ZipFileExporter.BUFFER_SIZE));
     	} else {
-    		outputStream = new TarOutputStream(new BufferedOutputStream(new FileOutputStream(filename)));
+    		outputStream = new TarOutputStream(fileOutputStream);
     	}
     }
 
@@ -83,7 +108,6 @@ public class TarFileExporter implements IFileExporter {
     	outputStream.putNextEntry(entry);
         try {
             int n;
-            byte[] readBuffer = new byte[4096];
             while ((n = contentStream.read(readBuffer)) > 0) {
                 outputStream.write(readBuffer, 0, n);
             }
@@ -59,6 +59,22 @@ public class TarInputStream extends FilterInputStream
 		skipToEntry(entry);
 	}
 
+	/**
+	 * Create a new tar input stream on an input stream which starts at the
+	 * given position in the file, skipping ahead to the given entry.
+	 * 
+	 * @param in input stream
+	 * @param entry skips to this entry in the file
+	 * @param position the position of the input stream in the file
+	 * @throws TarException
+	 * @throws IOException
+	 */
+	TarInputStream(InputStream in, TarEntry entry, int position) throws TarException, IOException {
+		super(in);
+		bytesread = position;
+		skipToEntry(entry);
+	}
+
 	/**
 	 *  The checksum of a tar file header is simply the sum of the bytes in
 	 *  the header.
@@ -217,7 +217,8 @@ public class TarOutputStream extends FilterOutputStream {
 	 * Writes data for the current file into the archive.
 	 */
 	public void write(byte[] b, int off, int len) throws IOException {
-		super.write(b, off, len);
+		// FilterOutputStream would write the bytes one at a time
+		out.write(b, off, len);
 		datapos = (datapos + len) % 512;
 		byteswritten += len;
 		cursize -= len;
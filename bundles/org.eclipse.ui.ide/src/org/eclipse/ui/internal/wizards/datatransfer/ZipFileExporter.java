@@ -10,10 +10,12 @@
  *******************************************************************************/
 package org.eclipse.ui.internal.wizards.datatransfer;
 
+import java.io.BufferedOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.zip.CRC32;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -27,10 +29,25 @@ import org.eclipse.core.runtime.CoreException;
  *	Exports resources to a .zip file
  */
 public class ZipFileExporter implements IFileExporter {
+    /**
+     * The size of the buffers used to read the files and to write the archive.
+     */
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The size up to which the contents of the stored files are kept in memory
+     * while their checksum is computed, rather than being read again.
+     */
+    private static final int STORED_BUFFER_LIMIT = 1024 * 1024;
+
     private ZipOutputStream outputStream;
 
     private boolean useCompression = true;
 
+    private byte[] readBuffer = new byte[BUFFER_SIZE];
+
+    private byte[] storedBuffer;
+
     /**
      *	Create an instance of this class.
      *
@@ -39,8 +56,27 @@ public class ZipFileExporter implements IFileExporter {
      *	@exception java.io.IOException
      */
     public ZipFileExporter(String filename, boolean compress) throws IOException {
-        outputStream = new ZipOutputStream(new FileOutputStream(filename));
+        this(filename, compress, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     *	Create an instance of this class.
+     *
+     *	@param filename java.lang.String
+     *	@param compress boolean
+     *	@param compressionLevel the compression level, from
+     *		<code>Deflater.NO_COMPRESSION</code> to <code>Deflater.BEST_COMPRESSION</code>,
+     *		or <code>Deflater.DEFAULT_COMPRESSION</code>
+     *	@exception java.io.IOException
+     */
+    public ZipFileExporter(String filename, boolean compress, int compressionLevel)
+            throws IOException {
+        outputStream = new ZipOutputStream(new BufferedOutputStream(
+                new FileOutputStream(filename), BUFFER_SIZE));
         useCompression = compress;
+        if (compress) {
+            outputStream.setLevel(compressionLevel);
+        }
     }
 
     /**
@@ -62,19 +98,24 @@ public class ZipFileExporter implements IFileExporter {
      *  @exception org.eclipse.core.runtime.CoreException
      */
     private void write(ZipEntry entry, IFile contents) throws IOException, CoreException {
-        byte[] readBuffer = new byte[4096];
-
         // If the contents are being compressed then we get the below for free.
+        int buffered = -1;
         if (!useCompression) {
             entry.setMethod(ZipEntry.STORED);
+            buffered = 0;
         	InputStream contentStream = contents.getContents(false);
-        	int length = 0;
+        	long length = 0;
             CRC32 checksumCalculator = new CRC32();
             try {
                 int n;
                 while ((n = contentStream.read(readBuffer)) > 0) {
                     checksumCalculator.update(readBuffer, 0, n);
                     length += n;
+                    // keep the contents of the small files, so that they are
+                    // only read once
+                    if (buffered >= 0) {
+                        buffered = buffer(buffered, n);
+                    }
                 }
             } finally {
                 if (contentStream != null) {
@@ -92,20 +133,49 @@ public class ZipFileExporter implements IFileExporter {
         	entry.setTime(localTimeStamp);
         
         outputStream.putNextEntry(entry);
-    	InputStream contentStream = contents.getContents(false);
-        try {
-            int n;
-            while ((n = contentStream.read(readBuffer)) > 0) {
-                outputStream.write(readBuffer, 0, n);
+        if (buffered > 0) {
+            outputStream.write(storedBuffer, 0, buffered);
+        } else if (buffered < 0) {
+        	InputStream contentStream = contents.getContents(false);
+            try {
+                int n;
+                while ((n = contentStream.read(readBuffer)) > 0) {
+                    outputStream.write(readBuffer, 0, n);
+                }
+            } finally {
+                if (contentStream != null) {
+					contentStream.close();
+				}
             }
-        } finally {
-            if (contentStream != null) {
-				contentStream.close();
-			}
         }
         outputStream.closeEntry();
     }
 
+    /**
+     *	Append the bytes read in the read buffer to the stored buffer.
+     *
+     *	@param buffered the number of bytes already in the stored buffer
+     *	@param n the number of bytes read
+     *	@return the number of bytes in the stored buffer, or -1 if the
+     *		contents are too large to be kept in memory
+     */
+    private int buffer(int buffered, int n) {
+        int size = buffered + n;
+        if (size > STORED_BUFFER_LIMIT) {
+            return -1;
+        }
+        if (storedBuffer == null || storedBuffer.length < size) {
+            int capacity = storedBuffer == null ? BUFFER_SIZE : storedBuffer.length * 2;
+            byte[] newBuffer = new byte[Math.max(capacity, size)];
+            if (buffered > 0) {
+                System.arraycopy(storedBuffer, 0, newBuffer, 0, buffered);
+            }
+            storedBuffer = newBuffer;
+        }
+        System.arraycopy(readBuffer, 0, storedBuffer, buffered, n);
+        return size;
+    }
+
     public void write(IContainer container, String destinationPath)
             throws IOException {
         ZipEntry newEntry = new ZipEntry(destinationPath);
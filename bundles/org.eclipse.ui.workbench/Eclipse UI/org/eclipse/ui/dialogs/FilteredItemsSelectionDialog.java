@@ -28,9 +28,11 @@ import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.eclipse.core.commands.AbstractHandler;
 import org.eclipse.core.commands.ExecutionEvent;
 import org.eclipse.core.commands.IHandler;
+import org.eclipse.core.commands.util.Tracing;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -122,6 +124,7 @@ import org.eclipse.ui.internal.IWorkbenchGraphicConstants;
 import org.eclipse.ui.internal.WorkbenchImages;
 import org.eclipse.ui.internal.WorkbenchMessages;
 import org.eclipse.ui.internal.WorkbenchPlugin;
+import org.eclipse.ui.internal.misc.Policy;
 import org.eclipse.ui.progress.UIJob;
 import org.eclipse.ui.statushandlers.StatusManager;
 
@@ -213,6 +216,22 @@ public abstract class FilteredItemsSelectionDialog extends
 
 	private ItemsFilter lastCompletedFilter;
 
+	/**
+	 * Filters which narrowed the last completed result, from the widest to
+	 * the narrowest, and their sorted results.
+	 */
+	private final List narrowedFilters = new ArrayList();
+
+	private final List narrowedResults = new ArrayList();
+
+	/**
+	 * The time the current filter was applied, and the description of its
+	 * filtering once done. Used for tracing.
+	 */
+	private long filterStartTime;
+
+	private volatile String filterTrace;
+
 	private String initialPatternText;
 
 	private int selectionMode;
@@ -221,6 +240,25 @@ public abstract class FilteredItemsSelectionDialog extends
 
 	private static final String EMPTY_STRING = ""; //$NON-NLS-1$
 
+	private static final String TRACING_COMPONENT = "FILTERED ITEMS"; //$NON-NLS-1$
+
+	/**
+	 * The number of threads narrowing large results for filters which can
+	 * match items concurrently, set with the
+	 * <code>org.eclipse.ui.dialogs.filteredItems.parallelism</code> system
+	 * property. Other filters are always matched by a single thread.
+	 */
+	private static final int NARROWING_PARALLELISM = Math.max(1, Integer
+			.getInteger("org.eclipse.ui.dialogs.filteredItems.parallelism", //$NON-NLS-1$
+					Runtime.getRuntime().availableProcessors()).intValue());
+
+	/**
+	 * Results smaller than this are narrowed in the filtering job only.
+	 */
+	private static final int NARROWING_THRESHOLD = 10000;
+
+	private static final int NARROWING_CHUNK_SIZE = 2048;
+
 	private boolean refreshWithLastSelection = false;
 
 	private IHandlerActivation showViewHandler;
@@ -967,6 +1005,13 @@ public abstract class FilteredItemsSelectionDialog extends
 
 		}
 
+		String trace = filterTrace;
+		if (Policy.DEBUG_FILTERED_ITEMS && trace != null) {
+			filterTrace = null;
+			Tracing.printTrace(TRACING_COMPONENT, trace + ", shown after " //$NON-NLS-1$
+					+ (System.currentTimeMillis() - filterStartTime) + " ms"); //$NON-NLS-1$
+		}
+
 		scheduleProgressMessageRefresh();
 	}
 
@@ -1171,6 +1216,7 @@ public abstract class FilteredItemsSelectionDialog extends
 		filterJob.cancel();
 
 		this.filter = newFilter;
+		filterStartTime = System.currentTimeMillis();
 
 		if (this.filter != null) {
 			filterHistoryJob.schedule();
@@ -2057,6 +2103,14 @@ public abstract class FilteredItemsSelectionDialog extends
 	 * of the last, then <code>FilterJob</code> only filters in the cache. If
 	 * it is the first filtering or the new filter isn't a sub-filter of the
 	 * last one, a full search is run.
+	 * <p>
+	 * Filtering in the cache starts from the narrowest result remembered for a
+	 * filter of which the new filter is a sub-filter. As that result is
+	 * sorted, the items which still match are usually still sorted, and are
+	 * then only merged with the history items instead of being sorted again.
+	 * Large results of filters which can match items concurrently are narrowed
+	 * in chunks by several jobs, which stop as soon as the filter changes.
+	 * </p>
 	 */
 	private class FilterJob extends Job {
 
@@ -2065,6 +2119,12 @@ public abstract class FilteredItemsSelectionDialog extends
 		 */
 		protected ItemsFilter itemsFilter;
 
+		/**
+		 * The number of items narrowed by the last filtering, or -1 for a
+		 * full search. Used for tracing.
+		 */
+		private int narrowedCount;
+
 		/**
 		 * Creates new instance of FilterJob
 		 */
@@ -2119,6 +2179,8 @@ public abstract class FilteredItemsSelectionDialog extends
 					return;
 
 				this.itemsFilter = filter;
+				long start = System.currentTimeMillis();
+				narrowedCount = -1;
 
 				if (filter.getPattern().length() != 0) {
 					filterContent(monitor);
@@ -2127,6 +2189,14 @@ public abstract class FilteredItemsSelectionDialog extends
 				if (monitor.isCanceled())
 					return;
 
+				if (Policy.DEBUG_FILTERED_ITEMS && itemsFilter == filter) {
+					filterTrace = "'" + itemsFilter.getPattern() + "': " //$NON-NLS-1$ //$NON-NLS-2$
+							+ (narrowedCount < 0 ? "searched" //$NON-NLS-1$
+									: "narrowed " + narrowedCount + " items") //$NON-NLS-1$ //$NON-NLS-2$
+							+ " in " + (System.currentTimeMillis() - start) //$NON-NLS-1$
+							+ " ms"; //$NON-NLS-1$
+				}
+
 				contentProvider.refresh();
 			} finally {
 				monitor.done();
@@ -2146,28 +2216,22 @@ public abstract class FilteredItemsSelectionDialog extends
 			if (lastCompletedFilter != null
 					&& lastCompletedFilter.isSubFilter(this.itemsFilter)) {
 
-				int length = lastCompletedResult.size() / 500;
-				monitor
-						.beginTask(
-								WorkbenchMessages.FilteredItemsSelectionDialog_cacheSearchJob_taskName,
-								length);
-
-				for (int pos = 0; pos < lastCompletedResult.size(); pos++) {
-
-					Object item = lastCompletedResult.get(pos);
-					if (monitor.isCanceled())
-						break;
-					contentProvider.add(item, itemsFilter);
-
-					if ((pos % 500) == 0) {
-						monitor.worked(1);
-					}
+				Object[] base = getNarrowingBase(itemsFilter);
+				narrowedCount = base.length;
+				Object[] matches = narrow(base, monitor);
+				if (matches != null) {
+					contentProvider.addSortedItems(matches, itemsFilter);
+					rememberNarrowedResult(itemsFilter, matches);
 				}
 
 			} else {
 
 				lastCompletedFilter = null;
 				lastCompletedResult = null;
+				synchronized (narrowedFilters) {
+					narrowedFilters.clear();
+					narrowedResults.clear();
+				}
 
 				SubProgressMonitor subMonitor = null;
 				if (monitor != null) {
@@ -2190,6 +2254,155 @@ public abstract class FilteredItemsSelectionDialog extends
 
 		}
 
+		/**
+		 * Returns the items of the sorted result which match the filter, in
+		 * the same order.
+		 * 
+		 * @param base
+		 *            the sorted result of a filter of which the filter is a
+		 *            sub-filter
+		 * @param monitor
+		 *            for monitoring progress
+		 * @return the matching items, or <code>null</code> if the filtering
+		 *         was canceled or the filter has changed
+		 */
+		private Object[] narrow(final Object[] base,
+				final GranualProgressMonitor monitor) {
+			final boolean[] matches = new boolean[base.length];
+			final int chunkCount = (base.length + NARROWING_CHUNK_SIZE - 1)
+					/ NARROWING_CHUNK_SIZE;
+			final AtomicInteger nextChunk = new AtomicInteger();
+			monitor
+					.beginTask(
+							WorkbenchMessages.FilteredItemsSelectionDialog_cacheSearchJob_taskName,
+							chunkCount);
+
+			Job[] helpers = new Job[0];
+			if (base.length >= NARROWING_THRESHOLD
+					&& itemsFilter.canMatchConcurrently()) {
+				helpers = new Job[Math.min(NARROWING_PARALLELISM, chunkCount) - 1];
+				for (int i = 0; i < helpers.length; i++) {
+					helpers[i] = new Job(
+							WorkbenchMessages.FilteredItemsSelectionDialog_jobLabel) {
+						protected IStatus run(IProgressMonitor helperMonitor) {
+							narrowChunks(base, matches, nextChunk, monitor,
+									false);
+							return Status.OK_STATUS;
+						}
+					};
+					helpers[i].setSystem(true);
+					helpers[i].schedule();
+				}
+			}
+
+			narrowChunks(base, matches, nextChunk, monitor, true);
+
+			for (int i = 0; i < helpers.length; i++) {
+				// The helpers which have not started have nothing left to do
+				if (!helpers[i].cancel()) {
+					try {
+						helpers[i].join();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						return null;
+					}
+				}
+			}
+
+			if (isStale(monitor)) {
+				return null;
+			}
+			int count = 0;
+			for (int i = 0; i < matches.length; i++) {
+				if (matches[i]) {
+					count++;
+				}
+			}
+			Object[] result = new Object[count];
+			count = 0;
+			for (int i = 0; i < matches.length; i++) {
+				if (matches[i]) {
+					result[count++] = base[i];
+				}
+			}
+			return result;
+		}
+
+		/**
+		 * Matches the chunks of the result against the filter until there are
+		 * none left or the filter is stale.
+		 */
+		private void narrowChunks(Object[] base, boolean[] matches,
+				AtomicInteger nextChunk, GranualProgressMonitor monitor,
+				boolean reportProgress) {
+			int chunk;
+			while ((chunk = nextChunk.getAndIncrement()) * NARROWING_CHUNK_SIZE < base.length) {
+				int end = Math.min(base.length, (chunk + 1)
+						* NARROWING_CHUNK_SIZE);
+				for (int i = chunk * NARROWING_CHUNK_SIZE; i < end; i++) {
+					if ((i & 0xff) == 0 && isStale(monitor)) {
+						return;
+					}
+					matches[i] = itemsFilter.matchItem(base[i]);
+				}
+				if (reportProgress) {
+					monitor.worked(1);
+				}
+			}
+		}
+
+		/**
+		 * @return <code>true</code> if the filtering was canceled or the
+		 *         filter has changed
+		 */
+		private boolean isStale(IProgressMonitor monitor) {
+			return monitor.isCanceled() || itemsFilter != filter;
+		}
+
+	}
+
+	/**
+	 * Returns the narrowest remembered result containing all the items which
+	 * match the filter.
+	 * 
+	 * @param itemsFilter
+	 *            a sub-filter of the last completed filter
+	 * @return the sorted items
+	 */
+	private Object[] getNarrowingBase(ItemsFilter itemsFilter) {
+		synchronized (narrowedFilters) {
+			for (int i = narrowedFilters.size() - 1; i >= 0; i--) {
+				if (((ItemsFilter) narrowedFilters.get(i))
+						.isSubFilter(itemsFilter)) {
+					// Drop the results of the filters narrowed in another way
+					while (narrowedFilters.size() > i + 1) {
+						narrowedFilters.remove(narrowedFilters.size() - 1);
+						narrowedResults.remove(narrowedResults.size() - 1);
+					}
+					return (Object[]) narrowedResults.get(i);
+				}
+			}
+			narrowedFilters.clear();
+			narrowedResults.clear();
+		}
+		return lastCompletedResult.toArray();
+	}
+
+	/**
+	 * Remembers the sorted result of a filter, so that its sub-filters can be
+	 * narrowed from it.
+	 * 
+	 * @param itemsFilter
+	 * @param result
+	 */
+	private void rememberNarrowedResult(ItemsFilter itemsFilter,
+			Object[] result) {
+		synchronized (narrowedFilters) {
+			if (itemsFilter == filter) {
+				narrowedFilters.add(itemsFilter);
+				narrowedResults.add(result);
+			}
+		}
 	}
 
 	/**
@@ -2529,6 +2742,26 @@ public abstract class FilteredItemsSelectionDialog extends
 		 */
 		public abstract boolean matchItem(Object item);
 
+		/**
+		 * Returns whether {@link #matchItem(Object)} may be called from
+		 * several threads at once. When it may, large results narrowed for a
+		 * sub-filter are matched by several jobs. The number of jobs can be
+		 * set with the
+		 * <code>org.eclipse.ui.dialogs.filteredItems.parallelism</code>
+		 * system property and defaults to the number of processors.
+		 * <p>
+		 * The default implementation returns <code>false</code>. Subclasses
+		 * whose matching is thread safe may override.
+		 * </p>
+		 * 
+		 * @return <code>true</code> if items can be matched concurrently,
+		 *         <code>false</code> otherwise
+		 * @since 3.105
+		 */
+		public boolean canMatchConcurrently() {
+			return false;
+		}
+
 		/**
 		 * Checks consistency of an item. Item is inconsistent if was changed or
 		 * removed.
@@ -2689,6 +2922,64 @@ public abstract class FilteredItemsSelectionDialog extends
 			}
 		}
 
+		/**
+		 * Adds the items matching the filter, sorted by the history
+		 * comparator, and merges them with the items already added so that
+		 * they do not need to be sorted again.
+		 * <p>
+		 * The items were sorted for the filter they were narrowed from. As the
+		 * items comparator may depend on the pattern, and the history may have
+		 * changed meanwhile, they are sorted again first if they are no longer
+		 * in order. The array is sorted in place, so that it can be remembered
+		 * as the sorted result of the filter.
+		 * </p>
+		 * 
+		 * @param sortedItems
+		 *            the items matching the filter, sorted for the filter they
+		 *            were narrowed from
+		 * @param itemsFilter
+		 */
+		public void addSortedItems(Object[] sortedItems, ItemsFilter itemsFilter) {
+			if (itemsFilter != filter) {
+				return;
+			}
+			Comparator comparator = getHistoryComparator();
+			for (int i = 1; i < sortedItems.length; i++) {
+				if (comparator.compare(sortedItems[i - 1], sortedItems[i]) > 0) {
+					// Merge sort is fast on mostly sorted items
+					Arrays.sort(sortedItems, comparator);
+					break;
+				}
+			}
+			synchronized (lastSortedItems) {
+				// Only the history items have been added so far
+				Set others = new HashSet(this.items);
+				for (int i = 0; i < sortedItems.length && !others.isEmpty(); i++) {
+					others.remove(sortedItems[i]);
+				}
+				Object[] extra = others.toArray();
+				Arrays.sort(extra, comparator);
+
+				List merged = new ArrayList(sortedItems.length + extra.length);
+				int i = 0;
+				int j = 0;
+				while (i < sortedItems.length && j < extra.length) {
+					if (comparator.compare(extra[j], sortedItems[i]) < 0) {
+						merged.add(extra[j++]);
+					} else {
+						merged.add(sortedItems[i++]);
+					}
+				}
+				merged.addAll(Arrays.asList(sortedItems).subList(i,
+						sortedItems.length));
+				merged.addAll(Arrays.asList(extra).subList(j, extra.length));
+
+				this.items.addAll(Arrays.asList(sortedItems));
+				lastSortedItems.clear();
+				lastSortedItems.addAll(merged);
+			}
+		}
+
 		/**
 		 * Add all history items to <code>contentProvider</code>.
 		 * 
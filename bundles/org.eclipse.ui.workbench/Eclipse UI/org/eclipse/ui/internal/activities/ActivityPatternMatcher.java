@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.ui.internal.activities;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds the activities whose pattern bindings match an identifier in a single
+ * pass over the identifier.
+ * <p>
+ * Equality patterns are looked up in a map. The regular expressions are kept
+ * in a trie keyed by their literal prefix, so that only the expressions whose
+ * prefix starts the identifier are evaluated. The activities matching an
+ * identifier are remembered until the matcher is replaced, which happens when
+ * the activity registry changes.
+ * </p>
+ *
+ * @since 3.105
+ */
+public final class ActivityPatternMatcher {
+
+	/**
+	 * A node of the trie of the literal prefixes.
+	 */
+	private static final class Node {
+		Map<Character, Node> children;
+
+		List<ActivityPatternBinding> bindings;
+
+		Node getChild(char c, boolean create) {
+			Node child = children == null ? null : children.get(Character.valueOf(c));
+			if (child == null && create) {
+				if (children == null) {
+					children = new HashMap<Character, Node>(4);
+				}
+				child = new Node();
+				children.put(Character.valueOf(c), child);
+			}
+			return child;
+		}
+	}
+
+	private final Map<String, Set<String>> activityIdsByEqualityPattern = new HashMap<String, Set<String>>();
+
+	private final Node root = new Node();
+
+	private final Map<String, Set<String>> activityIdsByIdentifierId = new HashMap<String, Set<String>>();
+
+	/**
+	 * Creates a matcher for the pattern bindings of the defined activities.
+	 *
+	 * @param activityPatternBindingsByActivityId
+	 *            the sets of pattern bindings by activity id
+	 * @param definedActivityIds
+	 *            the ids of the defined activities
+	 */
+	public ActivityPatternMatcher(Map activityPatternBindingsByActivityId,
+			Collection definedActivityIds) {
+		for (Object activityId : definedActivityIds) {
+			Collection bindings = (Collection) activityPatternBindingsByActivityId
+					.get(activityId);
+			if (bindings == null) {
+				continue;
+			}
+			for (Object object : bindings) {
+				ActivityPatternBinding binding = (ActivityPatternBinding) object;
+				if (binding.isEqualityPattern()) {
+					Set<String> activityIds = activityIdsByEqualityPattern.get(binding
+							.getString());
+					if (activityIds == null) {
+						activityIds = new HashSet<String>(2);
+						activityIdsByEqualityPattern.put(binding.getString(), activityIds);
+					}
+					activityIds.add(binding.getActivityId());
+				} else {
+					String prefix = getLiteralPrefix(binding.getString());
+					Node node = root;
+					for (int i = 0; i < prefix.length(); i++) {
+						node = node.getChild(prefix.charAt(i), true);
+					}
+					if (node.bindings == null) {
+						node.bindings = new ArrayList<ActivityPatternBinding>(2);
+					}
+					node.bindings.add(binding);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the ids of the activities with a pattern binding matching the
+	 * identifier.
+	 *
+	 * @param identifierId
+	 *            the identifier
+	 * @return the unmodifiable set of activity ids
+	 */
+	public synchronized Set<String> getActivityIds(String identifierId) {
+		Set<String> activityIds = activityIdsByIdentifierId.get(identifierId);
+		if (activityIds == null) {
+			activityIds = match(identifierId);
+			activityIdsByIdentifierId.put(identifierId, activityIds);
+		}
+		return activityIds;
+	}
+
+	private Set<String> match(String identifierId) {
+		Set<String> activityIds = null;
+		Set<String> equal = activityIdsByEqualityPattern.get(identifierId);
+		if (equal != null) {
+			activityIds = new HashSet<String>(equal);
+		}
+
+		Node node = root;
+		int i = 0;
+		while (node != null) {
+			if (node.bindings != null) {
+				for (ActivityPatternBinding binding : node.bindings) {
+					if ((activityIds == null || !activityIds.contains(binding
+							.getActivityId()))
+							&& binding.isMatch(identifierId)) {
+						if (activityIds == null) {
+							activityIds = new HashSet<String>(2);
+						}
+						activityIds.add(binding.getActivityId());
+					}
+				}
+			}
+			node = i < identifierId.length() ? node.getChild(identifierId.charAt(i++),
+					false) : null;
+		}
+
+		if (activityIds == null) {
+			return Collections.emptySet();
+		}
+		return Collections.unmodifiableSet(activityIds);
+	}
+
+	/**
+	 * Returns the literal text every string matched by the regular expression
+	 * starts with.
+	 *
+	 * @param regex
+	 *            the regular expression
+	 * @return the prefix, possibly empty
+	 */
+	public static String getLiteralPrefix(String regex) {
+		if (regex.indexOf('|') != -1) {
+			// Alternatives may start with anything
+			return ""; //$NON-NLS-1$
+		}
+		StringBuffer prefix = new StringBuffer();
+		int i = 0;
+		boolean quoted = false;
+		while (i < regex.length()) {
+			char c = regex.charAt(i);
+			if (quoted) {
+				if (regex.startsWith("\\E", i)) { //$NON-NLS-1$
+					quoted = false;
+					i += 2;
+				} else {
+					prefix.append(c);
+					i++;
+				}
+				continue;
+			}
+			if (c == '\\' && i + 1 < regex.length()) {
+				char next = regex.charAt(i + 1);
+				if (next == 'Q') {
+					quoted = true;
+					i += 2;
+					continue;
+				}
+				if (Character.isLetterOrDigit(next)) {
+					// A character class or a back reference
+					break;
+				}
+				prefix.append(next);
+				i += 2;
+			} else if ("[](){}.*+?^$".indexOf(c) == -1) { //$NON-NLS-1$
+				prefix.append(c);
+				i++;
+			} else {
+				if ((c == '*' || c == '?' || c == '{') && prefix.length() > 0) {
+					// The last character is optional
+					prefix.setLength(prefix.length() - 1);
+				}
+				break;
+			}
+		}
+		return prefix.toString();
+	}
+}
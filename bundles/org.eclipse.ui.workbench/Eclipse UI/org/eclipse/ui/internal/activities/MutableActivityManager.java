@@ -64,6 +64,13 @@ public final class MutableActivityManager extends AbstractActivityManager
 
     private Map activityPatternBindingsByActivityId = new HashMap();
 
+    /**
+     * Matches the identifiers against the pattern bindings of the defined
+     * activities. Replaced when the registry is read.
+     */
+    private volatile ActivityPatternMatcher activityPatternMatcher = new ActivityPatternMatcher(
+            Collections.EMPTY_MAP, Collections.EMPTY_SET);
+
     private IActivityRegistry activityRegistry;
 
     private Map categoriesById = new HashMap();
@@ -425,6 +432,9 @@ public final class MutableActivityManager extends AbstractActivityManager
         this.activityRequirementBindingsByActivityId = activityRequirementBindingsByActivityId;
         this.activityDefinitionsById = activityDefinitionsById;
         this.activityPatternBindingsByActivityId = activityPatternBindingsByActivityId;
+        this.activityPatternMatcher = new ActivityPatternMatcher(
+                activityPatternBindingsByActivityId, activityDefinitionsById
+                        .keySet());
         this.categoryActivityBindingsByCategoryId = categoryActivityBindingsByCategoryId;
         this.categoryDefinitionsById = categoryDefinitionsById;
         boolean definedActivityIdsChanged = false;
@@ -570,7 +580,7 @@ public final class MutableActivityManager extends AbstractActivityManager
         }
 
         updateListeners(activityManagerChanged, activityEventsByActivityId,
-				deltaActivityIds, previouslyEnabledActivityIds);
+				previouslyEnabledActivityIds);
     }
 
 	/**
@@ -578,16 +588,14 @@ public final class MutableActivityManager extends AbstractActivityManager
 	 * 
 	 * @param activityManagerChanged
 	 * @param activityEventsByActivityId
-	 * @param deltaActivityIds
 	 * @param previouslyEnabledActivityIds
 	 */
 	private void updateListeners(boolean activityManagerChanged,
-			Map activityEventsByActivityId, Set deltaActivityIds,
-			Set previouslyEnabledActivityIds) {
+			Map activityEventsByActivityId, Set previouslyEnabledActivityIds) {
 		// don't update identifiers if the enabled activity set has not changed
         if (activityManagerChanged) {
             Map identifierEventsByIdentifierId = updateIdentifiers(identifiersById
-                    .keySet(), deltaActivityIds);
+                    .keySet());
             if (identifierEventsByIdentifierId != null) {
 				notifyIdentifiers(identifierEventsByIdentifierId);
 			}
@@ -626,7 +634,7 @@ public final class MutableActivityManager extends AbstractActivityManager
 		deltaActivityIds.add(id);
 		Map activityEventsByActivityId = updateActivities(deltaActivityIds);
 
-		updateListeners(true, activityEventsByActivityId, deltaActivityIds,
+		updateListeners(true, activityEventsByActivityId,
 				previouslyEnabledActivityIds);
 	}
 	
@@ -812,12 +820,7 @@ public final class MutableActivityManager extends AbstractActivityManager
     }
 
     private IdentifierEvent updateIdentifier(Identifier identifier) {
-        return updateIdentifier(identifier, definedActivityIds);
-    }
-    
-    private IdentifierEvent updateIdentifier(Identifier identifier, Set changedActivityIds) {
         String id = identifier.getId();
-        Set activityIds = new HashSet();
         
         boolean enabled = false;
         
@@ -839,21 +842,8 @@ public final class MutableActivityManager extends AbstractActivityManager
                         enabledChanged);
 			}
         } else {
-            Set activityIdsToUpdate = new HashSet(changedActivityIds);
-            if (identifier.getActivityIds() != null) {
-                activityIdsToUpdate.addAll(identifier.getActivityIds());
-            }
-            for (Iterator iterator = activityIdsToUpdate.iterator(); iterator
-                    .hasNext();) {
-                String activityId = (String) iterator.next();
-                Activity activity = (Activity) getActivity(activityId);
-    
-                if (activity.isMatch(id)) {
-                    activityIds.add(activityId);
-               }
-            }
-            
-            activityIdsChanged = identifier.setActivityIds(activityIds);
+            activityIdsChanged = identifier
+                    .setActivityIds(activityPatternMatcher.getActivityIds(id));
             
             if (advisor != null) {
             	enabled = advisor.computeEnablement(this, identifier);
@@ -869,10 +859,6 @@ public final class MutableActivityManager extends AbstractActivityManager
     }
 
     private Map updateIdentifiers(Collection identifierIds) {
-        return updateIdentifiers(identifierIds, definedActivityIds);
-    }
-    
-    private Map updateIdentifiers(Collection identifierIds, Set changedActivityIds) {
         Map identifierEventsByIdentifierId = new TreeMap();
 
         for (Iterator iterator = identifierIds.iterator(); iterator.hasNext();) {
@@ -881,7 +867,7 @@ public final class MutableActivityManager extends AbstractActivityManager
                     .get(identifierId);
 
             if (identifier != null) {
-                IdentifierEvent identifierEvent = updateIdentifier(identifier, changedActivityIds);
+                IdentifierEvent identifierEvent = updateIdentifier(identifier);
 
                 if (identifierEvent != null) {
 					identifierEventsByIdentifierId.put(identifierId,
@@ -927,18 +913,9 @@ public final class MutableActivityManager extends AbstractActivityManager
                 protected IStatus run(IProgressMonitor monitor) {
                     while (!deferredIdentifiers.isEmpty()) {
                         Identifier identifier = (Identifier) deferredIdentifiers.remove(0);
-                        Set activityIds = new HashSet();
-                        for (Iterator iterator = definedActivityIds.iterator(); iterator
-                                .hasNext();) {
-                            String activityId = (String) iterator.next();
-                            Activity activity = (Activity) getActivity(activityId);
-
-                            if (activity.isMatch(identifier.getId())) {
-                                activityIds.add(activityId);
-                            }
-                        }
-                        
-                        boolean activityIdsChanged = identifier.setActivityIds(activityIds);
+                        boolean activityIdsChanged = identifier
+                                .setActivityIds(activityPatternMatcher
+                                        .getActivityIds(identifier.getId()));
                         if (activityIdsChanged) {
                             IdentifierEvent identifierEvent = new IdentifierEvent(identifier, activityIdsChanged,
                                     false);
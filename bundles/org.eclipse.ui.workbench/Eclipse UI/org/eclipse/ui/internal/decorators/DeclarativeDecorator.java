@@ -68,14 +68,26 @@ public class DeclarativeDecorator implements ILightweightLabelDecorator {
      *      org.eclipse.jface.viewers.IDecoration)
      */
     public void decorate(Object element, IDecoration decoration) {
+        ImageDescriptor overlay = getDescriptor();
+        if (overlay != null) {
+            decoration.addOverlay(overlay);
+        }
+    }
+
+    /**
+     * Return the overlay added by the receiver.
+     * 
+     * @return ImageDescriptor or <code>null</code> if the icon cannot be found
+     */
+    ImageDescriptor getDescriptor() {
         if (descriptor == null) {
             URL url = BundleUtility.find(configElement.getDeclaringExtension()
                     .getNamespace(), iconLocation);
             if (url == null) {
-				return;
+				return null;
 			}
             descriptor = ImageDescriptor.createFromURL(url);
         }
-        decoration.addOverlay(descriptor);
+        return descriptor;
     }
 }
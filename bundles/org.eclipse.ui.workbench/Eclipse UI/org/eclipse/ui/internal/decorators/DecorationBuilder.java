@@ -28,7 +28,7 @@ import org.eclipse.ui.internal.WorkbenchPlugin;
  */
 public class DecorationBuilder implements IDecoration {
 
-	private static int DECORATOR_ARRAY_SIZE = 6;
+	static final int DECORATOR_ARRAY_SIZE = 6;
 
 	private List prefixes = new ArrayList();
 
@@ -44,9 +44,23 @@ public class DecorationBuilder implements IDecoration {
 
 	LightweightDecoratorDefinition currentDefinition;
 
+	// The decorator of the current definition if its decorations may be kept
+	private IPersistableDecorator currentPersistableDecorator;
+
 	// A flag set if a value has been added
 	private boolean valueSet = false;
 
+	// The decorators which added the overlays
+	private String[] overlayIds = new String[DECORATOR_ARRAY_SIZE];
+
+	// The keys of the overlays added by persistable decorators
+	private String[] overlayKeys = new String[DECORATOR_ARRAY_SIZE];
+
+	// A flag cleared if a value which cannot be persisted has been added, or
+	// if a decorator defining a class which is not persistable applies to
+	// the element
+	private boolean persistable = true;
+
 	private final IDecorationContext context;
 
 	/**
@@ -73,6 +87,36 @@ public class DecorationBuilder implements IDecoration {
 	 */
 	void setCurrentDefinition(LightweightDecoratorDefinition definition) {
 		this.currentDefinition = definition;
+		currentPersistableDecorator = null;
+		if (!definition.isDeclarative()) {
+			currentPersistableDecorator = definition.getPersistableDecorator();
+			if (currentPersistableDecorator == null) {
+				// Its decorations may change without the element changing
+				persistable = false;
+			}
+		}
+	}
+
+	/**
+	 * Remember which decorator added the overlay in the quadrant, so that the
+	 * overlay can be kept between sessions.
+	 * 
+	 * @param overlay
+	 * @param quadrant
+	 */
+	private void setOverlayId(ImageDescriptor overlay, int quadrant) {
+		if (currentDefinition.isDeclarative()) {
+			overlayIds[quadrant] = currentDefinition.getId();
+			return;
+		}
+		String key = currentPersistableDecorator == null ? null
+				: currentPersistableDecorator.getOverlayKey(overlay);
+		if (key == null) {
+			persistable = false;
+		} else {
+			overlayIds[quadrant] = currentDefinition.getId();
+			overlayKeys[quadrant] = key;
+		}
 	}
 
 	/**
@@ -82,6 +126,7 @@ public class DecorationBuilder implements IDecoration {
 		int quadrant = currentDefinition.getQuadrant();
 		if (descriptors[quadrant] == null) {
 			descriptors[quadrant] = overlay;
+			setOverlayId(overlay, quadrant);
 		}
 		valueSet = true;
 	}
@@ -93,6 +138,7 @@ public class DecorationBuilder implements IDecoration {
 		if (quadrant >= 0 && quadrant < DECORATOR_ARRAY_SIZE) {
 			if (descriptors[quadrant] == null) {
 				descriptors[quadrant] = overlay;
+				setOverlayId(overlay, quadrant);
 			}
 			valueSet = true;
 		} else {
@@ -106,6 +152,7 @@ public class DecorationBuilder implements IDecoration {
 	 */
 	public void addPrefix(String prefixString) {
 		prefixes.add(prefixString);
+		persistable = false;
 		valueSet = true;
 	}
 
@@ -114,6 +161,7 @@ public class DecorationBuilder implements IDecoration {
 	 */
 	public void addSuffix(String suffixString) {
 		suffixes.add(suffixString);
+		persistable = false;
 		valueSet = true;
 	}
 
@@ -135,6 +183,8 @@ public class DecorationBuilder implements IDecoration {
 		}
 		if (clearReplacementImage) {
 			descriptors[IDecoration.REPLACE] = null;
+			overlayIds[IDecoration.REPLACE] = null;
+			overlayKeys[IDecoration.REPLACE] = null;
 		}
 		DecorationResult newResult = new DecorationResult(new ArrayList(
 				prefixes), new ArrayList(suffixes), descriptors,
@@ -150,7 +200,10 @@ public class DecorationBuilder implements IDecoration {
 		this.prefixes.clear();
 		this.suffixes.clear();
 		this.descriptors = new ImageDescriptor[DECORATOR_ARRAY_SIZE];
+		this.overlayIds = new String[DECORATOR_ARRAY_SIZE];
+		this.overlayKeys = new String[DECORATOR_ARRAY_SIZE];
 		valueSet = false;
+		persistable = true;
 	}
 
 	/**
@@ -162,6 +215,39 @@ public class DecorationBuilder implements IDecoration {
 		return valueSet;
 	}
 
+	/**
+	 * Return whether or not the decoration is made only of the overlays of
+	 * declarative or persistable decorators, and no other decorator defining
+	 * a class applies to the element, so that it can be kept between
+	 * sessions.
+	 * 
+	 * @return boolean
+	 * @see PersistentDecorationCache
+	 */
+	boolean isPersistable() {
+		return persistable;
+	}
+
+	/**
+	 * Return the ids of the decorators which added the overlays, by quadrant.
+	 * 
+	 * @return String[]
+	 */
+	String[] getOverlayIds() {
+		return (String[]) overlayIds.clone();
+	}
+
+	/**
+	 * Return the keys of the overlays added by persistable decorators, by
+	 * quadrant. The overlays of declarative decorators have no key.
+	 * 
+	 * @return String[]
+	 * @see IPersistableDecorator#getOverlayKey(ImageDescriptor)
+	 */
+	String[] getOverlayKeys() {
+		return (String[]) overlayKeys.clone();
+	}
+
 	/**
 	 * Apply the previously calculates result to the receiver.
 	 * 
@@ -182,6 +268,7 @@ public class DecorationBuilder implements IDecoration {
 		setForegroundColor(result.getForegroundColor());
 		setBackgroundColor(result.getBackgroundColor());
 		setFont(result.getFont());
+		persistable = false;
 		valueSet = true;
 	}
 
@@ -193,6 +280,7 @@ public class DecorationBuilder implements IDecoration {
 
 	public void setBackgroundColor(Color bgColor) {
 		this.backgroundColor = bgColor;
+		persistable = false;
 		valueSet = true;
 	}
 
@@ -203,6 +291,7 @@ public class DecorationBuilder implements IDecoration {
 	 */
 	public void setFont(Font newFont) {
 		this.font = newFont;
+		persistable = false;
 		valueSet = true;
 	}
 
@@ -213,6 +302,7 @@ public class DecorationBuilder implements IDecoration {
 	 */
 	public void setForegroundColor(Color fgColor) {
 		this.foregroundColor = fgColor;
+		persistable = false;
 		valueSet = true;
 	}
 
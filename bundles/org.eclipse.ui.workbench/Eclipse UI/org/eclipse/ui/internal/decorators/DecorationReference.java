@@ -30,6 +30,9 @@ class DecorationReference {
 
 	IDecorationContext[] contexts;
 
+	// The time at which the element was queued, for tracing
+	long queuedTime = System.currentTimeMillis();
+
     DecorationReference(Object object, Object adaptedObject, IDecorationContext context) {
         this.contexts = new IDecorationContext[] { context} ;
 		Assert.isNotNull(object);
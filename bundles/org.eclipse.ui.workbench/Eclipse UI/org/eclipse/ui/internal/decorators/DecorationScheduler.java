@@ -21,6 +21,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.eclipse.core.commands.util.Tracing;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
@@ -36,15 +37,25 @@ import org.eclipse.swt.graphics.Font;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.internal.WorkbenchMessages;
+import org.eclipse.ui.internal.misc.Policy;
 import org.eclipse.ui.progress.UIJob;
 import org.eclipse.ui.progress.WorkbenchJob;
 
 /**
  * The DecorationScheduler is the class that handles the decoration of elements
- * using a background thread.
+ * using background threads.
  */
 public class DecorationScheduler {
 
+	private static final String TRACING_COMPONENT = "DECORATIONS"; //$NON-NLS-1$
+
+	/**
+	 * The system property setting the number of jobs computing the
+	 * decorations, read when the scheduler is created. Each lightweight
+	 * decorator is only run by one of them at a time.
+	 */
+	static final String WORKERS_PROPERTY = "org.eclipse.ui.decorators.workers"; //$NON-NLS-1$
+
 	static final ILabelProviderListener[] EMPTY_LISTENER_LIST = new ILabelProviderListener[0];
 
 	// When decorations are computed they are added to this cache via
@@ -66,7 +77,19 @@ public class DecorationScheduler {
 
 	boolean shutdown = false;
 
-	Job decorationJob;
+	Job[] decorationJobs;
+
+	// The number of elements being decorated by the decoration jobs
+	int decorating = 0;
+
+	// The statistics reported when tracing the decorations
+	private int peakQueueDepth;
+
+	private int decoratedCount;
+
+	private long totalLatency;
+
+	private long maxLatency;
 
 	UIJob updateJob;
 
@@ -75,6 +98,9 @@ public class DecorationScheduler {
 
 	private Job clearJob;
 
+	// The decorations kept between sessions, if enabled
+	private PersistentDecorationCache persistentCache;
+
 	// Static used for the updates to indicate an update is required
 	static final int NEEDS_INIT = -1;
 
@@ -89,7 +115,16 @@ public class DecorationScheduler {
 	 */
 	DecorationScheduler(DecoratorManager manager) {
 		decoratorManager = manager;
-		createDecorationJob();
+		int workers = Math.max(1, Integer.getInteger(WORKERS_PROPERTY, 1)
+				.intValue());
+		decorationJobs = new Job[workers];
+		for (int i = 0; i < workers; i++) {
+			decorationJobs[i] = createDecorationJob();
+		}
+		if (Boolean.getBoolean(PersistentDecorationCache.ENABLED_PROPERTY)) {
+			persistentCache = new PersistentDecorationCache(manager,
+					PersistentDecorationCache.getDefaultFile());
+		}
 	}
 
 	/**
@@ -153,10 +188,19 @@ public class DecorationScheduler {
 			reference.setUndecoratedText(undecoratedText);
 			awaitingDecorationValues.put(element, reference);
 			awaitingDecoration.add(element);
+			if (Policy.DEBUG_DECORATIONS) {
+				peakQueueDepth = Math.max(peakQueueDepth, awaitingDecoration
+						.size());
+			}
 			if (shutdown) {
 				return;
 			}
-			decorationJob.schedule();
+			// Only wake up as many jobs as there are elements to decorate
+			int workers = Math.min(decorationJobs.length, awaitingDecoration
+					.size());
+			for (int i = 0; i < workers; i++) {
+				decorationJobs[i].schedule();
+			}
 		}
 
 	}
@@ -209,6 +253,16 @@ public class DecorationScheduler {
 
 		DecorationResult decoration = internalGetResult(element, context);
 
+		if (decoration == null && persistentCache != null
+				&& context == DecorationContext.DEFAULT_CONTEXT) {
+			// Serve the decoration of the previous session if the element
+			// has not changed since
+			decoration = persistentCache.getResult(element);
+			if (decoration != null) {
+				internalPutResult(element, context, decoration);
+			}
+		}
+
 		if (decoration == null) {
 			queueForDecoration(element, adaptedElement, false, null, context);
 			return null;
@@ -219,21 +273,31 @@ public class DecorationScheduler {
 
 	private DecorationResult internalGetResult(Object element,
 			IDecorationContext context) {
-		Map results = (Map) resultCache.get(context);
-		if (results != null) {
-			return (DecorationResult) results.get(element);
+		synchronized (resultCache) {
+			Map results = (Map) resultCache.get(context);
+			if (results != null) {
+				return (DecorationResult) results.get(element);
+			}
 		}
 		return null;
 	}
 
 	protected void internalPutResult(Object element,
 			IDecorationContext context, DecorationResult result) {
-		Map results = (Map) resultCache.get(context);
-		if (results == null) {
-			results = new HashMap();
-			resultCache.put(context, results);
+		synchronized (resultCache) {
+			Map results = (Map) resultCache.get(context);
+			if (results == null) {
+				results = new HashMap();
+				resultCache.put(context, results);
+			}
+			results.put(element, result);
+		}
+	}
+
+	private void clearResultCache() {
+		synchronized (resultCache) {
+			resultCache.clear();
 		}
-		results.put(element, result);
 	}
 
 	/**
@@ -255,11 +319,25 @@ public class DecorationScheduler {
 		updateJob.schedule(UPDATE_DELAY);
 	}
 
+	/**
+	 * Execute a label update using the decorations computed so far, unless an
+	 * update is already scheduled. The decorations are then reported once per
+	 * update rather than when the queue is exhausted.
+	 */
+	synchronized void decoratedSoFar() {
+		if (updateJob == null || updateJob.getState() == Job.NONE) {
+			decorated();
+		}
+	}
+
 	/**
 	 * Shutdown the decoration.
 	 */
 	synchronized void shutdown() {
 		shutdown = true;
+		if (persistentCache != null) {
+			persistentCache.save();
+		}
 	}
 
 	/**
@@ -273,15 +351,58 @@ public class DecorationScheduler {
 			return null;
 		}
 		Object element = awaitingDecoration.remove(0);
+		decorating++;
 
 		return (DecorationReference) awaitingDecorationValues.remove(element);
 	}
 
 	/**
-	 * Create the Thread used for running decoration.
+	 * The decoration of the element of the reference is complete.
+	 * 
+	 * @param reference
+	 * @return whether the decoration of all the elements is complete
 	 */
-	private void createDecorationJob() {
-		decorationJob = new Job(
+	synchronized boolean doneElement(DecorationReference reference) {
+		decorating--;
+		if (Policy.DEBUG_DECORATIONS) {
+			long latency = System.currentTimeMillis() - reference.queuedTime;
+			decoratedCount++;
+			totalLatency += latency;
+			maxLatency = Math.max(maxLatency, latency);
+		}
+		if (!awaitingDecoration.isEmpty() || decorating > 0) {
+			return false;
+		}
+		if (Policy.DEBUG_DECORATIONS && decoratedCount > 0) {
+			StringBuffer buffer = new StringBuffer();
+			buffer.append("decorated "); //$NON-NLS-1$
+			buffer.append(decoratedCount);
+			buffer.append(" elements with "); //$NON-NLS-1$
+			buffer.append(decorationJobs.length);
+			buffer.append(" jobs, peak queue depth "); //$NON-NLS-1$
+			buffer.append(peakQueueDepth);
+			buffer.append(", latency "); //$NON-NLS-1$
+			buffer.append(totalLatency / decoratedCount);
+			buffer.append(" ms average, "); //$NON-NLS-1$
+			buffer.append(maxLatency);
+			buffer.append(" ms maximum"); //$NON-NLS-1$
+			decoratorManager.getLightweightManager().appendCosts(buffer);
+			Tracing.printTrace(TRACING_COMPONENT, buffer.toString());
+			decoratedCount = 0;
+			peakQueueDepth = 0;
+			totalLatency = 0;
+			maxLatency = 0;
+		}
+		return true;
+	}
+
+	/**
+	 * Create a job used for running decoration.
+	 * 
+	 * @return the job
+	 */
+	private Job createDecorationJob() {
+		Job decorationJob = new Job(
 				WorkbenchMessages.DecorationScheduler_CalculationJobName) {
 			/*
 			 * (non-Javadoc)
@@ -307,6 +428,12 @@ public class DecorationScheduler {
 					}
 				}
 
+				if (persistentCache != null) {
+					// Read the decorations of the previous session here
+					// rather than in the UI Thread
+					persistentCache.load();
+				}
+
 				monitor.beginTask(
 						WorkbenchMessages.DecorationScheduler_CalculatingTask,
 						100);
@@ -314,6 +441,7 @@ public class DecorationScheduler {
 				DecorationReference reference;
 				monitor.worked(5);
 				int workCount = 5;
+				long lastUpdate = System.currentTimeMillis();
 				while ((reference = nextElement()) != null) {
 
 					// Count up to 90 to give the appearance of updating
@@ -331,12 +459,15 @@ public class DecorationScheduler {
 						ensureResultCached(element, force, context);
 					}
 
-					// Only notify listeners when we have exhausted the
-					// queue of decoration requests.
-					synchronized (DecorationScheduler.this) {
-						if (awaitingDecoration.isEmpty()) {
-							decorated();
-						}
+					// Notify listeners when we have exhausted the queue of
+					// decoration requests, and once per update until then so
+					// that the label updates are batched.
+					if (doneElement(reference)) {
+						decorated();
+						lastUpdate = System.currentTimeMillis();
+					} else if (System.currentTimeMillis() - lastUpdate >= UPDATE_DELAY) {
+						decoratedSoFar();
+						lastUpdate = System.currentTimeMillis();
 					}
 				}
 				monitor.worked(100 - workCount);
@@ -396,6 +527,13 @@ public class DecorationScheduler {
 						
 
 					}
+
+					if (persistentCache != null
+							&& context == DecorationContext.DEFAULT_CONTEXT) {
+						persistentCache.putResult(element, cacheResult
+								.isPersistable() ? cacheResult.getOverlayIds()
+								: null, cacheResult.getOverlayKeys());
+					}
 				}
 			}
 
@@ -421,6 +559,7 @@ public class DecorationScheduler {
 		decorationJob.setSystem(true);
 		decorationJob.setPriority(Job.DECORATE);
 		decorationJob.schedule();
+		return decorationJob;
 	}
 
 	/**
@@ -449,6 +588,25 @@ public class DecorationScheduler {
 		clearJob.schedule();
 	}
 
+	/**
+	 * The decorations of the elements have changed without their stamps
+	 * changing. Drop them from the decorations kept between sessions.
+	 * 
+	 * @param elements
+	 *            the changed elements, or <code>null</code> if all of the
+	 *            decorations may have changed
+	 */
+	void clearPersistentResults(Object[] elements) {
+		if (persistentCache == null) {
+			return;
+		}
+		if (elements == null) {
+			persistentCache.clear();
+		} else {
+			persistentCache.removeResults(elements);
+		}
+	}
+
 	private Job getClearJob() {
 		Job clear = new Job(
 				WorkbenchMessages.DecorationScheduler_ClearResultsJob) {
@@ -459,7 +617,7 @@ public class DecorationScheduler {
 			 * @see org.eclipse.core.runtime.jobs.Job#run(org.eclipse.core.runtime.IProgressMonitor)
 			 */
 			protected IStatus run(IProgressMonitor monitor) {
-				resultCache.clear();
+				clearResultCache();
 				return Status.OK_STATUS;
 			}
 
@@ -563,8 +721,10 @@ public class DecorationScheduler {
                 // Other decoration requests may have occurred due to
                 // updates or we may have timed out updating listeners.
                 // Only clear the results if there are none pending.
-                if (awaitingDecoration.isEmpty()) {
-                    resultCache.clear();
+                synchronized (DecorationScheduler.this) {
+                    if (awaitingDecoration.isEmpty() && decorating == 0) {
+                        clearResultCache();
+                    }
                 }
             }
             
@@ -774,6 +774,7 @@ public class DecoratorManager implements ILabelProviderListener,
 	public void updateForEnablementChange() {
 		// Clear any results that may be around as all labels have changed
 		scheduler.clearResults();
+		scheduler.clearPersistentResults(null);
 		fireListenersInUIThread(new LabelProviderChangedEvent(this));
 		writeDecoratorsPreference();
 	}
@@ -801,6 +802,7 @@ public class DecoratorManager implements ILabelProviderListener,
 	public void labelProviderChanged(LabelProviderChangedEvent event) {
 		Object[] elements = event.getElements();
 		scheduler.clearResults();
+		scheduler.clearPersistentResults(elements);
 		// If the elements are not specified send out a general update
 		if (elements == null) {
 			fireListeners(event);
@@ -1106,6 +1108,7 @@ public class DecoratorManager implements ILabelProviderListener,
 		IBaseLabelProvider provider = getBaseLabelProvider(decoratorId);
 		if (provider != null) {
 			scheduler.clearResults();
+			scheduler.clearPersistentResults(null);
 			fireListeners(new LabelProviderChangedEvent(provider));
 		}
 
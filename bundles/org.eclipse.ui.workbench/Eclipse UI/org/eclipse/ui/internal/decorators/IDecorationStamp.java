@@ -0,0 +1,35 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.decorators;
+
+/**
+ * The adapter through which an element identifies itself across sessions, so
+ * that its decorations may be kept by the {@link PersistentDecorationCache}.
+ * The stamp must change whenever the element changes in a way which may change
+ * its decorations.
+ */
+public interface IDecorationStamp {
+
+	/**
+	 * Return the key identifying the element across sessions.
+	 *
+	 * @return String
+	 */
+	public String getKey();
+
+	/**
+	 * Return the modification stamp of the element, or a negative value if
+	 * the decorations of the element should not be kept.
+	 *
+	 * @return long
+	 */
+	public long getStamp();
+}
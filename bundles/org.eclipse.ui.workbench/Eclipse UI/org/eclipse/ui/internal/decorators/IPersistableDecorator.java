@@ -0,0 +1,47 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.decorators;
+
+import org.eclipse.jface.resource.ImageDescriptor;
+
+/**
+ * Implemented by the lightweight decorators defining a class whose
+ * decorations may be kept by the {@link PersistentDecorationCache}. By
+ * implementing it a decorator states that it decorates an element only from
+ * the state covered by the {@link IDecorationStamp} of the element, so that
+ * the element is decorated the same while its stamp is unchanged.
+ * <p>
+ * Only the overlays the decorator has a key for are kept. Adding any other
+ * decoration prevents the decoration of the element from being kept.
+ * </p>
+ */
+public interface IPersistableDecorator {
+
+	/**
+	 * Return the key the overlay is kept with, or <code>null</code> if the
+	 * decorations with this overlay should not be kept.
+	 *
+	 * @param overlay
+	 *            an overlay added by the decorator
+	 * @return String or <code>null</code>
+	 */
+	public String getOverlayKey(ImageDescriptor overlay);
+
+	/**
+	 * Return the overlay kept with the key, or <code>null</code> if the
+	 * decorator has no overlay with this key any more.
+	 *
+	 * @param key
+	 *            a key returned by {@link #getOverlayKey(ImageDescriptor)}
+	 * @return ImageDescriptor or <code>null</code>
+	 */
+	public ImageDescriptor getOverlay(String key);
+}
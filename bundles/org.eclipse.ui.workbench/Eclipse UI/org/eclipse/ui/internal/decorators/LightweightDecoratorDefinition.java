@@ -14,6 +14,7 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.core.runtime.ISafeRunnable;
 import org.eclipse.core.runtime.Platform;
+import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.jface.viewers.IBaseLabelProvider;
 import org.eclipse.jface.viewers.IDecoration;
 import org.eclipse.jface.viewers.ILightweightLabelDecorator;
@@ -159,10 +160,67 @@ class LightweightDecoratorDefinition extends DecoratorDefinition implements
 	 * 
 	 * @return boolean <code>true</code> if this is declarative
 	 */
-	private boolean isDeclarative() {
+	boolean isDeclarative() {
 		return definingElement.getAttribute(DecoratorDefinition.ATT_CLASS) == null;
 	}
 
+	/**
+	 * Return the overlay this decorator keeps with the key, which is the
+	 * overlay of a declarative decorator when the key is <code>null</code>.
+	 * 
+	 * @param key
+	 *            the key of the overlay of a persistable decorator, or
+	 *            <code>null</code>
+	 * @return ImageDescriptor or <code>null</code> if this is not an enabled
+	 *         decorator with this overlay
+	 * @see IPersistableDecorator
+	 */
+	ImageDescriptor getOverlayDescriptor(String key) {
+		if (!isEnabled()) {
+			return null;
+		}
+		if (key != null) {
+			IPersistableDecorator persistableDecorator = getPersistableDecorator();
+			return persistableDecorator == null ? null : persistableDecorator
+					.getOverlay(key);
+		}
+		if (!isDeclarative()) {
+			return null;
+		}
+		try {
+			ILightweightLabelDecorator currentDecorator = internalGetDecorator();
+			if (currentDecorator instanceof DeclarativeDecorator) {
+				return ((DeclarativeDecorator) currentDecorator)
+						.getDescriptor();
+			}
+		} catch (CoreException exception) {
+			handleCoreException(exception);
+		}
+		return null;
+	}
+
+	/**
+	 * Return the decorator of this definition if it is a class whose
+	 * decorations may be kept between sessions, creating it if needed.
+	 * 
+	 * @return IPersistableDecorator or <code>null</code> if this is not an
+	 *         enabled decorator defining such a class
+	 */
+	IPersistableDecorator getPersistableDecorator() {
+		if (!isEnabled() || isDeclarative()) {
+			return null;
+		}
+		try {
+			ILightweightLabelDecorator currentDecorator = internalGetDecorator();
+			if (currentDecorator instanceof IPersistableDecorator) {
+				return (IPersistableDecorator) currentDecorator;
+			}
+		} catch (CoreException exception) {
+			handleCoreException(exception);
+		}
+		return null;
+	}
+
 	/**
 	 * Return the icon location.
 	 * 
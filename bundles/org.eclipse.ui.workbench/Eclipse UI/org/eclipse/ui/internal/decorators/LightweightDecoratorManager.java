@@ -12,7 +12,10 @@ package org.eclipse.ui.internal.decorators;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.core.runtime.IExtension;
 import org.eclipse.core.runtime.ISafeRunnable;
@@ -23,6 +26,7 @@ import org.eclipse.osgi.util.NLS;
 import org.eclipse.ui.internal.ObjectContributorManager;
 import org.eclipse.ui.internal.WorkbenchMessages;
 import org.eclipse.ui.internal.WorkbenchPlugin;
+import org.eclipse.ui.internal.misc.Policy;
 import org.eclipse.ui.internal.misc.StatusUtil;
 import org.eclipse.ui.internal.util.Util;
 
@@ -94,7 +98,8 @@ public class LightweightDecoratorManager extends ObjectContributorManager {
 		}
 	}
 
-	private LightweightRunnable runnable = new LightweightRunnable();
+	// The time spent in each decorator and the number of calls, for tracing
+	private Map decoratorCosts = new HashMap();
 
 	// The lightweight definitions read from the registry
 	private LightweightDecoratorDefinition[] lightweightDefinitions;
@@ -264,7 +269,9 @@ public class LightweightDecoratorManager extends ObjectContributorManager {
 	 * Reset any cached values.
 	 */
 	void reset() {
-		runnable.clearReferences();
+		synchronized (decoratorCosts) {
+			decoratorCosts.clear();
+		}
 	}
 
 	/**
@@ -361,8 +368,55 @@ public class LightweightDecoratorManager extends ObjectContributorManager {
 	private void decorate(Object element, DecorationBuilder decoration,
 			LightweightDecoratorDefinition decorator) {
 
+		// The decorations may be computed by several jobs, but a decorator is
+		// only run by one of them at a time
+		LightweightRunnable runnable = new LightweightRunnable();
 		runnable.setValues(element, decoration, decorator);
-		SafeRunner.run(runnable);
+		synchronized (decorator) {
+			if (Policy.DEBUG_DECORATIONS) {
+				long start = System.nanoTime();
+				SafeRunner.run(runnable);
+				addCost(decorator, System.nanoTime() - start);
+			} else {
+				SafeRunner.run(runnable);
+			}
+		}
+	}
+
+	private void addCost(LightweightDecoratorDefinition decorator, long time) {
+		synchronized (decoratorCosts) {
+			long[] cost = (long[]) decoratorCosts.get(decorator);
+			if (cost == null) {
+				cost = new long[2];
+				decoratorCosts.put(decorator, cost);
+			}
+			cost[0] += time;
+			cost[1]++;
+		}
+	}
+
+	/**
+	 * Appends the time spent in each decorator since the last call to the
+	 * buffer, when tracing the decorations.
+	 * 
+	 * @param buffer
+	 */
+	void appendCosts(StringBuffer buffer) {
+		synchronized (decoratorCosts) {
+			for (Iterator i = decoratorCosts.entrySet().iterator(); i.hasNext();) {
+				Map.Entry entry = (Map.Entry) i.next();
+				long[] cost = (long[]) entry.getValue();
+				buffer.append("\n\t"); //$NON-NLS-1$
+				buffer.append(((LightweightDecoratorDefinition) entry.getKey())
+						.getId());
+				buffer.append(": "); //$NON-NLS-1$
+				buffer.append(cost[0] / 1000000);
+				buffer.append(" ms in "); //$NON-NLS-1$
+				buffer.append(cost[1]);
+				buffer.append(" calls"); //$NON-NLS-1$
+			}
+			decoratorCosts.clear();
+		}
 	}
 
 	
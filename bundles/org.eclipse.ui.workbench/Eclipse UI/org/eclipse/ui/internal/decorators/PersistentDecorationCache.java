@@ -0,0 +1,439 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.decorators;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.ui.internal.WorkbenchPlugin;
+import org.eclipse.ui.internal.util.Util;
+import org.osgi.framework.Bundle;
+
+/**
+ * The PersistentDecorationCache keeps the lightweight decorations of the
+ * elements adapting to {@link IDecorationStamp} between sessions, so that
+ * they are shown at startup without running the decorators again. The
+ * decorations of an element are only served while its stamp is unchanged.
+ * <p>
+ * Only the decorations of the elements decorated by declarative decorators
+ * and {@link IPersistableDecorator}s alone are kept, as the overlays of these
+ * are described by the decorator definitions or by the keys the decorators
+ * give them. The other decorators defining a class compute their decorations
+ * from a state which the stamp does not cover.
+ * </p>
+ * <p>
+ * The decorations of the previous session are read by {@link #load()} in the
+ * decoration jobs, the elements are decorated as usual until then.
+ * </p>
+ */
+class PersistentDecorationCache {
+
+	/**
+	 * The system property enabling the cache.
+	 */
+	static final String ENABLED_PROPERTY = "org.eclipse.ui.decorators.persistentCache"; //$NON-NLS-1$
+
+	private static final String FILE_NAME = "decorations.cache"; //$NON-NLS-1$
+
+	private static final int VERSION = 2;
+
+	// The number of elements kept, the least recently used are dropped
+	static final int MAX_ENTRIES = 50000;
+
+	private static class Entry {
+		long stamp;
+
+		String[] overlayIds;
+
+		String[] overlayKeys;
+
+		Entry(long stamp, String[] overlayIds, String[] overlayKeys) {
+			this.stamp = stamp;
+			this.overlayIds = overlayIds;
+			this.overlayKeys = overlayKeys;
+		}
+	}
+
+	private DecoratorManager decoratorManager;
+
+	private File file;
+
+	// The entries by key, in access order
+	private Map entries = new LinkedHashMap(16, 0.75f, true);
+
+	// The keys removed while the file is read, not to be read back
+	private Set removedKeys = new HashSet();
+
+	private boolean loaded = false;
+
+	private boolean loading = false;
+
+	private boolean dirty = false;
+
+	/**
+	 * Create a new instance of the receiver for the decorators of the
+	 * supplied manager.
+	 *
+	 * @param manager
+	 * @param file
+	 *            the file the decorations are kept in, or <code>null</code>
+	 *            if they are not kept between sessions
+	 */
+	PersistentDecorationCache(DecoratorManager manager, File file) {
+		decoratorManager = manager;
+		this.file = file;
+	}
+
+	/**
+	 * Return the file the decorations are kept in within the workbench state
+	 * location, or <code>null</code> if there is no state location.
+	 *
+	 * @return File or <code>null</code>
+	 */
+	static File getDefaultFile() {
+		IPath path = WorkbenchPlugin.getDefault().getDataLocation();
+		if (path == null) {
+			return null;
+		}
+		return path.append(FILE_NAME).toFile();
+	}
+
+	/**
+	 * Return the stamp of the element, or <code>null</code> if its
+	 * decorations are not kept.
+	 *
+	 * @param element
+	 * @return IDecorationStamp or <code>null</code>
+	 */
+	static IDecorationStamp getStamp(Object element) {
+		IDecorationStamp stamp = (IDecorationStamp) Util.getAdapter(element,
+				IDecorationStamp.class);
+		if (stamp == null || stamp.getKey() == null || stamp.getStamp() < 0) {
+			return null;
+		}
+		return stamp;
+	}
+
+	/**
+	 * Return the result kept for the element, or <code>null</code> if there
+	 * is none for its current stamp. This does not wait for the decorations
+	 * of the previous session to be read.
+	 *
+	 * @param element
+	 * @return DecorationResult or <code>null</code>
+	 */
+	synchronized DecorationResult getResult(Object element) {
+		if (entries.isEmpty()) {
+			return null;
+		}
+		IDecorationStamp stamp = getStamp(element);
+		if (stamp == null) {
+			return null;
+		}
+		Entry entry = (Entry) entries.get(stamp.getKey());
+		if (entry == null || entry.stamp != stamp.getStamp()) {
+			return null;
+		}
+
+		ImageDescriptor[] descriptors = new ImageDescriptor[entry.overlayIds.length];
+		for (int i = 0; i < descriptors.length; i++) {
+			String id = entry.overlayIds[i];
+			if (id == null) {
+				continue;
+			}
+			LightweightDecoratorDefinition definition = decoratorManager
+					.getLightweightManager().getDecoratorDefinition(id);
+			if (definition != null) {
+				descriptors[i] = definition
+						.getOverlayDescriptor(entry.overlayKeys[i]);
+			}
+			if (descriptors[i] == null) {
+				// The decorator is gone, decorate the element again
+				entries.remove(stamp.getKey());
+				dirty = true;
+				return null;
+			}
+		}
+		return new DecorationResult(Collections.EMPTY_LIST,
+				Collections.EMPTY_LIST, descriptors, null, null, null);
+	}
+
+	/**
+	 * Keep the decoration just computed for the element, or forget the
+	 * element if the decoration cannot be kept.
+	 *
+	 * @param element
+	 * @param overlayIds
+	 *            the ids of the decorators which added the overlays by
+	 *            quadrant, or <code>null</code> if the decoration cannot be
+	 *            kept
+	 * @param overlayKeys
+	 *            the keys of the overlays of the persistable decorators by
+	 *            quadrant
+	 */
+	synchronized void putResult(Object element, String[] overlayIds,
+			String[] overlayKeys) {
+		IDecorationStamp stamp = getStamp(element);
+		if (stamp == null) {
+			return;
+		}
+		if (overlayIds != null) {
+			entries.put(stamp.getKey(), new Entry(stamp.getStamp(),
+					overlayIds, overlayKeys));
+			dirty = true;
+		} else {
+			forget(stamp.getKey());
+		}
+	}
+
+	/**
+	 * Forget the decorations of the elements.
+	 *
+	 * @param elements
+	 */
+	synchronized void removeResults(Object[] elements) {
+		for (int i = 0; i < elements.length; i++) {
+			IDecorationStamp stamp = (IDecorationStamp) Util.getAdapter(
+					elements[i], IDecorationStamp.class);
+			if (stamp != null && stamp.getKey() != null) {
+				forget(stamp.getKey());
+			}
+		}
+	}
+
+	/**
+	 * Forget the decorations of the element with the key, including the ones
+	 * of the previous session not read yet.
+	 *
+	 * @param key
+	 */
+	private void forget(String key) {
+		if (entries.remove(key) != null) {
+			dirty = true;
+		}
+		if (!loaded) {
+			removedKeys.add(key);
+		}
+	}
+
+	/**
+	 * Forget all of the decorations, as the decorators have changed.
+	 */
+	synchronized void clear() {
+		// Do not read the file any more as it is obsolete
+		loaded = true;
+		removedKeys.clear();
+		entries.clear();
+		dirty = true;
+	}
+
+	/**
+	 * Write the decorations to the file. Nothing is written until the
+	 * decorations of the previous session have been read, so that these are
+	 * not lost.
+	 */
+	synchronized void save() {
+		if (!dirty || !loaded || file == null) {
+			return;
+		}
+		DataOutputStream output = null;
+		try {
+			output = new DataOutputStream(new BufferedOutputStream(
+					new FileOutputStream(file)));
+			output.writeInt(VERSION);
+			String[] signature = getSignature();
+			output.writeInt(signature.length);
+			for (int i = 0; i < signature.length; i++) {
+				output.writeUTF(signature[i]);
+			}
+
+			int skipped = Math.max(0, entries.size() - MAX_ENTRIES);
+			output.writeInt(entries.size() - skipped);
+			Iterator iterator = entries.entrySet().iterator();
+			while (iterator.hasNext()) {
+				Map.Entry next = (Map.Entry) iterator.next();
+				if (skipped > 0) {
+					skipped--;
+					continue;
+				}
+				Entry entry = (Entry) next.getValue();
+				output.writeUTF((String) next.getKey());
+				output.writeLong(entry.stamp);
+				int mask = 0;
+				for (int i = 0; i < entry.overlayIds.length; i++) {
+					if (entry.overlayIds[i] != null) {
+						mask |= 1 << i;
+					}
+				}
+				output.writeByte(mask);
+				for (int i = 0; i < entry.overlayIds.length; i++) {
+					if (entry.overlayIds[i] != null) {
+						output.writeUTF(entry.overlayIds[i]);
+						output.writeBoolean(entry.overlayKeys[i] != null);
+						if (entry.overlayKeys[i] != null) {
+							output.writeUTF(entry.overlayKeys[i]);
+						}
+					}
+				}
+			}
+			dirty = false;
+		} catch (IOException e) {
+			WorkbenchPlugin.log("Unable to save the decorations", e); //$NON-NLS-1$
+		} finally {
+			if (output != null) {
+				try {
+					output.close();
+				} catch (IOException e) {
+					// Nothing to do
+				}
+			}
+		}
+	}
+
+	/**
+	 * Read the decorations of the previous session, unless the decorators
+	 * have changed since. This is called from the decoration jobs, as it
+	 * reads the file, and does nothing once the file has been read.
+	 */
+	void load() {
+		synchronized (this) {
+			if (loaded || loading) {
+				return;
+			}
+			loading = true;
+		}
+		Map read = new LinkedHashMap();
+		boolean obsolete = true;
+		try {
+			obsolete = read(read);
+		} finally {
+			synchronized (this) {
+				loading = false;
+				// The decorators may have changed in the meantime
+				if (!loaded) {
+					loaded = true;
+					read.keySet().removeAll(removedKeys);
+					removedKeys.clear();
+					// The decorations computed in the meantime are newer
+					Map merged = new LinkedHashMap(16, 0.75f, true);
+					merged.putAll(read);
+					merged.putAll(entries);
+					entries = merged;
+					dirty |= obsolete;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Read the entries of the file into the map.
+	 *
+	 * @param read
+	 *            the map to fill
+	 * @return <code>true</code> if the file is obsolete and has to be written
+	 *         again
+	 */
+	private boolean read(Map read) {
+		if (file == null || !file.exists()) {
+			return false;
+		}
+		DataInputStream input = null;
+		try {
+			input = new DataInputStream(new BufferedInputStream(
+					new FileInputStream(file)));
+			if (input.readInt() != VERSION) {
+				return true;
+			}
+			String[] signature = new String[input.readInt()];
+			for (int i = 0; i < signature.length; i++) {
+				signature[i] = input.readUTF();
+			}
+			if (!Arrays.equals(signature, getSignature())) {
+				return true;
+			}
+
+			int count = input.readInt();
+			for (int i = 0; i < count; i++) {
+				String key = input.readUTF();
+				long stamp = input.readLong();
+				int mask = input.readByte();
+				String[] overlayIds = new String[DecorationBuilder.DECORATOR_ARRAY_SIZE];
+				String[] overlayKeys = new String[overlayIds.length];
+				for (int j = 0; j < overlayIds.length; j++) {
+					if ((mask & 1 << j) != 0) {
+						overlayIds[j] = input.readUTF();
+						if (input.readBoolean()) {
+							overlayKeys[j] = input.readUTF();
+						}
+					}
+				}
+				read.put(key, new Entry(stamp, overlayIds, overlayKeys));
+			}
+			return false;
+		} catch (IOException e) {
+			// Start again from an empty cache
+			read.clear();
+			WorkbenchPlugin.log("Unable to read the decorations", e); //$NON-NLS-1$
+			return true;
+		} finally {
+			if (input != null) {
+				try {
+					input.close();
+				} catch (IOException e) {
+					// Nothing to do
+				}
+			}
+		}
+	}
+
+	/**
+	 * Return the enabled lightweight decorators and the versions of their
+	 * bundles, which the decorations were computed with.
+	 *
+	 * @return String[]
+	 */
+	private String[] getSignature() {
+		LightweightDecoratorDefinition[] definitions = decoratorManager
+				.getLightweightManager().getDefinitions();
+		List signature = new ArrayList();
+		for (int i = 0; i < definitions.length; i++) {
+			if (!definitions[i].isEnabled()) {
+				continue;
+			}
+			String id = definitions[i].getId();
+			Bundle bundle = Platform.getBundle(definitions[i]
+					.getConfigurationElement().getContributor().getName());
+			if (bundle != null) {
+				id += '@' + bundle.getVersion().toString();
+			}
+			signature.add(id);
+		}
+		return (String[]) signature.toArray(new String[signature.size()]);
+	}
+}
@@ -116,6 +116,18 @@ public class Policy {
      */
     public static boolean DEBUG_OPERATIONS_VERBOSE = DEFAULT;
 
+    /**
+     * Whether to print the queue depth, latency and per-decorator cost of the
+     * lightweight decorations.
+     */
+    public static boolean DEBUG_DECORATIONS = DEFAULT;
+
+    /**
+     * Whether to print the time taken to filter the items of the filtered
+     * items selection dialogs after each change of the pattern.
+     */
+    public static boolean DEBUG_FILTERED_ITEMS = DEFAULT;
+
 
     /**
      * Whether or not to show system jobs at all times.
@@ -178,6 +190,8 @@ public class Policy {
             DEBUG_HANDLERS_VERBOSE = getDebugOption("/trace/handlers.verbose"); //$NON-NLS-1$
             DEBUG_OPERATIONS = getDebugOption("/trace/operations"); //$NON-NLS-1$
             DEBUG_OPERATIONS_VERBOSE = getDebugOption("/trace/operations.verbose"); //$NON-NLS-1$
+            DEBUG_DECORATIONS = getDebugOption("/trace/decorations"); //$NON-NLS-1$
+            DEBUG_FILTERED_ITEMS = getDebugOption("/trace/filteredItems"); //$NON-NLS-1$
             DEBUG_SHOW_ALL_JOBS = getDebugOption("/debug/showAllJobs"); //$NON-NLS-1$
             DEBUG_STALE_JOBS = getDebugOption("/debug/job.stale"); //$NON-NLS-1$
             DEBUG_HANDLERS_VERBOSE_COMMAND_ID = Platform
@@ -27,6 +27,7 @@ import org.eclipse.e4.core.contexts.ContextInjectionFactory;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.ui.bindings.internal.BindingTable;
 import org.eclipse.e4.ui.bindings.internal.BindingTableManager;
+import org.eclipse.e4.ui.bindings.internal.BindingTrie;
 import org.eclipse.e4.ui.bindings.internal.ContextSet;
 import org.eclipse.jface.bindings.Binding;
 import org.eclipse.jface.bindings.keys.KeyBinding;
@@ -362,6 +363,51 @@ public class BindingTableTests extends TestCase {
 		assertEquals(about, it.next());
 	}
 
+	public void testManagerBindingTrie() throws Exception {
+		BindingTableManager manager = createManager();
+		ContextSet javaSet = createJavaSet(manager);
+		BindingTrie trie = manager.getBindingTrie(javaSet);
+		assertSame(trie, manager.getBindingTrie(javaSet));
+
+		String[] sequences = { "M1+C", "F2", "F5", "CTRL+I", "ALT+/", "SHIFT+INSERT", "CTRL+5",
+				"CTRL+5 A", "CTRL+5 V", "CTRL+5 X", "CTRL+8", "F2 F2" };
+		for (int i = 0; i < sequences.length; i++) {
+			KeySequence seq = KeySequence.getInstance(sequences[i]);
+			assertSame(sequences[i], manager.getPerfectMatch(javaSet, seq),
+					trie.getPerfectMatch(seq));
+			assertEquals(sequences[i], manager.isPartialMatch(javaSet, seq),
+					trie.isPartialMatch(seq));
+		}
+		assertFalse(trie.isPartialMatch(KeySequence.getInstance()));
+		assertNull(trie.getPerfectMatch(KeySequence.getInstance()));
+	}
+
+	public void testManagerBindingTrieRebuilt() throws Exception {
+		BindingTableManager manager = createManager();
+		ContextSet javaSet = createJavaSet(manager);
+		BindingTrie trie = manager.getBindingTrie(javaSet);
+		Binding about = getTestBinding(ABOUT_ID);
+		KeySequence ctrl5 = KeySequence.getInstance("CTRL+5");
+
+		BindingTable table = manager.getTable(ID_DIALOG_AND_WINDOW);
+		table.removeBinding(about);
+		assertFalse(manager.isCurrent(trie));
+		trie = manager.getBindingTrie(javaSet);
+		assertTrue(manager.isCurrent(trie));
+		assertNull(trie.getPerfectMatch(about.getTriggerSequence()));
+		// CTRL+5 V is still bound in the text scope
+		assertTrue(trie.isPartialMatch(ctrl5));
+
+		table.addBinding(about);
+		trie = manager.getBindingTrie(javaSet);
+		assertEquals(about, trie.getPerfectMatch(about.getTriggerSequence()));
+
+		manager.removeTable(manager.getTable(ID_TEXT));
+		trie = manager.getBindingTrie(javaSet);
+		assertNull(trie.getPerfectMatch(KeySequence.getInstance("CTRL+5 V")));
+		assertTrue(trie.isPartialMatch(ctrl5));
+	}
+
 	private BindingTable loadTable(String contextId) {
 		Context context = contextManager.getContext(contextId);
 		BindingTable table = new BindingTable(context);
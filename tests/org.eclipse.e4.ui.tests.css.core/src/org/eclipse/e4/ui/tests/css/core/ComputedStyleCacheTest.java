@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.tests.css.core;
+
+import java.io.StringReader;
+
+import junit.framework.TestCase;
+
+import org.eclipse.e4.ui.css.core.engine.CSSEngine;
+import org.eclipse.e4.ui.css.core.impl.engine.CSSEngineImpl;
+import org.eclipse.e4.ui.css.core.impl.engine.ComputedStyleCache;
+import org.eclipse.e4.ui.tests.css.core.util.TestElement;
+import org.w3c.dom.Node;
+import org.w3c.dom.css.CSSStyleDeclaration;
+
+public class ComputedStyleCacheTest extends TestCase {
+	private static class TestCSSEngine extends CSSEngineImpl {
+		public void reapply() {
+		}
+	}
+
+	private static class ChildElement extends TestElement {
+		private final Node parent;
+
+		public ChildElement(String type, Node parent, CSSEngine engine) {
+			super(type, engine);
+			this.parent = parent;
+		}
+
+		public Node getParentNode() {
+			return parent;
+		}
+	}
+
+	private TestCSSEngine engine;
+	private ComputedStyleCache cache;
+
+	protected void setUp() throws Exception {
+		engine = new TestCSSEngine();
+		cache = engine.getComputedStyleCache();
+	}
+
+	public void testSameSignatureHitsCache() throws Exception {
+		parse("Button { color: blue; }\n" + ".special { color: red; }\n");
+
+		TestElement button = new TestElement("Button", engine);
+		assertEquals("blue", getColor(button));
+		assertEquals("blue", getColor(new TestElement("Button", engine)));
+		assertEquals(1, cache.getMissCount());
+		assertEquals(1, cache.getHitCount());
+
+		TestElement special = new TestElement("Button", engine);
+		special.setClass("special");
+		assertEquals("red", getColor(special));
+		assertEquals(2, cache.getMissCount());
+
+		assertNull(cache.getComputedStyle(new TestElement("Label", engine),
+				null));
+		assertNull(cache.getComputedStyle(new TestElement("Label", engine),
+				null));
+		assertEquals(3, cache.getMissCount());
+		assertEquals(2, cache.getHitCount());
+	}
+
+	public void testAttributesArePartOfSignature() throws Exception {
+		parse("Button { color: blue; }\n"
+				+ "Button[style~='SWT.CHECK'] { color: red; }\n");
+
+		TestElement button = new TestElement("Button", engine);
+		assertEquals("blue", getColor(button));
+		TestElement check = new TestElement("Button", engine);
+		check.setAttribute("style", "SWT.CHECK");
+		assertEquals("red", getColor(check));
+		assertEquals(2, cache.getMissCount());
+		assertEquals(0, cache.getHitCount());
+	}
+
+	public void testPseudoInstancesArePartOfSignature() throws Exception {
+		parse("Button { color: blue; }\n" + "Button:selected { color: red; }\n");
+
+		TestElement button = new TestElement("Button", engine);
+		assertEquals("blue", getColor(button));
+		TestElement selected = new TestElement("Button", engine);
+		selected.addStaticPseudoInstance("selected");
+		CSSStyleDeclaration style = cache.getComputedStyle(selected,
+				"selected");
+		assertEquals("red", style.getPropertyCSSValue("color").getCssText());
+		assertEquals(0, cache.getHitCount());
+	}
+
+	public void testAncestorsArePartOfSignature() throws Exception {
+		parse("Button { color: blue; }\n" + "Shell > Button { color: red; }\n");
+
+		TestElement shell = new TestElement("Shell", engine);
+		TestElement composite = new TestElement("Composite", engine);
+		assertEquals("red", getColor(new ChildElement("Button", shell, engine)));
+		assertEquals("blue", getColor(new ChildElement("Button", composite,
+				engine)));
+		assertEquals("red", getColor(new ChildElement("Button", shell, engine)));
+		assertEquals(2, cache.getMissCount());
+		assertEquals(1, cache.getHitCount());
+	}
+
+	public void testStyleSheetChangeFlushesCache() throws Exception {
+		parse("Button { color: blue; }\n");
+		TestElement button = new TestElement("Button", engine);
+		assertEquals("blue", getColor(button));
+		assertEquals(1, cache.size());
+
+		engine.reset();
+		assertEquals(0, cache.size());
+		parse("Button { color: red; }\n");
+		assertEquals("red", getColor(button));
+		assertEquals(2, cache.getMissCount());
+		assertEquals(0, cache.getHitCount());
+	}
+
+	public void testApplyStylesUsesCache() throws Exception {
+		parse("Button { color: blue; }\n");
+		engine.applyStyles(new TestElement("Button", engine), false);
+		engine.applyStyles(new TestElement("Button", engine), false);
+		assertEquals(1, cache.getMissCount());
+		assertEquals(1, cache.getHitCount());
+
+		cache.resetStatistics();
+		assertEquals(0, cache.getMissCount());
+		assertEquals(0, cache.getHitCount());
+	}
+
+	private void parse(String css) throws Exception {
+		engine.parseStyleSheet(new StringReader(css));
+	}
+
+	private String getColor(TestElement element) {
+		return cache.getComputedStyle(element, null)
+				.getPropertyCSSValue("color").getCssText();
+	}
+}
@@ -57,6 +57,64 @@ public class ViewCSSTest extends TestCase {
 		assertEquals( 2, buttonStyle.getLength() );
 	}
 
+	public void testGetComputedStyleWithClassesAndIds() throws Exception {
+		String css = "* { font-weight: bold; }\n"
+			+ "Button { color: blue; }\n"
+			+ ".special { color: green; }\n"
+			+ "Label.special, Button.other { font-style: italic; }\n"
+			+ "#myid { color: red; }\n";
+		ViewCSS viewCSS = createViewCss(css);
+
+		TestElement button = new TestElement("Button", engine);
+		CSSStyleDeclaration style = viewCSS.getComputedStyle(button, null);
+		assertEquals("blue", style.getPropertyCSSValue("color").getCssText());
+		assertEquals("bold", style.getPropertyCSSValue("font-weight")
+				.getCssText());
+		assertNull(style.getPropertyCSSValue("font-style"));
+
+		button.setClass("other  special");
+		style = viewCSS.getComputedStyle(button, null);
+		assertEquals("green", style.getPropertyCSSValue("color").getCssText());
+		assertEquals("italic", style.getPropertyCSSValue("font-style")
+				.getCssText());
+
+		button.setId("myid");
+		style = viewCSS.getComputedStyle(button, null);
+		assertEquals("red", style.getPropertyCSSValue("color").getCssText());
+	}
+
+	public void testGetComputedStyleWithPseudoInstance() throws Exception {
+		String css = "Button { color: blue; }\n"
+			+ "Button:selected { color: red; }\n"
+			+ ":selected { font-weight: bold; }\n";
+		ViewCSS viewCSS = createViewCss(css);
+
+		TestElement button = new TestElement("Button", engine);
+		CSSStyleDeclaration style = viewCSS.getComputedStyle(button, null);
+		assertEquals("blue", style.getPropertyCSSValue("color").getCssText());
+		assertNull(style.getPropertyCSSValue("font-weight"));
+
+		button.addStaticPseudoInstance("selected");
+		style = viewCSS.getComputedStyle(button, "selected");
+		assertEquals("red", style.getPropertyCSSValue("color").getCssText());
+		assertEquals("bold", style.getPropertyCSSValue("font-weight")
+				.getCssText());
+	}
+
+	public void testGetComputedStyleAfterStyleSheetChange() throws Exception {
+		DocumentCSSImpl docCss = new DocumentCSSImpl();
+		docCss.addStyleSheet(ParserTestUtil.parseCss("Label { color: blue; }"));
+		ViewCSS viewCSS = new ViewCSSImpl(docCss);
+
+		TestElement button = new TestElement("Button", engine);
+		assertNull(viewCSS.getComputedStyle(button, null));
+
+		docCss.removeAllStyleSheets();
+		docCss.addStyleSheet(ParserTestUtil.parseCss("Button { color: red; }"));
+		CSSStyleDeclaration style = viewCSS.getComputedStyle(button, null);
+		assertEquals("red", style.getPropertyCSSValue("color").getCssText());
+	}
+
 	private static ViewCSS createViewCss(String css) throws IOException {
 		CSSStyleSheet styleSheet = ParserTestUtil.parseCss(css);
 		DocumentCSSImpl docCss = new DocumentCSSImpl();
@@ -19,6 +19,7 @@ import org.eclipse.e4.ui.model.application.MApplication;
 import org.eclipse.e4.ui.model.application.impl.ApplicationFactoryImpl;
 import org.eclipse.e4.ui.model.application.ui.MDirtyable;
 import org.eclipse.e4.ui.model.application.ui.MUIElement;
+import org.eclipse.e4.ui.model.application.ui.advanced.MArea;
 import org.eclipse.e4.ui.model.application.ui.advanced.MPerspective;
 import org.eclipse.e4.ui.model.application.ui.advanced.MPerspectiveStack;
 import org.eclipse.e4.ui.model.application.ui.advanced.MPlaceholder;
@@ -277,4 +278,81 @@ public class EModelServiceFindTest extends TestCase {
 		assertEquals(1, elements.size());
 		assertEquals(part, elements.get(0));
 	}
+
+	public void testFindElementsFollowsModelChanges() {
+		MApplication application = createApplication();
+		MWindow window = application.getChildren().get(0);
+
+		// enough parts for the lookups below to be answered from the index
+		MPartStack fillerStack = BasicFactoryImpl.eINSTANCE.createPartStack();
+		window.getChildren().add(fillerStack);
+		for (int i = 0; i < 100; i++) {
+			fillerStack.getChildren().add(
+					BasicFactoryImpl.eINSTANCE.createPart());
+		}
+
+		MPerspectiveStack perspectiveStack = AdvancedFactoryImpl.eINSTANCE
+				.createPerspectiveStack();
+		window.getChildren().add(perspectiveStack);
+		MPerspective perspectiveA = AdvancedFactoryImpl.eINSTANCE
+				.createPerspective();
+		perspectiveStack.getChildren().add(perspectiveA);
+		MPerspective perspectiveB = AdvancedFactoryImpl.eINSTANCE
+				.createPerspective();
+		perspectiveStack.getChildren().add(perspectiveB);
+		perspectiveStack.setSelectedElement(perspectiveA);
+
+		MPart sharedPart = BasicFactoryImpl.eINSTANCE.createPart();
+		sharedPart.setElementId("sharedPart");
+		window.getSharedElements().add(sharedPart);
+		MPlaceholder placeholder = AdvancedFactoryImpl.eINSTANCE
+				.createPlaceholder();
+		placeholder.setElementId("sharedPart");
+		perspectiveB.getChildren().add(placeholder);
+
+		EModelService modelService = (EModelService) application.getContext()
+				.get(EModelService.class.getName());
+
+		// shared elements are only reached through their placeholders
+		List<MUIElement> elements = modelService.findElements(window,
+				"sharedPart", null, null);
+		assertEquals(1, elements.size());
+		assertEquals(placeholder, elements.get(0));
+		placeholder.setRef(sharedPart);
+		elements = modelService.findElements(window,
+				"sharedPart", null, null);
+		assertEquals(2, elements.size());
+		assertEquals(placeholder, elements.get(0));
+		assertEquals(sharedPart, elements.get(1));
+		assertEquals(placeholder, modelService.find("sharedPart", window));
+
+		// only the active perspective is searched for the presentation
+		assertEquals(0, modelService.findElements(window, "sharedPart", null,
+				null, EModelService.PRESENTATION).size());
+		perspectiveStack.setSelectedElement(perspectiveB);
+		assertEquals(2, modelService.findElements(window, "sharedPart", null,
+				null, EModelService.PRESENTATION).size());
+
+		sharedPart.setElementId("renamedPart");
+		sharedPart.getTags().add("indexedTag");
+		assertEquals(1, modelService.findElements(window, "sharedPart", null,
+				null).size());
+		assertEquals(sharedPart, modelService.find("renamedPart", window));
+		List<String> tags = new ArrayList<String>();
+		tags.add("indexedTag");
+		assertEquals(1, modelService.findElements(window, null, MPart.class,
+				tags).size());
+		sharedPart.getTags().remove("indexedTag");
+		assertEquals(0, modelService.findElements(window, null, MPart.class,
+				tags).size());
+
+		// left to the walk: no indexed type, and the shared areas alone
+		assertEquals(0, modelService.findElements(window, null, MArea.class,
+				null).size());
+		assertEquals(0, modelService.findElements(window, "renamedPart", null,
+				null, EModelService.IN_SHARED_AREA).size());
+
+		perspectiveB.getChildren().remove(placeholder);
+		assertNull(modelService.find("renamedPart", window));
+	}
 }
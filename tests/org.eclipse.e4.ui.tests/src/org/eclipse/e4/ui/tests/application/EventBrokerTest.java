@@ -11,9 +11,14 @@
 
 package org.eclipse.e4.ui.tests.application;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.services.events.IEventBroker;
+import org.eclipse.e4.ui.services.events.EventBrokerFactory;
+import org.eclipse.e4.ui.services.internal.events.EventBroker;
+import org.eclipse.e4.ui.services.internal.events.TopicEventBroker;
 import org.osgi.service.event.Event;
 import org.osgi.service.event.EventHandler;
 
@@ -104,4 +109,102 @@ public class EventBrokerTest extends UITest {
 		assertEquals("subscription was not removed", 2, seen.get());
 	}
 
+	public void testInProcessDispatchSelection() {
+		assertFalse(context.get(IEventBroker.class) instanceof TopicEventBroker);
+
+		IEclipseContext child = context.createChild();
+		child.set(EventBrokerFactory.IN_PROCESS_DISPATCH, Boolean.TRUE);
+		assertTrue(child.get(IEventBroker.class) instanceof TopicEventBroker);
+		child.dispose();
+	}
+
+	public void testInProcessDispatchWildcards() {
+		IEventBroker eb = createInProcessBroker(context);
+		final AtomicInteger exact = new AtomicInteger(0);
+		final AtomicInteger descendants = new AtomicInteger(0);
+		final AtomicInteger all = new AtomicInteger(0);
+		eb.subscribe(TEST_TOPIC, new CountingHandler(exact));
+		eb.subscribe("test/*", new CountingHandler(descendants));
+		eb.subscribe("*", new CountingHandler(all));
+
+		eb.send(TEST_TOPIC, new Object());
+		eb.send("test/EventBrokerTest/child", new Object());
+		eb.send("other/EventBrokerTest", new Object());
+		assertEquals(1, exact.get());
+		assertEquals(2, descendants.get());
+		assertEquals(3, all.get());
+	}
+
+	public void testInProcessDispatchFilter() {
+		IEventBroker eb = createInProcessBroker(context);
+		eb.subscribe(TEST_TOPIC, "(kind=match)", new CountingHandler(seen),
+				true);
+		assertFalse(eb.subscribe(TEST_TOPIC, "(kind=", new CountingHandler(
+				seen), true));
+
+		Map<String, Object> data = new HashMap<String, Object>();
+		data.put("kind", "match");
+		eb.send(TEST_TOPIC, data);
+		data.put("kind", "other");
+		eb.send(TEST_TOPIC, data);
+		assertEquals(1, seen.get());
+	}
+
+	public void testInProcessDispatchUnsubscribe() {
+		IEventBroker eb = createInProcessBroker(context);
+		EventHandler handler = new CountingHandler(seen);
+		eb.subscribe(TEST_TOPIC, handler);
+		eb.subscribe("*", handler);
+		eb.send(TEST_TOPIC, new Object());
+		assertEquals(2, seen.get());
+		assertTrue(((EventBroker) eb).hasSubscribers(TEST_TOPIC));
+
+		assertTrue(eb.unsubscribe(handler));
+		assertFalse(eb.unsubscribe(handler));
+		eb.send(TEST_TOPIC, new Object());
+		assertEquals("subscription was not removed", 2, seen.get());
+	}
+
+	/**
+	 * ensure events are exchanged both ways with the brokers dispatching
+	 * through the event admin
+	 */
+	public void testInProcessDispatchInterop() {
+		IEventBroker inProcess = createInProcessBroker(context);
+		IEventBroker eventAdmin = context.get(IEventBroker.class);
+		final AtomicInteger inProcessSeen = new AtomicInteger(0);
+		inProcess.subscribe(TEST_TOPIC, new CountingHandler(inProcessSeen));
+		eventAdmin.subscribe(TEST_TOPIC, new CountingHandler(seen));
+
+		inProcess.send(TEST_TOPIC, new Object());
+		assertEquals(1, inProcessSeen.get());
+		assertEquals(1, seen.get());
+
+		eventAdmin.send(TEST_TOPIC, new Object());
+		assertEquals(2, inProcessSeen.get());
+		assertEquals(2, seen.get());
+	}
+
+	private IEventBroker createInProcessBroker(IEclipseContext parent) {
+		IEclipseContext child = parent.createChild();
+		child.set(EventBrokerFactory.IN_PROCESS_DISPATCH, Boolean.TRUE);
+		return child.get(IEventBroker.class);
+	}
+
+	private static class CountingHandler implements EventHandler {
+		private final AtomicInteger count;
+
+		CountingHandler(AtomicInteger count) {
+			this.count = count;
+		}
+
+		public void handleEvent(Event event) {
+			// ignore the events of the application
+			if (event.getTopic().endsWith("EventBrokerTest")
+					|| event.getTopic().endsWith("EventBrokerTest/child")) {
+				count.incrementAndGet();
+			}
+		}
+	}
+
 }
@@ -16,6 +16,7 @@ import java.util.List;
 import org.eclipse.e4.core.contexts.EclipseContextFactory;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.services.events.IEventBroker;
+import org.eclipse.e4.ui.internal.workbench.ModelServiceImpl;
 import org.eclipse.e4.ui.internal.workbench.UIEventPublisher;
 import org.eclipse.e4.ui.model.application.MApplication;
 import org.eclipse.e4.ui.model.application.MApplicationElement;
@@ -38,6 +39,7 @@ import org.eclipse.e4.ui.workbench.UIEvents.Parameter;
 import org.eclipse.e4.ui.workbench.UIEvents.UIElement;
 import org.eclipse.e4.ui.workbench.UIEvents.UILabel;
 import org.eclipse.e4.ui.workbench.UIEvents.Window;
+import org.eclipse.e4.ui.workbench.modeling.EModelService;
 import org.eclipse.emf.common.notify.Notifier;
 import org.osgi.service.event.Event;
 import org.osgi.service.event.EventHandler;
@@ -355,6 +357,67 @@ public class UIEventsTest extends HeadlessApplicationElementTest {
 		assertFalse(seen[0]);
 	}
 
+	public void testModelTransaction() {
+		IEventBroker eventBroker = applicationContext.get(IEventBroker.class);
+		final List<Event> events = new ArrayList<Event>();
+		EventHandler handler = new EventHandler() {
+			public void handleEvent(Event event) {
+				events.add(event);
+			}
+		};
+		eventBroker.subscribe(ApplicationElement.TOPIC_ELEMENTID, handler);
+		eventBroker.subscribe(ApplicationElement.TOPIC_TAGS, handler);
+
+		MTestHarness allData = MTestFactory.eINSTANCE.createTestHarness();
+		allData.setElementId("original");
+		final UIEventPublisher ep = new UIEventPublisher(applicationContext);
+		((Notifier) allData).eAdapters().add(ep);
+		applicationContext.set(UIEventPublisher.class, ep);
+		EModelService modelService = new ModelServiceImpl(applicationContext);
+
+		try {
+			// Changes of the same attribute are coalesced
+			modelService.beginTransaction();
+			allData.setElementId("first");
+			allData.getTags().add("tag1");
+			modelService.beginTransaction();
+			allData.setElementId("second");
+			allData.getTags().add("tag2");
+			modelService.commitTransaction();
+			assertTrue(events.isEmpty());
+			modelService.commitTransaction();
+
+			assertEquals(3, events.size());
+			assertEquals("tag1", events.get(0).getProperty(EventTags.NEW_VALUE));
+			assertEquals("original",
+					events.get(1).getProperty(EventTags.OLD_VALUE));
+			assertEquals("second",
+					events.get(1).getProperty(EventTags.NEW_VALUE));
+			assertEquals("tag2", events.get(2).getProperty(EventTags.NEW_VALUE));
+
+			// Changes which cancel out are not reported
+			events.clear();
+			modelService.beginTransaction();
+			allData.setElementId("third");
+			allData.setElementId("second");
+			modelService.commitTransaction();
+			assertTrue(events.isEmpty());
+
+			// Outside of a transaction, events are sent immediately
+			allData.setElementId("fourth");
+			assertEquals(1, events.size());
+
+			try {
+				modelService.commitTransaction();
+				fail("commit without a transaction should fail");
+			} catch (IllegalStateException e) {
+				// expected
+			}
+		} finally {
+			eventBroker.unsubscribe(handler);
+		}
+	}
+
 	/**
 	 * @param allTesters
 	 * @param tester
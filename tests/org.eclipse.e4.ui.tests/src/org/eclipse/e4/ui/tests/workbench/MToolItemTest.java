@@ -11,20 +11,34 @@
 
 package org.eclipse.e4.ui.tests.workbench;
 
+import javax.inject.Named;
 import junit.framework.TestCase;
+import org.eclipse.e4.core.commands.CommandServiceAddon;
+import org.eclipse.e4.core.contexts.ContextInjectionFactory;
 import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.e4.core.di.annotations.CanExecute;
+import org.eclipse.e4.core.di.annotations.Execute;
+import org.eclipse.e4.core.di.annotations.Optional;
+import org.eclipse.e4.ui.bindings.BindingServiceAddon;
 import org.eclipse.e4.ui.internal.workbench.E4Workbench;
+import org.eclipse.e4.ui.internal.workbench.addons.CommandProcessingAddon;
+import org.eclipse.e4.ui.internal.workbench.addons.HandlerProcessingAddon;
 import org.eclipse.e4.ui.internal.workbench.swt.E4Application;
 import org.eclipse.e4.ui.internal.workbench.swt.PartRenderingEngine;
 import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.e4.ui.model.application.commands.MCommand;
+import org.eclipse.e4.ui.model.application.commands.MHandler;
+import org.eclipse.e4.ui.model.application.commands.impl.CommandsFactoryImpl;
 import org.eclipse.e4.ui.model.application.impl.ApplicationFactoryImpl;
 import org.eclipse.e4.ui.model.application.ui.basic.MTrimBar;
 import org.eclipse.e4.ui.model.application.ui.basic.MTrimmedWindow;
 import org.eclipse.e4.ui.model.application.ui.basic.impl.BasicFactoryImpl;
 import org.eclipse.e4.ui.model.application.ui.menu.ItemType;
+import org.eclipse.e4.ui.model.application.ui.menu.MHandledToolItem;
 import org.eclipse.e4.ui.model.application.ui.menu.MToolBar;
 import org.eclipse.e4.ui.model.application.ui.menu.MToolItem;
 import org.eclipse.e4.ui.model.application.ui.menu.impl.MenuFactoryImpl;
+import org.eclipse.e4.ui.services.ContextServiceAddon;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.widgets.Event;
 import org.eclipse.swt.widgets.ToolItem;
@@ -259,4 +273,108 @@ public class MToolItemTest extends TestCase {
 		toolItem2.setSelected(true);
 		assertTrue(toolItemWidget2.getSelection());
 	}
+
+	private MHandledToolItem createHandledToolItem(Object handlerObject) {
+		MTrimmedWindow window = BasicFactoryImpl.eINSTANCE
+				.createTrimmedWindow();
+		MTrimBar trimBar = BasicFactoryImpl.eINSTANCE.createTrimBar();
+		MToolBar toolBar = MenuFactoryImpl.eINSTANCE.createToolBar();
+		MHandledToolItem toolItem = MenuFactoryImpl.eINSTANCE
+				.createHandledToolItem();
+
+		MCommand command = CommandsFactoryImpl.eINSTANCE.createCommand();
+		command.setElementId("testMToolItem_HandledItem");
+		command.setCommandName("Test HandledItem");
+		toolItem.setCommand(command);
+
+		MHandler handler = CommandsFactoryImpl.eINSTANCE.createHandler();
+		handler.setCommand(command);
+		handler.setObject(handlerObject);
+		window.getHandlers().add(handler);
+
+		window.getTrimBars().add(trimBar);
+		trimBar.getChildren().add(toolBar);
+		toolBar.getChildren().add(toolItem);
+
+		MApplication application = ApplicationFactoryImpl.eINSTANCE
+				.createApplication();
+		application.getCommands().add(command);
+		application.getChildren().add(window);
+		application.setContext(appContext);
+		appContext.set(MApplication.class.getName(), application);
+
+		ContextInjectionFactory.make(CommandServiceAddon.class, appContext);
+		ContextInjectionFactory.make(ContextServiceAddon.class, appContext);
+		ContextInjectionFactory.make(BindingServiceAddon.class, appContext);
+		// The handler processing addon cannot run until the context
+		// contains the MApplication
+		ContextInjectionFactory.make(CommandProcessingAddon.class, appContext);
+		ContextInjectionFactory.make(HandlerProcessingAddon.class, appContext);
+
+		wb = new E4Workbench(window, appContext);
+		wb.createAndRunUI(window);
+		return toolItem;
+	}
+
+	private void assertToolItemEnabled(boolean enabled, MToolItem toolItem) {
+		assertEquals(enabled, toolItem.isEnabled());
+		Object widget = toolItem.getWidget();
+		assertTrue(widget instanceof ToolItem);
+		assertEquals(enabled, ((ToolItem) widget).getEnabled());
+	}
+
+	public void testMToolItem_HandledItemDisabledAndEnabled() {
+		MToolItem toolItem = createHandledToolItem(new Object() {
+			@CanExecute
+			public boolean canExecute(
+					@Optional @Named("toolItemEnabled") Boolean enabled) {
+				return enabled == null || enabled.booleanValue();
+			}
+
+			@Execute
+			public void execute() {
+			}
+		});
+		assertToolItemEnabled(true, toolItem);
+
+		appContext.set("toolItemEnabled", Boolean.FALSE);
+		assertToolItemEnabled(false, toolItem);
+
+		appContext.set("toolItemEnabled", Boolean.TRUE);
+		assertToolItemEnabled(true, toolItem);
+	}
+
+	public void testMToolItem_HandledItemDisabledAndEnabledByType() {
+		final ToolItemState state = new ToolItemState();
+		appContext.set(ToolItemState.class, state);
+		MToolItem toolItem = createHandledToolItem(new Object() {
+			@CanExecute
+			public boolean canExecute(ToolItemState current) {
+				return current.enabled;
+			}
+
+			@Execute
+			public void execute() {
+			}
+		});
+		assertToolItemEnabled(true, toolItem);
+
+		appContext.set(ToolItemState.class, new ToolItemState(false));
+		assertToolItemEnabled(false, toolItem);
+
+		appContext.set(ToolItemState.class, state);
+		assertToolItemEnabled(true, toolItem);
+	}
+
+	static class ToolItemState {
+		final boolean enabled;
+
+		ToolItemState() {
+			this(true);
+		}
+
+		ToolItemState(boolean enabled) {
+			this.enabled = enabled;
+		}
+	}
 }
@@ -11,10 +11,24 @@
 
 package org.eclipse.core.tests.databinding;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
 import org.eclipse.core.databinding.AggregateValidationStatus;
 import org.eclipse.core.databinding.DataBindingContext;
+import org.eclipse.core.databinding.ValidationStatusProvider;
+import org.eclipse.core.databinding.observable.Observables;
 import org.eclipse.core.databinding.observable.Realm;
+import org.eclipse.core.databinding.observable.list.IObservableList;
+import org.eclipse.core.databinding.observable.list.WritableList;
+import org.eclipse.core.databinding.observable.value.IObservableValue;
+import org.eclipse.core.databinding.observable.value.IValueChangeListener;
+import org.eclipse.core.databinding.observable.value.ValueChangeEvent;
+import org.eclipse.core.databinding.observable.value.WritableValue;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.jface.tests.databinding.AbstractSWTTestCase;
 
 /**
@@ -34,4 +48,103 @@ public class AggregateValidationStatusTest extends AbstractSWTTestCase {
 				.getBindings(), AggregateValidationStatus.MAX_SEVERITY);
 		assertEquals(Realm.getDefault(), status.getRealm());
 	}
+
+	static class ValidationStatusProviderStub extends ValidationStatusProvider {
+		final WritableValue status = new WritableValue(Status.OK_STATUS,
+				IStatus.class);
+
+		public IObservableValue getValidationStatus() {
+			return status;
+		}
+
+		public IObservableList getTargets() {
+			return Observables.emptyObservableList();
+		}
+
+		public IObservableList getModels() {
+			return Observables.emptyObservableList();
+		}
+	}
+
+	private static final int[] SEVERITIES = { IStatus.OK, IStatus.INFO,
+			IStatus.WARNING, IStatus.ERROR, IStatus.CANCEL };
+
+	private static IStatus status(int severity, int i) {
+		return severity == IStatus.OK ? Status.OK_STATUS : new Status(
+				severity, "org.eclipse.core.tests.databinding", "status " + i);
+	}
+
+	private static void assertSameStatus(IStatus expected, IStatus actual) {
+		if (expected instanceof MultiStatus) {
+			assertTrue(actual instanceof MultiStatus);
+			assertEquals(expected.getSeverity(), actual.getSeverity());
+			IStatus[] expectedChildren = expected.getChildren();
+			IStatus[] actualChildren = actual.getChildren();
+			assertEquals(expectedChildren.length, actualChildren.length);
+			for (int i = 0; i < expectedChildren.length; i++) {
+				assertSame(expectedChildren[i], actualChildren[i]);
+			}
+		} else {
+			assertSame(expected, actual);
+		}
+	}
+
+	private void assertAggregatesIncrementally(int strategy) {
+		Random random = new Random(strategy);
+		WritableList providers = new WritableList();
+		List stubs = new ArrayList();
+		for (int i = 0; i < 50; i++) {
+			ValidationStatusProviderStub stub = new ValidationStatusProviderStub();
+			stubs.add(stub);
+			providers.add(stub);
+		}
+		AggregateValidationStatus aggregate = new AggregateValidationStatus(
+				providers, strategy);
+		final int[] changes = new int[1];
+		IValueChangeListener listener = new IValueChangeListener() {
+			public void handleValueChange(ValueChangeEvent event) {
+				changes[0]++;
+			}
+		};
+		aggregate.addValueChangeListener(listener);
+
+		for (int i = 0; i < 500; i++) {
+			int operation = random.nextInt(10);
+			if (operation == 0 && !providers.isEmpty()) {
+				providers.remove(random.nextInt(providers.size()));
+			} else if (operation == 1) {
+				ValidationStatusProviderStub stub = new ValidationStatusProviderStub();
+				stubs.add(stub);
+				providers.add(random.nextInt(providers.size() + 1), stub);
+			} else {
+				ValidationStatusProviderStub stub = (ValidationStatusProviderStub) stubs
+						.get(random.nextInt(stubs.size()));
+				stub.status.setValue(status(SEVERITIES[random
+						.nextInt(SEVERITIES.length)], i));
+			}
+			IStatus expected = strategy == AggregateValidationStatus.MERGED ? AggregateValidationStatus
+					.getStatusMerged(providers)
+					: AggregateValidationStatus.getStatusMaxSeverity(providers);
+			assertSameStatus(expected, (IStatus) aggregate.getValue());
+		}
+		assertTrue(changes[0] > 0);
+
+		// without listeners the status is read from the providers again
+		aggregate.removeValueChangeListener(listener);
+		ValidationStatusProviderStub stub = new ValidationStatusProviderStub();
+		stub.status.setValue(status(IStatus.CANCEL, -1));
+		providers.add(0, stub);
+		assertSame(stub.status.getValue(), strategy == AggregateValidationStatus.MERGED ? ((IStatus) aggregate
+				.getValue()).getChildren()[0]
+				: aggregate.getValue());
+		aggregate.dispose();
+	}
+
+	public void testMaxSeverityIncremental() throws Exception {
+		assertAggregatesIncrementally(AggregateValidationStatus.MAX_SEVERITY);
+	}
+
+	public void testMergedIncremental() throws Exception {
+		assertAggregatesIncrementally(AggregateValidationStatus.MERGED);
+	}
 }
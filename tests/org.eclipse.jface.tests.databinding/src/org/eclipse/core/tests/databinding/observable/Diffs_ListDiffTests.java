@@ -15,6 +15,7 @@ package org.eclipse.core.tests.databinding.observable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 import junit.framework.TestCase;
 
@@ -256,8 +257,91 @@ public class Diffs_ListDiffTests extends TestCase {
 				Arrays.asList(new Object[] { "c", "a", "b" }));
 	}
 
+	public void testComputeLinearListDiff_Scenarios() {
+		String[][] lists = { {}, { "a" }, { "b" }, { "a", "b" }, { "b", "a" },
+				{ "b", "b" }, { "a", "b", "c" }, { "c", "b", "a" },
+				{ "a", "c" }, { "c", "b" }, { "b", "c", "a" },
+				{ "c", "a", "b" }, { "a", null, "a", null } };
+		for (int i = 0; i < lists.length; i++) {
+			for (int j = 0; j < lists.length; j++) {
+				checkComputedLinearListDiff(Arrays.asList(lists[i]), Arrays
+						.asList(lists[j]));
+			}
+		}
+	}
+
+	public void testComputeLinearListDiff_NoChange() {
+		List list = Arrays.asList(new Object[] { "a", "b", "c" });
+		assertEquals(0, Diffs.computeLinearListDiff(list, list)
+				.getDifferences().length);
+	}
+
+	public void testComputeLinearListDiff_SingleInsert() {
+		ListDiff diff = Diffs.computeLinearListDiff(Arrays
+				.asList(new Object[] { "a", "c" }), Arrays.asList(new Object[] {
+				"a", "b", "c" }));
+		assertEquals(1, diff.getDifferences().length);
+		assertEntry(diff.getDifferences()[0], true, 1, "b");
+	}
+
+	public void testComputeLinearListDiff_MoveReportedAsMove() {
+		ListDiff diff = Diffs.computeLinearListDiff(Arrays
+				.asList(new Object[] { "a", "b", "c", "d" }), Arrays
+				.asList(new Object[] { "b", "c", "d", "a" }));
+		final int[] moves = { 0 };
+		diff.accept(new ListDiffVisitor() {
+			public void handleAdd(int index, Object element) {
+				fail("Unexpected add");
+			}
+
+			public void handleRemove(int index, Object element) {
+				fail("Unexpected remove");
+			}
+
+			public void handleMove(int oldIndex, int newIndex, Object element) {
+				assertEquals("a", element);
+				moves[0]++;
+			}
+		});
+		assertEquals(1, moves[0]);
+	}
+
+	public void testComputeLinearListDiff_Random() {
+		Random random = new Random(0);
+		for (int i = 0; i < 500; i++) {
+			List oldList = new ArrayList();
+			for (int size = random.nextInt(200); size > 0; size--)
+				oldList.add(new Integer(random.nextInt(50)));
+			List newList = new ArrayList(oldList);
+			for (int edits = random.nextInt(100); edits > 0
+					&& !newList.isEmpty(); edits--) {
+				switch (random.nextInt(3)) {
+				case 0:
+					newList.remove(random.nextInt(newList.size()));
+					break;
+				case 1:
+					newList.add(random.nextInt(newList.size() + 1),
+							new Integer(random.nextInt(50)));
+					break;
+				default:
+					newList.add(random.nextInt(newList.size()), newList
+							.remove(random.nextInt(newList.size())));
+				}
+			}
+			checkComputedLinearListDiff(oldList, newList);
+		}
+	}
+
+	private static void checkComputedLinearListDiff(List oldList, List newList) {
+		checkDiff(oldList, newList, Diffs.computeLinearListDiff(oldList,
+				newList));
+	}
+
 	private static void checkComputedListDiff(List oldList, List newList) {
-		ListDiff diff = Diffs.computeListDiff(oldList, newList);
+		checkDiff(oldList, newList, Diffs.computeListDiff(oldList, newList));
+	}
+
+	private static void checkDiff(List oldList, List newList, ListDiff diff) {
 
 		final List list = new ArrayList(oldList);
 		diff.accept(new ListDiffVisitor() {
@@ -11,9 +11,27 @@
 
 package org.eclipse.core.tests.databinding.observable;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import junit.framework.TestCase;
 
 import org.eclipse.core.databinding.observable.Realm;
+import org.eclipse.core.databinding.observable.list.IListChangeListener;
+import org.eclipse.core.databinding.observable.list.ListChangeEvent;
+import org.eclipse.core.databinding.observable.list.WritableList;
+import org.eclipse.core.databinding.observable.map.IMapChangeListener;
+import org.eclipse.core.databinding.observable.map.MapChangeEvent;
+import org.eclipse.core.databinding.observable.map.WritableMap;
+import org.eclipse.core.databinding.observable.set.ISetChangeListener;
+import org.eclipse.core.databinding.observable.set.SetChangeEvent;
+import org.eclipse.core.databinding.observable.set.WritableSet;
+import org.eclipse.core.databinding.observable.value.ComputedValue;
+import org.eclipse.core.databinding.observable.value.IValueChangeListener;
+import org.eclipse.core.databinding.observable.value.ValueChangeEvent;
+import org.eclipse.core.databinding.observable.value.WritableValue;
 import org.eclipse.jface.databinding.conformance.util.CurrentRealm;
 import org.eclipse.jface.databinding.conformance.util.RealmTester;
 
@@ -34,4 +52,161 @@ public class RealmTest extends TestCase {
 		
 		assertEquals("old realm should have been restored", oldRealm, Realm.getDefault());
 	}
+
+	public void testRunBatchedMergesListChanges() throws Exception {
+		Realm realm = new CurrentRealm(true);
+		final WritableList list = new WritableList(realm, new ArrayList(Arrays
+				.asList(new Object[] { "a", "b" })), null);
+		final List events = new ArrayList();
+		list.addListChangeListener(new IListChangeListener() {
+			public void handleListChange(ListChangeEvent event) {
+				events.add(event);
+			}
+		});
+
+		realm.runBatched(new Runnable() {
+			public void run() {
+				list.add("c");
+				list.remove("a");
+				list.add(0, "d");
+				assertEquals(Collections.EMPTY_LIST, events);
+			}
+		});
+
+		assertEquals(1, events.size());
+		List simulated = new ArrayList(Arrays.asList(new Object[] { "a", "b" }));
+		((ListChangeEvent) events.get(0)).diff.applyTo(simulated);
+		assertEquals(list, simulated);
+	}
+
+	public void testRunBatchedDropsCancelledValueChange() throws Exception {
+		Realm realm = new CurrentRealm(true);
+		final WritableValue value = new WritableValue(realm, "a", null);
+		final List events = new ArrayList();
+		value.addValueChangeListener(new IValueChangeListener() {
+			public void handleValueChange(ValueChangeEvent event) {
+				events.add(event);
+			}
+		});
+
+		realm.runBatched(new Runnable() {
+			public void run() {
+				value.setValue("b");
+				value.setValue("a");
+			}
+		});
+		assertEquals(0, events.size());
+
+		realm.runBatched(new Runnable() {
+			public void run() {
+				value.setValue("b");
+				value.setValue("c");
+			}
+		});
+		assertEquals(1, events.size());
+		ValueChangeEvent event = (ValueChangeEvent) events.get(0);
+		assertEquals("a", event.diff.getOldValue());
+		assertEquals("c", event.diff.getNewValue());
+	}
+
+	public void testRunBatchedMergesSetAndMapChanges() throws Exception {
+		Realm realm = new CurrentRealm(true);
+		final WritableSet set = new WritableSet(realm);
+		set.add("a");
+		final WritableMap map = new WritableMap(realm);
+		map.put("a", "1");
+		map.put("b", "2");
+		final List events = new ArrayList();
+		set.addSetChangeListener(new ISetChangeListener() {
+			public void handleSetChange(SetChangeEvent event) {
+				events.add(event);
+			}
+		});
+		map.addMapChangeListener(new IMapChangeListener() {
+			public void handleMapChange(MapChangeEvent event) {
+				events.add(event);
+			}
+		});
+
+		realm.runBatched(new Runnable() {
+			public void run() {
+				set.remove("a");
+				set.add("b");
+				set.add("a");
+				map.remove("a");
+				map.put("a", "3");
+				map.put("c", "4");
+				map.remove("c");
+				map.put("b", "5");
+				map.put("b", "2");
+			}
+		});
+
+		assertEquals(2, events.size());
+		SetChangeEvent setEvent = (SetChangeEvent) events.get(0);
+		assertEquals(Collections.singleton("b"), setEvent.diff.getAdditions());
+		assertEquals(Collections.EMPTY_SET, setEvent.diff.getRemovals());
+		MapChangeEvent mapEvent = (MapChangeEvent) events.get(1);
+		assertEquals(Collections.EMPTY_SET, mapEvent.diff.getAddedKeys());
+		assertEquals(Collections.EMPTY_SET, mapEvent.diff.getRemovedKeys());
+		assertEquals(Collections.singleton("a"), mapEvent.diff.getChangedKeys());
+		assertEquals("1", mapEvent.diff.getOldValue("a"));
+		assertEquals("3", mapEvent.diff.getNewValue("a"));
+	}
+
+	public void testRunBatchedKeepsComputedValuesCurrent() throws Exception {
+		final Realm realm = new CurrentRealm(true);
+		final WritableValue value = new WritableValue(realm, new Integer(1),
+				null);
+		final ComputedValue computed = new ComputedValue(realm) {
+			protected Object calculate() {
+				return new Integer(((Integer) value.getValue()).intValue() * 2);
+			}
+		};
+		final List events = new ArrayList();
+		computed.addValueChangeListener(new IValueChangeListener() {
+			public void handleValueChange(ValueChangeEvent event) {
+				events.add(event);
+			}
+		});
+
+		realm.runBatched(new Runnable() {
+			public void run() {
+				value.setValue(new Integer(2));
+				assertEquals(new Integer(4), computed.getValue());
+				value.setValue(new Integer(3));
+				assertEquals(new Integer(6), computed.getValue());
+			}
+		});
+
+		assertEquals(1, events.size());
+		ValueChangeEvent event = (ValueChangeEvent) events.get(0);
+		assertEquals(new Integer(2), event.diff.getOldValue());
+		assertEquals(new Integer(6), event.diff.getNewValue());
+	}
+
+	public void testRunBatchedFiresAfterFailingListener() throws Exception {
+		Realm realm = new CurrentRealm(true);
+		final WritableValue first = new WritableValue(realm, "a", null);
+		final WritableValue second = new WritableValue(realm, "a", null);
+		first.addValueChangeListener(new IValueChangeListener() {
+			public void handleValueChange(ValueChangeEvent event) {
+				throw new IllegalStateException();
+			}
+		});
+		final List events = new ArrayList();
+		second.addValueChangeListener(new IValueChangeListener() {
+			public void handleValueChange(ValueChangeEvent event) {
+				events.add(event);
+			}
+		});
+
+		realm.runBatched(new Runnable() {
+			public void run() {
+				first.setValue("b");
+				second.setValue("b");
+			}
+		});
+		assertEquals(1, events.size());
+	}
 }
@@ -0,0 +1,366 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.core.tests.internal.databinding.observable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.databinding.observable.ChangeEvent;
+import org.eclipse.core.databinding.observable.IChangeListener;
+import org.eclipse.core.databinding.observable.Realm;
+import org.eclipse.core.databinding.observable.list.ComputedList;
+import org.eclipse.core.databinding.observable.list.IListChangeListener;
+import org.eclipse.core.databinding.observable.list.ListChangeEvent;
+import org.eclipse.core.databinding.observable.list.ListDiff;
+import org.eclipse.core.databinding.observable.set.ComputedSet;
+import org.eclipse.core.databinding.observable.set.ISetChangeListener;
+import org.eclipse.core.databinding.observable.set.SetChangeEvent;
+import org.eclipse.core.databinding.observable.set.SetDiff;
+import org.eclipse.core.databinding.observable.value.ComputedValue;
+import org.eclipse.core.databinding.observable.value.IObservableValue;
+import org.eclipse.core.databinding.observable.value.IValueChangeListener;
+import org.eclipse.core.databinding.observable.value.ValueChangeEvent;
+import org.eclipse.core.databinding.observable.value.ValueDiff;
+import org.eclipse.core.databinding.observable.value.WritableValue;
+import org.eclipse.core.databinding.util.ILogger;
+import org.eclipse.core.databinding.util.Policy;
+import org.eclipse.core.internal.databinding.observable.RecomputeScheduler;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.jface.databinding.conformance.util.CurrentRealm;
+
+/**
+ * Tests that computed observables reached by a change are recomputed once and
+ * notify their listeners in dependency order, for deep and wide dependency
+ * graphs.
+ */
+public class RecomputeSchedulerTest extends TestCase {
+	private static final int DEPTH = 1000;
+
+	private static final int WIDTH = 1000;
+
+	private static final int CHANGES = 20;
+
+	private Realm realm;
+
+	private WritableValue source;
+
+	private RecomputeScheduler scheduler;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		realm = new CurrentRealm(true);
+		source = new WritableValue(realm, new Integer(0), Integer.class);
+		scheduler = RecomputeScheduler.getCurrent();
+	}
+
+	static int intValue(IObservableValue value) {
+		return ((Integer) value.getValue()).intValue();
+	}
+
+	static class SumValue extends ComputedValue {
+		private final IObservableValue[] terms;
+
+		private final int constant;
+
+		SumValue(Realm realm, IObservableValue[] terms, int constant) {
+			super(realm, Integer.class);
+			this.terms = terms;
+			this.constant = constant;
+		}
+
+		protected Object calculate() {
+			int sum = constant;
+			for (int i = 0; i < terms.length; i++) {
+				sum += intValue(terms[i]);
+			}
+			return new Integer(sum);
+		}
+	}
+
+	public void testDiamond() throws Exception {
+		final SumValue left = new SumValue(realm,
+				new IObservableValue[] { source }, 1);
+		final SumValue right = new SumValue(realm, new IObservableValue[] {
+				source, source }, 0);
+		final SumValue bottom = new SumValue(realm, new IObservableValue[] {
+				left, right }, 0);
+		final List seen = new ArrayList();
+		IValueChangeListener listener = new IValueChangeListener() {
+			public void handleValueChange(ValueChangeEvent event) {
+				// a listener of the first dirty node reads the last one
+				int a = intValue(source);
+				assertEquals(3 * a + 1, intValue(bottom));
+				seen.add(event.getObservableValue());
+			}
+		};
+		left.addValueChangeListener(listener);
+		bottom.addValueChangeListener(listener);
+
+		scheduler.resetCounters();
+		for (int i = 1; i <= CHANGES; i++) {
+			seen.clear();
+			source.setValue(new Integer(i));
+			assertEquals(2, seen.size());
+			assertSame(left, seen.get(0));
+			assertSame(bottom, seen.get(1));
+		}
+		assertEquals(3 * CHANGES, scheduler.getRecomputeCount());
+	}
+
+	public void testDeepGraph() throws Exception {
+		final SumValue[] chain = new SumValue[DEPTH];
+		final int[] notified = new int[1];
+		IValueChangeListener listener = new IValueChangeListener() {
+			public void handleValueChange(ValueChangeEvent event) {
+				notified[0]++;
+				event.diff.getNewValue();
+			}
+		};
+		for (int i = 0; i < DEPTH; i++) {
+			chain[i] = new SumValue(realm,
+					new IObservableValue[] { i == 0 ? source : chain[i - 1] },
+					1);
+			chain[i].addValueChangeListener(listener);
+		}
+
+		scheduler.resetCounters();
+		for (int i = 1; i <= CHANGES; i++) {
+			notified[0] = 0;
+			source.setValue(new Integer(i));
+			assertEquals(DEPTH, notified[0]);
+			assertEquals(i + DEPTH, intValue(chain[DEPTH - 1]));
+		}
+		assertEquals(DEPTH * CHANGES, scheduler.getRecomputeCount());
+		assertEquals(DEPTH * CHANGES, scheduler.getNotificationCount());
+		assertEquals(CHANGES, scheduler.getChangeCount());
+	}
+
+	public void testWideGraph() throws Exception {
+		IObservableValue[] middle = new IObservableValue[WIDTH];
+		for (int i = 0; i < WIDTH; i++) {
+			middle[i] = new SumValue(realm, new IObservableValue[] { source }, i);
+		}
+		final SumValue sink = new SumValue(realm, middle, 0);
+		final int[] notified = new int[1];
+		sink.addValueChangeListener(new IValueChangeListener() {
+			public void handleValueChange(ValueChangeEvent event) {
+				notified[0]++;
+				event.diff.getNewValue();
+			}
+		});
+
+		scheduler.resetCounters();
+		for (int i = 1; i <= CHANGES; i++) {
+			notified[0] = 0;
+			source.setValue(new Integer(i));
+			assertEquals(1, notified[0]);
+			assertEquals(WIDTH * i + WIDTH * (WIDTH - 1) / 2, intValue(sink));
+		}
+		assertEquals((WIDTH + 1) * CHANGES, scheduler.getRecomputeCount());
+	}
+
+	public void testComputedCollections() throws Exception {
+		final ComputedList list = new ComputedList(realm) {
+			protected List calculate() {
+				return Collections.nCopies(intValue(source), source.getValue());
+			}
+		};
+		final ComputedSet set = new ComputedSet(realm) {
+			protected Set calculate() {
+				return Collections.singleton(new Integer(list.size()));
+			}
+		};
+		final ComputedValue value = new ComputedValue(realm) {
+			protected Object calculate() {
+				return new Integer(list.size()
+						+ ((Integer) set.iterator().next()).intValue());
+			}
+		};
+		final int[] notified = new int[1];
+		list.addListChangeListener(new IListChangeListener() {
+			public void handleListChange(ListChangeEvent event) {
+				notified[0]++;
+				// the value depends on the list through the set as well
+				assertEquals(new Integer(2 * intValue(source)), value.getValue());
+			}
+		});
+		value.addValueChangeListener(new IValueChangeListener() {
+			public void handleValueChange(ValueChangeEvent event) {
+				notified[0]++;
+			}
+		});
+
+		scheduler.resetCounters();
+		for (int i = 1; i <= CHANGES; i++) {
+			notified[0] = 0;
+			source.setValue(new Integer(i));
+			assertEquals(2, notified[0]);
+		}
+		assertEquals(3 * CHANGES, scheduler.getRecomputeCount());
+	}
+
+	public void testFailingNotification() throws Exception {
+		SumValue first = new SumValue(realm, new IObservableValue[] { source },
+				0);
+		SumValue second = new SumValue(realm,
+				new IObservableValue[] { source }, 0);
+		first.addValueChangeListener(new IValueChangeListener() {
+			public void handleValueChange(ValueChangeEvent event) {
+				throw new IllegalStateException();
+			}
+		});
+		final int[] notified = new int[1];
+		second.addValueChangeListener(new IValueChangeListener() {
+			public void handleValueChange(ValueChangeEvent event) {
+				notified[0]++;
+			}
+		});
+
+		first.getValue();
+		second.getValue();
+		try {
+			source.setValue(new Integer(1));
+			fail("The exception of the listener should be thrown");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		// the following notification ran all the same
+		assertEquals(1, notified[0]);
+
+		// and the scheduler is ready for the next change
+		notified[0] = 0;
+		first.getValue();
+		second.getValue();
+		try {
+			source.setValue(new Integer(2));
+			fail("The exception of the listener should be thrown");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		assertEquals(1, notified[0]);
+		assertEquals(new Integer(2), second.getValue());
+	}
+
+	public void testFirstFailureThrown() throws Exception {
+		SumValue first = new SumValue(realm, new IObservableValue[] { source },
+				0);
+		SumValue second = new SumValue(realm,
+				new IObservableValue[] { source }, 0);
+		final IllegalStateException firstFailure = new IllegalStateException();
+		final IllegalArgumentException secondFailure = new IllegalArgumentException();
+		first.addValueChangeListener(new IValueChangeListener() {
+			public void handleValueChange(ValueChangeEvent event) {
+				throw firstFailure;
+			}
+		});
+		second.addValueChangeListener(new IValueChangeListener() {
+			public void handleValueChange(ValueChangeEvent event) {
+				throw secondFailure;
+			}
+		});
+		final List logged = new ArrayList();
+		ILogger oldLog = Policy.getLog();
+		Policy.setLog(new ILogger() {
+			public void log(IStatus status) {
+				logged.add(status.getException());
+			}
+		});
+		try {
+			first.getValue();
+			second.getValue();
+			source.setValue(new Integer(1));
+			fail("The exception of the first listener should be thrown");
+		} catch (IllegalStateException e) {
+			assertSame(firstFailure, e);
+		} finally {
+			Policy.setLog(oldLog);
+		}
+		assertEquals(Collections.singletonList(secondFailure), logged);
+	}
+
+	public void testActiveWhileListening() throws Exception {
+		SumValue value = new SumValue(realm, new IObservableValue[] { source },
+				0);
+		value.getValue();
+		assertTrue(RecomputeScheduler.isActive());
+		value.dispose();
+	}
+
+	public void testFireHooks() throws Exception {
+		final int[] fired = new int[3];
+		ComputedValue value = new ComputedValue(realm) {
+			protected Object calculate() {
+				return source.getValue();
+			}
+
+			protected void fireValueChange(ValueDiff diff) {
+				fired[0]++;
+				super.fireValueChange(diff);
+			}
+		};
+		ComputedList list = new ComputedList(realm) {
+			protected List calculate() {
+				return Collections.singletonList(source.getValue());
+			}
+
+			protected void fireListChange(ListDiff diff) {
+				fired[1]++;
+				super.fireListChange(diff);
+			}
+		};
+		ComputedSet set = new ComputedSet(realm) {
+			protected Set calculate() {
+				return Collections.singleton(source.getValue());
+			}
+
+			protected void fireSetChange(SetDiff diff) {
+				fired[2]++;
+				super.fireSetChange(diff);
+			}
+		};
+		final int[] changes = new int[1];
+		IChangeListener changeListener = new IChangeListener() {
+			public void handleChange(ChangeEvent event) {
+				changes[0]++;
+			}
+		};
+		value.addValueChangeListener(new IValueChangeListener() {
+			public void handleValueChange(ValueChangeEvent event) {
+			}
+		});
+		value.addChangeListener(changeListener);
+		list.addListChangeListener(new IListChangeListener() {
+			public void handleListChange(ListChangeEvent event) {
+			}
+		});
+		list.addChangeListener(changeListener);
+		set.addSetChangeListener(new ISetChangeListener() {
+			public void handleSetChange(SetChangeEvent event) {
+			}
+		});
+		set.addChangeListener(changeListener);
+		value.getValue();
+		list.size();
+		set.size();
+
+		source.setValue(new Integer(1));
+		assertEquals(1, fired[0]);
+		assertEquals(1, fired[1]);
+		assertEquals(1, fired[2]);
+		// one generic change event each
+		assertEquals(3, changes[0]);
+	}
+}
@@ -133,6 +133,7 @@ import org.eclipse.core.tests.internal.databinding.observable.EmptyObservableLis
 import org.eclipse.core.tests.internal.databinding.observable.EmptyObservableSetTest;
 import org.eclipse.core.tests.internal.databinding.observable.IdentityObservableSetTest;
 import org.eclipse.core.tests.internal.databinding.observable.MapEntryObservableValueTest;
+import org.eclipse.core.tests.internal.databinding.observable.RecomputeSchedulerTest;
 import org.eclipse.core.tests.internal.databinding.observable.StalenessObservableValueTest;
 import org.eclipse.core.tests.internal.databinding.observable.UnmodifiableObservableListTest;
 import org.eclipse.core.tests.internal.databinding.observable.UnmodifiableObservableSetTest;
@@ -167,6 +168,7 @@ import org.eclipse.core.tests.internal.databinding.validation.StringToLongValida
 import org.eclipse.core.tests.internal.databinding.validation.StringToShortValidatorTest;
 import org.eclipse.jface.tests.databinding.preference.PreferencePageSupportTest;
 import org.eclipse.jface.tests.databinding.scenarios.BindingScenariosTestSuite;
+import org.eclipse.jface.tests.databinding.swt.CoalescingDisplayRealmTest;
 import org.eclipse.jface.tests.databinding.swt.SWTObservablesTest;
 import org.eclipse.jface.tests.databinding.swt.WidgetObservableThreadTest;
 import org.eclipse.jface.tests.databinding.swt.WidgetPropertiesTest;
@@ -377,6 +379,7 @@ public class BindingTestSuite extends TestSuite {
 		addTest(EmptyObservableSetTest.suite());
 		addTest(IdentityObservableSetTest.suite());
 		addTest(MapEntryObservableValueTest.suite());
+		addTestSuite(RecomputeSchedulerTest.class);
 		addTest(StalenessObservableValueTest.suite());
 		addTest(UnmodifiableObservableValueTest.suite());
 		addTest(UnmodifiableObservableListTest.suite());
@@ -422,6 +425,7 @@ public class BindingTestSuite extends TestSuite {
 		// The files in this package are in the above test suite
 
 		// org.eclipse.jface.tests.databinding.swt
+		addTestSuite(CoalescingDisplayRealmTest.class);
 		addTestSuite(SWTObservablesTest.class);
 		addTestSuite(WidgetPropertiesTest.class);
 		addTestSuite(WidgetObservableThreadTest.class);
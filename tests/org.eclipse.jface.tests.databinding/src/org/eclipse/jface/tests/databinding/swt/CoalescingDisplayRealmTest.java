@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.jface.tests.databinding.swt;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jface.databinding.swt.CoalescingDisplayRealm;
+import org.eclipse.jface.tests.databinding.AbstractSWTTestCase;
+import org.eclipse.swt.SWTError;
+import org.eclipse.swt.SWTException;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * @since 1.7
+ */
+public class CoalescingDisplayRealmTest extends AbstractSWTTestCase {
+	private static final int RUNNABLES = 1000;
+
+	private Display display;
+
+	private List run;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		display = Display.getCurrent() != null ? Display.getCurrent() : Display
+				.getDefault();
+		run = new ArrayList();
+		// start without runnables left by other tests
+		while (display.readAndDispatch()) {
+		}
+	}
+
+	private Runnable add(final Object element) {
+		return new Runnable() {
+			public void run() {
+				run.add(element);
+			}
+		};
+	}
+
+	private void drainQueue(CoalescingDisplayRealm realm) {
+		long timeout = System.currentTimeMillis() + 10000;
+		while (realm.getQueueDepth() > 0
+				&& System.currentTimeMillis() < timeout) {
+			if (!display.readAndDispatch()) {
+				display.sleep();
+			}
+		}
+		assertEquals(0, realm.getQueueDepth());
+	}
+
+	public void testAsyncExecFromThreadRunsInOneDrain() throws Exception {
+		final CoalescingDisplayRealm realm = new CoalescingDisplayRealm(
+				display, Integer.MAX_VALUE);
+		Thread producer = new Thread() {
+			public void run() {
+				for (int i = 0; i < RUNNABLES; i++) {
+					realm.asyncExec(add(new Integer(i)));
+				}
+			}
+		};
+		producer.start();
+		producer.join();
+		assertEquals(RUNNABLES, realm.getQueueDepth());
+		assertEquals(RUNNABLES, realm.getMaxQueueDepth());
+		assertTrue(run.isEmpty());
+
+		drainQueue(realm);
+		assertEquals(RUNNABLES, run.size());
+		for (int i = 0; i < RUNNABLES; i++) {
+			assertEquals(new Integer(i), run.get(i));
+		}
+		assertEquals(1, realm.getDrainCount());
+		assertTrue(realm.getMaxDrainLatency() >= realm.getLastDrainLatency());
+	}
+
+	public void testDrainYieldsAfterBudget() throws Exception {
+		CoalescingDisplayRealm realm = new CoalescingDisplayRealm(display, 0);
+		final String displayRunnable = "display";
+		realm.asyncExec(new Runnable() {
+			public void run() {
+				run.add("first");
+				display.asyncExec(add(displayRunnable));
+			}
+		});
+		realm.asyncExec(add("second"));
+		realm.asyncExec(add("third"));
+
+		drainQueue(realm);
+		assertEquals(4, run.size());
+		assertEquals("first", run.get(0));
+		// the budget is spent after each runnable, so the runnable posted to
+		// the display runs before the rest of the queue
+		assertSame(displayRunnable, run.get(1));
+		assertEquals("second", run.get(2));
+		assertEquals("third", run.get(3));
+		assertEquals(3, realm.getDrainCount());
+	}
+
+	public void testNestedEventLoopRunsFollowingRunnables() throws Exception {
+		final CoalescingDisplayRealm realm = new CoalescingDisplayRealm(
+				display, Integer.MAX_VALUE);
+		realm.asyncExec(new Runnable() {
+			public void run() {
+				run.add("first");
+				realm.asyncExec(add("third"));
+				// like a modal dialog, without sleeping so that the test
+				// fails rather than hangs when the nested loop is stalled
+				long timeout = System.currentTimeMillis() + 10000;
+				while (run.size() < 3 && System.currentTimeMillis() < timeout) {
+					display.readAndDispatch();
+				}
+				run.add("nested loop done");
+			}
+		});
+		realm.asyncExec(add("second"));
+
+		drainQueue(realm);
+		assertEquals(4, run.size());
+		assertEquals("first", run.get(0));
+		assertEquals("second", run.get(1));
+		assertEquals("third", run.get(2));
+		assertEquals("nested loop done", run.get(3));
+	}
+
+	public void testDisposedDisplayDropsRunnables() throws Exception {
+		final Throwable[] failure = new Throwable[1];
+		Thread thread = new Thread() {
+			public void run() {
+				Display other;
+				try {
+					other = new Display();
+				} catch (SWTError e) {
+					// the platform only supports one display at a time, the
+					// one shared by the tests
+					return;
+				} catch (SWTException e) {
+					// the platform only supports a display in the main thread
+					return;
+				}
+				try {
+					CoalescingDisplayRealm realm = new CoalescingDisplayRealm(
+							other);
+					realm.asyncExec(add("queued"));
+					other.dispose();
+					realm.asyncExec(add("dropped"));
+					assertEquals(0, realm.getQueueDepth());
+					assertFalse(run.contains("dropped"));
+				} catch (Throwable t) {
+					failure[0] = t;
+				} finally {
+					if (!other.isDisposed()) {
+						other.dispose();
+					}
+				}
+			}
+		};
+		thread.start();
+		thread.join();
+		if (failure[0] instanceof Error) {
+			throw (Error) failure[0];
+		}
+		if (failure[0] != null) {
+			throw (Exception) failure[0];
+		}
+	}
+
+	public void testExecOnDisplayThreadRunsImmediately() throws Exception {
+		CoalescingDisplayRealm realm = new CoalescingDisplayRealm(display);
+		assertTrue(realm.isCurrent());
+		realm.exec(add("now"));
+		assertEquals(1, run.size());
+		assertEquals(0, realm.getQueueDepth());
+		assertEquals(0, realm.getDrainCount());
+	}
+
+	public void testResetStatistics() throws Exception {
+		CoalescingDisplayRealm realm = new CoalescingDisplayRealm(display);
+		for (int i = 0; i < 10; i++) {
+			realm.asyncExec(add(new Integer(i)));
+		}
+		drainQueue(realm);
+		assertEquals(10, realm.getMaxQueueDepth());
+		realm.resetStatistics();
+		assertEquals(0, realm.getMaxQueueDepth());
+		assertEquals(0, realm.getDrainCount());
+		assertEquals(0, realm.getMaxDrainLatency());
+	}
+}
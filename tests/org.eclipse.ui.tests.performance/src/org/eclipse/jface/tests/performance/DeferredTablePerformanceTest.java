@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.tests.performance;
+
+import java.util.Comparator;
+import java.util.Random;
+
+import org.eclipse.jface.viewers.AcceptAllFilter;
+import org.eclipse.jface.viewers.IFilter;
+import org.eclipse.jface.viewers.LabelProvider;
+import org.eclipse.jface.viewers.StructuredViewer;
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.jface.viewers.deferred.DeferredContentProvider;
+import org.eclipse.jface.viewers.deferred.SetModel;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Table;
+
+/**
+ * The DeferredTablePerformanceTest measures the time a virtual table using a
+ * <code>DeferredContentProvider</code> takes to show its first rows after its
+ * <code>SetModel</code> receives one million new elements.
+ */
+public class DeferredTablePerformanceTest extends ViewerTest {
+
+	private static final int ELEMENT_COUNT = 1000000;
+
+	private static final int ITERATIONS = 10;
+
+	private static final long TIMEOUT = 60000;
+
+	private static final Comparator ORDER = new Comparator() {
+		public int compare(Object o1, Object o2) {
+			long v1 = ((Value) o1).value;
+			long v2 = ((Value) o2).value;
+			return v1 < v2 ? -1 : (v1 == v2 ? 0 : 1);
+		}
+	};
+
+	private static final IFilter FILTER = new IFilter() {
+		public boolean select(Object toTest) {
+			return ((Value) toTest).value % 3 != 0;
+		}
+	};
+
+	private static class Value {
+		final long value;
+
+		Value(long value) {
+			this.value = value;
+		}
+
+		public String toString() {
+			return Long.toString(value);
+		}
+	}
+
+	private TableViewer viewer;
+
+	private DeferredContentProvider contentProvider;
+
+	private SetModel model;
+
+	private Random random = new Random(0);
+
+	public DeferredTablePerformanceTest(String testName) {
+		super(testName);
+	}
+
+	protected StructuredViewer createViewer(Shell shell) {
+		viewer = new TableViewer(shell, SWT.VIRTUAL);
+		contentProvider = new DeferredContentProvider(ORDER);
+		// the comparator and filter are thread safe
+		contentProvider.setParallel(true);
+		viewer.setContentProvider(contentProvider);
+		viewer.setLabelProvider(new LabelProvider());
+		return viewer;
+	}
+
+	protected Object getInitialInput() {
+		model = new SetModel();
+		return model;
+	}
+
+	/**
+	 * Test the time for showing the first rows of one million elements.
+	 */
+	public void testSetContents() {
+		measure(AcceptAllFilter.getInstance());
+	}
+
+	/**
+	 * Test the time for showing the first rows of one million elements, two
+	 * thirds of which pass the filter.
+	 */
+	public void testSetContentsFiltered() {
+		measure(FILTER);
+	}
+
+	private void measure(IFilter filter) {
+		openBrowser();
+		contentProvider.setFilter(filter);
+		processEvents();
+
+		for (int i = 0; i < ITERATIONS; i++) {
+			Value[] contents = new Value[ELEMENT_COUNT];
+			Value first = null;
+			for (int j = 0; j < contents.length; j++) {
+				contents[j] = new Value(random.nextLong());
+				if (filter.select(contents[j])
+						&& (first == null || ORDER.compare(contents[j], first) < 0)) {
+					first = contents[j];
+				}
+			}
+
+			startMeasuring();
+			model.set(contents);
+			waitForFirstRow(first);
+			stopMeasuring();
+		}
+
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	/**
+	 * Runs the event loop until the first row of the table shows the given
+	 * element.
+	 */
+	private void waitForFirstRow(Object first) {
+		Table table = viewer.getTable();
+		Display display = table.getDisplay();
+		long end = System.currentTimeMillis() + TIMEOUT;
+		while (table.getItemCount() == 0
+				|| table.getItem(0).getData() != first) {
+			if (System.currentTimeMillis() > end) {
+				fail("The first row was not shown"); //$NON-NLS-1$
+			}
+			if (!display.readAndDispatch()) {
+				try {
+					Thread.sleep(1);
+				} catch (InterruptedException e) {
+					// keep waiting
+				}
+			}
+		}
+	}
+}
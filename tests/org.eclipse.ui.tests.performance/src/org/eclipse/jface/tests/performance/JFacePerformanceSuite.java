@@ -48,6 +48,16 @@ public class JFacePerformanceSuite extends FilteredTestSuite {
 		addTest(new ProgressMonitorDialogPerformanceTest("testLongNames"));
 		addTest(new ShrinkingTreeTest("testTreeViewerRefresh"));
 		addTest(new CollatorPerformanceTest("testCollator"));
+		addTest(new ListDiffPerformanceTest("testShuffle1000"));
+		addTest(new ListDiffPerformanceTest("testShuffle10000"));
+		addTest(new ListDiffPerformanceTest("testShuffle100000"));
+		addTest(new ListDiffPerformanceTest("testEdit1000"));
+		addTest(new ListDiffPerformanceTest("testEdit10000"));
+		addTest(new ListDiffPerformanceTest("testEdit100000"));
+		addTest(new DeferredTablePerformanceTest("testSetContents"));
+		addTest(new DeferredTablePerformanceTest("testSetContentsFiltered"));
+		addTest(new KeyedTreeRefreshTest("testRefreshPositional"));
+		addTest(new KeyedTreeRefreshTest("testRefreshKeyed"));
 
 	}
 }
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.tests.performance;
+
+import org.eclipse.jface.viewers.ITreeContentProvider;
+import org.eclipse.jface.viewers.StructuredViewer;
+import org.eclipse.jface.viewers.TreeViewer;
+import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.jface.viewers.ViewerSorter;
+import org.eclipse.swt.widgets.Shell;
+
+/**
+ * The KeyedTreeRefreshTest measures the refresh of a tree node with 50000
+ * children after an element is inserted at the top, with and without keyed
+ * reconciliation of the tree items.
+ */
+public class KeyedTreeRefreshTest extends ViewerTest {
+
+	private static final int CHILD_COUNT = 50000;
+
+	private static final int ITERATIONS = 20;
+
+	private TreeViewer viewer;
+
+	private TestTreeElement input;
+
+	public KeyedTreeRefreshTest(String testName) {
+		super(testName);
+	}
+
+	protected StructuredViewer createViewer(Shell shell) {
+		viewer = new TreeViewer(shell);
+		viewer.setContentProvider(new ITreeContentProvider() {
+			public Object[] getChildren(Object parentElement) {
+				return ((TestTreeElement) parentElement).children;
+			}
+
+			public Object getParent(Object element) {
+				return ((TestTreeElement) element).parent;
+			}
+
+			public boolean hasChildren(Object element) {
+				return ((TestTreeElement) element).children.length > 0;
+			}
+
+			public Object[] getElements(Object inputElement) {
+				return getChildren(inputElement);
+			}
+
+			public void dispose() {
+				// Do nothing here
+			}
+
+			public void inputChanged(Viewer localViewer, Object oldInput,
+					Object newInput) {
+				// Do nothing here
+			}
+		});
+		viewer.setLabelProvider(getLabelProvider());
+		viewer.setSorter(new ViewerSorter());
+		return viewer;
+	}
+
+	protected Object getInitialInput() {
+		input = new TestTreeElement(0, null);
+		input.createChildren(CHILD_COUNT);
+		return input;
+	}
+
+	/**
+	 * Test the refresh with the items matched by position.
+	 */
+	public void testRefreshPositional() {
+		measure(false);
+	}
+
+	/**
+	 * Test the refresh with the items matched by element.
+	 */
+	public void testRefreshKeyed() {
+		measure(true);
+	}
+
+	private void measure(boolean keyed) {
+		openBrowser();
+		viewer.setUseKeyedReconciliation(keyed);
+		processEvents();
+		TestTreeElement[] children = input.children;
+
+		for (int i = 0; i < ITERATIONS; i++) {
+			TestTreeElement added = new TestTreeElement(i, input);
+			added.name = "0" + added.name; //$NON-NLS-1$
+			TestTreeElement[] grown = new TestTreeElement[children.length + 1];
+			System.arraycopy(children, 0, grown, 0, children.length);
+			grown[children.length] = added;
+			input.children = grown;
+
+			startMeasuring();
+			viewer.refresh();
+			processEvents();
+			stopMeasuring();
+
+			input.children = children;
+			viewer.refresh();
+			processEvents();
+		}
+
+		commitMeasurements();
+		assertPerformance();
+	}
+}
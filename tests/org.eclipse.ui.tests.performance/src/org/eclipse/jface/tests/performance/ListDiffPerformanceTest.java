@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.jface.tests.performance;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.core.databinding.observable.Diffs;
+import org.eclipse.ui.tests.performance.BasicPerformanceTest;
+
+/**
+ * Measures {@link Diffs#computeLinearListDiff(List, List)} on lists of 1k, 10k
+ * and 100k elements, for a reorder and for a few scattered edits.
+ */
+public class ListDiffPerformanceTest extends BasicPerformanceTest {
+
+	private static final int ITERATIONS = 10;
+
+	/**
+	 * @param testName
+	 */
+	public ListDiffPerformanceTest(String testName) {
+		super(testName);
+	}
+
+	public void testShuffle1000() {
+		doTestShuffle(1000);
+	}
+
+	public void testShuffle10000() {
+		doTestShuffle(10000);
+	}
+
+	public void testShuffle100000() {
+		doTestShuffle(100000);
+	}
+
+	public void testEdit1000() {
+		doTestEdit(1000);
+	}
+
+	public void testEdit10000() {
+		doTestEdit(10000);
+	}
+
+	public void testEdit100000() {
+		doTestEdit(100000);
+	}
+
+	private void doTestShuffle(int size) {
+		List oldList = createList(size);
+		List newList = new ArrayList(oldList);
+		Collections.shuffle(newList, new Random(size));
+		measure(oldList, newList);
+	}
+
+	private void doTestEdit(int size) {
+		List oldList = createList(size);
+		List newList = new ArrayList(oldList);
+		Random random = new Random(size);
+		for (int i = 0; i < 10; i++) {
+			newList.remove(random.nextInt(newList.size()));
+			newList.add(random.nextInt(newList.size()), "added" + i); //$NON-NLS-1$
+		}
+		measure(oldList, newList);
+	}
+
+	private void measure(List oldList, List newList) {
+		for (int i = 0; i < ITERATIONS; i++) {
+			startMeasuring();
+			Diffs.computeLinearListDiff(oldList, newList);
+			stopMeasuring();
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	private static List createList(int size) {
+		List list = new ArrayList(size);
+		for (int i = 0; i < size; i++) {
+			list.add("element" + i); //$NON-NLS-1$
+		}
+		return list;
+	}
+}
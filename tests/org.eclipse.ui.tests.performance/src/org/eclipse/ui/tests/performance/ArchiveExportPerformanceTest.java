@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.tests.performance;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.ui.internal.wizards.datatransfer.ArchiveFileExportOperation;
+import org.eclipse.ui.tests.harness.util.FileUtil;
+
+/**
+ * Measures the throughput of the zip and tar exporters on a generated tree of
+ * 2000 small files and a few large ones.
+ */
+public class ArchiveExportPerformanceTest extends BasicPerformanceTest {
+
+	private static final int FOLDERS = 20;
+
+	private static final int FILES_PER_FOLDER = 100;
+
+	private static final int FILE_SIZE = 8 * 1024;
+
+	private static final int LARGE_FILES = 4;
+
+	private static final int LARGE_FILE_SIZE = 4 * 1024 * 1024;
+
+	private static final int ITERATIONS = 5;
+
+	private IProject project;
+
+	private File archive;
+
+	/**
+	 * @param testName
+	 */
+	public ArchiveExportPerformanceTest(String testName) {
+		super(testName);
+	}
+
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+		project = FileUtil.createProject("ArchiveExportPerformanceTest"); //$NON-NLS-1$
+		NullProgressMonitor monitor = new NullProgressMonitor();
+		byte[] contents = createContents(FILE_SIZE);
+		for (int i = 0; i < FOLDERS; i++) {
+			IFolder folder = project.getFolder("folder" + i); //$NON-NLS-1$
+			folder.create(true, true, monitor);
+			for (int j = 0; j < FILES_PER_FOLDER; j++) {
+				folder.getFile("file" + j + ".txt").create( //$NON-NLS-1$ //$NON-NLS-2$
+						new ByteArrayInputStream(contents), true, monitor);
+			}
+		}
+		byte[] largeContents = createContents(LARGE_FILE_SIZE);
+		for (int i = 0; i < LARGE_FILES; i++) {
+			project.getFile("large" + i + ".bin").create( //$NON-NLS-1$ //$NON-NLS-2$
+					new ByteArrayInputStream(largeContents), true, monitor);
+		}
+		archive = File.createTempFile("ArchiveExportPerformanceTest", null); //$NON-NLS-1$
+	}
+
+	protected void doTearDown() throws Exception {
+		archive.delete();
+		FileUtil.deleteProject(project);
+		super.doTearDown();
+	}
+
+	public void testExportZipStored() throws Exception {
+		measure(false, false, Deflater.DEFAULT_COMPRESSION);
+	}
+
+	public void testExportZipCompressed() throws Exception {
+		measure(false, true, Deflater.DEFAULT_COMPRESSION);
+	}
+
+	public void testExportZipFastCompression() throws Exception {
+		measure(false, true, Deflater.BEST_SPEED);
+	}
+
+	public void testExportTar() throws Exception {
+		measure(true, false, Deflater.DEFAULT_COMPRESSION);
+	}
+
+	public void testExportTarCompressed() throws Exception {
+		measure(true, true, Deflater.DEFAULT_COMPRESSION);
+	}
+
+	private void measure(boolean tar, boolean compress, int level)
+			throws Exception {
+		List resources = new ArrayList();
+		resources.add(project);
+		for (int i = 0; i < ITERATIONS; i++) {
+			ArchiveFileExportOperation operation = new ArchiveFileExportOperation(
+					resources, archive.getAbsolutePath());
+			operation.setUseTarFormat(tar);
+			operation.setUseCompression(compress);
+			operation.setCompressionLevel(level);
+			startMeasuring();
+			operation.run(new NullProgressMonitor());
+			stopMeasuring();
+			assertTrue(operation.getStatus().isOK());
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	/**
+	 * Returns text-like contents, which compress about as well as source files.
+	 */
+	private static byte[] createContents(int size) {
+		byte[] contents = new byte[size];
+		for (int i = 0; i < size; i++) {
+			contents[i] = (byte) ('a' + (i * 7 + i / 61) % 26);
+			if (i % 80 == 79) {
+				contents[i] = '\n';
+			}
+		}
+		return contents;
+	}
+}
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.tests.performance;
+
+import java.beans.PropertyDescriptor;
+
+import org.eclipse.core.databinding.beans.BeanProperties;
+import org.eclipse.core.databinding.property.value.IValueProperty;
+import org.eclipse.core.internal.databinding.beans.BeanPropertyHelper;
+
+/**
+ * Compares reading and writing a bean property through the reflective helper,
+ * which looks up the accessor methods of the descriptor on each access, with
+ * reading and writing it through a bean value property, which resolves them
+ * once.
+ */
+public class BeanPropertyPerformanceTest extends BasicPerformanceTest {
+
+	private static final int ACCESSES = 100000;
+
+	private static final int LOOKUPS = 10000;
+
+	private static final int ITERATIONS = 10;
+
+	/**
+	 * The bean whose property is accessed.
+	 */
+	public static class Bean {
+		private String value = ""; //$NON-NLS-1$
+
+		/**
+		 * @return the value
+		 */
+		public String getValue() {
+			return value;
+		}
+
+		/**
+		 * @param value
+		 */
+		public void setValue(String value) {
+			this.value = value;
+		}
+	}
+
+	/**
+	 * @param testName
+	 */
+	public BeanPropertyPerformanceTest(String testName) {
+		super(testName);
+	}
+
+	public void testReflectiveAccess() {
+		Bean bean = new Bean();
+		PropertyDescriptor descriptor = BeanPropertyHelper
+				.getPropertyDescriptor(Bean.class, "value"); //$NON-NLS-1$
+		for (int i = 0; i < ITERATIONS; i++) {
+			startMeasuring();
+			for (int j = 0; j < ACCESSES; j++) {
+				BeanPropertyHelper.writeProperty(bean, descriptor,
+						BeanPropertyHelper.readProperty(bean, descriptor));
+			}
+			stopMeasuring();
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	public void testPropertyAccess() {
+		Bean bean = new Bean();
+		IValueProperty property = BeanProperties.value(Bean.class, "value"); //$NON-NLS-1$
+		for (int i = 0; i < ITERATIONS; i++) {
+			startMeasuring();
+			for (int j = 0; j < ACCESSES; j++) {
+				property.setValue(bean, property.getValue(bean));
+			}
+			stopMeasuring();
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	public void testPropertyLookup() {
+		for (int i = 0; i < ITERATIONS; i++) {
+			startMeasuring();
+			for (int j = 0; j < LOOKUPS; j++) {
+				BeanProperties.value(Bean.class, "value"); //$NON-NLS-1$
+			}
+			stopMeasuring();
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+}
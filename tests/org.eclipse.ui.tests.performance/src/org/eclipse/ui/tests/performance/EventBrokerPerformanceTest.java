@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.tests.performance;
+
+import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.e4.core.services.events.IEventBroker;
+import org.eclipse.e4.ui.services.events.EventBrokerFactory;
+import org.eclipse.ui.PlatformUI;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventHandler;
+
+/**
+ * Compares the event broker dispatching through the OSGi event admin with the
+ * one dispatching to its subscribers directly, for 100 subscribers spread over
+ * as many topics, some of them subscribed with a wildcard or a filter.
+ */
+public class EventBrokerPerformanceTest extends BasicPerformanceTest {
+
+	private static final int SUBSCRIBERS = 100;
+
+	private static final int EVENTS = 10000;
+
+	private static final int ITERATIONS = 10;
+
+	private static final String TOPIC_BASE = "org/eclipse/ui/tests/performance/EventBrokerPerformanceTest/"; //$NON-NLS-1$
+
+	private IEclipseContext context;
+
+	private int handled;
+
+	/**
+	 * @param testName
+	 */
+	public EventBrokerPerformanceTest(String testName) {
+		super(testName);
+	}
+
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+		IEclipseContext workbenchContext = (IEclipseContext) PlatformUI
+				.getWorkbench().getService(IEclipseContext.class);
+		context = workbenchContext.createChild(getClass().getName());
+	}
+
+	protected void doTearDown() throws Exception {
+		context.dispose();
+		super.doTearDown();
+	}
+
+	public void testEventAdminDispatch() {
+		context.set(EventBrokerFactory.IN_PROCESS_DISPATCH, Boolean.FALSE);
+		measure((IEventBroker) context.get(IEventBroker.class));
+	}
+
+	public void testInProcessDispatch() {
+		context.set(EventBrokerFactory.IN_PROCESS_DISPATCH, Boolean.TRUE);
+		measure((IEventBroker) context.get(IEventBroker.class));
+	}
+
+	private void measure(IEventBroker broker) {
+		EventHandler handler = new EventHandler() {
+			public void handleEvent(Event event) {
+				handled++;
+			}
+		};
+		for (int i = 0; i < SUBSCRIBERS; i++) {
+			if (i % 10 == 0) {
+				broker.subscribe(TOPIC_BASE + i + "/*", handler); //$NON-NLS-1$
+			} else if (i % 10 == 1) {
+				broker.subscribe(TOPIC_BASE + i, "(index=" + i + ")", handler, //$NON-NLS-1$ //$NON-NLS-2$
+						true);
+			} else {
+				broker.subscribe(TOPIC_BASE + i, handler);
+			}
+		}
+		handled = 0;
+		for (int i = 0; i < ITERATIONS; i++) {
+			startMeasuring();
+			for (int j = 0; j < EVENTS; j++) {
+				int index = j % SUBSCRIBERS;
+				String topic = index % 10 == 0 ? TOPIC_BASE + index + "/child" //$NON-NLS-1$
+						: TOPIC_BASE + index;
+				broker.send(topic, String.valueOf(j));
+			}
+			stopMeasuring();
+		}
+		commitMeasurements();
+		assertTrue(handled > 0);
+		broker.unsubscribe(handler);
+		assertPerformance();
+	}
+}
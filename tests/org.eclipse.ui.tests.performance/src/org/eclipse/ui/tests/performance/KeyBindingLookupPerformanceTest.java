@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.tests.performance;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.commands.contexts.ContextManager;
+import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.e4.ui.bindings.internal.BindingTableManager;
+import org.eclipse.e4.ui.bindings.internal.BindingTrie;
+import org.eclipse.e4.ui.bindings.internal.ContextSet;
+import org.eclipse.jface.bindings.Binding;
+import org.eclipse.jface.bindings.TriggerSequence;
+import org.eclipse.ui.PlatformUI;
+
+/**
+ * Compares looking up key sequences in the binding tables of every context
+ * with looking them up in the binding trie of the context set, the way the key
+ * binding dispatcher does for each key stroke. The bindings are those of the
+ * running workbench, that is the full default key configuration, and the
+ * sequences are the bound sequences and their prefixes.
+ */
+public class KeyBindingLookupPerformanceTest extends BasicPerformanceTest {
+
+	private static final int ITERATIONS = 20;
+
+	private static final int LOOKUPS = 10;
+
+	private BindingTableManager manager;
+
+	private ContextSet contextSet;
+
+	private TriggerSequence[] sequences;
+
+	/**
+	 * @param testName
+	 */
+	public KeyBindingLookupPerformanceTest(String testName) {
+		super(testName);
+	}
+
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+		IEclipseContext workbenchContext = (IEclipseContext) PlatformUI
+				.getWorkbench().getService(IEclipseContext.class);
+		manager = (BindingTableManager) workbenchContext
+				.get(BindingTableManager.class);
+		ContextManager contextManager = (ContextManager) workbenchContext
+				.get(ContextManager.class);
+
+		Set contextIds = new LinkedHashSet();
+		Set sequenceSet = new LinkedHashSet();
+		for (Iterator it = manager.getActiveBindings().iterator(); it.hasNext();) {
+			Binding binding = (Binding) it.next();
+			contextIds.add(binding.getContextId());
+			TriggerSequence[] prefixes = binding.getTriggerSequence()
+					.getPrefixes();
+			for (int i = 1; i < prefixes.length; i++) {
+				sequenceSet.add(prefixes[i]);
+			}
+			sequenceSet.add(binding.getTriggerSequence());
+		}
+		List contexts = new ArrayList();
+		for (Iterator it = contextIds.iterator(); it.hasNext();) {
+			contexts.add(contextManager.getContext((String) it.next()));
+		}
+		contextSet = manager.createContextSet(contexts);
+		sequences = (TriggerSequence[]) sequenceSet
+				.toArray(new TriggerSequence[sequenceSet.size()]);
+		assertTrue(sequences.length > 0);
+	}
+
+	public void testTableLookup() {
+		for (int i = 0; i < ITERATIONS; i++) {
+			startMeasuring();
+			for (int j = 0; j < LOOKUPS; j++) {
+				for (int k = 0; k < sequences.length; k++) {
+					manager.isPartialMatch(contextSet, sequences[k]);
+					manager.getPerfectMatch(contextSet, sequences[k]);
+				}
+			}
+			stopMeasuring();
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	public void testTrieLookup() {
+		BindingTrie trie = manager.getBindingTrie(contextSet);
+		for (int k = 0; k < sequences.length; k++) {
+			// the tables may still report prefixes of removed bindings
+			assertTrue(!trie.isPartialMatch(sequences[k])
+					|| manager.isPartialMatch(contextSet, sequences[k]));
+			assertSame(manager.getPerfectMatch(contextSet, sequences[k]), trie
+					.getPerfectMatch(sequences[k]));
+		}
+		for (int i = 0; i < ITERATIONS; i++) {
+			startMeasuring();
+			for (int j = 0; j < LOOKUPS; j++) {
+				trie = manager.getBindingTrie(contextSet);
+				for (int k = 0; k < sequences.length; k++) {
+					trie.isPartialMatch(sequences[k]);
+					trie.getPerfectMatch(sequences[k]);
+				}
+			}
+			stopMeasuring();
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+}
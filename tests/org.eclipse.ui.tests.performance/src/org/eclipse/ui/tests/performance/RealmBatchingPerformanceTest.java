@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.tests.performance;
+
+import org.eclipse.core.databinding.observable.Realm;
+import org.eclipse.core.databinding.observable.list.IListChangeListener;
+import org.eclipse.core.databinding.observable.list.ListChangeEvent;
+import org.eclipse.core.databinding.observable.list.WritableList;
+import org.eclipse.core.databinding.observable.value.ComputedValue;
+import org.eclipse.core.databinding.observable.value.IValueChangeListener;
+import org.eclipse.core.databinding.observable.value.ValueChangeEvent;
+import org.eclipse.core.databinding.observable.value.WritableValue;
+
+/**
+ * Compares a model update of 10000 changes notifying the listeners of each
+ * change with the same update run as a batch of the realm. The model is a list
+ * and a value, each with a listener and a computed value depending on it.
+ */
+public class RealmBatchingPerformanceTest extends BasicPerformanceTest {
+
+	private static final int CHANGES = 10000;
+
+	private static final int ITERATIONS = 10;
+
+	private final Realm realm = new Realm() {
+		public boolean isCurrent() {
+			return true;
+		}
+	};
+
+	private int notified;
+
+	/**
+	 * @param testName
+	 */
+	public RealmBatchingPerformanceTest(String testName) {
+		super(testName);
+	}
+
+	public void testUnbatchedChanges() {
+		measure(false);
+	}
+
+	public void testBatchedChanges() {
+		measure(true);
+	}
+
+	private void measure(boolean batched) {
+		final WritableList list = new WritableList(realm);
+		final WritableValue value = new WritableValue(realm, new Integer(0),
+				Integer.class);
+		final ComputedValue size = new ComputedValue(realm) {
+			protected Object calculate() {
+				return new Integer(list.size());
+			}
+		};
+		final ComputedValue twice = new ComputedValue(realm) {
+			protected Object calculate() {
+				return new Integer(((Integer) value.getValue()).intValue() * 2);
+			}
+		};
+		list.addListChangeListener(new IListChangeListener() {
+			public void handleListChange(ListChangeEvent event) {
+				notified++;
+			}
+		});
+		IValueChangeListener valueListener = new IValueChangeListener() {
+			public void handleValueChange(ValueChangeEvent event) {
+				notified++;
+				// read the new value like a binding would
+				event.diff.getNewValue();
+			}
+		};
+		value.addValueChangeListener(valueListener);
+		size.addValueChangeListener(valueListener);
+		twice.addValueChangeListener(valueListener);
+
+		Runnable update = new Runnable() {
+			public void run() {
+				for (int i = 0; i < CHANGES; i++) {
+					list.add(new Integer(i));
+					value.setValue(new Integer(i + 1));
+				}
+			}
+		};
+		for (int i = 0; i < ITERATIONS; i++) {
+			list.clear();
+			value.setValue(new Integer(0));
+			notified = 0;
+			startMeasuring();
+			if (batched) {
+				realm.runBatched(update);
+			} else {
+				update.run();
+			}
+			stopMeasuring();
+			// the batch notifies the four listeners once
+			assertEquals(batched ? 4 : 4 * CHANGES, notified);
+		}
+		commitMeasurements();
+		assertPerformance();
+		size.dispose();
+		twice.dispose();
+		list.dispose();
+		value.dispose();
+	}
+}
@@ -38,6 +38,11 @@ public class UIPerformanceTestSuite extends FilteredTestSuite {
         addTest(new ViewPerformanceSuite());
         addTest(new EditorPerformanceSuite());
         addTest(new TestSuite(CommandsPerformanceTest.class));
+        addTest(new TestSuite(EventBrokerPerformanceTest.class));
+        addTest(new TestSuite(BeanPropertyPerformanceTest.class));
+        addTest(new TestSuite(RealmBatchingPerformanceTest.class));
+        addTest(new TestSuite(KeyBindingLookupPerformanceTest.class));
+        addTest(new TestSuite(ArchiveExportPerformanceTest.class));
 		addTest(new LabelProviderTestSuite());
     }
 }
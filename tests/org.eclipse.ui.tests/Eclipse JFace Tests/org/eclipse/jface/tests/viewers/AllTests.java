@@ -28,6 +28,7 @@ public class AllTests extends TestSuite {
 		addTestSuite(MultipleEqualElementsTreeViewerTest.class);
 		addTestSuite(LazySortedCollectionTest.class);
 		addTestSuite(TreeViewerTest.class);
+		addTestSuite(KeyedTreeViewerTest.class);
 		addTestSuite(VirtualTreeViewerTest.class);
 		addTestSuite(SimpleTreeViewerTest.class);
 		addTestSuite(SimpleTableViewerTest.class);
@@ -66,5 +67,6 @@ public class AllTests extends TestSuite {
 		addTestSuite(Bug287765Test.class);
 		addTestSuite(StyledStringBuilderTest.class);
 		addTestSuite(TreeManagerTest.class);
+		addTestSuite(BackgroundCellLabelProviderTest.class);
 	}
 }
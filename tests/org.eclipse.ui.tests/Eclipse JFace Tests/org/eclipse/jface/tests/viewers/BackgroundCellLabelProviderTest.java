@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.jface.tests.viewers;
+
+import org.eclipse.jface.viewers.BackgroundCellLabelProvider;
+import org.eclipse.jface.viewers.LabelProvider;
+import org.eclipse.jface.viewers.LabelProviderChangedEvent;
+import org.eclipse.jface.viewers.StructuredViewer;
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Table;
+
+/**
+ * Tests the labels computed in background threads by a
+ * {@link BackgroundCellLabelProvider}.
+ *
+ * @since 3.10
+ */
+public class BackgroundCellLabelProviderTest extends ViewerTestCase {
+
+	private static final long TIMEOUT = 10000;
+
+	private TableViewer tableViewer;
+
+	private TestBackgroundLabelProvider labelProvider;
+
+	private class TestBackgroundLabelProvider extends LabelProvider {
+		volatile String prefix = "label ";
+
+		volatile boolean calledFromUIThread = false;
+
+		public String getText(Object element) {
+			if (Display.getCurrent() != null) {
+				calledFromUIThread = true;
+			}
+			return prefix + ((TestElement) element).getLabel();
+		}
+
+		void setPrefix(String prefix) {
+			this.prefix = prefix;
+			fireLabelProviderChanged(new LabelProviderChangedEvent(this));
+		}
+
+		void labelChanged(Object element) {
+			fireLabelProviderChanged(new LabelProviderChangedEvent(this,
+					element));
+		}
+	}
+
+	/**
+	 * @param name
+	 */
+	public BackgroundCellLabelProviderTest(String name) {
+		super(name);
+	}
+
+	protected StructuredViewer createViewer(Composite parent) {
+		tableViewer = new TableViewer(parent);
+		tableViewer.setContentProvider(new TestModelContentProvider());
+		labelProvider = new TestBackgroundLabelProvider();
+		BackgroundCellLabelProvider backgroundProvider = new BackgroundCellLabelProvider(
+				labelProvider);
+		backgroundProvider.setPlaceholder("...");
+		tableViewer.setLabelProvider(backgroundProvider);
+		return tableViewer;
+	}
+
+	public void testLabelsComputedInBackground() {
+		Table table = tableViewer.getTable();
+		assertTrue(table.getItemCount() > 0);
+		waitForLabels("label ");
+		assertFalse(labelProvider.calledFromUIThread);
+	}
+
+	public void testLabelProviderChanged() {
+		waitForLabels("label ");
+		labelProvider.setPrefix("changed ");
+		// The previous labels are shown until the new ones are computed
+		Table table = tableViewer.getTable();
+		assertTrue(table.getItem(0).getText().startsWith("label "));
+		waitForLabels("changed ");
+	}
+
+	public void testElementLabelChanged() {
+		waitForLabels("label ");
+		TestElement first = fRootElement.getFirstChild();
+		first.setLabel("renamed");
+		labelProvider.labelChanged(first);
+		Table table = tableViewer.getTable();
+		long end = System.currentTimeMillis() + TIMEOUT;
+		while (!"label renamed".equals(table.getItem(0).getText())) {
+			assertTrue("The label was not updated",
+					System.currentTimeMillis() < end);
+			dispatchOrSleep();
+		}
+	}
+
+	/**
+	 * Runs the event loop until all rows show labels with the given prefix.
+	 */
+	private void waitForLabels(String prefix) {
+		Table table = tableViewer.getTable();
+		long end = System.currentTimeMillis() + TIMEOUT;
+		while (true) {
+			boolean done = true;
+			for (int i = 0; i < table.getItemCount(); i++) {
+				TestElement element = (TestElement) table.getItem(i).getData();
+				if (!(prefix + element.getLabel()).equals(table.getItem(i)
+						.getText())) {
+					done = false;
+					break;
+				}
+			}
+			if (done) {
+				return;
+			}
+			assertTrue("The labels were not computed",
+					System.currentTimeMillis() < end);
+			dispatchOrSleep();
+		}
+	}
+
+	private void dispatchOrSleep() {
+		if (!fShell.getDisplay().readAndDispatch()) {
+			try {
+				Thread.sleep(10);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
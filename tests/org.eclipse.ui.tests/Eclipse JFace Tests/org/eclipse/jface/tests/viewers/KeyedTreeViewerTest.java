@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.tests.viewers;
+
+import org.eclipse.jface.viewers.StructuredViewer;
+import org.eclipse.jface.viewers.TreeViewer;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Tree;
+import org.eclipse.swt.widgets.TreeItem;
+
+/**
+ * Runs the tree viewer tests with the items matched by element when
+ * refreshing.
+ */
+public class KeyedTreeViewerTest extends TreeViewerTest {
+
+	public KeyedTreeViewerTest(String name) {
+		super(name);
+	}
+
+	protected StructuredViewer createViewer(Composite parent) {
+		StructuredViewer viewer = super.createViewer(parent);
+		fTreeViewer.setUseKeyedReconciliation(true);
+		return viewer;
+	}
+
+	public void testRefreshInsertedSiblingKeepsItems() {
+		fViewer.setSorter(new TestLabelSorter());
+		Tree tree = ((TreeViewer) fTreeViewer).getTree();
+		TreeItem[] oldItems = tree.getItems();
+
+		TestElement newElement = fRootElement.basicAddChild();
+		newElement.fSomeName = "name-9999";
+		fViewer.refresh();
+
+		TreeItem[] newItems = tree.getItems();
+		assertEquals(oldItems.length + 1, newItems.length);
+		assertEquals(newElement, newItems[0].getData());
+		for (int i = 0; i < oldItems.length; i++) {
+			assertSame("item kept", oldItems[i], newItems[i + 1]);
+		}
+	}
+
+	public void testReorderKeepsExpandedState() {
+		TestLabelSorter sorter = new TestLabelSorter();
+		fViewer.setSorter(sorter);
+		TestElement first = fRootElement.getFirstChild();
+		TestElement last = fRootElement.getLastChild();
+		fTreeViewer.setExpandedState(first, true);
+		fTreeViewer.setExpandedState(last, true);
+
+		fViewer.setSorter(null);
+		fViewer.refresh();
+
+		Tree tree = ((TreeViewer) fTreeViewer).getTree();
+		TreeItem[] items = tree.getItems();
+		assertEquals(fRootElement.getChildCount(), items.length);
+		for (int i = 0; i < items.length; i++) {
+			assertEquals(fRootElement.getChildAt(i), items[i].getData());
+		}
+		assertTrue(fTreeViewer.getExpandedState(first));
+		assertTrue(fTreeViewer.getExpandedState(last));
+		assertNotNull(fViewer.testFindItem(first.getFirstChild()));
+		assertNotNull(fViewer.testFindItem(last.getFirstChild()));
+	}
+
+	public static void main(String args[]) {
+		junit.textui.TestRunner.run(KeyedTreeViewerTest.class);
+	}
+}
@@ -11,7 +11,9 @@
 package org.eclipse.jface.tests.viewers;
 
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Iterator;
+import java.util.Random;
 import java.util.TreeSet;
 
 import junit.framework.Assert;
@@ -509,6 +511,44 @@ public class LazySortedCollectionTest extends TestCase {
         assertContentsValid();
     }
     
+    /**
+     * Compares the results of sorting a large collection in parallel and serially.
+     * 
+     * @since 3.10
+     */
+    public void testParallelPartition() {
+        Comparator order = new Comparator() {
+            public int compare(Object o1, Object o2) {
+                return ((Integer) o1).compareTo((Integer) o2);
+            }
+        };
+        LazySortedCollection serial = new LazySortedCollection(order);
+        LazySortedCollection parallel = new LazySortedCollection(order);
+        parallel.setParallel(true);
+        
+        Random random = new Random(0);
+        Object[] values = new Object[50000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = new Integer(random.nextInt());
+        }
+        serial.addAll(values);
+        parallel.addAll(values);
+        
+        // Partially sort a range in the middle, then everything
+        Object[] serialRange = new Object[100];
+        Object[] parallelRange = new Object[100];
+        Assert.assertEquals(100, serial.getRange(serialRange, 20000, true));
+        Assert.assertEquals(100, parallel.getRange(parallelRange, 20000, true));
+        assertArrayEquals(serialRange, parallelRange);
+        parallel.testInvariants();
+        
+        Object[] sorted = (Object[]) values.clone();
+        Arrays.sort(sorted, order);
+        assertArrayEquals(sorted, serial.getItems(true));
+        assertArrayEquals(sorted, parallel.getItems(true));
+        parallel.testInvariants();
+    }
+    
     //    
 //    
 //    public static void testAdditions() {
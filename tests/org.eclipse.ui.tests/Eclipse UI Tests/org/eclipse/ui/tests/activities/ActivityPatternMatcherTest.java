@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.tests.activities;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.eclipse.ui.internal.activities.ActivityPatternBinding;
+import org.eclipse.ui.internal.activities.ActivityPatternMatcher;
+
+/**
+ * Tests the matching of identifiers against all the activity pattern bindings
+ * at once.
+ */
+public class ActivityPatternMatcherTest extends TestCase {
+
+	private static final String[] IDENTIFIERS = {
+			"org.eclipse.jdt.ui/org.eclipse.jdt.ui.PackageExplorer",
+			"org.eclipse.jdt.debug.ui/launch", "org.eclipse.pde.ui/editor",
+			"org.eclipse.team.cvs.ui/view", "org.eclipse.ui/view", "jdt",
+			"org.eclipse.jdt.ui", "", "x/org.eclipse.jdt.ui" };
+
+	private Map bindingsByActivityId = new HashMap();
+
+	private void addBinding(String activityId, String pattern,
+			boolean isEqualityPattern) {
+		Set bindings = (Set) bindingsByActivityId.get(activityId);
+		if (bindings == null) {
+			bindings = new HashSet();
+			bindingsByActivityId.put(activityId, bindings);
+		}
+		bindings.add(new ActivityPatternBinding(activityId, pattern,
+				isEqualityPattern));
+	}
+
+	public void testLiteralPrefix() {
+		assertEquals("org.eclipse.jdt.", ActivityPatternMatcher
+				.getLiteralPrefix("org\\.eclipse\\.jdt\\..*"));
+		assertEquals("org", ActivityPatternMatcher
+				.getLiteralPrefix("org.eclipse.*"));
+		assertEquals("ab", ActivityPatternMatcher.getLiteralPrefix("abc?d"));
+		assertEquals("ab", ActivityPatternMatcher.getLiteralPrefix("abc*"));
+		assertEquals("abc", ActivityPatternMatcher.getLiteralPrefix("abc+"));
+		assertEquals("a.b", ActivityPatternMatcher
+				.getLiteralPrefix("\\Qa.b\\E.*"));
+		assertEquals("", ActivityPatternMatcher.getLiteralPrefix("abc|def"));
+		assertEquals("", ActivityPatternMatcher.getLiteralPrefix("(?i)abc"));
+		assertEquals("org", ActivityPatternMatcher
+				.getLiteralPrefix("org\\w+"));
+	}
+
+	public void testMatchesLikeBindings() {
+		addBinding("jdt", "org\\.eclipse\\.jdt\\..*", false);
+		addBinding("jdt", "jdt", true);
+		addBinding("debug", ".*debug.*", false);
+		addBinding("pde", "org\\.eclipse\\.pde\\.ui/.*", false);
+		addBinding("team", "org.eclipse.team.*|.*cvs.*", false);
+		addBinding("ui", "org\\.eclipse\\.ui/view", false);
+		addBinding("optional", "org\\.eclipse\\.jdt?\\.ui", false);
+		addBinding("undefined", ".*", false);
+
+		Set definedActivityIds = new HashSet(Arrays.asList(new String[] {
+				"jdt", "debug", "pde", "team", "ui", "optional" }));
+		ActivityPatternMatcher matcher = new ActivityPatternMatcher(
+				bindingsByActivityId, definedActivityIds);
+
+		for (int i = 0; i < IDENTIFIERS.length; i++) {
+			String identifier = IDENTIFIERS[i];
+			Set expected = new HashSet();
+			for (Iterator iterator = definedActivityIds.iterator(); iterator
+					.hasNext();) {
+				String activityId = (String) iterator.next();
+				Set bindings = (Set) bindingsByActivityId.get(activityId);
+				for (Iterator iterator2 = bindings.iterator(); iterator2
+						.hasNext();) {
+					if (((ActivityPatternBinding) iterator2.next())
+							.isMatch(identifier)) {
+						expected.add(activityId);
+					}
+				}
+			}
+			assertEquals(identifier, expected, matcher
+					.getActivityIds(identifier));
+			// The result is remembered
+			assertSame(matcher.getActivityIds(identifier), matcher
+					.getActivityIds(identifier));
+		}
+	}
+}
@@ -11,16 +11,19 @@
 package org.eclipse.ui.tests.datatransfer;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
@@ -50,6 +53,7 @@ public class ExportArchiveFileOperationTest extends UITestCase implements
     private static final String[] directoryNames = { "dir1", "dir2" };
     private static final String[] emptyDirectoryNames = { "dir3" };
     private static final String[] fileNames = { "file1.txt", "file2.txt" };
+    private static final String LARGE_FILE_NAME = "large.bin";
     
     private String localDirectory;
     
@@ -105,6 +109,38 @@ public class ExportArchiveFileOperationTest extends UITestCase implements
 		verifyCompressed(ZIP_FILE_EXT);
 	}
 	
+	public void testExportZipCompressionLevel() throws Exception {
+		filePath = localDirectory + "/" + FILE_NAME + "." + ZIP_FILE_EXT;
+		List resources = new ArrayList();
+		resources.add(project);
+        ArchiveFileExportOperation operation = 
+        	new ArchiveFileExportOperation(resources, filePath);
+
+        operation.setUseCompression(true);
+        operation.setCompressionLevel(Deflater.BEST_SPEED);
+        operation.setUseTarFormat(false);
+        operation.run(new NullProgressMonitor());	
+		verifyCompressed(ZIP_FILE_EXT);
+		verifyFolders(directoryNames.length + emptyDirectoryNames.length, ZIP_FILE_EXT);
+	}
+	
+	public void testExportZipLargeFile() throws Exception {
+		filePath = localDirectory + "/" + FILE_NAME + "." + ZIP_FILE_EXT;
+		byte[] contents = createLargeFile();
+		List resources = new ArrayList();
+		resources.add(project);
+        ArchiveFileExportOperation operation = 
+        	new ArchiveFileExportOperation(resources, filePath);
+
+        operation.setUseCompression(false);
+        operation.setUseTarFormat(false);
+        operation.run(new NullProgressMonitor());
+        
+        verifyContents(ZIP_FILE_EXT, project.getName() + "/" + LARGE_FILE_NAME, contents);
+        verifyContents(ZIP_FILE_EXT, project.getName() + "/" + directoryNames[0] + "/"
+        		+ fileNames[0], (directoryNames[0] + ", " + fileNames[0]).getBytes());
+	}
+	
 	public void testExportZipCreateSelectedDirectories() throws Exception {
 		filePath = localDirectory + "/" + FILE_NAME + "." + ZIP_FILE_EXT;
 		List resources = new ArrayList();
@@ -202,6 +238,68 @@ public class ExportArchiveFileOperationTest extends UITestCase implements
 		verifyCompressed(TAR_FILE_EXT);		
 	}
 	
+	public void testExportTarLargeFile() throws Exception {
+		filePath = localDirectory + "/" + FILE_NAME + "." + TAR_FILE_EXT;
+		byte[] contents = createLargeFile();
+		List resources = new ArrayList();
+		resources.add(project);
+        ArchiveFileExportOperation operation = 
+        	new ArchiveFileExportOperation(resources, filePath);
+
+        operation.setUseTarFormat(true);
+        operation.setUseCompression(true);
+        operation.run(new NullProgressMonitor());
+        
+        verifyContents(TAR_FILE_EXT, project.getName() + "/" + LARGE_FILE_NAME, contents);
+	}
+	
+	public void testExportTarRandomAccess() throws Exception {
+		filePath = localDirectory + "/" + FILE_NAME + "." + TAR_FILE_EXT;
+		List resources = new ArrayList();
+		resources.add(project);
+		for (int compress = 0; compress < 2; compress++) {
+	        ArchiveFileExportOperation operation = 
+	        	new ArchiveFileExportOperation(resources, filePath);
+	        operation.setUseTarFormat(true);
+	        operation.setUseCompression(compress == 1);
+	        operation.run(new NullProgressMonitor());
+	
+	        TarFile tarFile = new TarFile(filePath);
+	        try {
+	        	List entries = new ArrayList();
+	        	Enumeration enumeration = tarFile.entries();
+	        	while (enumeration.hasMoreElements()) {
+	        		TarEntry entry = (TarEntry) enumeration.nextElement();
+	        		if (entry.getName().endsWith(".txt"))
+	        			entries.add(entry);
+	        	}
+	        	assertEquals(directoryNames.length * fileNames.length, entries.size());
+	        	// read the entries forwards, then backwards again
+	        	for (int i = 2 * entries.size() - 1; i >= 0; i--) {
+	        		int index = i < entries.size() ? i : 2 * entries.size() - 1 - i;
+	        		TarEntry entry = (TarEntry) entries.get(index);
+	        		String name = entry.getName();
+	        		String[] segments = name.split("/");
+	        		String expected = segments[segments.length - 2] + ", "
+	        				+ segments[segments.length - 1];
+	        		InputStream in = tarFile.getInputStream(entry);
+	        		byte[] contents = new byte[(int) entry.getSize()];
+	        		int read = 0;
+	        		while (read < contents.length) {
+	        			int n = in.read(contents, read, contents.length - read);
+	        			assertTrue("Early end of " + name, n > 0);
+	        			read += n;
+	        		}
+	        		in.close();
+	        		assertEquals(expected, new String(contents));
+	        	}
+	        } finally {
+	        	tarFile.close();
+	        }
+	        new File(filePath).delete();
+		}
+	}
+	
 	public void testExportTarCreateSelectedDirectories() throws Exception {
 		filePath = localDirectory + "/" + FILE_NAME + "." + TAR_FILE_EXT;
 		List resources = new ArrayList();
@@ -338,6 +436,58 @@ public class ExportArchiveFileOperationTest extends UITestCase implements
     	}
     }
     
+    /**
+     * Creates a file too large to be kept in memory by the exporters.
+     */
+    private byte[] createLargeFile() throws CoreException {
+    	byte[] contents = new byte[3 * 1024 * 1024 + 17];
+    	for (int i = 0; i < contents.length; i++) {
+    		contents[i] = (byte) (i * 31 + i / 7);
+    	}
+    	IFile file = project.getFile(LARGE_FILE_NAME);
+    	file.create(new ByteArrayInputStream(contents), true, new NullProgressMonitor());
+    	return contents;
+    }
+    
+    private void verifyContents(String type, String entryName, byte[] expected)
+    		throws Exception {
+    	InputStream in;
+    	ZipFile zipFile = null;
+    	TarFile tarFile = null;
+    	if (ZIP_FILE_EXT.equals(type)) {
+    		zipFile = new ZipFile(filePath);
+    		ZipEntry entry = zipFile.getEntry(entryName);
+    		assertNotNull("Could not find entry named: " + entryName, entry);
+    		in = zipFile.getInputStream(entry);
+    	} else {
+    		tarFile = new TarFile(filePath);
+    		TarEntry entry = null;
+    		Enumeration entries = tarFile.entries();
+    		while (entries.hasMoreElements() && entry == null) {
+    			TarEntry next = (TarEntry) entries.nextElement();
+    			if (entryName.equals(next.getName()))
+    				entry = next;
+    		}
+    		assertNotNull("Could not find entry named: " + entryName, entry);
+    		in = tarFile.getInputStream(entry);
+    	}
+    	try {
+    		ByteArrayOutputStream actual = new ByteArrayOutputStream();
+    		byte[] buffer = new byte[8192];
+    		int n;
+    		while ((n = in.read(buffer)) > 0)
+    			actual.write(buffer, 0, n);
+    		assertTrue("Unexpected contents for " + entryName,
+    				Arrays.equals(expected, actual.toByteArray()));
+    	} finally {
+    		in.close();
+    		if (zipFile != null)
+    			zipFile.close();
+    		if (tarFile != null)
+    			tarFile.close();
+    	}
+    }
+    
     private void verifyCompressed(String type){
     	String fileName = "";
 		boolean compressed = false;
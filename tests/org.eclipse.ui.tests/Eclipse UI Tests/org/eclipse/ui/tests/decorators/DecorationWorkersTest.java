@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.ui.tests.decorators;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.jface.viewers.ILabelProviderListener;
+import org.eclipse.jface.viewers.LabelProviderChangedEvent;
+import org.eclipse.ui.internal.decorators.DecoratorDefinition;
+import org.eclipse.ui.internal.decorators.DecoratorManager;
+import org.eclipse.ui.tests.harness.util.FileUtil;
+import org.eclipse.ui.tests.harness.util.UITestCase;
+
+/**
+ * Tests decorating with several decoration jobs, set with the
+ * <code>org.eclipse.ui.decorators.workers</code> system property.
+ */
+public class DecorationWorkersTest extends UITestCase {
+
+	private static final String WORKERS_PROPERTY = "org.eclipse.ui.decorators.workers";
+
+	private static final int FILES = 200;
+
+	private DecoratorManager manager;
+
+	private IProject project;
+
+	private IFile[] files;
+
+	private Set decorated = new HashSet();
+
+	/**
+	 * Decorates the elements reported as changed, like a viewer, while their
+	 * decorations are cached.
+	 */
+	private ILabelProviderListener listener = new ILabelProviderListener() {
+		public void labelProviderChanged(LabelProviderChangedEvent event) {
+			Object[] elements = event.getElements();
+			if (elements == null) {
+				return;
+			}
+			for (int i = 0; i < elements.length; i++) {
+				if (elements[i] instanceof IFile) {
+					IFile file = (IFile) elements[i];
+					String text = manager.decorateText(file.getName(), file);
+					if (text.startsWith(TestLightweightDecoratorContributor.DECORATOR_PREFIX)
+							&& text.endsWith(TestLightweightDecoratorContributor.DECORATOR_SUFFIX)) {
+						decorated.add(file);
+					}
+				}
+			}
+		}
+	};
+
+	/**
+	 * @param testName
+	 */
+	public DecorationWorkersTest(String testName) {
+		super(testName);
+	}
+
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+		System.setProperty(WORKERS_PROPERTY, "4");
+		try {
+			manager = new DecoratorManager();
+		} finally {
+			System.getProperties().remove(WORKERS_PROPERTY);
+		}
+		DecoratorDefinition[] definitions = manager
+				.getAllDecoratorDefinitions();
+		for (int i = 0; i < definitions.length; i++) {
+			if (definitions[i].getId().equals(
+					"org.eclipse.ui.tests.decorators.lightweightdecorator")) {
+				definitions[i].setEnabled(true);
+			}
+		}
+		manager.addListener(listener);
+
+		project = FileUtil.createProject("DecorationWorkersTest");
+		files = new IFile[FILES];
+		for (int i = 0; i < FILES; i++) {
+			files[i] = FileUtil.createFile("file" + i + ".txt", project);
+		}
+	}
+
+	protected void doTearDown() throws Exception {
+		manager.removeListener(listener);
+		manager.shutdown();
+		FileUtil.deleteProject(project);
+		super.doTearDown();
+	}
+
+	public void testAllElementsDecorated() throws Exception {
+		for (int i = 0; i < FILES; i++) {
+			manager.prepareDecoration(files[i], files[i].getName());
+		}
+		assertTrue("Not all files were decorated", processEventsUntil(
+				new Condition() {
+					public boolean compute() {
+						return decorated.size() == FILES;
+					}
+				}, 30000));
+	}
+
+	public void testContributorsFlushedWhileDecorating() throws Exception {
+		for (int i = 0; i < FILES; i++) {
+			manager.prepareDecoration(files[i], files[i].getName());
+			// the jobs look the contributors up meanwhile
+			manager.getLightweightManager().flushLookup();
+		}
+		assertTrue("Not all files were decorated", processEventsUntil(
+				new Condition() {
+					public boolean compute() {
+						manager.getLightweightManager().flushLookup();
+						return decorated.size() == FILES;
+					}
+				}, 30000));
+	}
+}
@@ -36,6 +36,8 @@ public class DecoratorsTestSuite extends TestSuite {
 //		addTest(new TestSuite(DecoratorTableTreeTest.class));
 		addTest(DecoratorAdaptableTests.suite());
 		addTest(new TestSuite(DecoratorCacheTest.class));
+		addTest(new TestSuite(PersistentDecorationCacheTest.class));
+		addTest(new TestSuite(DecorationWorkersTest.class));
 	}
 
 }
@@ -0,0 +1,193 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.ui.tests.decorators;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.ui.internal.WorkbenchPlugin;
+import org.eclipse.ui.internal.decorators.DecoratorDefinition;
+import org.eclipse.ui.internal.decorators.DecoratorManager;
+import org.eclipse.ui.tests.harness.util.FileUtil;
+import org.eclipse.ui.tests.harness.util.UITestCase;
+
+/**
+ * Tests keeping the decorations between sessions, set with the
+ * <code>org.eclipse.ui.decorators.persistentCache</code> system property.
+ * Each session is a new decorator manager.
+ */
+public class PersistentDecorationCacheTest extends UITestCase {
+
+	private static final String PERSISTENT_CACHE_PROPERTY = "org.eclipse.ui.decorators.persistentCache";
+
+	private static final String DECLARED_ID = "org.eclipse.ui.tests.decorators.declareddecorator";
+
+	private static final String NULL_IMAGE_ID = "org.eclipse.ui.tests.lightNullImageDecorator";
+
+	// The decorators defining a class in org.eclipse.ui.ide, which apply to
+	// all of the resources
+	private static final String[] IDE_IDS = new String[] {
+			"org.eclipse.ui.LinkedResourceDecorator",
+			"org.eclipse.ui.SymlinkDecorator",
+			"org.eclipse.ui.VirtualResourceDecorator" };
+
+	private DecoratorManager manager;
+
+	private Set enabledIds;
+
+	private File cacheFile;
+
+	private IProject project;
+
+	private IFile file;
+
+	// Decorated first in each session, so that the decorations of the
+	// previous session have been read once it is decorated
+	private IFile probe;
+
+	/**
+	 * @param testName
+	 */
+	public PersistentDecorationCacheTest(String testName) {
+		super(testName);
+	}
+
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+		cacheFile = WorkbenchPlugin.getDefault().getDataLocation().append(
+				"decorations.cache").toFile();
+		cacheFile.delete();
+		enabledIds = new HashSet(Arrays.asList(IDE_IDS));
+		enabledIds.add(DECLARED_ID);
+		enabledIds.add(TestPersistableDecorator.ID);
+
+		project = FileUtil.createProject("PersistentDecorationCacheTest");
+		file = FileUtil.createFile("file.txt", project);
+		probe = FileUtil.createFile("probe.txt", project);
+	}
+
+	protected void doTearDown() throws Exception {
+		if (manager != null) {
+			manager.shutdown();
+		}
+		TestPersistableDecorator.persistable = true;
+		TestPersistableDecorator.decorated.clear();
+		FileUtil.deleteProject(project);
+		cacheFile.delete();
+		super.doTearDown();
+	}
+
+	/**
+	 * End the current session, which saves its decorations, and start a new
+	 * one with the decorators of {@link #enabledIds}.
+	 */
+	private void startSession() {
+		if (manager != null) {
+			manager.shutdown();
+		}
+		System.setProperty(PERSISTENT_CACHE_PROPERTY, "true");
+		try {
+			manager = new DecoratorManager();
+		} finally {
+			System.getProperties().remove(PERSISTENT_CACHE_PROPERTY);
+		}
+		DecoratorDefinition[] definitions = manager
+				.getAllDecoratorDefinitions();
+		for (int i = 0; i < definitions.length; i++) {
+			definitions[i].setEnabled(enabledIds.contains(definitions[i]
+					.getId()));
+		}
+		TestPersistableDecorator.decorated.clear();
+		decorate(probe);
+	}
+
+	private void decorate(final Object element) {
+		manager.prepareDecoration(element, "text");
+		assertTrue("Not decorated", processEventsUntil(new Condition() {
+			public boolean compute() {
+				return manager.prepareDecoration(element, "text");
+			}
+		}, 30000));
+	}
+
+	/**
+	 * Return whether the decoration of the element is served from the
+	 * previous session, without decorating the element.
+	 */
+	private boolean isRestored(Object element) {
+		// Looks the decoration up, and queues the element if there is none
+		manager.decorateForeground(element);
+		return manager.prepareDecoration(element, "text")
+				&& !TestPersistableDecorator.decorated.contains(element);
+	}
+
+	private void decorateAndRestart() {
+		startSession();
+		decorate(file);
+		assertTrue(TestPersistableDecorator.decorated.contains(file));
+		startSession();
+		assertTrue(cacheFile.exists());
+	}
+
+	public void testRestored() {
+		decorateAndRestart();
+		assertTrue(isRestored(file));
+	}
+
+	public void testNotRestoredBeforeDecorated() {
+		startSession();
+		startSession();
+		assertFalse(isRestored(file));
+	}
+
+	public void testOverlayNotPersistable() {
+		TestPersistableDecorator.persistable = false;
+		decorateAndRestart();
+		assertFalse(isRestored(file));
+	}
+
+	public void testDecoratorNotPersistable() {
+		enabledIds.add(NULL_IMAGE_ID);
+		decorateAndRestart();
+		assertFalse(isRestored(file));
+	}
+
+	public void testStampChanged() throws Exception {
+		startSession();
+		decorate(file);
+		file.setContents(new ByteArrayInputStream("changed".getBytes()),
+				true, false, null);
+		startSession();
+		assertFalse(isRestored(file));
+	}
+
+	public void testDecoratorsChanged() {
+		startSession();
+		decorate(file);
+		enabledIds.remove(DECLARED_ID);
+		startSession();
+		assertFalse(isRestored(file));
+	}
+
+	public void testDecoratorUpdated() {
+		startSession();
+		decorate(file);
+		manager.update(TestPersistableDecorator.ID);
+		startSession();
+		assertFalse(isRestored(file));
+	}
+}
@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.ui.tests.decorators;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.jface.viewers.IDecoration;
+import org.eclipse.jface.viewers.ILabelProviderListener;
+import org.eclipse.jface.viewers.ILightweightLabelDecorator;
+import org.eclipse.ui.internal.decorators.IPersistableDecorator;
+import org.eclipse.ui.plugin.AbstractUIPlugin;
+import org.eclipse.ui.tests.TestPlugin;
+
+/**
+ * A decorator defining a class whose overlay may be kept between sessions,
+ * which records the elements it decorates.
+ */
+public class TestPersistableDecorator implements ILightweightLabelDecorator,
+		IPersistableDecorator {
+
+	public static final String ID = "org.eclipse.ui.tests.decorators.persistabledecorator";
+
+	private static final String OVERLAY_KEY = "overlay";
+
+	private static final ImageDescriptor OVERLAY = AbstractUIPlugin
+			.imageDescriptorFromPlugin(TestPlugin.PLUGIN_ID,
+					"icons/binary_co.gif");
+
+	/**
+	 * The elements decorated so far.
+	 */
+	public static final Set decorated = Collections
+			.synchronizedSet(new HashSet());
+
+	/**
+	 * Whether the overlay has a key, so that it may be kept.
+	 */
+	public static boolean persistable = true;
+
+	public void decorate(Object element, IDecoration decoration) {
+		decorated.add(element);
+		decoration.addOverlay(OVERLAY);
+	}
+
+	public String getOverlayKey(ImageDescriptor overlay) {
+		return persistable && overlay == OVERLAY ? OVERLAY_KEY : null;
+	}
+
+	public ImageDescriptor getOverlay(String key) {
+		return OVERLAY_KEY.equals(key) ? OVERLAY : null;
+	}
+
+	public void addListener(ILabelProviderListener listener) {
+		// no events
+	}
+
+	public void dispose() {
+		// no resources to dispose
+	}
+
+	public boolean isLabelProperty(Object element, String property) {
+		return false;
+	}
+
+	public void removeListener(ILabelProviderListener listener) {
+		// no events
+	}
+}
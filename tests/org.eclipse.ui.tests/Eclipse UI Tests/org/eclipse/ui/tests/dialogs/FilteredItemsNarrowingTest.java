@@ -0,0 +1,258 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.ui.tests.dialogs;
+
+import java.util.Comparator;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.jface.dialogs.DialogSettings;
+import org.eclipse.jface.dialogs.IDialogSettings;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Table;
+import org.eclipse.swt.widgets.Text;
+import org.eclipse.ui.IMemento;
+import org.eclipse.ui.PlatformUI;
+import org.eclipse.ui.dialogs.FilteredItemsSelectionDialog;
+import org.eclipse.ui.tests.harness.util.UITestCase;
+
+/**
+ * Tests narrowing the items of a filtered items dialog when the pattern is
+ * refined.
+ */
+public class FilteredItemsNarrowingTest extends UITestCase {
+
+	private static final int ITEM_COUNT = 20000;
+
+	private NarrowingDialog dialog;
+
+	/**
+	 * @param testName
+	 */
+	public FilteredItemsNarrowingTest(String testName) {
+		super(testName);
+	}
+
+	protected void doTearDown() throws Exception {
+		if (dialog != null) {
+			dialog.close();
+			dialog = null;
+		}
+		super.doTearDown();
+	}
+
+	/**
+	 * The comparator depends on the pattern, so the narrowed items must be
+	 * sorted again and not keep the order of the wider result.
+	 *
+	 * @throws Exception
+	 */
+	public void testNarrowedItemsSorted() throws Exception {
+		openDialog(false);
+		// item1, item10-19, item100-199, item1000-1999, item10000-19999
+		assertItems("item1", 11111);
+		// item12, item120-129, item1200-1299, item12000-12999
+		assertItems("item12", 1111);
+		assertEquals(1, dialog.maxConcurrentMatches);
+	}
+
+	public void testNarrowedConcurrently() throws Exception {
+		openDialog(true);
+		assertItems("item1", 11111);
+		assertItems("item12", 1111);
+		assertItems("item123", 111);
+	}
+
+	/**
+	 * The history items are merged with the narrowed items, before them.
+	 *
+	 * @throws Exception
+	 */
+	public void testHistoryItemsMerged() throws Exception {
+		openDialog(false);
+		assertItems("item1", 11111);
+		dialog.addHistoryItem("item1999");
+		dialog.addHistoryItem("item2");
+
+		((Text) findControl(dialog.getShell(), Text.class)).setText("item19");
+		final Table table = (Table) findControl(dialog.getShell(),
+				Table.class);
+		// item19, item190-199, item1900-1999, item19000-19999
+		assertTrue(processEventsUntil(new Condition() {
+			public boolean compute() {
+				return table.getItemCount() == 1111;
+			}
+		}, 30000));
+		processEvents();
+
+		assertEquals("item1999", table.getItem(0).getText());
+		assertEquals("item19", table.getItem(1).getText());
+		for (int i = 3; i < 1111; i++) {
+			String previous = table.getItem(i - 1).getText();
+			String item = table.getItem(i).getText();
+			assertTrue(previous + " before " + item,
+					previous.compareTo(item) > 0);
+			assertFalse("item1999".equals(item));
+		}
+	}
+
+	private void openDialog(boolean concurrent) {
+		Shell parent = PlatformUI.getWorkbench().getActiveWorkbenchWindow()
+				.getShell();
+		dialog = new NarrowingDialog(parent, concurrent);
+		dialog.setBlockOnOpen(false);
+		dialog.open();
+	}
+
+	private void assertItems(String pattern, final int count) {
+		((Text) findControl(dialog.getShell(), Text.class)).setText(pattern);
+		final Table table = (Table) findControl(dialog.getShell(),
+				Table.class);
+		assertTrue(processEventsUntil(new Condition() {
+			public boolean compute() {
+				return table.getItemCount() == count;
+			}
+		}, 30000));
+		processEvents();
+
+		// the item matching the pattern first, then the others descending
+		assertEquals(pattern, table.getItem(0).getText());
+		for (int i = 2; i < count; i++) {
+			String previous = table.getItem(i - 1).getText();
+			String item = table.getItem(i).getText();
+			assertTrue(item.startsWith(pattern));
+			assertTrue(previous + " before " + item,
+					previous.compareTo(item) > 0);
+		}
+	}
+
+	private static Control findControl(Control control, Class type) {
+		if (type.isInstance(control)) {
+			return control;
+		}
+		if (control instanceof Composite) {
+			Control[] children = ((Composite) control).getChildren();
+			for (int i = 0; i < children.length; i++) {
+				Control found = findControl(children[i], type);
+				if (found != null) {
+					return found;
+				}
+			}
+		}
+		return null;
+	}
+
+	private static class NarrowingDialog extends FilteredItemsSelectionDialog {
+
+		private final boolean concurrent;
+
+		private volatile String pattern = ""; //$NON-NLS-1$
+
+		private int concurrentMatches;
+
+		int maxConcurrentMatches;
+
+		NarrowingDialog(Shell shell, boolean concurrent) {
+			super(shell);
+			this.concurrent = concurrent;
+			setTitle("Narrowing"); //$NON-NLS-1$
+			setSelectionHistory(new SelectionHistory() {
+				protected Object restoreItemFromMemento(IMemento memento) {
+					return null;
+				}
+
+				protected void storeItemToMemento(Object item, IMemento memento) {
+					// not stored
+				}
+			});
+		}
+
+		void addHistoryItem(Object item) {
+			accessedHistoryItem(item);
+		}
+
+		protected Control createExtendedContentArea(Composite parent) {
+			return null;
+		}
+
+		protected IDialogSettings getDialogSettings() {
+			return new DialogSettings("Narrowing"); //$NON-NLS-1$
+		}
+
+		protected IStatus validateItem(Object item) {
+			return Status.OK_STATUS;
+		}
+
+		protected ItemsFilter createFilter() {
+			ItemsFilter filter = new ItemsFilter() {
+				public boolean matchItem(Object item) {
+					synchronized (NarrowingDialog.this) {
+						concurrentMatches++;
+						maxConcurrentMatches = Math.max(maxConcurrentMatches,
+								concurrentMatches);
+					}
+					try {
+						return matches((String) item);
+					} finally {
+						synchronized (NarrowingDialog.this) {
+							concurrentMatches--;
+						}
+					}
+				}
+
+				public boolean isConsistentItem(Object item) {
+					return true;
+				}
+
+				public boolean canMatchConcurrently() {
+					return concurrent;
+				}
+			};
+			pattern = filter.getPattern();
+			return filter;
+		}
+
+		protected Comparator getItemsComparator() {
+			return new Comparator() {
+				public int compare(Object o1, Object o2) {
+					if (o1.equals(o2)) {
+						return 0;
+					}
+					if (o1.equals(pattern)) {
+						return -1;
+					}
+					if (o2.equals(pattern)) {
+						return 1;
+					}
+					return ((String) o2).compareTo((String) o1);
+				}
+			};
+		}
+
+		protected void fillContentProvider(
+				AbstractContentProvider contentProvider,
+				ItemsFilter itemsFilter, IProgressMonitor progressMonitor)
+				throws CoreException {
+			for (int i = 0; i < ITEM_COUNT; i++) {
+				contentProvider.add("item" + i, itemsFilter); //$NON-NLS-1$
+			}
+		}
+
+		public String getElementName(Object item) {
+			return (String) item;
+		}
+	}
+}
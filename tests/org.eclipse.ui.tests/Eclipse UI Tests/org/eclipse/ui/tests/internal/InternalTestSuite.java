@@ -21,6 +21,7 @@ import org.eclipse.ui.tests.markers.MarkerSortUtilTest;
 import org.eclipse.ui.tests.markers.MarkerSupportRegistryTests;
 import org.eclipse.ui.tests.markers.MarkerTesterTest;
 import org.eclipse.ui.tests.markers.MarkerViewTests;
+import org.eclipse.ui.tests.markers.MarkersViewUpdateTest;
 import org.eclipse.ui.tests.markers.ResourceMappingMarkersTest;
 
 /**
@@ -51,6 +52,7 @@ public class InternalTestSuite extends TestSuite {
         addTest(new TestSuite(DeclarativeFilterActivityTest.class));
         addTest(new TestSuite(DeclarativeFilterDeclarationTest.class));
         addTest(new TestSuite(ResourceMappingMarkersTest.class));
+        addTest(new TestSuite(MarkersViewUpdateTest.class));
         addTest(new TestSuite(MarkerSupportRegistryTests.class));
         addTest(new TestSuite(MarkerSortUtilTest.class));       
         addTest(new TestSuite(MarkerViewTests.class));
@@ -64,5 +66,6 @@ public class InternalTestSuite extends TestSuite {
         addTest(new TestSuite(StickyViewManagerTest.class));
         addTest(new TestSuite(FileEditorMappingTest.class));
         addTest(new TestSuite(WorkbenchSiteProgressServiceModelTagsTest.class));
+        addTest(new TestSuite(ResourceNameIndexTest.class));
     }
 }
@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.internal;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.ui.internal.ide.misc.ResourceNameIndex;
+import org.eclipse.ui.tests.harness.util.FileUtil;
+import org.eclipse.ui.tests.harness.util.UITestCase;
+
+/**
+ * Tests that the resource name index follows the changes of the workspace and
+ * finds the resources by the prefix of their name.
+ */
+public class ResourceNameIndexTest extends UITestCase {
+
+	private static final int MANY = 5000;
+
+	private static final ResourceNameIndex.INameMatcher ALL = new ResourceNameIndex.INameMatcher() {
+		public boolean matches(String name) {
+			return true;
+		}
+	};
+
+	private ResourceNameIndex index;
+
+	private IProject project;
+
+	/**
+	 * @param testName
+	 */
+	public ResourceNameIndexTest(String testName) {
+		super(testName);
+	}
+
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+		index = ResourceNameIndex.getDefault();
+		assertNotNull("The index is disabled", index);
+		long timeout = System.currentTimeMillis() + 60000;
+		while (!index.isReady() && System.currentTimeMillis() < timeout) {
+			Thread.sleep(50);
+		}
+		assertTrue("The index was not built", index.isReady());
+		project = FileUtil.createProject("ResourceNameIndexTest");
+	}
+
+	protected void doTearDown() throws Exception {
+		FileUtil.deleteProject(project);
+		super.doTearDown();
+	}
+
+	private Set find(String prefix) {
+		IResource[] found = index.find(prefix, ALL, new NullProgressMonitor());
+		assertNotNull(found);
+		Set result = new HashSet();
+		for (int i = 0; i < found.length; i++) {
+			// the index only narrows a search, it may return other resources
+			if (project.equals(found[i].getProject())
+					|| project.equals(found[i])) {
+				result.add(found[i]);
+			}
+		}
+		return result;
+	}
+
+	public void testProjectIndexed() throws Exception {
+		assertEquals(new HashSet(Arrays.asList(new Object[] { project })),
+				find("ResourceNameIndexTest"));
+	}
+
+	public void testAddFiles() throws Exception {
+		IFile first = FileUtil.createFile("alpha.txt", project);
+		IFile second = FileUtil.createFile("Alphabet.java", project);
+		IFile other = FileUtil.createFile("beta.txt", project);
+
+		Set found = find("alpha");
+		assertEquals(2, found.size());
+		assertTrue(found.contains(first));
+		assertTrue(found.contains(second));
+		assertEquals(new HashSet(Arrays.asList(new Object[] { other })),
+				find("BET"));
+		assertTrue(find("gamma").isEmpty());
+	}
+
+	public void testRemoveFile() throws Exception {
+		IFile file = FileUtil.createFile("removed.txt", project);
+		assertTrue(find("removed").contains(file));
+		file.delete(true, null);
+		assertTrue(find("removed").isEmpty());
+
+		// adding it again is found once
+		FileUtil.createFile("removed.txt", project);
+		assertEquals(1, find("removed").size());
+	}
+
+	public void testRemoveFolder() throws Exception {
+		IFolder folder = project.getFolder("folder");
+		folder.create(true, true, null);
+		IFile file = folder.getFile("member.txt");
+		file.create(null, true, null);
+		assertTrue(find("member").contains(file));
+
+		folder.delete(true, null);
+		assertTrue(find("folder").isEmpty());
+		assertTrue(find("member").isEmpty());
+	}
+
+	public void testReopenProject() throws Exception {
+		IFile file = FileUtil.createFile("reopened.txt", project);
+		project.close(null);
+		project.open(null);
+		assertEquals(new HashSet(Arrays.asList(new Object[] { file })),
+				find("reopened"));
+	}
+
+	public void testAddManyInOneChange() throws Exception {
+		final IFolder folder = project.getFolder("many");
+		ResourcesPlugin.getWorkspace().run(new IWorkspaceRunnable() {
+			public void run(IProgressMonitor monitor) throws CoreException {
+				folder.create(true, true, null);
+				for (int i = 0; i < MANY; i++) {
+					folder.getFile("many" + i + ".txt").create(null, true,
+							null);
+				}
+			}
+		}, null);
+
+		// the folder and its members
+		assertEquals(MANY + 1, find("many").size());
+		assertEquals(countPrefix("many1", MANY), find("many1").size());
+		assertEquals(new HashSet(Arrays.asList(new Object[] { folder
+				.getFile("many4999.txt") })), find("many4999"));
+	}
+
+	public void testShutdown() throws Exception {
+		ResourceNameIndex.shutdown();
+		// the stopped index no longer follows the workspace
+		FileUtil.createFile("shutdown.txt", project);
+		assertTrue(find("shutdown").isEmpty());
+
+		ResourceNameIndex restarted = ResourceNameIndex.getDefault();
+		assertNotSame(index, restarted);
+		index = restarted;
+		long timeout = System.currentTimeMillis() + 60000;
+		while (!index.isReady() && System.currentTimeMillis() < timeout) {
+			Thread.sleep(50);
+		}
+		assertEquals(1, find("shutdown").size());
+	}
+
+	private static int countPrefix(String prefix, int count) {
+		int result = 0;
+		for (int i = 0; i < count; i++) {
+			if (("many" + i).startsWith(prefix)) {
+				result++;
+			}
+		}
+		return result;
+	}
+}
@@ -22,7 +22,9 @@ import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Tree;
 import org.eclipse.swt.widgets.TreeColumn;
 import org.eclipse.ui.internal.views.markers.ExtendedMarkersView;
+import org.eclipse.ui.views.markers.MarkerItem;
 import org.eclipse.ui.views.markers.MarkerSupportView;
+import org.eclipse.ui.views.markers.internal.MarkerGroup;
 import org.eclipse.ui.views.markers.internal.MarkerSupportRegistry;
 
 /**
@@ -72,6 +74,73 @@ public class MarkersTestMarkersView extends MarkerSupportView {
 		return new IMarker[0];
 	}
 
+	/**
+	 * Get the top level items of the receiver, the categories if the markers
+	 * are grouped.
+	 * 
+	 * @return MarkerItem[]
+	 */
+	public MarkerItem[] getCurrentElements() {
+		Object markers = invoke(this, ExtendedMarkersView.class,
+				"getActiveViewerInputClone", new Class[0], new Object[0]);
+		return toItems((Object[]) invoke(markers, markers.getClass(),
+				"getElements", new Class[0], new Object[0]));
+	}
+
+	/**
+	 * Get the children of the item.
+	 * 
+	 * @param item
+	 * @return MarkerItem[]
+	 */
+	public MarkerItem[] getChildren(MarkerItem item) {
+		return toItems((Object[]) invoke(item, item.getClass(),
+				"getChildren", new Class[0], new Object[0]));
+	}
+
+	private static MarkerItem[] toItems(Object[] elements) {
+		MarkerItem[] items = new MarkerItem[elements.length];
+		System.arraycopy(elements, 0, items, 0, elements.length);
+		return items;
+	}
+
+	/**
+	 * Group the markers by the group with the id.
+	 * 
+	 * @param groupId
+	 *            the id of the group, or <code>null</code> to show the
+	 *            markers flat
+	 */
+	public void setCategoryGroup(String groupId) {
+		MarkerGroup group = null;
+		if (groupId != null) {
+			Object builder = invoke(this, ExtendedMarkersView.class,
+					"getBuilder", new Class[0], new Object[0]);
+			Object generator = invoke(builder, builder.getClass(),
+					"getGenerator", new Class[0], new Object[0]);
+			group = (MarkerGroup) invoke(generator, generator.getClass(),
+					"getMarkerGroup", new Class[] { String.class },
+					new Object[] { groupId });
+		}
+		invoke(this, ExtendedMarkersView.class, "setCategoryGroup",
+				new Class[] { MarkerGroup.class }, new Object[] { group });
+	}
+
+	private static Object invoke(Object target, Class type, String name,
+			Class[] parameterTypes, Object[] arguments) {
+		try {
+			Method method = type.getDeclaredMethod(name, parameterTypes);
+			method.setAccessible(true);
+			return method.invoke(target, arguments);
+		} catch (NoSuchMethodException e) {
+			throw new RuntimeException(e);
+		} catch (IllegalAccessException e) {
+			throw new RuntimeException(e);
+		} catch (InvocationTargetException e) {
+			throw new RuntimeException(e.getTargetException());
+		}
+	}
+
 	/**
 	 * Add a listener for the end of the update.
 	 * 
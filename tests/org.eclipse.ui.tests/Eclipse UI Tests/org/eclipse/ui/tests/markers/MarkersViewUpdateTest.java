@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.tests.markers;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.ui.IWorkbenchPage;
+import org.eclipse.ui.PlatformUI;
+import org.eclipse.ui.tests.navigator.AbstractNavigatorTest;
+import org.eclipse.ui.views.markers.MarkerItem;
+
+/**
+ * Tests the incremental updates of the markers view when markers are added,
+ * changed and removed, with the markers shown flat and grouped.
+ */
+public class MarkersViewUpdateTest extends AbstractNavigatorTest {
+
+	private static final String SEVERITY_GROUP = "org.eclipse.ui.ide.severity";
+
+	private static final long TIMEOUT = 30000;
+
+	private MarkersTestMarkersView view;
+
+	/**
+	 * Create an instance of the receiver.
+	 *
+	 * @param testName
+	 */
+	public MarkersViewUpdateTest(String testName) {
+		super(testName);
+	}
+
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+		createTestFile();
+		view = (MarkersTestMarkersView) getPage().showView(
+				"org.eclipse.ui.tests.markerTests");
+	}
+
+	protected void doTearDown() throws Exception {
+		getPage().hideView(view);
+		view = null;
+		super.doTearDown();
+	}
+
+	private IWorkbenchPage getPage() {
+		return PlatformUI.getWorkbench().getActiveWorkbenchWindow()
+				.getActivePage();
+	}
+
+	public void testFlatDeltas() throws CoreException {
+		view.setCategoryGroup(null);
+
+		final IMarker error = createProblem(IMarker.SEVERITY_ERROR);
+		waitUntil(new Condition() {
+			public boolean compute() {
+				return count(view.getCurrentElements(), error) == 1;
+			}
+		});
+		final IMarker warning = createProblem(IMarker.SEVERITY_WARNING);
+		waitUntil(new Condition() {
+			public boolean compute() {
+				MarkerItem[] items = view.getCurrentElements();
+				return count(items, error) == 1 && count(items, warning) == 1;
+			}
+		});
+
+		error.setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_WARNING);
+		waitUntil(new Condition() {
+			public boolean compute() {
+				MarkerItem[] items = view.getCurrentElements();
+				MarkerItem item = find(items, error);
+				return count(items, error) == 1
+						&& item != null
+						&& item.getAttributeValue(IMarker.SEVERITY, -1) == IMarker.SEVERITY_WARNING;
+			}
+		});
+
+		error.delete();
+		waitUntil(new Condition() {
+			public boolean compute() {
+				MarkerItem[] items = view.getCurrentElements();
+				return count(items, error) == 0 && count(items, warning) == 1;
+			}
+		});
+	}
+
+	public void testGroupedDeltas() throws CoreException {
+		view.setCategoryGroup(SEVERITY_GROUP);
+
+		final IMarker error = createProblem(IMarker.SEVERITY_ERROR);
+		final IMarker warning = createProblem(IMarker.SEVERITY_WARNING);
+		waitUntil(new Condition() {
+			public boolean compute() {
+				MarkerItem[] categories = view.getCurrentElements();
+				MarkerItem errors = findCategory(categories, error);
+				MarkerItem warnings = findCategory(categories, warning);
+				return errors != null && warnings != null
+						&& errors != warnings
+						&& count(categories, error) == 1
+						&& count(categories, warning) == 1;
+			}
+		});
+
+		// The changed marker moves to the category of the warnings
+		error.setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_WARNING);
+		waitUntil(new Condition() {
+			public boolean compute() {
+				MarkerItem[] categories = view.getCurrentElements();
+				MarkerItem warnings = findCategory(categories, warning);
+				return warnings != null
+						&& findCategory(categories, error) == warnings
+						&& count(categories, error) == 1;
+			}
+		});
+
+		error.delete();
+		waitUntil(new Condition() {
+			public boolean compute() {
+				MarkerItem[] categories = view.getCurrentElements();
+				return count(categories, error) == 0
+						&& findCategory(categories, warning) != null;
+			}
+		});
+	}
+
+	private IMarker createProblem(int severity) throws CoreException {
+		IMarker marker = testFile.createMarker(IMarker.PROBLEM);
+		marker.setAttribute(IMarker.SEVERITY, severity);
+		marker.setAttribute(IMarker.MESSAGE, getName());
+		return marker;
+	}
+
+	private void waitUntil(Condition condition) {
+		assertTrue("The view was not updated", processEventsUntil(condition,
+				TIMEOUT));
+	}
+
+	/**
+	 * Return the number of items of the marker among the items and their
+	 * children.
+	 */
+	private int count(MarkerItem[] items, IMarker marker) {
+		int count = 0;
+		for (int i = 0; i < items.length; i++) {
+			if (marker.equals(items[i].getMarker())) {
+				count++;
+			}
+			count += count(view.getChildren(items[i]), marker);
+		}
+		return count;
+	}
+
+	/**
+	 * Return the item of the marker among the items, or <code>null</code>.
+	 */
+	private MarkerItem find(MarkerItem[] items, IMarker marker) {
+		for (int i = 0; i < items.length; i++) {
+			if (marker.equals(items[i].getMarker())) {
+				return items[i];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Return the category holding the marker, or <code>null</code>.
+	 */
+	private MarkerItem findCategory(MarkerItem[] categories, IMarker marker) {
+		for (int i = 0; i < categories.length; i++) {
+			if (find(view.getChildren(categories[i]), marker) != null) {
+				return categories[i];
+			}
+		}
+		return null;
+	}
+}
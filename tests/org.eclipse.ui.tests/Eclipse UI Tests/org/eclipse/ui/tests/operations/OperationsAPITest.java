@@ -516,6 +516,77 @@ public class OperationsAPITest extends TestCase {
 		assertTrue("should not notify about changes if not in the history", changed == 2);
 	}
 	
+	public void testMultipleContextHistoryOrder() {
+		IUndoableOperation[] ops = history.getUndoHistory(IOperationHistory.GLOBAL_UNDO_CONTEXT);
+		assertEquals(6, ops.length);
+		assertSame(op1, ops[0]);
+		assertSame(op2, ops[1]);
+		assertSame(op3, ops[2]);
+		assertSame(op4, ops[3]);
+		assertSame(op5, ops[4]);
+		assertSame(op6, ops[5]);
+		ops = history.getUndoHistory(contextC);
+		assertEquals(3, ops.length);
+		assertSame(op2, ops[0]);
+		assertSame(op3, ops[1]);
+		assertSame(op6, ops[2]);
+		
+		// a context matching several contexts gets their operations once
+		ObjectUndoContext contextAC = new ObjectUndoContext("AC");
+		contextAC.addMatch(contextA);
+		contextAC.addMatch(contextC);
+		ops = history.getUndoHistory(contextAC);
+		assertEquals(5, ops.length);
+		assertSame(op1, ops[0]);
+		assertSame(op2, ops[1]);
+		assertSame(op3, ops[2]);
+		assertSame(op4, ops[3]);
+		assertSame(op6, ops[4]);
+		assertSame(op6, history.getUndoOperation(contextAC));
+	}
+	
+	public void testOperationChangedContexts() {
+		ObjectUndoContext contextD = new ObjectUndoContext("D");
+		assertNull(history.getUndoOperation(contextD));
+		op3.addContext(contextD);
+		history.operationChanged(op3);
+		assertSame(op3, history.getUndoOperation(contextD));
+		op3.removeContext(contextC);
+		history.operationChanged(op3);
+		IUndoableOperation[] ops = history.getUndoHistory(contextC);
+		assertEquals(2, ops.length);
+		assertSame(op2, ops[0]);
+		assertSame(op6, ops[1]);
+	}
+	
+	public void testDirectContextChanges() {
+		ObjectUndoContext contextD = new ObjectUndoContext("D");
+		op3.addContext(contextD);
+		assertSame(op3, history.getUndoOperation(contextD));
+		op3.addContext(contextA);
+		IUndoableOperation[] ops = history.getUndoHistory(contextA);
+		assertEquals(4, ops.length);
+		assertSame(op1, ops[0]);
+		assertSame(op3, ops[1]);
+		assertSame(op4, ops[2]);
+		assertSame(op6, ops[3]);
+		op6.removeContext(contextA);
+		assertSame(op4, history.getUndoOperation(contextA));
+		
+		// the contexts of a composite change when its context is replaced
+		ObjectUndoContext contextE = new ObjectUndoContext("E");
+		TriggeredOperations batch = new TriggeredOperations(op5, history);
+		history.replaceOperation(op5, new IUndoableOperation[] { batch });
+		batch.replaceContext(contextB, contextE);
+		assertSame(batch, history.getUndoOperation(contextE));
+		assertSame(op2, history.getUndoOperation(contextB));
+		
+		// removed operations are no longer found
+		history.replaceOperation(op3, new IUndoableOperation[0]);
+		op3.addContext(contextE);
+		assertSame(batch, history.getUndoOperation(contextE));
+	}
+	
 	// the setup for the infamous (local conflict on top of composite and composite gets pruned) case
 	private void setup87675() throws ExecutionException {
 		// clear everything out.  special setup for this test case